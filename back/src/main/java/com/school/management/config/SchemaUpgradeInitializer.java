@@ -0,0 +1,39 @@
+package com.school.management.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Applique au démarrage les évolutions de schéma des bases existantes (nouvelles tables,
+ * colonnes, contraintes et index), que ddl-auto=validate ne crée pas en production.
+ *
+ * Le script est exécuté par un DataSourceScriptDatabaseInitializer, dont Spring Boot fait
+ * dépendre l'EntityManagerFactory : Hibernate valide donc un schéma déjà à jour. Il est
+ * envoyé en une seule fois (le driver PostgreSQL gère les blocs DO $$ ... $$) et, contrairement
+ * à SearchIndexInitializer, un échec empêche le démarrage.
+ *
+ * Propriété : app.schema-upgrade.enabled (true par défaut).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.schema-upgrade.enabled", havingValue = "true", matchIfMissing = true)
+public class SchemaUpgradeInitializer {
+
+    static final String SCRIPT = "classpath:db/schema-upgrade.sql";
+
+    @Bean
+    public DataSourceScriptDatabaseInitializer schemaUpgradeDatabaseInitializer(DataSource dataSource) {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(List.of(SCRIPT));
+        settings.setMode(DatabaseInitializationMode.ALWAYS);
+        settings.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+        return new DataSourceScriptDatabaseInitializer(dataSource, settings);
+    }
+}
@@ -0,0 +1,25 @@
+package com.school.management.config;
+
+import com.school.management.service.util.CommonSpecifications;
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Déclare à Hibernate la fonction SQL immutable_unaccent (db/search-functions.sql)
+ * avec son type de retour, pour l'appeler en JPQL et en Criteria comme une fonction
+ * de texte : immutable_unaccent(lower(s.title)) LIKE ...
+ *
+ * Enregistré via META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(
+                CommonSpecifications.UNACCENT_FUNCTION,
+                CommonSpecifications.UNACCENT_FUNCTION + "(?1)",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.STRING));
+    }
+}
@@ -0,0 +1,87 @@
+package com.school.management.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Crée au démarrage les fonctions et index de recherche que Hibernate ne sait pas
+ * générer (extensions unaccent et pg_trgm, index sur expression, index GIN), y compris
+ * lorsque le schéma n'est que validé.
+ *
+ * Les instructions sont idempotentes ; un échec (droits insuffisants) est journalisé
+ * sans empêcher le démarrage : les recherches restent correctes, seulement plus lentes.
+ * Si l'extension unaccent ne peut pas être installée, immutable_unaccent est créée
+ * comme fonction identité : les requêtes qui l'appellent fonctionnent, sans ignorer
+ * les accents.
+ *
+ * Propriété : app.search-indexes.enabled (true par défaut) ; à false, seuls les index
+ * sont ignorés, la fonction immutable_unaccent étant requise par les requêtes.
+ */
+@Component
+public class SearchIndexInitializer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexInitializer.class);
+
+    static final String FUNCTIONS_SCRIPT = "db/search-functions.sql";
+    static final String SCRIPT = "db/search-indexes.sql";
+
+    private static final String FALLBACK_UNACCENT =
+            "CREATE OR REPLACE FUNCTION immutable_unaccent(text) RETURNS text " +
+            "LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT AS $$ SELECT $1 $$";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search-indexes.enabled:true}")
+    private boolean indexesEnabled;
+
+    public SearchIndexInitializer(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchIndexes() {
+        run(FUNCTIONS_SCRIPT);
+        ensureUnaccentFunction();
+        if (indexesEnabled) {
+            run(SCRIPT);
+        }
+    }
+
+    private void run(String script) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(script));
+        populator.setContinueOnError(true);
+        try {
+            populator.execute(dataSource);
+            LOGGER.info("Search schema checked ({})", script);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Search schema script {} failed: {}", script, e.getMessage());
+        }
+    }
+
+    /**
+     * Garantit l'existence de immutable_unaccent, appelée par les requêtes de recherche.
+     */
+    private void ensureUnaccentFunction() {
+        try {
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT to_regprocedure('immutable_unaccent(text)') IS NOT NULL", Boolean.class);
+            if (!Boolean.TRUE.equals(exists)) {
+                jdbcTemplate.execute(FALLBACK_UNACCENT);
+                LOGGER.warn("unaccent extension unavailable: name searches will be accent-sensitive");
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("immutable_unaccent could not be created: {}", e.getMessage());
+        }
+    }
+}
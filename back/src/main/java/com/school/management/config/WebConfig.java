@@ -1,12 +1,17 @@
 package com.school.management.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebMvc
@@ -15,6 +20,53 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${app.upload.dir}")
     private String uploadDir;
 
+    /**
+     * Délai maximal des réponses asynchrones (StreamingResponseBody des exports et des
+     * listes en flux). @EnableWebMvc désactive l'auto-configuration MVC de Spring Boot :
+     * spring.mvc.async.request-timeout n'est donc lu qu'ici.
+     */
+    @Value("${spring.mvc.async.request-timeout:10m}")
+    private Duration asyncRequestTimeout;
+
+    @Value("${app.streaming.executor.core-size:4}")
+    private int streamingCoreSize;
+
+    @Value("${app.streaming.executor.max-size:16}")
+    private int streamingMaxSize;
+
+    @Value("${app.streaming.executor.queue-capacity:0}")
+    private int streamingQueueCapacity;
+
+    /**
+     * Pool dédié aux réponses asynchrones, borné en threads et en file d'attente.
+     *
+     * Une fois max-size réponses en cours et la file pleine, une nouvelle réponse est refusée
+     * (TaskRejectedException, renvoyée en 503 par GlobalExceptionHandler) au lieu d'attendre
+     * son tour : en attente, elle garderait sa connexion sans rien écrire. Ce pool remplace
+     * aussi l'applicationTaskExecutor de Spring Boot, dont la file n'est pas bornée et que
+     * rien d'autre n'utilise.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor streamingTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamingCoreSize);
+        executor.setMaxPoolSize(streamingMaxSize);
+        executor.setQueueCapacity(streamingQueueCapacity);
+        executor.setThreadNamePrefix("streaming-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Applique le délai configuré et exécute les réponses asynchrones sur le pool dédié
+     * plutôt que sur un thread créé par requête.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncRequestTimeout.toMillis());
+        configurer.setTaskExecutor(streamingTaskExecutor());
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Convertir le chemin en chemin absolu et s'assurer qu'il se termine par /
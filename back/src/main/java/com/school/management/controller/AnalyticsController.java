@@ -0,0 +1,62 @@
+package com.school.management.controller;
+
+import com.school.management.dto.payment.RevenueReportDTO;
+import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.payment.RevenueAnalyticsService;
+import com.school.management.service.payment.RevenueAnalyticsService.RevenueDimension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Controller REST des indicateurs de gestion.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalyticsController.class);
+
+    private final RevenueAnalyticsService revenueAnalyticsService;
+
+    @Autowired
+    public AnalyticsController(RevenueAnalyticsService revenueAnalyticsService) {
+        this.revenueAnalyticsService = revenueAnalyticsService;
+    }
+
+    /**
+     * Chiffre d'affaires mensuel, éventuellement ventilé.
+     *
+     * @param from premier mois inclus (yyyy-MM), par défaut 11 mois avant le mois courant
+     * @param to dernier mois inclus (yyyy-MM), par défaut le mois courant
+     * @param dimension total (par défaut), group, teacher, subject ou level
+     * @return les totaux par mois et par valeur de dimension
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<RevenueReportDTO> getRevenue(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "total") String dimension) {
+
+        YearMonth toMonth = to != null ? parseMonth(to) : YearMonth.now();
+        YearMonth fromMonth = from != null ? parseMonth(from) : toMonth.minusMonths(11);
+        RevenueDimension revenueDimension = RevenueDimension.fromParameter(dimension);
+
+        LOGGER.info("Fetching revenue by {} from {} to {}", revenueDimension, fromMonth, toMonth);
+        return ResponseEntity.ok(revenueAnalyticsService.getMonthlyRevenue(revenueDimension, fromMonth, toMonth));
+    }
+
+    private YearMonth parseMonth(String value) {
+        try {
+            return YearMonth.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new CustomServiceException("Mois invalide : " + value + " (format attendu : yyyy-MM)", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.school.management.mapper.AttendanceMapper;
 import com.school.management.persistance.AttendanceEntity;
 import com.school.management.service.AttendanceService;
 import com.school.management.service.PatchService;
+import com.school.management.shared.mapper.MappingContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -79,8 +80,10 @@ public class AttendanceController {
     @PostMapping("/bulk")
     public ResponseEntity<List<AttendanceDTO>> submitAttendance(@RequestBody List<AttendanceDTO> attendanceDTOs) {
         // PHASE 1 REFACTORING: Utilise MappingContext au lieu de ApplicationContextProvider
+        // Un seul contexte pour tout le lot : une vérification d'existence par type d'entité
+        MappingContext mappingContext = attendanceService.getMappingContext(attendanceDTOs);
         List<AttendanceEntity> attendanceEntities = attendanceDTOs.stream()
-                .map(dto -> attendanceMapper.attendanceDTOToAttendance(dto, attendanceService.getMappingContext()))
+                .map(dto -> attendanceMapper.attendanceDTOToAttendance(dto, mappingContext))
                 .toList();
 
         List<AttendanceEntity> savedAttendances = attendanceService.saveAll(attendanceEntities);
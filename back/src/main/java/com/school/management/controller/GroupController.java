@@ -1,5 +1,6 @@
 package com.school.management.controller;
 
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.dto.GroupDTO;
 import com.school.management.dto.SessionSeriesDto;
 import com.school.management.dto.StudentDTO;
@@ -101,6 +102,13 @@ public class GroupController {
         return ResponseEntity.ok(true);
     }
 
+    //reactivate a group
+    @PutMapping("enable/{id}")
+    public ResponseEntity<Boolean> reactivateGroup(@PathVariable Long id) {
+        groupService.reactivateGroup(id);
+        return ResponseEntity.ok(true);
+    }
+
     @GetMapping("/teacher/{id}")
     public ResponseEntity<List<GroupDTO>> getAllGroupsByTeacherId(@PathVariable Long id) {
         List<GroupDTO> groupDtos = convertToGroupDTOList(groupService.findByTeacherId(id));
@@ -157,6 +165,15 @@ public class GroupController {
         return ResponseEntity.ok(groupDtos);
     }
 
+    /**
+     * Suggestions de groupes pour l'autocomplétion, servies depuis l'index en mémoire.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteEntryDTO>> autocompleteGroups(@RequestParam(required = false) String q,
+                                                                         @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(groupService.autocompleteGroups(q, limit));
+    }
+
     @GetMapping("/searchByNames")
     @Transactional(readOnly = true)
     public ResponseEntity<List<GroupDTO>> getGroupsByName(@RequestParam(required = false) String search) {
@@ -2,6 +2,7 @@ package com.school.management.controller;
 
 import com.school.management.persistance.GroupTypeEntity;
 import com.school.management.repository.GroupTypeRepository;
+import com.school.management.service.util.IdListParser;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -67,13 +68,14 @@ public class GroupTypeController {
 */
     @DeleteMapping("disable/{id_list}")
     public ResponseEntity<Boolean> disableGroupType(@PathVariable String id_list) {
-        System.out.println("Request recieved: " + id_list);
-        for (String id : id_list.split(",")) {
-            groupTypeRepository.findById(Long.parseLong(id)).ifPresent(groupType -> {
-                groupType.setActive(false);
-                groupTypeRepository.save(groupType);
-            });
-        }
+        groupTypeRepository.deactivateAllById(IdListParser.parse(id_list));
+        return ResponseEntity.ok(true);
+    }
+
+    // Reactivate group types
+    @PutMapping("enable/{id_list}")
+    public ResponseEntity<Boolean> enableGroupType(@PathVariable String id_list) {
+        groupTypeRepository.reactivateAllById(IdListParser.parse(id_list));
         return ResponseEntity.ok(true);
     }
 }
@@ -5,6 +5,7 @@ import com.school.management.mapper.LeveLMapper;
 import com.school.management.persistance.LevelEntity;
 import com.school.management.service.LevelService;
 import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.util.IdListParser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -54,11 +55,14 @@ public class LevelController {
     //descactivate levels
     @DeleteMapping("disable/{id_list}")
     public ResponseEntity<Boolean> disableLevels(@PathVariable String id_list) {
-        System.out.println("Request recieved: " + id_list);
-        for (String id : id_list.split(",")) {
-            System.out.println("id: " + id);
-            levelService.disableLevels(Long.parseLong(id));
-        }
+        levelService.disableLevels(IdListParser.parse(id_list));
+        return ResponseEntity.ok(true);
+    }
+
+    //reactivate levels
+    @PutMapping("enable/{id_list}")
+    public ResponseEntity<Boolean> enableLevels(@PathVariable String id_list) {
+        levelService.enableLevels(IdListParser.parse(id_list));
         return ResponseEntity.ok(true);
     }
 }
@@ -3,6 +3,11 @@ package com.school.management.controller;
 import com.school.management.api.response.common.PageResponse;
 import com.school.management.dto.PaymentDTO;
 import com.school.management.dto.PaymentDetailDTO;
+import com.school.management.dto.payment.BalanceRebuildReportDTO;
+import com.school.management.dto.payment.BatchPaymentResultDTO;
+import com.school.management.dto.payment.OverduePaymentDTO;
+import com.school.management.dto.payment.PaymentScanRunDTO;
+import com.school.management.dto.payment.StudentSeriesBalanceDTO;
 import com.school.management.dto.session.SessionDTO;
 import com.school.management.mapper.PaymentMapper;
 import com.school.management.mapper.SessionMapper;
@@ -11,21 +16,31 @@ import com.school.management.service.GroupPaymentStatus;
 import com.school.management.service.PatchService;
 import com.school.management.service.StudentPaymentStatus;
 import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.payment.BalanceLedgerService;
+import com.school.management.service.payment.OverduePaymentScanService;
+import com.school.management.service.payment.PaymentBatchService;
 import com.school.management.service.payment.PaymentCrudService;
+import com.school.management.service.payment.PaymentExportService;
+import com.school.management.service.payment.PaymentExportService.ExportFormat;
 import com.school.management.service.payment.PaymentProcessingService;
 import com.school.management.service.payment.PaymentStatusService;
+import com.school.management.service.util.ConcurrencyRetryExecutor;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +57,9 @@ import java.util.Map;
  * - PaymentCrudService: opérations CRUD de base
  * - PaymentProcessingService: traitement des paiements
  * - PaymentStatusService: calculs de statuts et statistiques
+ * - PaymentBatchService: saisie en masse des paiements
+ * - BalanceLedgerService: registre des soldes par étudiant et série
+ * - PaymentExportService: export en flux des paiements
  *
  * @author Claude Code
  * @since Phase 2 Refactoring
@@ -56,7 +74,12 @@ public class PaymentController {
     private final PaymentCrudService paymentCrudService;
     private final PaymentProcessingService paymentProcessingService;
     private final PaymentStatusService paymentStatusService;
+    private final PaymentBatchService paymentBatchService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final OverduePaymentScanService overduePaymentScanService;
+    private final PaymentExportService paymentExportService;
 
+    private final ConcurrencyRetryExecutor retryExecutor;
     private final PatchService patchService;
     private final SessionMapper sessionMapper;
     private final PaymentMapper paymentMapper;
@@ -66,12 +89,22 @@ public class PaymentController {
             PaymentCrudService paymentCrudService,
             PaymentProcessingService paymentProcessingService,
             PaymentStatusService paymentStatusService,
+            PaymentBatchService paymentBatchService,
+            BalanceLedgerService balanceLedgerService,
+            OverduePaymentScanService overduePaymentScanService,
+            PaymentExportService paymentExportService,
+            ConcurrencyRetryExecutor retryExecutor,
             PatchService patchService,
             SessionMapper sessionMapper,
             PaymentMapper paymentMapper) {
         this.paymentCrudService = paymentCrudService;
         this.paymentProcessingService = paymentProcessingService;
         this.paymentStatusService = paymentStatusService;
+        this.paymentBatchService = paymentBatchService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.overduePaymentScanService = overduePaymentScanService;
+        this.paymentExportService = paymentExportService;
+        this.retryExecutor = retryExecutor;
         this.patchService = patchService;
         this.sessionMapper = sessionMapper;
         this.paymentMapper = paymentMapper;
@@ -130,10 +163,39 @@ public class PaymentController {
 
         LOGGER.info("Fetching all payments - page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
 
-        Page<PaymentEntity> payments = paymentCrudService.getAllPaymentsPaginated(pageable);
-        Page<PaymentDTO> paymentDTOs = payments.map(paymentMapper::toDto);
+        return ResponseEntity.ok(PageResponse.of(paymentCrudService.getPaymentDtoPage(pageable)));
+    }
 
-        return ResponseEntity.ok(PageResponse.of(paymentDTOs));
+    /**
+     * Exporte les paiements d'une période en flux (CSV ou NDJSON).
+     *
+     * Les lignes sont écrites au fur et à mesure de la lecture du curseur : l'export
+     * d'une année complète ne charge pas la table en mémoire.
+     *
+     * @param from date de début incluse (optionnelle)
+     * @param to date de fin incluse (optionnelle)
+     * @param format csv (par défaut) ou ndjson
+     * @return le flux de l'export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        paymentExportService.validatePeriod(from, to);
+        LOGGER.info("Exporting payments from {} to {} as {}", from, to, exportFormat);
+
+        StreamingResponseBody body = out -> paymentExportService.export(from, to, exportFormat, out);
+        ContentDisposition disposition = ContentDisposition.attachment()
+            .filename("payments-export." + exportFormat.getExtension())
+            .build();
+
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+            .body(body);
     }
 
     /**
@@ -153,10 +215,8 @@ public class PaymentController {
         LOGGER.info("Fetching payments for student: {} - page: {}, size: {}",
             studentId, pageable.getPageNumber(), pageable.getPageSize());
 
-        Page<PaymentEntity> payments = paymentCrudService.getAllPaymentsForStudentPaginated(studentId, pageable);
-        Page<PaymentDTO> paymentDTOs = payments.map(paymentMapper::toDto);
-
-        return ResponseEntity.ok(PageResponse.of(paymentDTOs));
+        return ResponseEntity.ok(PageResponse.of(
+            paymentCrudService.getPaymentDtoPageForStudent(studentId, pageable)));
     }
 
     /**
@@ -190,17 +250,121 @@ public class PaymentController {
             paymentDto.getSessionSeriesId(), paymentDto.getAmountPaid());
 
         // PHASE 2: Utilise PaymentProcessingService
-        PaymentEntity processedPayment = paymentProcessingService.processPayment(
-            paymentDto.getStudentId(),
-            paymentDto.getGroupId(),
-            paymentDto.getSessionSeriesId(),
-            paymentDto.getAmountPaid()
-        );
+        // Rejoué sur conflit : deux caisses peuvent encaisser la même série en même temps
+        PaymentEntity processedPayment = retryExecutor.execute("processPayment", () ->
+            paymentProcessingService.processPayment(
+                paymentDto.getStudentId(),
+                paymentDto.getGroupId(),
+                paymentDto.getSessionSeriesId(),
+                paymentDto.getAmountPaid()
+            ));
 
         PaymentDTO responseDto = paymentMapper.toDto(processedPayment);
         return ResponseEntity.ok(responseDto);
     }
 
+    /**
+     * Traite un lot de paiements de séries en une seule transaction.
+     *
+     * Chaque élément est validé comme pour /process ; les éléments refusés n'empêchent pas
+     * l'enregistrement des autres et sont signalés dans le résultat.
+     *
+     * @param payments les paiements à traiter
+     * @return le résultat par élément
+     */
+    @PostMapping("/process/batch")
+    public ResponseEntity<BatchPaymentResultDTO> processPaymentBatch(@RequestBody List<PaymentDTO> payments) {
+        LOGGER.info("Processing payment batch - items: {}", payments != null ? payments.size() : 0);
+
+        BatchPaymentResultDTO result = retryExecutor.execute("processPaymentBatch", () ->
+            paymentBatchService.processBatch(payments));
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Récupère les soldes d'un étudiant, par série, depuis le registre des soldes.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @return les soldes par série
+     */
+    @GetMapping("/students/{studentId}/balances")
+    public ResponseEntity<List<StudentSeriesBalanceDTO>> getStudentBalances(@PathVariable Long studentId) {
+        LOGGER.info("Fetching balances for student: {}", studentId);
+        return ResponseEntity.ok(balanceLedgerService.getBalancesForStudent(studentId));
+    }
+
+    /**
+     * Récupère le solde d'un étudiant pour une série.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @param sessionSeriesId l'ID de la série
+     * @return le solde, 404 si l'étudiant n'a ni présence ni paiement sur la série
+     */
+    @GetMapping("/students/{studentId}/series/{sessionSeriesId}/balance")
+    public ResponseEntity<StudentSeriesBalanceDTO> getStudentSeriesBalance(
+            @PathVariable Long studentId,
+            @PathVariable Long sessionSeriesId) {
+        LOGGER.info("Fetching balance for student: {} and series: {}", studentId, sessionSeriesId);
+        return balanceLedgerService.getBalance(studentId, sessionSeriesId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Reconstruit le registre des soldes depuis les présences et paiements.
+     *
+     * @param chunkSize le nombre d'étudiants traités par transaction
+     * @return le rapport de dérive (lignes manquantes et lignes corrigées)
+     */
+    @PostMapping("/balances/rebuild")
+    public ResponseEntity<BalanceRebuildReportDTO> rebuildBalances(
+            @RequestParam(defaultValue = "500") int chunkSize) {
+        LOGGER.info("Rebuilding balance ledger - chunk size: {}", chunkSize);
+
+        if (chunkSize < 1 || chunkSize > BalanceLedgerService.MAX_REBUILD_CHUNK) {
+            throw new CustomServiceException("chunkSize doit être compris entre 1 et "
+                + BalanceLedgerService.MAX_REBUILD_CHUNK + ".", HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(balanceLedgerService.rebuild(chunkSize));
+    }
+
+    /**
+     * Récupère l'instantané des retards de paiement calculé par le scan nocturne.
+     *
+     * @param groupId filtre optionnel sur le groupe
+     * @param pageable paramètres de pagination
+     * @return une page de retards, du plus élevé au plus faible
+     */
+    @GetMapping("/overdue")
+    public ResponseEntity<PageResponse<OverduePaymentDTO>> getOverduePayments(
+            @RequestParam(required = false) Long groupId,
+            @PageableDefault(size = 20) Pageable pageable) {
+        LOGGER.info("Fetching overdue payment snapshot - group: {}, page: {}", groupId, pageable.getPageNumber());
+        return ResponseEntity.ok(PageResponse.of(overduePaymentScanService.getOverduePayments(groupId, pageable)));
+    }
+
+    /**
+     * Lance immédiatement le scan des retards de paiement (ou reprend l'exécution interrompue).
+     *
+     * @return l'exécution avec sa durée et son débit
+     */
+    @PostMapping("/overdue/scan")
+    public ResponseEntity<PaymentScanRunDTO> runOverdueScan() {
+        LOGGER.info("Manual overdue payment scan requested");
+        return ResponseEntity.ok(overduePaymentScanService.runScan());
+    }
+
+    /**
+     * Récupère la dernière exécution du scan des retards.
+     *
+     * @return la dernière exécution, 404 si aucune
+     */
+    @GetMapping("/overdue/scan/last")
+    public ResponseEntity<PaymentScanRunDTO> getLastOverdueScan() {
+        PaymentScanRunDTO lastRun = overduePaymentScanService.getLastRun();
+        return lastRun != null ? ResponseEntity.ok(lastRun) : ResponseEntity.notFound().build();
+    }
+
     /**
      * Récupère le statut de paiement pour tous les étudiants d'un groupe.
      *
@@ -2,6 +2,7 @@ package com.school.management.controller;
 
 import com.school.management.persistance.PricingEntity;
 import com.school.management.service.PricingService;
+import com.school.management.service.util.IdListParser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -37,10 +38,14 @@ public class PricingController {
     //disable pricings
     @DeleteMapping("disable/{id_list}")
     public ResponseEntity<Boolean> disablePricings(@PathVariable String id_list) {
-        System.out.println("Request recieved: " + id_list);
-        for (String id : id_list.split(",")) {
-            pricingService.disablePricings(Long.parseLong(id));
-        }
+        pricingService.disablePricings(IdListParser.parse(id_list));
+        return ResponseEntity.ok(true);
+    }
+
+    //enable pricings
+    @PutMapping("enable/{id_list}")
+    public ResponseEntity<Boolean> enablePricings(@PathVariable String id_list) {
+        pricingService.enablePricings(IdListParser.parse(id_list));
         return ResponseEntity.ok(true);
     }
 
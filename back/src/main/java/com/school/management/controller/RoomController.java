@@ -2,6 +2,7 @@ package com.school.management.controller;
 
 import com.school.management.persistance.RoomEntity;
 import com.school.management.service.RoomService;
+import com.school.management.service.util.IdListParser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -50,10 +51,14 @@ public class RoomController {
     //disable rooms
     @DeleteMapping("disable/{id_list}")
     public ResponseEntity<Boolean> disableRooms(@PathVariable String id_list) {
-        System.out.println("Request recieved: " + id_list);
-        for (String id : id_list.split(",")) {
-            roomService.disableRooms(Long.parseLong(id));
-        }
+        roomService.disableRooms(IdListParser.parse(id_list));
+        return ResponseEntity.ok(true);
+    }
+
+    //enable rooms
+    @PutMapping("enable/{id_list}")
+    public ResponseEntity<Boolean> enableRooms(@PathVariable String id_list) {
+        roomService.enableRooms(IdListParser.parse(id_list));
         return ResponseEntity.ok(true);
     }
 }
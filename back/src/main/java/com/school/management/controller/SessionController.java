@@ -1,10 +1,19 @@
 package com.school.management.controller;
 
+import com.school.management.dto.CursorPageResponse;
+import com.school.management.dto.session.AttendanceSheetEntryDTO;
 import com.school.management.dto.session.SessionDTO;
 import com.school.management.dto.session.SessionSearchCriteriaDTO;
+import com.school.management.dto.session.SessionSummaryDTO;
+import com.school.management.dto.session.SlotCandidateDTO;
+import com.school.management.dto.session.SlotConflictDTO;
 import com.school.management.mapper.SessionMapper;
 import com.school.management.persistance.SessionEntity;
 import com.school.management.service.AttendanceService;
+import com.school.management.service.SessionCalendarService;
+import com.school.management.service.SessionCalendarService.CalendarFilter;
+import com.school.management.service.SessionListService;
+import com.school.management.service.SessionSearchService;
 import com.school.management.service.SessionService;
 import com.school.management.service.exception.CustomServiceException;
 import jakarta.validation.Valid;
@@ -12,9 +21,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,33 +41,64 @@ public class SessionController {
 
 
     private final SessionMapper sessionMapper;
+    private final AttendanceService attendanceService;
+    private final SessionCalendarService sessionCalendarService;
+    private final SessionSearchService sessionSearchService;
+    private final SessionListService sessionListService;
 
     @Autowired
-    public SessionController(SessionService sessionService, SessionMapper sessionMapper, AttendanceService attendanceService){
+    public SessionController(SessionService sessionService, SessionMapper sessionMapper, AttendanceService attendanceService,
+                             SessionCalendarService sessionCalendarService, SessionSearchService sessionSearchService,
+                             SessionListService sessionListService){
         this.sessionService = sessionService;
         this.sessionMapper = sessionMapper;
+        this.attendanceService = attendanceService;
+        this.sessionCalendarService = sessionCalendarService;
+        this.sessionSearchService = sessionSearchService;
+        this.sessionListService = sessionListService;
     }
 
+    /**
+     * Liste des sessions, triées par date de début.
+     *
+     * Sans paramètre, renvoie le tableau complet. Avec cursor ou size, renvoie une page
+     * par curseur, sur les seules sessions datées ; avec format=ndjson, renvoie un flux d'une session JSON par ligne.
+     */
     @GetMapping
-    public ResponseEntity<List<SessionDTO>> getAllSessions() {
+    public ResponseEntity<?> getAllSessions(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestParam(required = false) String format) {
         logger.info("Getting all sessions");
-        List<SessionEntity> sessions = sessionService.getAllSessions();
-        List<SessionDTO> sessionDTOs = sessions.stream()
-                .map(sessionMapper::sessionEntityToSessionDto)
-                .toList();
-        return ResponseEntity.ok(sessionDTOs);
+        return listSessions(cursor, size, format);
     }
 
+    /**
+     * Identique à GET /api/sessions, conservé pour les clients existants.
+     */
     @GetMapping("/detail")
-    public ResponseEntity<List<SessionDTO>> getAllSessionsWithDetail() {
+    public ResponseEntity<?> getAllSessionsWithDetail(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) String format) {
         logger.info("Getting all sessions");
-        List<SessionEntity> sessions = sessionService.getAllSessionsWithDetail();
-        List<SessionDTO> sessionDTOs = sessions.stream()
-                .map(sessionMapper::sessionEntityToSessionDto)
-                .toList();
-        return ResponseEntity.ok(sessionDTOs);
+        return listSessions(cursor, size, format);
     }
 
+    private ResponseEntity<?> listSessions(String cursor, Integer size, String format) {
+        if (format != null) {
+            if (!"ndjson".equalsIgnoreCase(format.trim())) {
+                throw new CustomServiceException("Format non supporté : " + format + " (valeur possible : ndjson)",
+                        HttpStatus.BAD_REQUEST);
+            }
+            StreamingResponseBody body = out -> sessionListService.streamAll(out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(body);
+        }
+        if (cursor != null || size != null) {
+            return ResponseEntity.ok(sessionListService.getPage(cursor, size));
+        }
+        return ResponseEntity.ok(sessionListService.getAll());
+    }
 
     @GetMapping("/{id}")
     public ResponseEntity<SessionDTO> getSessionById(@PathVariable Long id) {
@@ -84,6 +128,20 @@ public class SessionController {
         return ResponseEntity.ok(createdSessionDTO);
     }
 
+    /**
+     * Vérifie des créneaux candidats sans rien enregistrer ; une liste vide signifie
+     * qu'aucun n'est en conflit.
+     */
+    @PostMapping("/conflicts")
+    public ResponseEntity<List<SlotConflictDTO>> checkSlotConflicts(@RequestBody List<SlotCandidateDTO> candidates) {
+        return ResponseEntity.ok(sessionService.checkSlots(candidates));
+    }
+
+    @GetMapping("/{id}/attendance-sheet")
+    public ResponseEntity<List<AttendanceSheetEntryDTO>> getAttendanceSheet(@PathVariable Long id) {
+        return ResponseEntity.ok(attendanceService.getAttendanceSheet(id));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteSession(@PathVariable Long id) {
         sessionService.deleteSession(id);
@@ -103,6 +161,8 @@ public class SessionController {
             logger.info("Mapped SessionEntity to SessionDTO: {}", sessionDTO);
 
             return ResponseEntity.ok(sessionDTO);
+        } catch (CustomServiceException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error occurred while updating session with ID: {}. Error: {}", id, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -111,13 +171,17 @@ public class SessionController {
 
 
 
+    /**
+     * Recherche paginée par curseur. Les critères sont passés en paramètres de requête ;
+     * le curseur de la page suivante est renvoyé dans nextCursor.
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<SessionDTO>> searchSessions(@RequestBody SessionSearchCriteriaDTO criteria) {
-        List<SessionDTO> sessionDTOs = sessionService.findSessionsByCriteria(criteria)
-                .stream()
-                .map(sessionMapper::sessionEntityToSessionDto)
-                .toList();
-        return ResponseEntity.ok(sessionDTOs);
+    public ResponseEntity<CursorPageResponse<SessionSummaryDTO>> searchSessions(
+            @ModelAttribute SessionSearchCriteriaDTO criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(sessionSearchService.search(criteria, cursor, size, includeTotal));
     }
 
     @PatchMapping("/{sessionId}/finish")
@@ -151,6 +215,29 @@ public class SessionController {
         return sessionService.findByGroupIdAndSessionTimeStartBetween(groupId, start, end);
     }
 
+    /**
+     * Sessions d'une fenêtre [start, end[ pour la vue calendrier, filtrables par groupe,
+     * enseignant ou salle. Répond 304 si l'ETag envoyé par le client est toujours valide.
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<List<SessionSummaryDTO>> getCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) Long groupId,
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) Long roomId,
+            WebRequest webRequest) {
+        CalendarFilter filter = new CalendarFilter(start, end, groupId, teacherId, roomId);
+        String eTag = sessionCalendarService.computeETag(filter);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(sessionCalendarService.getSessions(filter));
+    }
+
     @GetMapping("/sessions")
     public ResponseEntity<List<SessionDTO>> getSessionsInDateRangeOLD(
             @RequestParam Long groupId,
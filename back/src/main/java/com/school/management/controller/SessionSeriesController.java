@@ -1,10 +1,14 @@
 package com.school.management.controller;
 
 import com.school.management.dto.SessionSeriesDto;
+import com.school.management.dto.serie.GeneratedSessionsDTO;
+import com.school.management.dto.serie.RecurrenceRuleDTO;
 import com.school.management.mapper.SessionSeriesMapper;
 import com.school.management.service.PatchService;
+import com.school.management.service.SessionRecurrenceService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -23,12 +27,15 @@ public class SessionSeriesController {
     private final SessionSeriesService sessionSeriesService;
     private final SessionSeriesMapper sessionSeriesMapper;
     private final PatchService patchService;
+    private final SessionRecurrenceService sessionRecurrenceService;
 
     @Autowired
-    public SessionSeriesController(SessionSeriesService sessionSeriesService, PatchService patchService,  SessionSeriesMapper sessionSeriesMapper) {
+    public SessionSeriesController(SessionSeriesService sessionSeriesService, PatchService patchService,  SessionSeriesMapper sessionSeriesMapper,
+                                   SessionRecurrenceService sessionRecurrenceService) {
         this.sessionSeriesService = sessionSeriesService;
         this.patchService = patchService;
         this.sessionSeriesMapper = sessionSeriesMapper;
+        this.sessionRecurrenceService = sessionRecurrenceService;
     }
 
     @GetMapping
@@ -62,6 +69,24 @@ public class SessionSeriesController {
     }
 
 
+    /**
+     * Génère les sessions d'une série à partir d'une règle de récurrence.
+     */
+    @PostMapping("/{id}/sessions/generate")
+    public ResponseEntity<GeneratedSessionsDTO> generateSessions(@PathVariable Long id,
+                                                                 @Valid @RequestBody RecurrenceRuleDTO rule) {
+        rule.setSessionSeriesId(id);
+        return ResponseEntity.status(HttpStatus.CREATED).body(sessionRecurrenceService.generate(List.of(rule)).get(0));
+    }
+
+    /**
+     * Génère les sessions de plusieurs séries (une règle par série) en une seule transaction.
+     */
+    @PostMapping("/sessions/generate")
+    public ResponseEntity<List<GeneratedSessionsDTO>> generateSessionsForSeries(@RequestBody List<RecurrenceRuleDTO> rules) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(sessionRecurrenceService.generate(rules));
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<SessionSeriesEntity> patchSessionSeries(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
         SessionSeriesEntity sessionSeries = sessionSeriesService.getSessionSeriesById(id);
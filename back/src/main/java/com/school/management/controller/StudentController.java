@@ -1,5 +1,6 @@
 package com.school.management.controller;
 
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.dto.GroupDTO;
 import com.school.management.dto.StudentDTO;
 import com.school.management.dto.student.StudentFullHistoryDTO;
@@ -10,6 +11,7 @@ import com.school.management.persistance.TutorEntity;
 import com.school.management.infrastructure.storage.FileManagementService;
 import com.school.management.service.exception.CustomServiceException;
 import com.school.management.service.student.StudentHistoryService;
+import com.school.management.service.student.StudentListService;
 import com.school.management.service.student.StudentService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -44,15 +46,18 @@ public class StudentController {
     private final StudentMapper studentMapper;
     private final GroupMapper groupMapper;
     private final StudentHistoryService studentHistoryService;
+    private final StudentListService studentListService;
     private final FileManagementService fileManagementService;
 
     @Autowired
     public StudentController(StudentService studentService, StudentMapper studentMapper, GroupMapper groupMapper,
-                           StudentHistoryService studentHistoryService, FileManagementService fileManagementService) {
+                           StudentHistoryService studentHistoryService, StudentListService studentListService,
+                           FileManagementService fileManagementService) {
         this.studentService = studentService;
         this.studentMapper = studentMapper;
         this.groupMapper = groupMapper;
         this.studentHistoryService = studentHistoryService;
+        this.studentListService = studentListService;
         this.fileManagementService = fileManagementService;
     }
 
@@ -91,7 +96,7 @@ public class StudentController {
     @PutMapping("/{id}")
     public ResponseEntity<StudentDTO> updateStudent(@PathVariable Long id, @Valid @RequestBody StudentDTO studentDto) {
         // Récupérer l'étudiant existant depuis la base de données
-        StudentEntity existingStudent = studentService.findById(id)
+        StudentEntity existingStudent = studentService.findByIdWithGroups(id)
                 .orElseThrow(() -> new CustomServiceException("Student not found with id: " + id));
 
         // Mettre à jour l'entité existante avec les valeurs du DTO
@@ -105,13 +110,24 @@ public class StudentController {
     }
 
 
-    @Transactional(readOnly = true)
+    /**
+     * Liste les étudiants actifs.
+     *
+     * Sans paramètre, renvoie le tableau complet. Avec page, size, fields ou un filtre,
+     * renvoie une PageResponse ; fields (ex. id,firstName,lastName,photo) réduit chaque
+     * élément aux champs demandés.
+     */
     @GetMapping
-    public ResponseEntity<List<StudentDTO>> getAllStudents() {
-        List<StudentDTO> students = studentService.findAllActiveStudents().stream()
-                .map(studentMapper::studentToStudentDTO)
-                .toList();
-        return ResponseEntity.ok(students);
+    public ResponseEntity<?> getAllStudents(@RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestParam(required = false) String fields,
+                                            @RequestParam(required = false) Long level,
+                                            @RequestParam(required = false) Long groupId,
+                                            @RequestParam(required = false) String establishment) {
+        if (page == null && size == null && fields == null && level == null && groupId == null && establishment == null) {
+            return ResponseEntity.ok(studentListService.getAllActive());
+        }
+        return ResponseEntity.ok(studentListService.getPage(page, size, fields, level, groupId, establishment));
     }
 
 
@@ -133,7 +149,7 @@ public class StudentController {
 
     @GetMapping("id/{id}")
     public ResponseEntity<StudentDTO> getStudentById(@PathVariable Long id) {
-        StudentEntity student = studentService.findById(id)
+        StudentEntity student = studentService.findByIdWithGroups(id)
                 .orElseThrow(() -> new CustomServiceException(STUDENT_NOT_FOUND_MESSAGE + id));
         StudentDTO studentDto = studentMapper.studentToStudentDTO(student);
 
@@ -176,6 +192,15 @@ public class StudentController {
         return ResponseEntity.ok(students);
     }
 
+    /**
+     * Suggestions d'étudiants pour l'autocomplétion, servies depuis l'index en mémoire.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteEntryDTO>> autocompleteStudents(@RequestParam(required = false) String q,
+                                                                           @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(studentService.autocompleteStudents(q, limit));
+    }
+
     @Transactional(readOnly = true)
     @GetMapping("/searchByNames")
     public ResponseEntity<List<StudentDTO>> getStudentsByFirstNameAndOrLastName(@RequestParam(required = false) String search) {
@@ -202,7 +227,7 @@ public class StudentController {
     // get groups for student
     @GetMapping("/{id}/groups")
     public ResponseEntity<Set<GroupDTO>> getGroupsForStudent(@PathVariable Long id) {
-        StudentEntity student = studentService.findById(id)
+        StudentEntity student = studentService.findByIdWithGroups(id)
                 .orElseThrow(() -> new CustomServiceException("Student not found with id " + id));
         Set<GroupDTO> groupDTOs = student.getGroups().stream()
                 .map(groupMapper::groupToGroupDTO)
@@ -217,6 +242,13 @@ public class StudentController {
         return ResponseEntity.ok(true);
     }
 
+    // reactivate user
+    @PutMapping("/enable/{id}")
+    public ResponseEntity<Boolean> reactivateStudent(@PathVariable Long id) {
+        studentService.reactivateStudent(id);
+        return ResponseEntity.ok(true);
+    }
+
     @GetMapping("/photos/{fileName}")
     public ResponseEntity<Resource> getPhoto(@PathVariable String fileName) {
         // Validation Path Traversal - Sécurité critique
@@ -2,6 +2,7 @@ package com.school.management.controller;
 
 import com.school.management.persistance.SubjectEntity;
 import com.school.management.service.SubjectService;
+import com.school.management.service.util.IdListParser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -37,10 +38,14 @@ public class SubjectController {
     //disable subjects
     @DeleteMapping("disable/{id_list}")
     public ResponseEntity<Boolean> disableSubjects(@PathVariable String id_list) {
-        System.out.println("Request recieved: " + id_list);
-        for (String id : id_list.split(",")) {
-            subjectService.disableSubjects(Long.parseLong(id));
-        }
+        subjectService.disableSubjects(IdListParser.parse(id_list));
+        return ResponseEntity.ok(true);
+    }
+
+    //enable subjects
+    @PutMapping("enable/{id_list}")
+    public ResponseEntity<Boolean> enableSubjects(@PathVariable String id_list) {
+        subjectService.enableSubjects(IdListParser.parse(id_list));
         return ResponseEntity.ok(true);
     }
 
@@ -1,5 +1,6 @@
 package com.school.management.controller;
 
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.dto.TeacherDTO;
 import com.school.management.infrastructure.storage.FileManagementService;
 import com.school.management.mapper.TeacherMapper;
@@ -111,6 +112,15 @@ public class TeacherController {
         return ResponseEntity.ok(teacherMapper.teacherToTeacherDTO(updatedTeacher));
     }
 
+    /**
+     * Suggestions d'enseignants pour l'autocomplétion, servies depuis l'index en mémoire.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteEntryDTO>> autocompleteTeachers(@RequestParam(required = false) String q,
+                                                                           @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(teacherService.autocomplete(q, limit));
+    }
+
     @Transactional(readOnly = true)
     @GetMapping("/searchByNames")
     public ResponseEntity<List<TeacherDTO>> getTeachersByFirstNameAndOrLastName(@RequestParam(required = false) String search) {
@@ -125,6 +135,13 @@ public class TeacherController {
         return ResponseEntity.ok(true);
     }
 
+    // reactivate a teacher
+    @PutMapping("enable/{id}")
+    public ResponseEntity<Boolean> reactivateTeacher(@PathVariable Long id) {
+        teacherService.reactivateTeacher(id);
+        return ResponseEntity.ok(true);
+    }
+
     /**
      * PHASE 3A: Upload photo pour un enseignant
      * @param id ID de l'enseignant
@@ -175,6 +175,22 @@ public class DateRange implements Serializable {
         return !this.endDate.isBefore(other.startDate) && !this.startDate.isAfter(other.endDate);
     }
 
+    /**
+     * Vérifie si cette plage chevauche une autre, bornes de fin exclues.
+     *
+     * Même règle que {@link #overlaps(DateRange)} appliquée à des plages [début, fin[ :
+     * deux créneaux contigus (l'un finit quand l'autre commence) ne se chevauchent pas.
+     *
+     * @param other l'autre plage
+     * @return true si les plages partagent un instant
+     */
+    public boolean overlapsExclusive(DateRange other) {
+        if (other == null) {
+            return false;
+        }
+        return this.endDate.isAfter(other.startDate) && this.startDate.isBefore(other.endDate);
+    }
+
     /**
      * Retourne la durée en jours
      *
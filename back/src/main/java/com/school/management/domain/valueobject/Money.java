@@ -5,7 +5,6 @@ import jakarta.persistence.Embeddable;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Objects;
 
 /**
  * Value Object représentant un montant monétaire.
@@ -21,6 +20,17 @@ import java.util.Objects;
  * Money divided = amount.divide(3);
  * </pre>
  *
+ * Pour les boucles de calcul (répartition, agrégation de soldes), les méthodes
+ * statiques {@link #toCents(double)} et {@link #fromCents(long)} permettent de
+ * travailler directement en centimes sur des {@code long}, sans allocation :
+ * <pre>
+ * long totalCents = 0;
+ * for (PaymentDetailEntity detail : details) {
+ *     totalCents += Money.toCents(detail.getAmountPaid());
+ * }
+ * double total = Money.fromCents(totalCents);
+ * </pre>
+ *
  * @author Claude Code
  * @since Phase 2 Refactoring
  */
@@ -39,6 +49,11 @@ public class Money implements Serializable, Comparable<Money> {
      */
     private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
 
+    /**
+     * Nombre de centimes dans une unité monétaire
+     */
+    private static final long CENTS_PER_UNIT = 100L;
+
     /**
      * Constante pour montant zéro
      */
@@ -102,6 +117,61 @@ public class Money implements Serializable, Comparable<Money> {
         }
     }
 
+    /**
+     * Crée un Money à partir d'un nombre de centimes
+     *
+     * @param cents le montant en centimes
+     * @return une instance Money
+     * @throws IllegalArgumentException si le montant est négatif
+     */
+    public static Money ofCents(long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("Money amount cannot be negative: " + fromCents(cents));
+        }
+        Money money = new Money();
+        money.amount = fromCents(cents);
+        return money;
+    }
+
+    /**
+     * Convertit un montant en centimes, arrondi au centime le plus proche.
+     *
+     * Chemin rapide sans allocation, à utiliser dans les boucles de calcul.
+     * Un montant null est traité comme zéro.
+     *
+     * @param amount le montant
+     * @return le montant en centimes
+     */
+    public static long toCents(Double amount) {
+        return amount == null ? 0L : toCents(amount.doubleValue());
+    }
+
+    /**
+     * Convertit un montant en centimes, arrondi au centime le plus proche.
+     *
+     * Les demi-centimes sont arrondis en s'éloignant de zéro, comme HALF_UP : -0.005
+     * donne -1 centime (Math.round seul arrondirait vers +∞ et donnerait 0). Comme pour
+     * tout calcul en double, un montant sans représentation binaire exacte est arrondi
+     * selon sa valeur binaire (1.005 vaut 1.00499… et donne 100 centimes).
+     *
+     * @param amount le montant
+     * @return le montant en centimes
+     */
+    public static long toCents(double amount) {
+        double cents = amount * CENTS_PER_UNIT;
+        return cents < 0 ? -Math.round(-cents) : Math.round(cents);
+    }
+
+    /**
+     * Convertit un nombre de centimes en montant.
+     *
+     * @param cents le montant en centimes
+     * @return le montant
+     */
+    public static double fromCents(long cents) {
+        return (double) cents / CENTS_PER_UNIT;
+    }
+
     /**
      * Valide qu'un montant n'est pas négatif
      */
@@ -124,7 +194,7 @@ public class Money implements Serializable, Comparable<Money> {
         if (other == null) {
             return this;
         }
-        return Money.of(this.toBigDecimal().add(other.toBigDecimal()));
+        return Money.ofCents(Math.addExact(getCents(), other.getCents()));
     }
 
     /**
@@ -138,13 +208,13 @@ public class Money implements Serializable, Comparable<Money> {
         if (other == null) {
             return this;
         }
-        BigDecimal result = this.toBigDecimal().subtract(other.toBigDecimal());
-        if (result.compareTo(BigDecimal.ZERO) < 0) {
+        long result = getCents() - other.getCents();
+        if (result < 0) {
             throw new IllegalArgumentException(
                 String.format("Subtraction would result in negative amount: %s - %s",
                     this.amount, other.amount));
         }
-        return Money.of(result);
+        return Money.ofCents(result);
     }
 
     /**
@@ -170,7 +240,7 @@ public class Money implements Serializable, Comparable<Money> {
         if (multiplier < 0) {
             throw new IllegalArgumentException("Multiplier cannot be negative: " + multiplier);
         }
-        return Money.of(this.toBigDecimal().multiply(BigDecimal.valueOf(multiplier)));
+        return Money.ofCents(Math.multiplyExact(getCents(), multiplier));
     }
 
     /**
@@ -209,7 +279,7 @@ public class Money implements Serializable, Comparable<Money> {
      * @return true si le montant est zéro
      */
     public boolean isZero() {
-        return this.toBigDecimal().compareTo(BigDecimal.ZERO) == 0;
+        return getCents() == 0L;
     }
 
     /**
@@ -261,6 +331,15 @@ public class Money implements Serializable, Comparable<Money> {
         return amount;
     }
 
+    /**
+     * Retourne le montant en centimes
+     *
+     * @return le montant en centimes
+     */
+    public long getCents() {
+        return toCents(amount);
+    }
+
     /**
      * Retourne le montant en BigDecimal
      *
@@ -275,7 +354,7 @@ public class Money implements Serializable, Comparable<Money> {
         if (other == null) {
             throw new NullPointerException("Cannot compare to null Money");
         }
-        return this.toBigDecimal().compareTo(other.toBigDecimal());
+        return Long.compare(getCents(), other.getCents());
     }
 
     @Override
@@ -283,13 +362,13 @@ public class Money implements Serializable, Comparable<Money> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Money money = (Money) o;
-        // Compare avec BigDecimal pour gérer la précision
-        return this.toBigDecimal().compareTo(money.toBigDecimal()) == 0;
+        // Compare en centimes pour gérer la précision
+        return getCents() == money.getCents();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(toBigDecimal());
+        return Long.hashCode(getCents());
     }
 
     @Override
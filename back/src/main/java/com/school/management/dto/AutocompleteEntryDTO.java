@@ -0,0 +1,20 @@
+package com.school.management.dto;
+
+import lombok.*;
+
+/**
+ * Suggestion d'autocomplétion : identifiant, libellé affiché et URL de la photo.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AutocompleteEntryDTO {
+
+    private Long id;
+
+    private String label;
+
+    private String photo;
+}
@@ -0,0 +1,32 @@
+package com.school.management.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Page de résultats en pagination par curseur (keyset).
+ *
+ * {@code nextCursor} est à renvoyer tel quel pour obtenir la page suivante ; il est nul
+ * sur la dernière page. {@code totalElements} n'est renseigné que sur demande, le
+ * comptage ayant un coût proportionnel au nombre de résultats.
+ *
+ * @param <T> le type des éléments
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+
+    private Long totalElements;
+}
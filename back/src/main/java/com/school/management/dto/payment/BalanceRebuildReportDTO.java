@@ -0,0 +1,16 @@
+package com.school.management.dto.payment;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceRebuildReportDTO {
+    private int chunks;
+    private long studentsScanned;
+    private long rowsInserted;   // Soldes absents du registre
+    private long rowsCorrected;  // Soldes présents mais divergents
+    private long durationMs;
+}
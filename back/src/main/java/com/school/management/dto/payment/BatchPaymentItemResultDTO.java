@@ -0,0 +1,20 @@
+package com.school.management.dto.payment;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentItemResultDTO {
+    private int index;
+    private Long studentId;
+    private Long groupId;
+    private Long sessionSeriesId;
+    private Double amountPaid;
+    private boolean success;
+    private Long paymentId;
+    private String status;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package com.school.management.dto.payment;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentResultDTO {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchPaymentItemResultDTO> items;
+}
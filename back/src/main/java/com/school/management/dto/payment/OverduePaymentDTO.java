@@ -0,0 +1,25 @@
+package com.school.management.dto.payment;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OverduePaymentDTO {
+    private Long studentId;
+    private String firstName;
+    private String lastName;
+    private Long groupId;
+    private String groupName;
+    private Long sessionSeriesId;
+    private String seriesName;
+    private Long sessionsAttended;
+    private Double amountDue;
+    private Double amountPaid;
+    private Double overdueAmount;
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,26 @@
+package com.school.management.dto.payment;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentScanRunDTO {
+    private Long id;
+    private String status;          // RUNNING, COMPLETED, FAILED
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long lastStudentId;     // Point de reprise
+    private Integer chunkSize;
+    private Integer chunksCompleted;
+    private Long studentsScanned;
+    private Long rowsWritten;
+    private Long durationMs;
+    private Double rowsPerSecond;
+    private Double studentsPerSecond;
+    private String errorMessage;
+}
@@ -0,0 +1,16 @@
+package com.school.management.dto.payment;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueBucketDTO {
+    private String month; // Format yyyy-MM
+    private Long dimensionId; // Null pour la dimension TOTAL ou un paiement sans groupe
+    private String dimensionLabel;
+    private Double totalAmount;
+    private Long paymentCount;
+}
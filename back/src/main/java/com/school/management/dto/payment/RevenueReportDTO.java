@@ -0,0 +1,18 @@
+package com.school.management.dto.payment;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueReportDTO {
+    private String dimension;
+    private String from;
+    private String to;
+    private Double totalAmount;
+    private List<RevenueBucketDTO> buckets;
+}
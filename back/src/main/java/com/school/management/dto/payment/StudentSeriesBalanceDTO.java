@@ -0,0 +1,18 @@
+package com.school.management.dto.payment;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentSeriesBalanceDTO {
+    private Long studentId;
+    private Long sessionSeriesId;
+    private Long sessionsAttended;
+    private Double amountDue;
+    private Double amountPaid;
+    private Double balance;
+    private boolean paymentOverdue;
+}
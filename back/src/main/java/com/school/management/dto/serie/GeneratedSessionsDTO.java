@@ -0,0 +1,29 @@
+package com.school.management.dto.serie;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Résultat de la génération des sessions d'une série.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GeneratedSessionsDTO {
+
+    private Long sessionSeriesId;
+
+    private int sessionsCreated;
+
+    private int totalSessions;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+    private Date firstSessionStart;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+    private Date lastSessionStart;
+}
@@ -0,0 +1,63 @@
+package com.school.management.dto.serie;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Règle de récurrence servant à générer les sessions d'une série.
+ *
+ * Une session est créée à {@code startTime} pour chaque jour de {@code daysOfWeek}
+ * à partir de {@code startDate}, jusqu'à atteindre {@code count} sessions ou dépasser
+ * {@code until} (au moins l'un des deux est requis). Les dates de {@code excludedDates}
+ * (jours fériés, vacances) sont sautées et ne comptent pas dans {@code count}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurrenceRuleDTO {
+
+    private Long sessionSeriesId;
+
+    @NotEmpty(message = "At least one day of week is required")
+    private Set<DayOfWeek> daysOfWeek;
+
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+
+    @NotNull(message = "Duration is required")
+    @Positive(message = "Duration must be positive")
+    private Integer durationMinutes;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    private Integer count;
+
+    private LocalDate until;
+
+    private Set<LocalDate> excludedDates;
+
+    @NotNull(message = "Teacher ID is required")
+    private Long teacherId;
+
+    @NotNull(message = "Room ID is required")
+    private Long roomId;
+
+    /**
+     * Titre des sessions ; le nom de la série par défaut. La date est ajoutée en suffixe.
+     */
+    private String title;
+
+    private String sessionType;
+
+    private String feedbackLink;
+}
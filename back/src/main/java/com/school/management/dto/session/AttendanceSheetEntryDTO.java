@@ -0,0 +1,35 @@
+package com.school.management.dto.session;
+
+import lombok.*;
+
+/**
+ * Ligne de la feuille de présence d'une session : un étudiant éligible, sa présence
+ * déjà saisie (attendanceId nul sinon) et l'état de son paiement pour la session.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceSheetEntryDTO {
+
+    private Long studentId;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String gender;
+
+    private Long attendanceId;
+
+    private Boolean isPresent;
+
+    private Boolean isJustified;
+
+    private Boolean isCatchUp;
+
+    private Double amountPaid;
+
+    private boolean paid;
+}
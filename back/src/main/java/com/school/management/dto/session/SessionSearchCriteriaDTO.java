@@ -1,6 +1,7 @@
 package com.school.management.dto.session;
 
 import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 @Getter
@@ -11,7 +12,9 @@ import java.time.LocalDate;
 public class SessionSearchCriteriaDTO {
     private String title;
     private String sessionType;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate startDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate endDate;
     private Long teacherId;
     private Long groupId;
@@ -0,0 +1,45 @@
+package com.school.management.dto.session;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Session telle qu'affichée dans le calendrier et les recherches : champs plats, sans entités imbriquées.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SessionSummaryDTO {
+
+    private Long id;
+
+    private String title;
+
+    private String sessionType;
+
+    private Boolean isFinished;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+    private Date sessionTimeStart;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+    private Date sessionTimeEnd;
+
+    private Long groupId;
+
+    private String groupName;
+
+    private Long teacherId;
+
+    private String teacherName;
+
+    private Long roomId;
+
+    private String roomName;
+
+    private Long sessionSeriesId;
+}
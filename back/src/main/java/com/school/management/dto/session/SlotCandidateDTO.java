@@ -0,0 +1,37 @@
+package com.school.management.dto.session;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Créneau à vérifier avant de créer ou de déplacer une session.
+ *
+ * {@code sessionId} est renseigné lors d'un déplacement : la session elle-même
+ * n'est pas comptée comme conflit.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotCandidateDTO {
+
+    private Long sessionId;
+
+    private Long groupId;
+
+    private Long teacherId;
+
+    private Long roomId;
+
+    @NotNull(message = "Session start time is required")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+    private Date sessionTimeStart;
+
+    @NotNull(message = "Session end time is required")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+    private Date sessionTimeEnd;
+}
@@ -0,0 +1,33 @@
+package com.school.management.dto.session;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conflit détecté pour un créneau candidat.
+ *
+ * {@code conflictingSessionId} désigne une session existante ; {@code conflictingCandidateIndex}
+ * un autre candidat du même lot.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotConflictDTO {
+
+    private int candidateIndex;
+
+    private String resourceType;
+
+    private Long resourceId;
+
+    private Long conflictingSessionId;
+
+    private Integer conflictingCandidateIndex;
+
+    private LocalDateTime conflictStart;
+
+    private LocalDateTime conflictEnd;
+}
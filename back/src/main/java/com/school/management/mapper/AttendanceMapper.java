@@ -2,7 +2,6 @@ package com.school.management.mapper;
 
 import com.school.management.dto.AttendanceDTO;
 import com.school.management.persistance.*;
-import com.school.management.shared.exception.ResourceNotFoundException;
 import com.school.management.shared.mapper.MappingContext;
 import org.mapstruct.*;
 
@@ -24,28 +23,24 @@ public interface AttendanceMapper {
     @Named("idToStudent")
     default StudentEntity idToStudent(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getStudentRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Student", id));
+        return context.resolve(StudentEntity.class, id, "Student", context.getStudentRepository());
     }
 
     @Named("idToSession")
     default SessionEntity idToSession(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getSessionRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Session", id));
+        return context.resolve(SessionEntity.class, id, "Session", context.getSessionRepository());
     }
 
     @Named("idToSessionSeries")
     default SessionSeriesEntity idToSessionSeries(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getSessionSeriesRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("SessionSeries", id));
+        return context.resolve(SessionSeriesEntity.class, id, "SessionSeries", context.getSessionSeriesRepository());
     }
 
     @Named("idToGroup")
     default GroupEntity idToGroup(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getGroupRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", id));
+        return context.resolve(GroupEntity.class, id, "Group", context.getGroupRepository());
     }
 }
@@ -2,7 +2,6 @@ package com.school.management.mapper;
 
 import com.school.management.dto.GroupDTO;
 import com.school.management.persistance.*;
-import com.school.management.shared.exception.ResourceNotFoundException;
 import com.school.management.shared.mapper.MappingContext;
 import org.mapstruct.*;
 
@@ -36,37 +35,32 @@ public interface GroupMapper {
         if (id == null) {
             return null;
         }
-        return context.getGroupTypeRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("GroupType", id));
+        return context.resolve(GroupTypeEntity.class, id, "GroupType", context.getGroupTypeRepository());
     }
 
 
     @Named("idToLevel")
     default LevelEntity idToLevel(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getLevelRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Level", id));
+        return context.resolve(LevelEntity.class, id, "Level", context.getLevelRepository());
     }
 
     @Named("idToSubject")
     default SubjectEntity idToSubject(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getSubjectRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Subject", id));
+        return context.resolve(SubjectEntity.class, id, "Subject", context.getSubjectRepository());
     }
 
     @Named("idToPricing")
     default PricingEntity idToPricing(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getPricingRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Pricing", id));
+        return context.resolve(PricingEntity.class, id, "Pricing", context.getPricingRepository());
     }
 
     @Named("idToTeacher")
     default TeacherEntity idToTeacher(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getTeacherRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Teacher", id));
+        return context.resolve(TeacherEntity.class, id, "Teacher", context.getTeacherRepository());
     }
 
 }
\ No newline at end of file
@@ -6,7 +6,6 @@ import com.school.management.persistance.RoomEntity;
 import com.school.management.persistance.SessionEntity;
 import com.school.management.persistance.TeacherEntity;
 import com.school.management.persistance.SessionSeriesEntity;
-import com.school.management.shared.exception.ResourceNotFoundException;
 import com.school.management.shared.mapper.MappingContext;
 import org.mapstruct.*;
 
@@ -42,29 +41,25 @@ public interface SessionMapper {
     @Named("idToGroup")
     default GroupEntity idToGroup(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getGroupRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", id));
+        return context.resolve(GroupEntity.class, id, "Group", context.getGroupRepository());
     }
 
     @Named("idToTeacher")
     default TeacherEntity idToTeacher(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getTeacherRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Teacher", id));
+        return context.resolve(TeacherEntity.class, id, "Teacher", context.getTeacherRepository());
     }
 
     @Named("idToRoom")
     default RoomEntity idToRoom(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getRoomRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Room", id));
+        return context.resolve(RoomEntity.class, id, "Room", context.getRoomRepository());
     }
 
     @Named("idToSeries")
     default SessionSeriesEntity idToSeries(Long id, @Context MappingContext context) {
         if (id == null) return null;
-        return context.getSessionSeriesRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("SessionSeries", id));
+        return context.resolve(SessionSeriesEntity.class, id, "SessionSeries", context.getSessionSeriesRepository());
     }
 
     @Named("formatTeacherName")
@@ -3,7 +3,6 @@ package com.school.management.mapper;
 import com.school.management.dto.SessionSeriesDto;
 import com.school.management.persistance.GroupEntity;
 import com.school.management.persistance.SessionSeriesEntity;
-import com.school.management.shared.exception.ResourceNotFoundException;
 import com.school.management.shared.mapper.MappingContext;
 import org.mapstruct.*;
 
@@ -24,10 +23,8 @@ public interface SessionSeriesMapper {
 
     @Named("idToGroup")
     default GroupEntity idToGroup(Long id, @Context MappingContext context) {
-        System.out.println("Mapping groupId: " + id);
         if (id == null) return null;
-        return context.getGroupRepository().findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", id));
+        return context.resolve(GroupEntity.class, id, "Group", context.getGroupRepository());
     }
 
     // Ajouter cette méthode par défaut pour calculer numberOfSessionsCreated
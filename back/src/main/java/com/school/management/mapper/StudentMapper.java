@@ -97,9 +97,7 @@ public interface StudentMapper {
             return null;
         }
 
-        return context.getTutorRepository()
-            .findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Tutor", id));
+        return context.resolve(TutorEntity.class, id, "Tutor", context.getTutorRepository());
     }
 
     /**
@@ -117,8 +115,6 @@ public interface StudentMapper {
             return null;
         }
 
-        return context.getLevelRepository()
-            .findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Level", id));
+        return context.resolve(LevelEntity.class, id, "Level", context.getLevelRepository());
     }
 }
\ No newline at end of file
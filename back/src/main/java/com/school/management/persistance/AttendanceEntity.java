@@ -5,7 +5,13 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "attendance")
+@Table(
+        name = "attendance",
+        indexes = {
+                @Index(name = "idx_attendance_student", columnList = "student_id"),
+                @Index(name = "idx_attendance_session", columnList = "session_id")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,6 +18,12 @@ import java.time.LocalDateTime;
 @SuperBuilder
 public abstract class BaseEntity {
 
+    /**
+     * Auteur enregistré à la création, faute de contexte utilisateur.
+     * Repris par les insertions JDBC en masse, qui ne passent pas par {@link #onCreate()}.
+     */
+    public static final String DEFAULT_CREATED_BY = "admin";
+
     @Column(name = "date_creation", updatable = false)
     private LocalDateTime dateCreation;
 
@@ -41,7 +47,7 @@ public abstract class BaseEntity {
         dateCreation = LocalDateTime.now();
         active = true;
         // createdBy should be set based on the current user context
-        createdBy = "admin";
+        createdBy = DEFAULT_CREATED_BY;
     }
 
     @PreUpdate
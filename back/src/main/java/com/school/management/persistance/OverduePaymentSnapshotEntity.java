@@ -0,0 +1,63 @@
+package com.school.management.persistance;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Instantané des retards de paiement par (étudiant, groupe, série).
+ *
+ * Alimenté par le scan nocturne {@code OverduePaymentScanService} ; les tableaux de bord
+ * lisent cette table au lieu de recalculer les retards à la volée.
+ */
+@Entity
+@Table(
+        name = "overdue_payment_snapshot",
+        indexes = {
+                @Index(name = "idx_overdue_snapshot_student", columnList = "student_id"),
+                @Index(name = "idx_overdue_snapshot_group", columnList = "group_id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class OverduePaymentSnapshotEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private StudentEntity student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", nullable = false)
+    private GroupEntity group;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_series_id", nullable = false)
+    private SessionSeriesEntity sessionSeries;
+
+    @Column(name = "sessions_attended", nullable = false)
+    private Long sessionsAttended;
+
+    @Column(name = "amount_due", nullable = false)
+    private Double amountDue;
+
+    @Column(name = "amount_paid", nullable = false)
+    private Double amountPaid;
+
+    @Column(name = "overdue_amount", nullable = false)
+    private Double overdueAmount; // amountDue - amountPaid, toujours positif
+
+    @Column(name = "run_id")
+    private Long runId; // Exécution du scan qui a produit la ligne
+
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+}
@@ -7,7 +7,13 @@ import lombok.experimental.SuperBuilder;
 import java.util.Date;
 
 @Entity
-@Table(name = "payment_detail")
+@Table(
+        name = "payment_detail",
+        indexes = {
+                @Index(name = "idx_payment_detail_payment", columnList = "payment_id"),
+                @Index(name = "idx_payment_detail_session", columnList = "session_id")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,6 +25,10 @@ public class PaymentDetailEntity extends BaseEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_id", nullable = false)
     private PaymentEntity payment;
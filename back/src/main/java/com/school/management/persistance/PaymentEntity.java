@@ -10,7 +10,14 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "payments")
+@Table(
+        name = "payments",
+        indexes = @Index(name = "idx_payments_student", columnList = "student_id"),
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_payments_student_group_series",
+                columnNames = {"student_id", "group_id", "session_series_id"}
+        )
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +29,10 @@ public class PaymentEntity extends BaseEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private Long version; // Verrouillage optimiste : deux encaissements concurrents ne peuvent pas écraser le même total
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
     private StudentEntity student;
@@ -0,0 +1,64 @@
+package com.school.management.persistance;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exécution du scan des retards de paiement.
+ *
+ * {@code lastStudentId} est le point de reprise : toutes les tranches d'étudiants
+ * d'ID inférieur ou égal ont été traitées. Une exécution non terminée est reprise
+ * à partir de ce point au lancement suivant.
+ */
+@Entity
+@Table(name = "payment_scan_run")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class PaymentScanRunEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "status", nullable = false)
+    private String status; // RUNNING, COMPLETED, FAILED
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "last_student_id", nullable = false)
+    private Long lastStudentId;
+
+    @Column(name = "chunk_size")
+    private Integer chunkSize;
+
+    @Column(name = "chunks_completed")
+    private Integer chunksCompleted;
+
+    @Column(name = "students_scanned")
+    private Long studentsScanned;
+
+    @Column(name = "rows_written")
+    private Long rowsWritten;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "rows_per_second")
+    private Double rowsPerSecond;
+
+    @Column(name = "students_per_second")
+    private Double studentsPerSecond;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+}
@@ -8,7 +8,16 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "session")
+@Table(
+        name = "session",
+        indexes = {
+                @Index(name = "idx_session_series", columnList = "session_series_id"),
+                @Index(name = "idx_session_start", columnList = "session_time_Start, id"),
+                @Index(name = "idx_session_group_start", columnList = "group_id, session_time_Start"),
+                @Index(name = "idx_session_teacher_start", columnList = "teacher_id, session_time_Start"),
+                @Index(name = "idx_session_room_start", columnList = "room_id, session_time_Start")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -10,7 +10,10 @@ import lombok.experimental.SuperBuilder;
 import java.util.Date;
 
 @Entity
-@Table(name = "student_groups")
+@Table(
+        name = "student_groups",
+        indexes = @Index(name = "idx_student_groups_group", columnList = "group_id")
+)
 @Getter
 @Setter
 @NoArgsConstructor
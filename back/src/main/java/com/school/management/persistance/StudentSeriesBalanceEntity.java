@@ -0,0 +1,50 @@
+package com.school.management.persistance;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Solde matérialisé d'un étudiant pour une série de sessions.
+ *
+ * Maintenu par {@code BalanceLedgerService} dans la même transaction que les écritures
+ * de présences et de paiements ; il peut être reconstruit intégralement à partir des
+ * tables attendance, payments et payment_detail.
+ */
+@Entity
+@Table(
+        name = "student_series_balance",
+        indexes = @Index(name = "idx_student_series_balance_series", columnList = "session_series_id"),
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_student_series_balance",
+                columnNames = {"student_id", "session_series_id"}
+        )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class StudentSeriesBalanceEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private StudentEntity student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_series_id", nullable = false)
+    private SessionSeriesEntity sessionSeries;
+
+    @Column(name = "sessions_attended", nullable = false)
+    private Long sessionsAttended; // Sessions de la série où l'étudiant était présent
+
+    @Column(name = "amount_due", nullable = false)
+    private Double amountDue; // Sessions présentes × prix par session
+
+    @Column(name = "amount_paid", nullable = false)
+    private Double amountPaid; // Somme des détails de paiement des sessions de la série
+}
@@ -2,17 +2,22 @@ package com.school.management.repository;
 
 import com.school.management.persistance.AttendanceEntity;
 import com.school.management.persistance.SessionEntity;
+import com.school.management.repository.projection.AttendanceSheetRow;
+import com.school.management.repository.projection.StudentHistoryAttendanceRow;
+import com.school.management.repository.projection.StudentSessionIdRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface AttendanceRepository extends JpaRepository<AttendanceEntity, Long> {
+public interface AttendanceRepository extends JpaRepository<AttendanceEntity, Long>, AttendanceRepositoryCustom {
 
     long countByStudentIdAndSessionSeriesIdAndIsPresent(Long studentId, Long sessionSeriesId, boolean isPresent);
 
@@ -24,6 +29,52 @@ public interface AttendanceRepository extends JpaRepository<AttendanceEntity, Lo
     @Query("SELECT CASE WHEN COUNT(a) > 0 THEN TRUE ELSE FALSE END FROM AttendanceEntity a WHERE a.student.id = :studentId AND a.session.id = :sessionId AND a.active = true")
     boolean existsByStudentIdAndSessionIdAndActiveTrue(@Param("studentId") Long studentId, @Param("sessionId") Long sessionId);
 
+    /**
+     * Feuille de présence d'une session en une seule requête.
+     *
+     * Les étudiants affectés au groupe au plus tard au début de la session, leur présence
+     * active éventuelle (jointure externe) et le montant payé pour la session (sous-requête
+     * corrélée sur l'index payment_detail.session_id).
+     */
+    @Query("SELECT DISTINCT new com.school.management.repository.projection.AttendanceSheetRow(" +
+            "st.id, st.firstName, st.lastName, st.gender, " +
+            "a.id, a.isPresent, a.isJustified, a.isCatchUp, " +
+            "(SELECT COALESCE(SUM(pd.amountPaid), 0) FROM PaymentDetailEntity pd " +
+            "  WHERE pd.session.id = s.id AND pd.payment.student.id = st.id), " +
+            "p.price) " +
+            "FROM SessionEntity s " +
+            "JOIN StudentGroupEntity sg ON sg.group.id = s.group.id " +
+            "JOIN sg.student st " +
+            "LEFT JOIN s.group g " +
+            "LEFT JOIN g.price p " +
+            "LEFT JOIN AttendanceEntity a ON a.student.id = st.id AND a.session.id = s.id AND a.active = true " +
+            "WHERE s.id = :sessionId AND sg.dateAssigned <= s.sessionTimeStart " +
+            "ORDER BY st.lastName, st.firstName")
+    List<AttendanceSheetRow> findAttendanceSheet(@Param("sessionId") Long sessionId);
+
+    /**
+     * Désactive en une requête les présences actives d'une session.
+     *
+     * @return le nombre de présences désactivées
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE AttendanceEntity a SET a.active = false, a.dateUpdate = :now " +
+            "WHERE a.session.id = :sessionId AND a.active = true")
+    int deactivateBySessionId(@Param("sessionId") Long sessionId, @Param("now") LocalDateTime now);
+
+    /**
+     * Récupère les couples (étudiant, session) ayant déjà une présence active, parmi
+     * les étudiants et sessions donnés.
+     *
+     * Le résultat peut contenir des couples hors du lot demandé (produit des deux
+     * listes) : le filtrage exact se fait en mémoire.
+     */
+    @Query("SELECT new com.school.management.repository.projection.StudentSessionIdRow(a.student.id, a.session.id) " +
+            "FROM AttendanceEntity a " +
+            "WHERE a.active = true AND a.student.id IN :studentIds AND a.session.id IN :sessionIds")
+    List<StudentSessionIdRow> findActivePairs(@Param("studentIds") Collection<Long> studentIds,
+                                              @Param("sessionIds") Collection<Long> sessionIds);
+
 
     @Query("SELECT a FROM AttendanceEntity a WHERE a.session.id = :sessionId")
     List<AttendanceEntity> findBySessionId(@Param("sessionId") Long sessionId);
@@ -36,6 +87,19 @@ public interface AttendanceRepository extends JpaRepository<AttendanceEntity, Lo
 
     List<AttendanceEntity> findByStudentIdAndIsCatchUp(Long studentId, boolean isCatchUp);
 
+    /**
+     * Récupère toutes les présences d'un étudiant sans charger les entités.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @return une ligne par présence, triées par ID
+     */
+    @Query("SELECT new com.school.management.repository.projection.StudentHistoryAttendanceRow(" +
+            "sess.id, g.id, g.name, a.isPresent, a.isJustified, a.isCatchUp, a.active) " +
+            "FROM AttendanceEntity a LEFT JOIN a.session sess LEFT JOIN a.group g " +
+            "WHERE a.student.id = :studentId " +
+            "ORDER BY a.id")
+    List<StudentHistoryAttendanceRow> findHistoryRowsByStudentId(@Param("studentId") Long studentId);
+
     boolean existsByGroupIdAndStudentIdAndIsCatchUp(Long id, Long studentId, boolean b);
 }
 
@@ -0,0 +1,23 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.AttendanceEntity;
+
+import java.util.List;
+
+/**
+ * Opérations d'écriture en masse sur attendance qui contournent le
+ * contexte de persistance (l'ID IDENTITY empêche Hibernate de regrouper les INSERT).
+ */
+public interface AttendanceRepositoryCustom {
+
+    /**
+     * Insère les présences en un seul batch JDBC et renseigne l'ID généré et les
+     * colonnes d'audit sur chaque entité.
+     *
+     * Les entités ne sont pas attachées au contexte de persistance.
+     *
+     * @param attendances les présences à insérer, sans ID
+     * @return le nombre de lignes insérées
+     */
+    int batchInsert(List<AttendanceEntity> attendances);
+}
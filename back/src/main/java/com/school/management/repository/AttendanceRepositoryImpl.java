@@ -0,0 +1,92 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.AttendanceEntity;
+import com.school.management.persistance.BaseEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implémentation JDBC de {@link AttendanceRepositoryCustom}.
+ *
+ * Les colonnes d'audit normalement renseignées par {@code BaseEntity.onCreate()}
+ * sont alimentées ici explicitement.
+ */
+public class AttendanceRepositoryImpl implements AttendanceRepositoryCustom {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttendanceRepositoryImpl.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO attendance " +
+            "(student_id, session_id, session_series_id, group_id, status, is_justified, is_catch_up, " +
+            " description, date_creation, created_by, active) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AttendanceRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int batchInsert(List<AttendanceEntity> attendances) {
+        if (attendances.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        Integer inserted = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (AttendanceEntity attendance : attendances) {
+                    ps.setObject(1, attendance.getStudent() != null ? attendance.getStudent().getId() : null, Types.BIGINT);
+                    ps.setObject(2, attendance.getSession() != null ? attendance.getSession().getId() : null, Types.BIGINT);
+                    ps.setObject(3, attendance.getSessionSeries() != null ? attendance.getSessionSeries().getId() : null, Types.BIGINT);
+                    ps.setObject(4, attendance.getGroup() != null ? attendance.getGroup().getId() : null, Types.BIGINT);
+                    ps.setObject(5, attendance.getIsPresent(), Types.BOOLEAN);
+                    ps.setObject(6, attendance.getIsJustified(), Types.BOOLEAN);
+                    ps.setObject(7, attendance.getIsCatchUp() != null ? attendance.getIsCatchUp() : Boolean.FALSE, Types.BOOLEAN);
+                    ps.setString(8, attendance.getDescription());
+                    ps.setTimestamp(9, timestamp);
+                    ps.setString(10, BaseEntity.DEFAULT_CREATED_BY);
+                    ps.setBoolean(11, true);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                return assignGeneratedIds(ps, attendances);
+            }
+        });
+
+        for (AttendanceEntity attendance : attendances) {
+            attendance.setDateCreation(now);
+            attendance.setCreatedBy(BaseEntity.DEFAULT_CREATED_BY);
+            attendance.setActive(true);
+        }
+
+        LOGGER.debug("Batch inserted {} attendances", inserted);
+        return inserted != null ? inserted : 0;
+    }
+
+    /**
+     * Reporte les clés générées sur les entités, dans l'ordre du batch.
+     */
+    private int assignGeneratedIds(PreparedStatement ps, List<AttendanceEntity> attendances) throws SQLException {
+        int index = 0;
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            while (keys.next() && index < attendances.size()) {
+                attendances.get(index++).setId(keys.getLong(1));
+            }
+        }
+        return index;
+    }
+}
@@ -1,6 +1,7 @@
 package com.school.management.repository;
 
 import com.school.management.persistance.GroupEntity;
+import com.school.management.repository.projection.NameIndexRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface GroupRepository extends JpaRepository<GroupEntity, Long> {
+public interface GroupRepository extends JpaRepository<GroupEntity, Long>, SoftDeleteRepository<GroupEntity> {
     List<GroupEntity> findByStudents_Id(Long studentId);
 
     @Query("SELECT g FROM GroupEntity g " +
@@ -23,4 +24,31 @@ public interface GroupRepository extends JpaRepository<GroupEntity, Long> {
             "WHERE g.id = :groupId")
     Optional<GroupEntity> findGroupWithDetailsById(@Param("groupId") Long groupId);
 
+    /**
+     * Charge plusieurs groupes avec leur tarif en une seule requête.
+     *
+     * @param groupIds les IDs des groupes
+     * @return les groupes trouvés
+     */
+    @Query("SELECT g FROM GroupEntity g LEFT JOIN FETCH g.price WHERE g.id IN :groupIds")
+    List<GroupEntity> findAllWithPriceByIdIn(@Param("groupIds") Collection<Long> groupIds);
+
+    /**
+     * Récupère le nom et la photo des groupes actifs, pour l'index d'autocomplétion.
+     *
+     * @return une ligne par groupe actif
+     */
+    @Query("SELECT new com.school.management.repository.projection.NameIndexRow(g.id, g.name, '', g.photo) " +
+            "FROM GroupEntity g WHERE COALESCE(g.active, true) = true")
+    List<NameIndexRow> findActiveNameIndexRows();
+
+    /**
+     * Récupère le nom et la photo des groupes donnés, pour l'index d'autocomplétion.
+     *
+     * @param ids les IDs
+     * @return une ligne par ID existant
+     */
+    @Query("SELECT new com.school.management.repository.projection.NameIndexRow(g.id, g.name, '', g.photo) " +
+            "FROM GroupEntity g WHERE g.id IN :ids")
+    List<NameIndexRow> findNameIndexRowsByIdIn(@Param("ids") Collection<Long> ids);
 }
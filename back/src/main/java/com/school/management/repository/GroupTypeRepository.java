@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface GroupTypeRepository extends JpaRepository<GroupTypeEntity, Long> {
+public interface GroupTypeRepository extends JpaRepository<GroupTypeEntity, Long>, SoftDeleteRepository<GroupTypeEntity> {
     List<GroupTypeEntity> findByName(String name);
     List<GroupTypeEntity> findBySize(int size);
 
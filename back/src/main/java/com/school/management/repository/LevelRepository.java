@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface LevelRepository extends JpaRepository<LevelEntity, Long> {
+public interface LevelRepository extends JpaRepository<LevelEntity, Long>, SoftDeleteRepository<LevelEntity> {
     Optional<LevelEntity> findByName(String name);
 
 }
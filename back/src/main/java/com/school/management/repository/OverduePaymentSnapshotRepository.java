@@ -0,0 +1,32 @@
+package com.school.management.repository;
+
+import com.school.management.dto.payment.OverduePaymentDTO;
+import com.school.management.persistance.OverduePaymentSnapshotEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OverduePaymentSnapshotRepository extends JpaRepository<OverduePaymentSnapshotEntity, Long> {
+
+    /**
+     * Lit l'instantané des retards, éventuellement filtré par groupe, du plus gros retard au plus petit.
+     *
+     * @param groupId l'ID du groupe, ou null pour tous les groupes
+     * @param pageable les paramètres de pagination
+     * @return une page de retards
+     */
+    @Query(value = "SELECT new com.school.management.dto.payment.OverduePaymentDTO(" +
+            "s.id, s.firstName, s.lastName, g.id, g.name, ser.id, ser.name, " +
+            "o.sessionsAttended, o.amountDue, o.amountPaid, o.overdueAmount, o.computedAt) " +
+            "FROM OverduePaymentSnapshotEntity o " +
+            "JOIN o.student s JOIN o.group g JOIN o.sessionSeries ser " +
+            "WHERE (:groupId IS NULL OR g.id = :groupId) " +
+            "ORDER BY o.overdueAmount DESC, o.id",
+            countQuery = "SELECT COUNT(o) FROM OverduePaymentSnapshotEntity o " +
+                    "WHERE (:groupId IS NULL OR o.group.id = :groupId)")
+    Page<OverduePaymentDTO> findOverdue(@Param("groupId") Long groupId, Pageable pageable);
+}
@@ -1,15 +1,22 @@
 package com.school.management.repository;
 
 import com.school.management.persistance.PaymentDetailEntity;
+import com.school.management.repository.projection.SessionAmountRow;
+import com.school.management.repository.projection.StudentHistoryPaymentRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface PaymentDetailRepository extends JpaRepository<PaymentDetailEntity, Long>, JpaSpecificationExecutor<PaymentDetailEntity> {
+public interface PaymentDetailRepository extends JpaRepository<PaymentDetailEntity, Long>, JpaSpecificationExecutor<PaymentDetailEntity>, PaymentDetailRepositoryCustom {
+    List<PaymentDetailEntity> findByPaymentId(Long paymentId);
+
+    List<PaymentDetailEntity> findByPaymentIdIn(Collection<Long> paymentIds);
+
     Optional<PaymentDetailEntity> findByPaymentIdAndSessionId(Long id, Long id1);
 
     List<PaymentDetailEntity> findByPayment_StudentId(Long studentId);
@@ -22,5 +29,26 @@ public interface PaymentDetailRepository extends JpaRepository<PaymentDetailEnti
     @Query("SELECT pd FROM PaymentDetailEntity pd WHERE pd.payment.student.id = :studentId AND pd.session.sessionSeries.id = :sessionSeriesId")
     List<PaymentDetailEntity> findByPayment_StudentIdAndSession_SessionSeriesId(@Param("studentId") Long studentId, @Param("sessionSeriesId") Long sessionSeriesId);
 
+    /**
+     * Somme des montants payés par un étudiant, regroupée par session.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @return une ligne par session ayant reçu au moins un paiement
+     */
+    @Query("SELECT new com.school.management.repository.projection.SessionAmountRow(pd.session.id, SUM(pd.amountPaid)) " +
+            "FROM PaymentDetailEntity pd WHERE pd.payment.student.id = :studentId GROUP BY pd.session.id")
+    List<SessionAmountRow> sumAmountPaidBySessionForStudent(@Param("studentId") Long studentId);
 
-}
\ No newline at end of file
+    /**
+     * Récupère tous les détails de paiement d'un étudiant sans charger les entités.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @return une ligne par détail rattaché à une session, triées par ID
+     */
+    @Query("SELECT new com.school.management.repository.projection.StudentHistoryPaymentRow(" +
+            "pd.session.id, pd.amountPaid, pd.paymentDate, p.status) " +
+            "FROM PaymentDetailEntity pd JOIN pd.payment p " +
+            "WHERE p.student.id = :studentId AND pd.session IS NOT NULL " +
+            "ORDER BY pd.id")
+    List<StudentHistoryPaymentRow> findHistoryRowsByStudentId(@Param("studentId") Long studentId);
+}
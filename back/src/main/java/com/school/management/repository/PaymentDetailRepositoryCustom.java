@@ -0,0 +1,28 @@
+package com.school.management.repository;
+
+import java.util.List;
+
+/**
+ * Opérations d'écriture en masse sur payment_detail qui contournent le
+ * contexte de persistance (l'ID IDENTITY empêche Hibernate de regrouper les INSERT).
+ */
+public interface PaymentDetailRepositoryCustom {
+
+    /**
+     * Détail de paiement à insérer.
+     *
+     * @param paymentId l'ID du paiement parent
+     * @param sessionId l'ID de la session
+     * @param amountPaid le montant affecté à la session
+     * @param catchUp true s'il s'agit d'un rattrapage
+     */
+    record NewPaymentDetail(Long paymentId, Long sessionId, double amountPaid, boolean catchUp) {}
+
+    /**
+     * Insère les détails en un seul batch JDBC.
+     *
+     * @param details les détails à insérer
+     * @return le nombre de lignes insérées
+     */
+    int batchInsert(List<NewPaymentDetail> details);
+}
@@ -0,0 +1,70 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.BaseEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implémentation JDBC de {@link PaymentDetailRepositoryCustom}.
+ *
+ * Les colonnes d'audit normalement renseignées par {@code BaseEntity.onCreate()}
+ * et {@code PaymentDetailEntity.onCreate()} sont alimentées ici explicitement :
+ * ces callbacks JPA ne sont pas appelés pour un INSERT JDBC. La version de verrouillage
+ * optimiste part de 0, comme pour une entité persistée par Hibernate.
+ */
+public class PaymentDetailRepositoryImpl implements PaymentDetailRepositoryCustom {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PaymentDetailRepositoryImpl.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO payment_detail " +
+            "(payment_id, session_id, amount_paid, payment_date, is_catch_up, date_creation, created_by, active, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentDetailRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int batchInsert(List<NewPaymentDetail> details) {
+        if (details.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                NewPaymentDetail detail = details.get(i);
+                ps.setLong(1, detail.paymentId());
+                ps.setLong(2, detail.sessionId());
+                ps.setDouble(3, detail.amountPaid());
+                ps.setTimestamp(4, timestamp);
+                ps.setBoolean(5, detail.catchUp());
+                ps.setTimestamp(6, timestamp);
+                ps.setString(7, BaseEntity.DEFAULT_CREATED_BY);
+                ps.setBoolean(8, true);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return details.size();
+            }
+        });
+
+        LOGGER.debug("Batch inserted {} payment details", counts.length);
+        return counts.length;
+    }
+}
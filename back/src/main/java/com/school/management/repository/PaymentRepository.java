@@ -1,15 +1,23 @@
 package com.school.management.repository;
 
 import com.school.management.persistance.PaymentEntity;
+import com.school.management.repository.projection.PaymentExportRow;
+import com.school.management.repository.projection.PaymentListRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
@@ -26,12 +34,70 @@ public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
     @Query("SELECT p FROM PaymentEntity p WHERE p.student.id = :studentId ORDER BY p.paymentDate DESC")
     Page<PaymentEntity> findAllByStudentId(@Param("studentId") Long studentId, Pageable pageable);
 
+    /**
+     * Page de paiements en projection, avec le prix par session et le nombre de sessions
+     * de la série, en une seule requête quelle que soit la taille de la page.
+     *
+     * @param pageable les paramètres de pagination (tri sur les attributs de PaymentEntity)
+     * @return une page de lignes
+     */
+    @Query(value = "SELECT new com.school.management.repository.projection.PaymentListRow(" +
+            "p.student.id, g.id, ss.id, se.id, p.amountPaid, p.paymentForMonth, p.status, p.paymentMethod, " +
+            "p.description, pr.price, (SELECT COUNT(s2) FROM SessionEntity s2 WHERE s2.sessionSeries = ss)) " +
+            "FROM PaymentEntity p LEFT JOIN p.group g LEFT JOIN g.price pr " +
+            "LEFT JOIN p.sessionSeries ss LEFT JOIN p.session se",
+            countQuery = "SELECT COUNT(p) FROM PaymentEntity p")
+    Page<PaymentListRow> findPaymentListRows(Pageable pageable);
+
+    /**
+     * Page des paiements d'un étudiant en projection (voir {@link #findPaymentListRows(Pageable)}).
+     *
+     * @param studentId l'ID de l'étudiant
+     * @param pageable les paramètres de pagination
+     * @return une page de lignes
+     */
+    @Query(value = "SELECT new com.school.management.repository.projection.PaymentListRow(" +
+            "p.student.id, g.id, ss.id, se.id, p.amountPaid, p.paymentForMonth, p.status, p.paymentMethod, " +
+            "p.description, pr.price, (SELECT COUNT(s2) FROM SessionEntity s2 WHERE s2.sessionSeries = ss)) " +
+            "FROM PaymentEntity p LEFT JOIN p.group g LEFT JOIN g.price pr " +
+            "LEFT JOIN p.sessionSeries ss LEFT JOIN p.session se " +
+            "WHERE p.student.id = :studentId",
+            countQuery = "SELECT COUNT(p) FROM PaymentEntity p WHERE p.student.id = :studentId")
+    Page<PaymentListRow> findPaymentListRowsByStudentId(@Param("studentId") Long studentId, Pageable pageable);
+
     Optional<PaymentEntity> findByStudentIdAndGroupIdAndSessionSeriesId(Long studentId, Long groupId, Long sessionSeriesId);
 
+    List<PaymentEntity> findByStudentIdInAndSessionSeriesIdIn(Collection<Long> studentIds, Collection<Long> sessionSeriesIds);
+
     @Query("SELECT p.amountPaid FROM PaymentEntity p WHERE p.student.id = :studentId AND p.sessionSeries.id = :sessionSeriesId")
     Double findAmountPaidForStudentAndSeries(@Param("studentId") Long studentId, @Param("sessionSeriesId") Long sessionSeriesId);
 
     @Query("SELECT p FROM PaymentEntity p WHERE p.student.id = :studentId AND p.sessionSeries.id = :sessionSeriesId")
     List<PaymentEntity> findAllByStudentIdAndSessionSeriesId(Long studentId, Long sessionSeriesId);
 
+    /**
+     * Parcourt les paiements d'une période sous forme de projection plate, en flux.
+     *
+     * Le curseur est lu par paquets de taille fixe et aucune entité n'est chargée dans
+     * le contexte de persistance. Le flux doit être consommé puis fermé à l'intérieur
+     * d'une transaction en lecture seule.
+     *
+     * @param from début de période (inclus)
+     * @param to fin de période (exclue)
+     * @return le flux des lignes d'export, triées par ID de paiement
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.school.management.repository.projection.PaymentExportRow(" +
+            "p.id, p.paymentDate, s.id, s.firstName, s.lastName, g.id, g.name, ss.id, ss.name, se.id, " +
+            "p.amountPaid, p.status, p.paymentMethod) " +
+            "FROM PaymentEntity p JOIN p.student s " +
+            "LEFT JOIN p.group g LEFT JOIN p.sessionSeries ss LEFT JOIN p.session se " +
+            "WHERE p.paymentDate >= :from AND p.paymentDate < :to " +
+            "ORDER BY p.id")
+    Stream<PaymentExportRow> streamForExport(@Param("from") Date from, @Param("to") Date to);
+
 }
@@ -0,0 +1,30 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.PaymentScanRunEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PaymentScanRunRepository extends JpaRepository<PaymentScanRunEntity, Long> {
+
+    Optional<PaymentScanRunEntity> findFirstByOrderByIdDesc();
+
+    /**
+     * Avance le point de reprise d'une exécution.
+     */
+    @Modifying
+    @Query("UPDATE PaymentScanRunEntity r SET r.lastStudentId = :lastStudentId, " +
+            "r.chunksCompleted = :chunksCompleted, r.studentsScanned = :studentsScanned, " +
+            "r.rowsWritten = :rowsWritten " +
+            "WHERE r.id = :runId AND r.lastStudentId < :lastStudentId")
+    int updateCheckpoint(@Param("runId") Long runId,
+                         @Param("lastStudentId") Long lastStudentId,
+                         @Param("chunksCompleted") Integer chunksCompleted,
+                         @Param("studentsScanned") Long studentsScanned,
+                         @Param("rowsWritten") Long rowsWritten);
+}
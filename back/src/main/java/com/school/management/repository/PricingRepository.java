@@ -8,7 +8,7 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
-public interface PricingRepository extends JpaRepository<PricingEntity, Long> {
+public interface PricingRepository extends JpaRepository<PricingEntity, Long>, SoftDeleteRepository<PricingEntity> {
 
     // Find prices based on a specific value
     List<PricingEntity> findByPrice(BigDecimal price);
@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RoomRepository extends JpaRepository<RoomEntity, Long> {
+public interface RoomRepository extends JpaRepository<RoomEntity, Long>, SoftDeleteRepository<RoomEntity> {
 
     List<RoomEntity> findByCapacityGreaterThanEqual(Integer capacity);
     List<RoomEntity> findByNameContaining(String name);
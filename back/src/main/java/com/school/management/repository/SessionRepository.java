@@ -2,25 +2,40 @@ package com.school.management.repository;
 
 import com.school.management.persistance.SessionEntity;
 import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.repository.projection.SeriesSessionIdRow;
+import com.school.management.repository.projection.SessionListRow;
+import com.school.management.repository.projection.SessionSlotRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface SessionRepository extends JpaRepository<SessionEntity, Long>, JpaSpecificationExecutor<SessionEntity> {
+public interface SessionRepository extends JpaRepository<SessionEntity, Long>, JpaSpecificationExecutor<SessionEntity>,
+        SessionRepositoryCustom {
+
+    String LIST_ROW_SELECT = "SELECT new com.school.management.repository.projection.SessionListRow(" +
+            "s.id, s.title, s.sessionType, s.feedbackLink, s.isFinished, s.sessionTimeStart, s.sessionTimeEnd, " +
+            "g.id, g.name, t.id, t.firstName, t.lastName, r.id, r.name, ss.id, ss.name) " +
+            "FROM SessionEntity s LEFT JOIN s.group g LEFT JOIN s.teacher t LEFT JOIN s.room r " +
+            "LEFT JOIN s.sessionSeries ss ";
 
     List<SessionEntity> findByGroupId(Long groupId);
 
 
     List<SessionEntity> findBySessionSeries(SessionSeriesEntity series);
 
-    @Query("SELECT s from SessionEntity s JOIN FETCH s.group g JOIN FETCH s.room r JOIN FETCH s.teacher t")
-    List<SessionEntity> findAllWithDetails();
-
     List<SessionEntity> findBySessionSeriesId(Long sessionSeriesId);
 
     List<SessionEntity> findBySessionTimeStartBetween(LocalDateTime start, LocalDateTime end);
@@ -28,4 +43,105 @@ public interface SessionRepository extends JpaRepository<SessionEntity, Long>, J
     List<SessionEntity> findByGroupIdAndSessionTimeStartBetween(Long groupId, LocalDateTime start, LocalDateTime end);
 
     int countBySessionSeriesId(Long sessionSeriesId);
+
+    /**
+     * Récupère uniquement les IDs des sessions d'une série, en ordre chronologique.
+     *
+     * @param sessionSeriesId l'ID de la série
+     * @return les IDs triés par date de début
+     */
+    @Query("SELECT s.id FROM SessionEntity s WHERE s.sessionSeries.id = :sessionSeriesId ORDER BY s.sessionTimeStart, s.id")
+    List<Long> findIdsBySessionSeriesIdOrderByStart(@Param("sessionSeriesId") Long sessionSeriesId);
+
+    /**
+     * Récupère les IDs des sessions de plusieurs séries, en ordre chronologique dans chaque série.
+     *
+     * @param seriesIds les IDs des séries
+     * @return les couples (série, session)
+     */
+    @Query("SELECT new com.school.management.repository.projection.SeriesSessionIdRow(s.sessionSeries.id, s.id) " +
+            "FROM SessionEntity s WHERE s.sessionSeries.id IN :seriesIds " +
+            "ORDER BY s.sessionSeries.id, s.sessionTimeStart, s.id")
+    List<SeriesSessionIdRow> findIdsBySessionSeriesIdIn(@Param("seriesIds") Collection<Long> seriesIds);
+
+    /**
+     * Récupère les créneaux des sessions qui finissent après la date donnée.
+     *
+     * @param from la date de début de l'horizon
+     * @return les créneaux occupés
+     */
+    @Query("SELECT new com.school.management.repository.projection.SessionSlotRow(" +
+            "s.id, s.group.id, s.teacher.id, s.room.id, s.sessionTimeStart, s.sessionTimeEnd) " +
+            "FROM SessionEntity s WHERE s.sessionTimeEnd > :from")
+    List<SessionSlotRow> findSlotsEndingAfter(@Param("from") Date from);
+
+    /**
+     * Récupère les créneaux qui chevauchent l'intervalle [from, to[ et mobilisent l'un
+     * des groupes, enseignants ou salles donnés.
+     *
+     * @return les créneaux occupés
+     */
+    @Query("SELECT new com.school.management.repository.projection.SessionSlotRow(" +
+            "s.id, s.group.id, s.teacher.id, s.room.id, s.sessionTimeStart, s.sessionTimeEnd) " +
+            "FROM SessionEntity s " +
+            "WHERE s.sessionTimeStart < :to AND s.sessionTimeEnd > :from " +
+            "AND (s.group.id IN :groupIds OR s.teacher.id IN :teacherIds OR s.room.id IN :roomIds)")
+    List<SessionSlotRow> findSlotsOverlapping(@Param("from") Date from,
+                                              @Param("to") Date to,
+                                              @Param("groupIds") Collection<Long> groupIds,
+                                              @Param("teacherIds") Collection<Long> teacherIds,
+                                              @Param("roomIds") Collection<Long> roomIds);
+
+    /**
+     * Récupère toutes les sessions en lignes plates, triées par date de début puis ID.
+     *
+     * @return toutes les sessions
+     */
+    @Query(LIST_ROW_SELECT + "ORDER BY s.sessionTimeStart, s.id")
+    List<SessionListRow> findAllListRows();
+
+    /**
+     * Récupère la première page des sessions datées, triées par date de début puis ID.
+     *
+     * Les sessions sans date de début ne peuvent pas être situées par un curseur : elles
+     * sont exclues de la pagination.
+     *
+     * @param pageable la taille de page (le numéro de page est ignoré)
+     * @return les sessions de la page
+     */
+    @Query(LIST_ROW_SELECT + "WHERE s.sessionTimeStart IS NOT NULL ORDER BY s.sessionTimeStart, s.id")
+    List<SessionListRow> findListRows(Pageable pageable);
+
+    /**
+     * Récupère les sessions qui suivent la position (cursorStart, cursorId) dans l'ordre
+     * (date de début, ID). La comparaison de ligne borne le parcours d'idx_session_start ;
+     * elle exclut d'elle-même les sessions sans date de début.
+     *
+     * @param cursorStart la date de début de la dernière session lue
+     * @param cursorId l'ID de la dernière session lue
+     * @param pageable la taille de page (le numéro de page est ignoré)
+     * @return les sessions de la page
+     */
+    @Query(LIST_ROW_SELECT +
+            "WHERE (s.sessionTimeStart, s.id) > (:cursorStart, :cursorId) " +
+            "ORDER BY s.sessionTimeStart, s.id")
+    List<SessionListRow> findListRowsAfter(@Param("cursorStart") Date cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable pageable);
+
+    /**
+     * Parcourt toutes les sessions en lignes plates avec un curseur en lecture seule.
+     *
+     * Le flux doit être fermé par l'appelant et consommé à l'intérieur d'une transaction
+     * en lecture seule.
+     *
+     * @return le flux des sessions, triées par date de début puis ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(LIST_ROW_SELECT + "ORDER BY s.sessionTimeStart, s.id")
+    Stream<SessionListRow> streamAllListRows();
 }
@@ -0,0 +1,23 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.SessionEntity;
+
+import java.util.List;
+
+/**
+ * Opérations d'écriture en masse sur session qui contournent le
+ * contexte de persistance (l'ID IDENTITY empêche Hibernate de regrouper les INSERT).
+ */
+public interface SessionRepositoryCustom {
+
+    /**
+     * Insère les sessions en un seul batch JDBC et renseigne l'ID généré et les
+     * colonnes d'audit sur chaque entité.
+     *
+     * Les entités ne sont pas attachées au contexte de persistance.
+     *
+     * @param sessions les sessions à insérer, sans ID
+     * @return le nombre de lignes insérées
+     */
+    int batchInsert(List<SessionEntity> sessions);
+}
@@ -0,0 +1,100 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.BaseEntity;
+import com.school.management.persistance.SessionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Implémentation JDBC de {@link SessionRepositoryCustom}.
+ *
+ * Les colonnes d'audit normalement renseignées par {@code BaseEntity.onCreate()}
+ * sont alimentées ici explicitement.
+ */
+public class SessionRepositoryImpl implements SessionRepositoryCustom {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionRepositoryImpl.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO session " +
+            "(title, session_type, feedback_link, is_finished, group_id, teacher_id, room_id, session_series_id, " +
+            " session_time_start, session_time_end, description, date_creation, created_by, active) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int batchInsert(List<SessionEntity> sessions) {
+        if (sessions.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        Integer inserted = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (SessionEntity session : sessions) {
+                    ps.setString(1, session.getTitle());
+                    ps.setString(2, session.getSessionType());
+                    ps.setString(3, session.getFeedbackLink());
+                    ps.setObject(4, session.getIsFinished() != null ? session.getIsFinished() : Boolean.FALSE, Types.BOOLEAN);
+                    ps.setObject(5, session.getGroup() != null ? session.getGroup().getId() : null, Types.BIGINT);
+                    ps.setObject(6, session.getTeacher() != null ? session.getTeacher().getId() : null, Types.BIGINT);
+                    ps.setObject(7, session.getRoom() != null ? session.getRoom().getId() : null, Types.BIGINT);
+                    ps.setObject(8, session.getSessionSeries() != null ? session.getSessionSeries().getId() : null, Types.BIGINT);
+                    ps.setTimestamp(9, toTimestamp(session.getSessionTimeStart()));
+                    ps.setTimestamp(10, toTimestamp(session.getSessionTimeEnd()));
+                    ps.setString(11, session.getDescription());
+                    ps.setTimestamp(12, timestamp);
+                    ps.setString(13, BaseEntity.DEFAULT_CREATED_BY);
+                    ps.setBoolean(14, true);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                return assignGeneratedIds(ps, sessions);
+            }
+        });
+
+        for (SessionEntity session : sessions) {
+            session.setDateCreation(now);
+            session.setCreatedBy(BaseEntity.DEFAULT_CREATED_BY);
+            session.setActive(true);
+        }
+
+        LOGGER.debug("Batch inserted {} sessions", inserted);
+        return inserted != null ? inserted : 0;
+    }
+
+    private static Timestamp toTimestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+
+    /**
+     * Reporte les clés générées sur les entités, dans l'ordre du batch.
+     */
+    private int assignGeneratedIds(PreparedStatement ps, List<SessionEntity> sessions) throws SQLException {
+        int index = 0;
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            while (keys.next() && index < sessions.size()) {
+                sessions.get(index++).setId(keys.getLong(1));
+            }
+        }
+        return index;
+    }
+}
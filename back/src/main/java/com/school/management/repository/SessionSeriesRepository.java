@@ -1,10 +1,16 @@
 package com.school.management.repository;
 
 import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.repository.projection.StudentHistorySessionRow;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,5 +20,34 @@ public interface SessionSeriesRepository extends JpaRepository<SessionSeriesEnti
     @EntityGraph(attributePaths = {"sessions"})
     List<SessionSeriesEntity> findByGroupId(Long id);
 
+    /**
+     * Aplatit les séries des groupes donnés et leurs sessions, avec le prix par session
+     * du groupe de chaque série.
+     *
+     * @param groupIds les IDs des groupes
+     * @return les lignes triées par groupe, série, date de début puis ID de session
+     */
+    @Query("SELECT new com.school.management.repository.projection.StudentHistorySessionRow(" +
+            "g.id, pr.price, ser.id, ser.name, s.id, s.title, s.sessionTimeStart, s.active) " +
+            "FROM SessionSeriesEntity ser " +
+            "JOIN ser.group g " +
+            "JOIN ser.sessions s " +
+            "LEFT JOIN g.price pr " +
+            "WHERE g.id IN :groupIds " +
+            "ORDER BY g.id, ser.id, s.sessionTimeStart, s.id")
+    List<StudentHistorySessionRow> findHistorySessionRows(@Param("groupIds") Collection<Long> groupIds);
 
+    /**
+     * Relève le nombre total de séances prévu au nombre de sessions réellement créées,
+     * lorsque celui-ci le dépasse.
+     *
+     * @return le nombre de séries modifiées
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE session_series ss SET total_sessions = c.created, date_update = :now " +
+            "FROM (SELECT session_series_id, COUNT(*) AS created FROM session " +
+            "      WHERE session_series_id IN (:ids) GROUP BY session_series_id) c " +
+            "WHERE ss.id = c.session_series_id AND ss.total_sessions < c.created",
+            nativeQuery = true)
+    int raiseTotalSessionsToCreatedCount(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
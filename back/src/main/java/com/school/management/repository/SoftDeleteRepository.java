@@ -0,0 +1,52 @@
+package com.school.management.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Désactivation / réactivation ensembliste des entités dérivées de BaseEntity.
+ *
+ * Une seule requête UPDATE par appel, sans chargement des entités : seules les lignes
+ * dont l'état change voient leur date_update mise à jour. Le contexte de persistance
+ * est vidé après la requête pour ne pas garder d'entités périmées.
+ *
+ * @param <T> le type d'entité
+ */
+@NoRepositoryBean
+public interface SoftDeleteRepository<T> extends Repository<T, Long> {
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE #{#entityName} e SET e.active = :active, e.dateUpdate = :now " +
+            "WHERE e.id IN :ids AND (e.active IS NULL OR e.active <> :active)")
+    int updateActiveByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("active") boolean active,
+                           @Param("now") LocalDateTime now);
+
+    /**
+     * Désactive les entités données (suppression logique).
+     *
+     * @param ids les IDs à désactiver ; les IDs inconnus sont ignorés
+     * @return le nombre de lignes modifiées
+     */
+    default int deactivateAllById(Collection<Long> ids) {
+        return ids.isEmpty() ? 0 : updateActiveByIdIn(ids, false, LocalDateTime.now());
+    }
+
+    /**
+     * Réactive les entités données.
+     *
+     * @param ids les IDs à réactiver ; les IDs inconnus sont ignorés
+     * @return le nombre de lignes modifiées
+     */
+    default int reactivateAllById(Collection<Long> ids) {
+        return ids.isEmpty() ? 0 : updateActiveByIdIn(ids, true, LocalDateTime.now());
+    }
+}
@@ -1,17 +1,22 @@
 package com.school.management.repository;
 
 import com.school.management.persistance.StudentEntity;
+import com.school.management.repository.projection.NameIndexRow;
+import com.school.management.repository.projection.StudentGroupIdRow;
+import com.school.management.repository.projection.StudentHistoryGroupRow;
+import com.school.management.repository.projection.StudentSessionRow;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StudentRepository extends JpaRepository<StudentEntity, Long> {
+public interface StudentRepository extends JpaRepository<StudentEntity, Long>, SoftDeleteRepository<StudentEntity> {
 
     List<StudentEntity> findByGroups_Id(Long groupId);
 
@@ -34,6 +39,86 @@ public interface StudentRepository extends JpaRepository<StudentEntity, Long> {
             "WHERE s.id = :studentId")
     StudentEntity findStudentWithAllData(@Param("studentId") Long studentId);
 
-    @EntityGraph(value = "Student.withAllData", type = EntityGraph.EntityGraphType.LOAD)
-    Optional<StudentEntity> findById(Long id);
+    /**
+     * Récupère les groupes de plusieurs étudiants sans charger les entités.
+     *
+     * @param studentIds les IDs des étudiants
+     * @return les couples (étudiant, groupe)
+     */
+    @Query("SELECT new com.school.management.repository.projection.StudentGroupIdRow(s.id, g.id) " +
+            "FROM StudentEntity s JOIN s.groups g WHERE s.id IN :studentIds")
+    List<StudentGroupIdRow> findGroupIdsByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * Filtre les IDs d'étudiants qui existent réellement.
+     *
+     * @param studentIds les IDs à vérifier
+     * @return les IDs existants
+     */
+    @Query("SELECT s.id FROM StudentEntity s WHERE s.id IN :studentIds")
+    List<Long> findExistingIds(@Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * Aplatit l'arbre groupes → séries → sessions d'un étudiant en une seule requête,
+     * avec le prix par session du groupe de chaque session.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @return les lignes triées par groupe, série puis session
+     */
+    @Query("SELECT new com.school.management.repository.projection.StudentSessionRow(" +
+            "g.id, g.name, ser.id, ser.name, sess.id, sess.title, pr.price) " +
+            "FROM StudentEntity s " +
+            "JOIN s.groups g " +
+            "LEFT JOIN g.series ser " +
+            "LEFT JOIN ser.sessions sess " +
+            "LEFT JOIN sess.group sg " +
+            "LEFT JOIN sg.price pr " +
+            "WHERE s.id = :studentId " +
+            "ORDER BY g.id, ser.id, sess.id")
+    List<StudentSessionRow> findSessionRowsByStudentId(@Param("studentId") Long studentId);
+
+    /**
+     * Récupère les groupes d'un étudiant avec sa date d'inscription active à chacun.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @return une ligne par groupe (et par inscription active), triées par groupe
+     */
+    @Query("SELECT new com.school.management.repository.projection.StudentHistoryGroupRow(g.id, g.name, sg.dateAssigned) " +
+            "FROM StudentEntity s " +
+            "JOIN s.groups g " +
+            "LEFT JOIN StudentGroupEntity sg ON sg.student = s AND sg.group = g AND sg.active = true " +
+            "WHERE s.id = :studentId " +
+            "ORDER BY g.id, sg.id")
+    List<StudentHistoryGroupRow> findHistoryGroupRows(@Param("studentId") Long studentId);
+
+    /**
+     * Récupère un étudiant avec ses groupes, pour les réponses qui exposent ses groupes.
+     *
+     * {@code findById} ne charge que l'étudiant : cette méthode est à utiliser seulement
+     * là où les groupes sont lus.
+     *
+     * @param id l'ID de l'étudiant
+     * @return l'étudiant avec ses groupes
+     */
+    @EntityGraph(attributePaths = "groups")
+    Optional<StudentEntity> findWithGroupsById(Long id);
+
+    /**
+     * Récupère le nom et la photo des étudiants actifs, pour l'index d'autocomplétion.
+     *
+     * @return une ligne par étudiant actif
+     */
+    @Query("SELECT new com.school.management.repository.projection.NameIndexRow(s.id, s.firstName, s.lastName, s.photo) " +
+            "FROM StudentEntity s WHERE COALESCE(s.active, true) = true")
+    List<NameIndexRow> findActiveNameIndexRows();
+
+    /**
+     * Récupère le nom et la photo des étudiants donnés, pour l'index d'autocomplétion.
+     *
+     * @param ids les IDs
+     * @return une ligne par ID existant
+     */
+    @Query("SELECT new com.school.management.repository.projection.NameIndexRow(s.id, s.firstName, s.lastName, s.photo) " +
+            "FROM StudentEntity s WHERE s.id IN :ids")
+    List<NameIndexRow> findNameIndexRowsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,47 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.StudentSeriesBalanceEntity;
+import com.school.management.repository.projection.StudentPaymentStatusRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StudentSeriesBalanceRepository extends JpaRepository<StudentSeriesBalanceEntity, Long> {
+
+    @Query("SELECT b FROM StudentSeriesBalanceEntity b WHERE b.student.id = :studentId AND b.sessionSeries.id = :sessionSeriesId")
+    Optional<StudentSeriesBalanceEntity> findByStudentIdAndSessionSeriesId(@Param("studentId") Long studentId,
+                                                                           @Param("sessionSeriesId") Long sessionSeriesId);
+
+    @Query("SELECT b FROM StudentSeriesBalanceEntity b WHERE b.student.id = :studentId ORDER BY b.sessionSeries.id")
+    List<StudentSeriesBalanceEntity> findByStudentId(@Param("studentId") Long studentId);
+
+    /**
+     * Récupère en une seule requête les étudiants d'un groupe avec, pour chacun,
+     * le cumul de ses soldes sur les séries du groupe : sessions présentes,
+     * montant dû et montant payé.
+     *
+     * @param groupId l'ID du groupe
+     * @return une ligne par étudiant du groupe
+     */
+    @Query("SELECT new com.school.management.repository.projection.StudentPaymentStatusRow(" +
+            "s.id, s.firstName, s.lastName, s.email, s.gender, s.phoneNumber, s.dateOfBirth, " +
+            "s.placeOfBirth, s.photo, l.id, t.id, s.establishment, s.averageScore, s.active, " +
+            "(SELECT COALESCE(SUM(b.sessionsAttended), 0) FROM StudentSeriesBalanceEntity b " +
+            "   WHERE b.student = s AND b.sessionSeries.group.id = :groupId), " +
+            "(SELECT COALESCE(SUM(b.amountDue), 0.0) FROM StudentSeriesBalanceEntity b " +
+            "   WHERE b.student = s AND b.sessionSeries.group.id = :groupId), " +
+            "(SELECT COALESCE(SUM(b.amountPaid), 0.0) FROM StudentSeriesBalanceEntity b " +
+            "   WHERE b.student = s AND b.sessionSeries.group.id = :groupId)) " +
+            "FROM StudentEntity s " +
+            "JOIN s.groups g " +
+            "LEFT JOIN s.level l " +
+            "LEFT JOIN s.tutor t " +
+            "WHERE g.id = :groupId " +
+            "ORDER BY s.lastName, s.firstName, s.id")
+    List<StudentPaymentStatusRow> findPaymentStatusRowsByGroupId(@Param("groupId") Long groupId);
+}
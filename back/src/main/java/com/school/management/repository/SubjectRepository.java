@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface SubjectRepository extends JpaRepository<SubjectEntity, Long> {
+public interface SubjectRepository extends JpaRepository<SubjectEntity, Long>, SoftDeleteRepository<SubjectEntity> {
 
     List<SubjectEntity> findByNameContaining(String name);
 
@@ -1,15 +1,18 @@
 package com.school.management.repository;
 
 import com.school.management.persistance.TeacherEntity;
+import com.school.management.repository.projection.NameIndexRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TeacherRepository extends JpaRepository<TeacherEntity, Long> {
+public interface TeacherRepository extends JpaRepository<TeacherEntity, Long>, SoftDeleteRepository<TeacherEntity> {
 
     // Custom methods:
     List<TeacherEntity> findByLastName(String lastName);
@@ -21,4 +24,23 @@ public interface TeacherRepository extends JpaRepository<TeacherEntity, Long> {
 
     @Query("SELECT CONCAT(t.firstName, ' ', t.lastName) FROM TeacherEntity t WHERE t.id = :id")
     Optional<String> findTeacherNameById(Long id);
+
+    /**
+     * Récupère le nom et la photo des enseignants actifs, pour l'index d'autocomplétion.
+     *
+     * @return une ligne par enseignant actif
+     */
+    @Query("SELECT new com.school.management.repository.projection.NameIndexRow(t.id, t.firstName, t.lastName, t.photo) " +
+            "FROM TeacherEntity t WHERE COALESCE(t.active, true) = true")
+    List<NameIndexRow> findActiveNameIndexRows();
+
+    /**
+     * Récupère le nom et la photo des enseignants donnés, pour l'index d'autocomplétion.
+     *
+     * @param ids les IDs
+     * @return une ligne par ID existant
+     */
+    @Query("SELECT new com.school.management.repository.projection.NameIndexRow(t.id, t.firstName, t.lastName, t.photo) " +
+            "FROM TeacherEntity t WHERE t.id IN :ids")
+    List<NameIndexRow> findNameIndexRowsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,21 @@
+package com.school.management.repository.projection;
+
+/**
+ * Projection plate d'une ligne de feuille de présence.
+ *
+ * Une ligne par étudiant inscrit dans le groupe à la date de la session : sa présence
+ * active éventuelle (champs nuls si aucune), le montant qu'il a payé pour la session
+ * et le prix d'une session du groupe.
+ */
+public record AttendanceSheetRow(
+        Long studentId,
+        String firstName,
+        String lastName,
+        String gender,
+        Long attendanceId,
+        Boolean isPresent,
+        Boolean isJustified,
+        Boolean isCatchUp,
+        Double amountPaid,
+        Double pricePerSession
+) {}
@@ -0,0 +1,15 @@
+package com.school.management.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Empreinte d'une fenêtre du calendrier : nombre de sessions et dernières dates de
+ * modification des sessions et des libellés affichés (groupe, enseignant, salle).
+ */
+public record CalendarVersionRow(
+        Long sessionCount,
+        LocalDateTime sessionsUpdatedAt,
+        LocalDateTime groupsUpdatedAt,
+        LocalDateTime teachersUpdatedAt,
+        LocalDateTime roomsUpdatedAt
+) {}
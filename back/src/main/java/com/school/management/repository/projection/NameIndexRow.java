@@ -0,0 +1,7 @@
+package com.school.management.repository.projection;
+
+/**
+ * Projection minimale d'un étudiant, d'un enseignant ou d'un groupe pour l'index
+ * d'autocomplétion. Pour un groupe, {@code firstName} porte le nom et {@code lastName} est vide.
+ */
+public record NameIndexRow(Long id, String firstName, String lastName, String photo) {}
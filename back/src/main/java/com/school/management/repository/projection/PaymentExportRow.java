@@ -0,0 +1,25 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Ligne d'export d'un paiement, aplatie avec les noms de l'étudiant, du groupe et de la série.
+ *
+ * Les colonnes de groupe, de série et de session sont nulles selon le type de paiement
+ * (paiement de série ou rattrapage sur une session unique).
+ */
+public record PaymentExportRow(
+        Long paymentId,
+        Date paymentDate,
+        Long studentId,
+        String studentFirstName,
+        String studentLastName,
+        Long groupId,
+        String groupName,
+        Long sessionSeriesId,
+        String sessionSeriesName,
+        Long sessionId,
+        Double amountPaid,
+        String status,
+        String paymentMethod
+) {}
@@ -0,0 +1,21 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Ligne de la liste paginée des paiements, avec le prix par session du groupe et
+ * le nombre de sessions de la série, nécessaires au calcul du coût de la série.
+ */
+public record PaymentListRow(
+        Long studentId,
+        Long groupId,
+        Long sessionSeriesId,
+        Long sessionId,
+        Double amountPaid,
+        Date paymentForMonth,
+        String status,
+        String paymentMethod,
+        String description,
+        Double pricePerSession,
+        Long seriesSessionCount
+) {}
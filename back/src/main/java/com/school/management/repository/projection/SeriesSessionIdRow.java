@@ -0,0 +1,9 @@
+package com.school.management.repository.projection;
+
+/**
+ * Couple (série, session) sans chargement de l'entité session.
+ */
+public record SeriesSessionIdRow(
+        Long seriesId,
+        Long sessionId
+) {}
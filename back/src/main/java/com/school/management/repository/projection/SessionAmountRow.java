@@ -0,0 +1,9 @@
+package com.school.management.repository.projection;
+
+/**
+ * Montant total payé par session.
+ */
+public record SessionAmountRow(
+        Long sessionId,
+        Double amountPaid
+) {}
@@ -0,0 +1,28 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Projection plate d'une session pour les listes complètes (GET /api/sessions).
+ *
+ * Porte tous les champs de SessionDTO ; le groupe, l'enseignant, la salle et la série
+ * sont lus par jointure externe dans la même requête.
+ */
+public record SessionListRow(
+        Long id,
+        String title,
+        String sessionType,
+        String feedbackLink,
+        Boolean isFinished,
+        Date sessionTimeStart,
+        Date sessionTimeEnd,
+        Long groupId,
+        String groupName,
+        Long teacherId,
+        String teacherFirstName,
+        String teacherLastName,
+        Long roomId,
+        String roomName,
+        Long sessionSeriesId,
+        String seriesName
+) {}
@@ -0,0 +1,16 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Créneau occupé par une session : ressources mobilisées (groupe, enseignant, salle)
+ * et intervalle [start, end[.
+ */
+public record SessionSlotRow(
+        Long sessionId,
+        Long groupId,
+        Long teacherId,
+        Long roomId,
+        Date start,
+        Date end
+) {}
@@ -0,0 +1,26 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Projection plate d'une session pour le calendrier et les résultats de recherche.
+ *
+ * Les libellés du groupe, de l'enseignant et de la salle sont lus par jointure externe
+ * dans la même requête.
+ */
+public record SessionSummaryRow(
+        Long id,
+        String title,
+        String sessionType,
+        Boolean isFinished,
+        Date sessionTimeStart,
+        Date sessionTimeEnd,
+        Long groupId,
+        String groupName,
+        Long teacherId,
+        String teacherFirstName,
+        String teacherLastName,
+        Long roomId,
+        String roomName,
+        Long sessionSeriesId
+) {}
@@ -0,0 +1,9 @@
+package com.school.management.repository.projection;
+
+/**
+ * Couple (étudiant, groupe) issu de la table d'association student_groups.
+ */
+public record StudentGroupIdRow(
+        Long studentId,
+        Long groupId
+) {}
@@ -0,0 +1,15 @@
+package com.school.management.repository.projection;
+
+/**
+ * Présence d'un étudiant à une session, avec le groupe où elle a été enregistrée
+ * (utile pour les rattrapages).
+ */
+public record StudentHistoryAttendanceRow(
+        Long sessionId,
+        Long groupId,
+        String groupName,
+        Boolean isPresent,
+        Boolean isJustified,
+        Boolean isCatchUp,
+        Boolean active
+) {}
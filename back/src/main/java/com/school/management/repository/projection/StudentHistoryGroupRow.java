@@ -0,0 +1,15 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Groupe où un étudiant est inscrit, avec sa date d'inscription active.
+ *
+ * La date est nulle lorsqu'aucune inscription active n'est enregistrée dans
+ * student_group.
+ */
+public record StudentHistoryGroupRow(
+        Long groupId,
+        String groupName,
+        Date enrollmentDate
+) {}
@@ -0,0 +1,13 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Détail de paiement d'un étudiant pour une session, avec le statut du paiement parent.
+ */
+public record StudentHistoryPaymentRow(
+        Long sessionId,
+        Double amountPaid,
+        Date paymentDate,
+        String paymentStatus
+) {}
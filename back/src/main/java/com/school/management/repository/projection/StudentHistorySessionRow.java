@@ -0,0 +1,18 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Ligne plate groupe → série → session pour l'historique d'un étudiant, avec le prix
+ * par session du groupe de la série.
+ */
+public record StudentHistorySessionRow(
+        Long groupId,
+        Double pricePerSession,
+        Long seriesId,
+        String seriesName,
+        Long sessionId,
+        String sessionTitle,
+        Date sessionTimeStart,
+        Boolean active
+) {}
@@ -0,0 +1,27 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Projection plate d'un étudiant pour les listes.
+ *
+ * Les IDs des groupes sont agrégés par une sous-requête en une chaîne séparée par des
+ * virgules (nulle si l'étudiant n'a aucun groupe), ce qui évite une requête par étudiant.
+ */
+public record StudentListRow(
+        Long id,
+        String firstName,
+        String lastName,
+        String gender,
+        String email,
+        String phoneNumber,
+        Date dateOfBirth,
+        String placeOfBirth,
+        String photo,
+        Long levelId,
+        Long tutorId,
+        String establishment,
+        Double averageScore,
+        Boolean active,
+        String groupIds
+) {}
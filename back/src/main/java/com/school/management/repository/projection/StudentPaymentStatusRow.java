@@ -0,0 +1,30 @@
+package com.school.management.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Projection plate d'un étudiant d'un groupe avec ses agrégats de paiement.
+ *
+ * Une ligne par étudiant : le nombre de sessions du groupe auxquelles il a assisté,
+ * le montant dû pour ces sessions et le montant qu'il a payé, cumulés sur les séries
+ * du groupe dans le registre des soldes.
+ */
+public record StudentPaymentStatusRow(
+        Long studentId,
+        String firstName,
+        String lastName,
+        String email,
+        String gender,
+        String phoneNumber,
+        Date dateOfBirth,
+        String placeOfBirth,
+        String photo,
+        Long levelId,
+        Long tutorId,
+        String establishment,
+        Double averageScore,
+        Boolean active,
+        Long attendedSessions,
+        Double amountDue,
+        Double amountPaid
+) {}
@@ -0,0 +1,9 @@
+package com.school.management.repository.projection;
+
+/**
+ * Couple (étudiant, session) d'une présence.
+ */
+public record StudentSessionIdRow(
+        Long studentId,
+        Long sessionId
+) {}
@@ -0,0 +1,17 @@
+package com.school.management.repository.projection;
+
+/**
+ * Ligne plate groupe → série → session pour un étudiant.
+ *
+ * Les colonnes de série et de session sont nulles lorsque le groupe n'a pas
+ * encore de série ou que la série n'a pas encore de session.
+ */
+public record StudentSessionRow(
+        Long groupId,
+        String groupName,
+        Long seriesId,
+        String seriesName,
+        Long sessionId,
+        String sessionTitle,
+        Double pricePerSession
+) {}
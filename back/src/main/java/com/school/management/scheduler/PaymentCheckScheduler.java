@@ -1,41 +1,46 @@
 package com.school.management.scheduler;
 
-import com.school.management.repository.GroupRepository;
-import com.school.management.repository.StudentRepository;
-import com.school.management.service.payment.PaymentStatusService;
+import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.payment.OverduePaymentScanService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
  * Scheduler pour vérifier les paiements en retard.
  *
- * PHASE 2 REFACTORING:
- * - Utilise PaymentStatusService au lieu de l'ancien PaymentService monolithique
- * - Prêt pour implémentation future de vérifications automatiques
+ * Lance chaque nuit le scan des retards de paiement, qui alimente la table
+ * overdue_payment_snapshot lue par les tableaux de bord. Une exécution interrompue
+ * est reprise à partir de sa dernière tranche terminée.
+ *
+ * Propriétés :
+ * - payment.overdue-scan.enabled (true par défaut)
+ * - payment.overdue-scan.cron (tous les jours à 2h par défaut)
+ * - payment.overdue-scan.chunk-size et payment.overdue-scan.workers
  */
 @Component
+@ConditionalOnProperty(name = "payment.overdue-scan.enabled", havingValue = "true", matchIfMissing = true)
 public class PaymentCheckScheduler {
 
-    private final StudentRepository studentRepository;
-    private final GroupRepository groupRepository;
-    private final PaymentStatusService paymentStatusService;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PaymentCheckScheduler.class);
+
+    private final OverduePaymentScanService overduePaymentScanService;
 
     @Autowired
-    public PaymentCheckScheduler(
-            StudentRepository studentRepository,
-            GroupRepository groupRepository,
-            PaymentStatusService paymentStatusService) {
-        this.studentRepository = studentRepository;
-        this.groupRepository = groupRepository;
-        this.paymentStatusService = paymentStatusService;
+    public PaymentCheckScheduler(OverduePaymentScanService overduePaymentScanService) {
+        this.overduePaymentScanService = overduePaymentScanService;
     }
 
-    // TODO: Implémenter la vérification automatique des paiements en retard
-    // Exécuter cette méthode une fois par jour à minuit
-    // @Scheduled(cron = "0 0 0 * * ?")
-    // public void checkOverduePayments() {
-    //     List<StudentPaymentStatus> overdueStudents = ...
-    //     // Send notifications, etc.
-    // }
+    @Scheduled(cron = "${payment.overdue-scan.cron:0 0 2 * * *}")
+    public void checkOverduePayments() {
+        LOGGER.info("Nightly overdue payment scan triggered");
+        try {
+            overduePaymentScanService.runScan();
+        } catch (CustomServiceException e) {
+            LOGGER.warn("Nightly overdue payment scan skipped: {}", e.getMessage());
+        }
+    }
 }
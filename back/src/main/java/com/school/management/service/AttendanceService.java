@@ -1,18 +1,35 @@
 package com.school.management.service;
 
+import com.school.management.domain.valueobject.Money;
 import com.school.management.dto.AttendanceDTO;
+import com.school.management.dto.session.AttendanceSheetEntryDTO;
 import com.school.management.mapper.AttendanceMapper;
 import com.school.management.persistance.AttendanceEntity;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
 import com.school.management.repository.*;
+import com.school.management.repository.projection.AttendanceSheetRow;
+import com.school.management.repository.projection.StudentSessionIdRow;
+import com.school.management.service.payment.BalanceLedgerService;
+import com.school.management.shared.exception.ResourceNotFoundException;
+import com.school.management.shared.mapper.EntityReferenceResolver;
 import com.school.management.shared.mapper.MappingContext;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class AttendanceService {
@@ -28,19 +45,26 @@ public class AttendanceService {
     private final SessionSeriesRepository sessionSeriesRepository;
     private final GroupRepository groupRepository;
 
+    private final BalanceLedgerService balanceLedgerService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // MappingContext pour AttendanceMapper
     private MappingContext mappingContext;
 
     @Autowired
     public AttendanceService(AttendanceRepository attendanceRepository, AttendanceMapper attendanceMapper,
                            StudentRepository studentRepository, SessionRepository sessionRepository,
-                           SessionSeriesRepository sessionSeriesRepository, GroupRepository groupRepository) {
+                           SessionSeriesRepository sessionSeriesRepository, GroupRepository groupRepository,
+                           BalanceLedgerService balanceLedgerService) {
         this.attendanceRepository = attendanceRepository;
         this.attendanceMapper = attendanceMapper;
         this.studentRepository = studentRepository;
         this.sessionRepository = sessionRepository;
         this.sessionSeriesRepository = sessionSeriesRepository;
         this.groupRepository = groupRepository;
+        this.balanceLedgerService = balanceLedgerService;
     }
 
     /**
@@ -65,10 +89,40 @@ public class AttendanceService {
     }
 
     /**
-     * Retourne le MappingContext pour utilisation par les controllers
+     * Retourne un MappingContext propre à la requête, qui résout les relations
+     * en références paresseuses (vérification d'existence groupée et mémorisée).
+     *
+     * @return le contexte de mapping en mode références
      */
     public MappingContext getMappingContext() {
-        return mappingContext;
+        return mappingContext.withReferences(new EntityReferenceResolver(entityManager));
+    }
+
+    /**
+     * Retourne un MappingContext pour un lot de présences : l'existence des étudiants,
+     * sessions, séries et groupes référencés est vérifiée en une requête par type.
+     *
+     * @param dtos les présences qui vont être mappées
+     * @return le contexte de mapping en mode références, préchargé
+     */
+    public MappingContext getMappingContext(List<AttendanceDTO> dtos) {
+        EntityReferenceResolver references = new EntityReferenceResolver(entityManager);
+        references.prefetch(StudentEntity.class, collectIds(dtos, AttendanceDTO::getStudentId));
+        references.prefetch(SessionEntity.class, collectIds(dtos, AttendanceDTO::getSessionId));
+        references.prefetch(SessionSeriesEntity.class, collectIds(dtos, AttendanceDTO::getSessionSeriesId));
+        references.prefetch(GroupEntity.class, collectIds(dtos, AttendanceDTO::getGroupId));
+        return mappingContext.withReferences(references);
+    }
+
+    private Set<Long> collectIds(List<AttendanceDTO> dtos, Function<AttendanceDTO, Long> extractor) {
+        Set<Long> ids = new HashSet<>();
+        for (AttendanceDTO dto : dtos) {
+            Long id = dto != null ? extractor.apply(dto) : null;
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
     }
 
     public List<AttendanceDTO> getAllAttendances() {
@@ -83,46 +137,138 @@ public class AttendanceService {
                 .orElseThrow(() -> new RuntimeException("Attendance not found")); // Customize this exception
     }
 
+    @Transactional
     public AttendanceEntity createAttendance(AttendanceEntity attendance) {
-        return attendanceRepository.save(attendance);
+        AttendanceEntity saved = attendanceRepository.save(attendance);
+        refreshBalances(saved);
+        return saved;
     }
 
+    @Transactional
     public AttendanceEntity updateAttendance(Long id) {
         AttendanceEntity existingAttendance = getAttendanceById(id);
         // Update properties of existingAttendance using values from updatedAttendance
         // ...
-        return attendanceRepository.save(existingAttendance);
+        AttendanceEntity saved = attendanceRepository.save(existingAttendance);
+        refreshBalances(saved);
+        return saved;
     }
 
+    @Transactional
     public void deleteAttendance(Long id) {
+        Long sessionId = attendanceRepository.findById(id)
+                .map(attendance -> attendance.getSession() != null ? attendance.getSession().getId() : null)
+                .orElse(null);
         attendanceRepository.deleteById(id);
+        balanceLedgerService.refreshForSession(sessionId);
     }
 
     //Save attendance
+    @Transactional
     public AttendanceEntity save(AttendanceEntity attendance) {
-        return attendanceRepository.save(attendance);
+        AttendanceEntity saved = attendanceRepository.save(attendance);
+        refreshBalances(saved);
+        return saved;
     }
 
+    /**
+     * Enregistre un lot de présences.
+     *
+     * Les doublons sont détectés en mémoire, dans le lot lui-même et contre les présences
+     * actives existantes récupérées en une seule requête ; les présences sont ensuite
+     * insérées par un batch JDBC. Le lot est rejeté en entier au premier conflit.
+     *
+     * @param attendances les présences à enregistrer
+     * @return les présences enregistrées, avec leur ID
+     * @throws IllegalArgumentException si une présence active existe déjà pour un couple (étudiant, session)
+     */
+    @Transactional
     public List<AttendanceEntity> saveAll(List<AttendanceEntity> attendances) {
+        if (attendances.isEmpty()) {
+            return attendances;
+        }
+
+        Set<Long> studentIds = new HashSet<>();
+        Set<Long> sessionIds = new HashSet<>();
+        Set<StudentSessionIdRow> batchPairs = new HashSet<>();
         for (AttendanceEntity attendance : attendances) {
-            if (attendanceRepository.existsByStudentIdAndSessionIdAndActiveTrue(attendance.getStudent().getId(), attendance.getSession().getId())) {
-                throw new IllegalArgumentException("Attendance already exists for student ID " + attendance.getStudent().getId() + " and session ID " + attendance.getSession().getId());
+            if (attendance.getStudent() == null || attendance.getSession() == null) {
+                throw new IllegalArgumentException("Attendance requires a student ID and a session ID");
             }
+            StudentSessionIdRow pair = new StudentSessionIdRow(attendance.getStudent().getId(), attendance.getSession().getId());
+            if (!batchPairs.add(pair)) {
+                throw new IllegalArgumentException("Duplicate attendance in request for student ID " + pair.studentId() + " and session ID " + pair.sessionId());
+            }
+            studentIds.add(pair.studentId());
+            sessionIds.add(pair.sessionId());
         }
-        return attendanceRepository.saveAll(attendances);
+
+        for (StudentSessionIdRow existing : attendanceRepository.findActivePairs(studentIds, sessionIds)) {
+            if (batchPairs.contains(existing)) {
+                throw new IllegalArgumentException("Attendance already exists for student ID " + existing.studentId() + " and session ID " + existing.sessionId());
+            }
+        }
+
+        attendanceRepository.batchInsert(attendances);
+        LOGGER.debug("Saved {} attendances for {} sessions", attendances.size(), sessionIds.size());
+
+        balanceLedgerService.refreshForSessions(sessionIds);
+        return attendances;
     }
 
     @Transactional
     public void deleteBySessionId(Long sessionId) {
         attendanceRepository.deleteBySessionId(sessionId);
+        balanceLedgerService.refreshForSession(sessionId);
     }
 
+    @Transactional
     public void deactivateBySessionId(Long sessionId) {
-        List<AttendanceEntity> attendances = attendanceRepository.findBySessionId(sessionId);
-        for (AttendanceEntity attendance : attendances) {
-            attendance.setActive(false);
+        attendanceRepository.deactivateBySessionId(sessionId, LocalDateTime.now());
+        balanceLedgerService.refreshForSession(sessionId);
+    }
+
+    /**
+     * Rafraîchit les soldes du registre impactés par une présence.
+     */
+    private void refreshBalances(AttendanceEntity attendance) {
+        if (attendance.getSession() != null) {
+            balanceLedgerService.refreshForSession(attendance.getSession().getId());
         }
-        attendanceRepository.saveAll(attendances);
+    }
+
+    /**
+     * Construit la feuille de présence d'une session.
+     *
+     * Une seule requête renvoie les étudiants éligibles (affectés au groupe au plus tard
+     * au début de la session), leur présence déjà saisie et le montant payé pour la
+     * session ; la session n'est relue que si la feuille est vide, pour distinguer une
+     * session sans étudiant d'une session inexistante.
+     *
+     * @param sessionId l'ID de la session
+     * @return une ligne par étudiant éligible, triée par nom
+     * @throws ResourceNotFoundException si la session n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceSheetEntryDTO> getAttendanceSheet(Long sessionId) {
+        List<AttendanceSheetRow> rows = attendanceRepository.findAttendanceSheet(sessionId);
+        if (rows.isEmpty() && !sessionRepository.existsById(sessionId)) {
+            throw new ResourceNotFoundException("Session", sessionId);
+        }
+        return rows.stream()
+                .map(row -> AttendanceSheetEntryDTO.builder()
+                        .studentId(row.studentId())
+                        .firstName(row.firstName())
+                        .lastName(row.lastName())
+                        .gender(row.gender())
+                        .attendanceId(row.attendanceId())
+                        .isPresent(row.isPresent())
+                        .isJustified(row.isJustified())
+                        .isCatchUp(row.isCatchUp())
+                        .amountPaid(row.amountPaid())
+                        .paid(Money.toCents(row.amountPaid()) >= Money.toCents(row.pricePerSession()))
+                        .build())
+                .toList();
     }
 
     public List<AttendanceDTO> getAttendanceBySessionId(Long sessionId) {
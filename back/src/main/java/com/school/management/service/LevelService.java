@@ -8,6 +8,7 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,10 +45,13 @@ public class LevelService {
         return levelRepository.save(levelToUpdate);
     }
 
-    public void disableLevels(Long id) {
-        levelRepository.findById(id).ifPresent(level -> {
-            level.setActive(false);
-            levelRepository.save(level);
-        });
+    @Transactional
+    public int disableLevels(Collection<Long> ids) {
+        return levelRepository.deactivateAllById(ids);
+    }
+
+    @Transactional
+    public int enableLevels(Collection<Long> ids) {
+        return levelRepository.reactivateAllById(ids);
     }
 }
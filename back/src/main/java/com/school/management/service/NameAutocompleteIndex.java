@@ -0,0 +1,375 @@
+package com.school.management.service;
+
+import com.school.management.repository.GroupRepository;
+import com.school.management.repository.StudentRepository;
+import com.school.management.repository.TeacherRepository;
+import com.school.management.repository.projection.NameIndexRow;
+import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.util.NameNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index en mémoire des noms des étudiants, enseignants et groupes actifs, pour
+ * l'autocomplétion.
+ *
+ * Chaque mot d'un nom est indexé sous sa forme repliée et sous sa clé de
+ * translittération ({@link NameNormalizer}) dans une table triée : les noms commençant
+ * par un préfixe forment un intervalle de la table, trouvé en O(log n). Une recherche
+ * ne touche pas la base.
+ *
+ * L'index est construit au démarrage puis chaque nuit ; il est tenu à jour par les
+ * créations, modifications, désactivations et réactivations, appliquées après le commit
+ * de la transaction. Celles appliquées pendant la lecture d'une reconstruction sont
+ * rejouées sur l'index reconstruit avant qu'il ne remplace l'index courant.
+ */
+@Component
+public class NameAutocompleteIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NameAutocompleteIndex.class);
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * Types d'entités indexées.
+     */
+    public enum Kind {
+        STUDENT, TEACHER, GROUP
+    }
+
+    /**
+     * Entrée renvoyée par une recherche. Pour un groupe, {@code lastName} est vide.
+     */
+    public record Entry(Long id, String firstName, String lastName, String photo) {
+
+        public String label() {
+            String first = firstName != null ? firstName.trim() : "";
+            String last = lastName != null ? lastName.trim() : "";
+            return first.isEmpty() || last.isEmpty() ? first + last : first + " " + last;
+        }
+    }
+
+    private record Indexed(Entry entry, String sortKey, List<String> words, List<String> keys) {}
+
+    /**
+     * Table d'un type d'entité : entrées par ID, IDs par mot (forme repliée ou clé).
+     */
+    private static final class KindIndex {
+        private final Map<Long, Indexed> byId = new HashMap<>();
+        private final NavigableMap<String, Set<Long>> idsByWord = new TreeMap<>();
+
+        void put(Entry entry) {
+            remove(entry.id());
+            List<String> words = NameNormalizer.foldedTokens(entry.label());
+            if (words.isEmpty()) {
+                return;
+            }
+            List<String> keys = words.stream().map(NameNormalizer::transliterate).toList();
+            byId.put(entry.id(), new Indexed(entry, String.join(" ", words), words, keys));
+            for (String word : words) {
+                idsByWord.computeIfAbsent(word, w -> new HashSet<>()).add(entry.id());
+            }
+            for (String key : keys) {
+                idsByWord.computeIfAbsent(key, k -> new HashSet<>()).add(entry.id());
+            }
+        }
+
+        void remove(Long id) {
+            Indexed previous = byId.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String word : previous.words()) {
+                unlink(word, id);
+            }
+            for (String key : previous.keys()) {
+                unlink(key, id);
+            }
+        }
+
+        private void unlink(String word, Long id) {
+            Set<Long> ids = idsByWord.get(word);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    idsByWord.remove(word);
+                }
+            }
+        }
+
+        void collect(String prefix, Set<Long> ids) {
+            idsByWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+        }
+    }
+
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+    private final GroupRepository groupRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Kind, KindIndex> indexes = new EnumMap<>(Kind.class);
+
+    /**
+     * Modifications appliquées pendant une reconstruction, à rejouer sur l'index
+     * reconstruit ; null hors reconstruction. Protégé par le verrou d'écriture.
+     */
+    private List<Runnable> changesDuringRebuild;
+
+    public NameAutocompleteIndex(StudentRepository studentRepository,
+                                 TeacherRepository teacherRepository,
+                                 GroupRepository groupRepository) {
+        this.studentRepository = studentRepository;
+        this.teacherRepository = teacherRepository;
+        this.groupRepository = groupRepository;
+        for (Kind kind : Kind.values()) {
+            indexes.put(kind, new KindIndex());
+        }
+    }
+
+    /**
+     * Reconstruit l'index à partir de la base : au démarrage, puis chaque nuit pour
+     * rattraper les écritures faites hors des services.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${autocomplete.index.refresh-cron:0 45 3 * * *}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Kind, KindIndex> rebuilt = new EnumMap<>(Kind.class);
+        try {
+            rebuilt.put(Kind.STUDENT, build(studentRepository.findActiveNameIndexRows()));
+            rebuilt.put(Kind.TEACHER, build(teacherRepository.findActiveNameIndexRows()));
+            rebuilt.put(Kind.GROUP, build(groupRepository.findActiveNameIndexRows()));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            indexes.putAll(rebuilt);
+            replayed = changesDuringRebuild.size();
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Autocomplete index rebuilt: {} students, {} teachers, {} groups, {} concurrent change(s) replayed",
+                rebuilt.get(Kind.STUDENT).byId.size(), rebuilt.get(Kind.TEACHER).byId.size(),
+                rebuilt.get(Kind.GROUP).byId.size(), replayed);
+    }
+
+    private static KindIndex build(List<NameIndexRow> rows) {
+        KindIndex index = new KindIndex();
+        for (NameIndexRow row : rows) {
+            index.put(toEntry(row));
+        }
+        return index;
+    }
+
+    /**
+     * Indexe ou réindexe des entrées après le commit de la transaction courante.
+     *
+     * @param kind le type d'entité
+     * @param rows les entrées, toutes actives
+     */
+    public void putAfterCommit(Kind kind, Collection<NameIndexRow> rows) {
+        List<Entry> entries = rows.stream().map(NameAutocompleteIndex::toEntry).toList();
+        runAfterCommit(() -> apply(() -> entries.forEach(indexes.get(kind)::put)));
+    }
+
+    /**
+     * Indexe une entité enregistrée, ou la retire si elle est inactive.
+     *
+     * @param kind le type d'entité
+     * @param row le nom et la photo de l'entité
+     * @param active l'état de l'entité (null vaut actif)
+     */
+    public void putAfterCommit(Kind kind, NameIndexRow row, Boolean active) {
+        if (row.id() == null) {
+            return;
+        }
+        if (Boolean.FALSE.equals(active)) {
+            removeAfterCommit(kind, List.of(row.id()));
+        } else {
+            putAfterCommit(kind, List.of(row));
+        }
+    }
+
+    /**
+     * Retire des entrées après le commit de la transaction courante.
+     *
+     * @param kind le type d'entité
+     * @param ids les IDs à retirer
+     */
+    public void removeAfterCommit(Kind kind, Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        runAfterCommit(() -> apply(() -> removed.forEach(indexes.get(kind)::remove)));
+    }
+
+    /**
+     * Applique une modification sous le verrou d'écriture et, pendant une reconstruction,
+     * l'enregistre pour la rejouer sur l'index reconstruit.
+     */
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les entrées dont chaque mot de la saisie est le début d'un mot du nom,
+     * sans tenir compte des accents ni des variantes de translittération.
+     *
+     * Les noms contenant un mot égal à un mot saisi viennent en premier, puis l'ordre
+     * alphabétique.
+     *
+     * @param kind le type d'entité
+     * @param input la saisie
+     * @param limit le nombre maximal de résultats
+     * @return les meilleures entrées, vides si la saisie est vide
+     */
+    public List<Entry> search(Kind kind, String input, int limit) {
+        List<String> words = NameNormalizer.foldedTokens(input);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<String> keys = words.stream().map(NameNormalizer::transliterate).toList();
+        // Le mot le plus long est le plus sélectif : il fournit les candidats
+        int pivot = 0;
+        for (int i = 1; i < words.size(); i++) {
+            if (words.get(i).length() > words.get(pivot).length()) {
+                pivot = i;
+            }
+        }
+
+        List<Indexed> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            KindIndex index = indexes.get(kind);
+            Set<Long> candidates = new HashSet<>();
+            index.collect(words.get(pivot), candidates);
+            index.collect(keys.get(pivot), candidates);
+            for (Long id : candidates) {
+                Indexed indexed = index.byId.get(id);
+                if (indexed != null && matchesAll(indexed, words, keys)) {
+                    matches.add(indexed);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<Indexed> ranking = Comparator
+                .comparingInt((Indexed indexed) -> -exactWords(indexed, words))
+                .thenComparing(Indexed::sortKey)
+                .thenComparing(indexed -> indexed.entry().id());
+        return matches.stream()
+                .sorted(ranking)
+                .limit(limit)
+                .map(Indexed::entry)
+                .toList();
+    }
+
+    /**
+     * Valide le nombre de suggestions demandé par un client.
+     *
+     * @param limit le nombre demandé, ou null
+     * @return le nombre à renvoyer (10 par défaut)
+     * @throws CustomServiceException 400 si le nombre n'est pas entre 1 et 50
+     */
+    public static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new CustomServiceException("Le nombre de suggestions doit être compris entre 1 et " + MAX_LIMIT + ".",
+                    HttpStatus.BAD_REQUEST);
+        }
+        return limit;
+    }
+
+    private static boolean matchesAll(Indexed indexed, List<String> words, List<String> keys) {
+        for (int i = 0; i < words.size(); i++) {
+            if (!startsAny(indexed.words(), words.get(i)) && !startsAny(indexed.keys(), keys.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsAny(List<String> values, String prefix) {
+        for (String value : values) {
+            if (value.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int exactWords(Indexed indexed, List<String> words) {
+        int count = 0;
+        for (String word : words) {
+            if (indexed.words().contains(word)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Entry toEntry(NameIndexRow row) {
+        return new Entry(row.id(), row.firstName(), row.lastName(), row.photo());
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -2,19 +2,24 @@ package com.school.management.service;
 
 import com.school.management.persistance.PricingEntity;
 import com.school.management.repository.PricingRepository;
+import com.school.management.service.payment.BalanceLedgerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
 public class PricingService {
 
     private final PricingRepository pricingRepository;
+    private final BalanceLedgerService balanceLedgerService;
 
     @Autowired
-    public PricingService(PricingRepository pricingRepository) {
+    public PricingService(PricingRepository pricingRepository, BalanceLedgerService balanceLedgerService) {
         this.pricingRepository = pricingRepository;
+        this.balanceLedgerService = balanceLedgerService;
     }
 
     public List<PricingEntity> getAllPricing() {
@@ -25,19 +30,27 @@ public class PricingService {
         return pricingRepository.save(pricing);
     }
 
+    @Transactional
     public PricingEntity updatePricing(Long id, PricingEntity pricing) {
         PricingEntity pricingToUpdate = pricingRepository.findById(id).orElseThrow();
         pricingToUpdate.setPrice(pricing.getPrice());
-        return pricingRepository.save(pricingToUpdate);
+        PricingEntity saved = pricingRepository.save(pricingToUpdate);
+        // Les montants dus des groupes qui utilisent ce prix changent
+        balanceLedgerService.refreshForPrice(id);
+        return saved;
     }
 
 
     public PricingEntity getPricingById(Long id) {
         return pricingRepository.findById(id).orElse(null);
     }
-    public void disablePricings(long id) {
-        PricingEntity pricing = pricingRepository.findById(id).orElseThrow();
-        pricing.setActive(false);
-        pricingRepository.save(pricing);
+    @Transactional
+    public int disablePricings(Collection<Long> ids) {
+        return pricingRepository.deactivateAllById(ids);
+    }
+
+    @Transactional
+    public int enablePricings(Collection<Long> ids) {
+        return pricingRepository.reactivateAllById(ids);
     }
 }
@@ -6,6 +6,7 @@ import com.school.management.repository.RoomRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -45,9 +46,13 @@ public class RoomService {
     }*/
 
 
-    public void disableRooms(long id) {
-        RoomEntity room = getRoomById(id);
-        room.setActive(false);
-        roomRepository.save(room);
+    @Transactional
+    public int disableRooms(Collection<Long> ids) {
+        return roomRepository.deactivateAllById(ids);
+    }
+
+    @Transactional
+    public int enableRooms(Collection<Long> ids) {
+        return roomRepository.reactivateAllById(ids);
     }
 }
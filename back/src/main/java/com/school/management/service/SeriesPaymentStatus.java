@@ -12,6 +12,9 @@ public class SeriesPaymentStatus {
     private Long sessionSeriesId;
     private String seriesName;
     private List<SessionPaymentStatus> sessions;
+    private Double amountDue; // Montant dû pour la série (registre des soldes)
+    private Double amountPaid; // Montant payé pour la série (registre des soldes)
+    private boolean paymentOverdue;
 
     public SeriesPaymentStatus(Long id, List<SessionPaymentStatus> sessionStatuses) {
         this.sessionSeriesId = id;
@@ -0,0 +1,183 @@
+package com.school.management.service;
+
+import com.school.management.dto.session.SessionSummaryDTO;
+import com.school.management.repository.projection.SessionSummaryRow;
+import com.school.management.repository.projection.CalendarVersionRow;
+import com.school.management.service.exception.CustomServiceException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Lecture des sessions d'une fenêtre de dates pour la vue calendrier.
+ *
+ * Les sessions sont lues par une requête de projection plate (parcours d'intervalle sur
+ * l'index session_time_Start, éventuellement préfixé par le groupe, l'enseignant ou la
+ * salle). Une requête d'agrégat, bien plus légère, calcule l'empreinte de la fenêtre :
+ * le contrôleur en dérive un ETag et répond 304 sans relire ni sérialiser les sessions
+ * lorsque rien n'a changé.
+ */
+@Service
+public class SessionCalendarService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionCalendarService.class);
+
+    /**
+     * Largeur maximale d'une fenêtre (un trimestre couvre les vues semaine et mois).
+     */
+    static final Duration MAX_WINDOW = Duration.ofDays(93);
+
+    private static final String FROM_CLAUSE =
+            "FROM SessionEntity s " +
+            "LEFT JOIN s.group g " +
+            "LEFT JOIN s.teacher t " +
+            "LEFT JOIN s.room r " +
+            "WHERE s.sessionTimeStart >= :start AND s.sessionTimeStart < :end";
+
+    static final String ROWS_SELECT =
+            "SELECT new com.school.management.repository.projection.SessionSummaryRow(" +
+            "s.id, s.title, s.sessionType, s.isFinished, s.sessionTimeStart, s.sessionTimeEnd, " +
+            "g.id, g.name, t.id, t.firstName, t.lastName, r.id, r.name, s.sessionSeries.id) ";
+
+    private static final String VERSION_SELECT =
+            "SELECT new com.school.management.repository.projection.CalendarVersionRow(" +
+            "COUNT(s), " +
+            "MAX(COALESCE(s.dateUpdate, s.dateCreation)), " +
+            "MAX(COALESCE(g.dateUpdate, g.dateCreation)), " +
+            "MAX(COALESCE(t.dateUpdate, t.dateCreation)), " +
+            "MAX(COALESCE(r.dateUpdate, r.dateCreation))) ";
+
+    /**
+     * Fenêtre demandée : bornes [start, end[ et filtres optionnels.
+     */
+    public record CalendarFilter(LocalDateTime start, LocalDateTime end, Long groupId, Long teacherId, Long roomId) {
+
+        public CalendarFilter {
+            if (start == null || end == null || !end.isAfter(start)) {
+                throw new CustomServiceException("La fin de la période doit être postérieure au début.",
+                        HttpStatus.BAD_REQUEST);
+            }
+            if (Duration.between(start, end).compareTo(MAX_WINDOW) > 0) {
+                throw new CustomServiceException("La période demandée ne peut pas dépasser "
+                        + MAX_WINDOW.toDays() + " jours.", HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Calcule l'ETag (faible) de la fenêtre : il change dès qu'une session de la fenêtre
+     * est créée, modifiée ou supprimée, ou que le libellé d'un groupe, enseignant ou salle
+     * affiché est modifié. Les filtres font partie de l'empreinte.
+     *
+     * @param filter la fenêtre demandée
+     * @return l'ETag, guillemets compris
+     */
+    @Transactional(readOnly = true)
+    public String computeETag(CalendarFilter filter) {
+        CalendarVersionRow version = createQuery(VERSION_SELECT, CalendarVersionRow.class, filter, false)
+                .getSingleResult();
+
+        CRC32 crc = new CRC32();
+        String fingerprint = String.join("|",
+                String.valueOf(filter.start()), String.valueOf(filter.end()),
+                String.valueOf(filter.groupId()), String.valueOf(filter.teacherId()), String.valueOf(filter.roomId()),
+                String.valueOf(version.sessionCount()),
+                String.valueOf(version.sessionsUpdatedAt()), String.valueOf(version.groupsUpdatedAt()),
+                String.valueOf(version.teachersUpdatedAt()), String.valueOf(version.roomsUpdatedAt()));
+        crc.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+
+        return "W/\"" + version.sessionCount() + "-" + HexFormat.of().toHexDigits(crc.getValue()) + "\"";
+    }
+
+    /**
+     * Récupère les sessions de la fenêtre, triées par heure de début.
+     *
+     * @param filter la fenêtre demandée
+     * @return les sessions à afficher
+     */
+    @Transactional(readOnly = true)
+    public List<SessionSummaryDTO> getSessions(CalendarFilter filter) {
+        List<SessionSummaryRow> rows = createQuery(ROWS_SELECT, SessionSummaryRow.class, filter, true)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultList();
+        LOGGER.debug("Calendar window {} - {}: {} sessions", filter.start(), filter.end(), rows.size());
+        return rows.stream().map(SessionCalendarService::toSummaryDto).toList();
+    }
+
+    /**
+     * Construit la requête : seuls les filtres renseignés sont ajoutés, pour que chaque
+     * combinaison garde un plan d'exécution sur l'index composite correspondant.
+     */
+    private <T> TypedQuery<T> createQuery(String select, Class<T> type, CalendarFilter filter, boolean ordered) {
+        StringBuilder jpql = new StringBuilder(select).append(FROM_CLAUSE);
+        if (filter.groupId() != null) {
+            jpql.append(" AND g.id = :groupId");
+        }
+        if (filter.teacherId() != null) {
+            jpql.append(" AND t.id = :teacherId");
+        }
+        if (filter.roomId() != null) {
+            jpql.append(" AND r.id = :roomId");
+        }
+        if (ordered) {
+            jpql.append(" ORDER BY s.sessionTimeStart, s.id");
+        }
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type)
+                .setParameter("start", toDate(filter.start()))
+                .setParameter("end", toDate(filter.end()));
+        if (filter.groupId() != null) {
+            query.setParameter("groupId", filter.groupId());
+        }
+        if (filter.teacherId() != null) {
+            query.setParameter("teacherId", filter.teacherId());
+        }
+        if (filter.roomId() != null) {
+            query.setParameter("roomId", filter.roomId());
+        }
+        return query;
+    }
+
+    /**
+     * Convertit une ligne de projection en DTO (partagé avec la recherche de sessions).
+     */
+    static SessionSummaryDTO toSummaryDto(SessionSummaryRow row) {
+        String teacherName = row.teacherId() != null ? row.teacherFirstName() + " " + row.teacherLastName() : null;
+        return SessionSummaryDTO.builder()
+                .id(row.id())
+                .title(row.title())
+                .sessionType(row.sessionType())
+                .isFinished(row.isFinished())
+                .sessionTimeStart(row.sessionTimeStart())
+                .sessionTimeEnd(row.sessionTimeEnd())
+                .groupId(row.groupId())
+                .groupName(row.groupName())
+                .teacherId(row.teacherId())
+                .teacherName(teacherName)
+                .roomId(row.roomId())
+                .roomName(row.roomName())
+                .sessionSeriesId(row.sessionSeriesId())
+                .build();
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Timestamp.valueOf(dateTime);
+    }
+}
@@ -0,0 +1,144 @@
+package com.school.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.school.management.dto.CursorPageResponse;
+import com.school.management.dto.session.SessionDTO;
+import com.school.management.repository.SessionRepository;
+import com.school.management.repository.projection.SessionListRow;
+import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Listes complètes des sessions : tableau, pages par curseur ou flux NDJSON.
+ *
+ * Toutes les variantes lisent des lignes plates (une seule requête, sans entité gérée) ;
+ * la pagination par curseur et le flux gardent une mémoire constante quel que soit le
+ * nombre de sessions.
+ */
+@Service
+public class SessionListService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionListService.class);
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final SessionRepository sessionRepository;
+    private final ObjectMapper objectMapper;
+
+    public SessionListService(SessionRepository sessionRepository, ObjectMapper objectMapper) {
+        this.sessionRepository = sessionRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Récupère toutes les sessions, triées par date de début.
+     *
+     * @return la liste complète des sessions
+     */
+    @Transactional(readOnly = true)
+    public List<SessionDTO> getAll() {
+        return sessionRepository.findAllListRows().stream()
+                .map(SessionListService::toDto)
+                .toList();
+    }
+
+    /**
+     * Récupère une page de sessions, triées par date de début puis ID.
+     *
+     * Seules les sessions datées sont paginées ; les sessions sans date de début ne sont
+     * renvoyées que par {@link #getAll()} et le flux NDJSON.
+     *
+     * @param cursor le curseur renvoyé par la page précédente, ou null pour la première page
+     * @param size la taille de page (100 par défaut, 1000 au plus)
+     * @return la page de sessions
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<SessionDTO> getPage(String cursor, Integer size) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new CustomServiceException("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE + ".",
+                    HttpStatus.BAD_REQUEST);
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<SessionListRow> rows = after == null
+                ? sessionRepository.findListRows(limit)
+                : sessionRepository.findListRowsAfter(after.date(), after.id(), limit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<SessionListRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+        SessionListRow last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return CursorPageResponse.<SessionDTO>builder()
+                .content(page.stream().map(SessionListService::toDto).toList())
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? KeysetCursor.after(last.sessionTimeStart(), last.id()).encode() : null)
+                .build();
+    }
+
+    /**
+     * Écrit toutes les sessions dans le flux de sortie, une session JSON par ligne.
+     *
+     * La transaction reste ouverte pendant toute l'écriture : elle doit donc être appelée
+     * depuis le thread qui produit la réponse.
+     *
+     * @param out le flux de sortie, qui n'est pas fermé
+     * @return le nombre de sessions écrites
+     * @throws IOException si l'écriture échoue
+     */
+    @Transactional(readOnly = true)
+    public long streamAll(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        try (Stream<SessionListRow> rows = sessionRepository.streamAllListRows()) {
+            for (SessionListRow row : (Iterable<SessionListRow>) rows::iterator) {
+                writer.write(objectMapper.writeValueAsString(toDto(row)));
+                writer.write('\n');
+                count++;
+            }
+        }
+        writer.flush();
+
+        LOGGER.info("Session stream completed: {} rows", count);
+        return count;
+    }
+
+    private static SessionDTO toDto(SessionListRow row) {
+        return SessionDTO.builder()
+                .id(row.id())
+                .title(row.title())
+                .sessionType(row.sessionType())
+                .feedbackLink(row.feedbackLink())
+                .isFinished(row.isFinished())
+                .sessionTimeStart(row.sessionTimeStart())
+                .sessionTimeEnd(row.sessionTimeEnd())
+                .groupId(row.groupId())
+                .groupName(row.groupName())
+                .teacherId(row.teacherId())
+                .teacherName(row.teacherId() != null ? row.teacherFirstName() + " " + row.teacherLastName() : null)
+                .roomId(row.roomId())
+                .roomName(row.roomName())
+                .sessionSeriesId(row.sessionSeriesId())
+                .seriesName(row.seriesName())
+                .build();
+    }
+}
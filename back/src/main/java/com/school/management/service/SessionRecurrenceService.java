@@ -0,0 +1,284 @@
+package com.school.management.service;
+
+import com.school.management.dto.serie.GeneratedSessionsDTO;
+import com.school.management.dto.serie.RecurrenceRuleDTO;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.RoomEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.TeacherEntity;
+import com.school.management.repository.RoomRepository;
+import com.school.management.repository.SessionRepository;
+import com.school.management.repository.SessionSeriesRepository;
+import com.school.management.repository.TeacherRepository;
+import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.payment.BalanceLedgerService;
+import com.school.management.shared.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Génération des sessions d'une série à partir d'une règle de récurrence.
+ *
+ * Les règles sont développées en mémoire, les conflits (même groupe, enseignant ou salle
+ * sur des créneaux qui se chevauchent) sont vérifiés par {@link SessionScheduleIndex}
+ * contre les sessions existantes et entre les sessions générées, puis toutes les sessions sont insérées en un
+ * seul batch JDBC dans la même transaction. Le nombre total de séances des séries est
+ * relevé au nombre de sessions créées s'il le dépasse.
+ */
+@Service
+public class SessionRecurrenceService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionRecurrenceService.class);
+
+    /**
+     * Nombre maximal de sessions générées par règle.
+     */
+    static final int MAX_SESSIONS_PER_RULE = 366;
+
+    /**
+     * Horizon maximal parcouru à partir de la date de début d'une règle.
+     */
+    static final int MAX_HORIZON_DAYS = 2 * 366;
+
+    /**
+     * Nombre maximal de conflits détaillés dans le message d'erreur.
+     */
+    private static final int MAX_REPORTED_CONFLICTS = 10;
+
+    private static final DateTimeFormatter TITLE_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final SessionRepository sessionRepository;
+    private final SessionSeriesRepository sessionSeriesRepository;
+    private final TeacherRepository teacherRepository;
+    private final RoomRepository roomRepository;
+    private final SessionScheduleIndex scheduleIndex;
+    private final BalanceLedgerService balanceLedgerService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SessionRecurrenceService(SessionRepository sessionRepository,
+                                    SessionSeriesRepository sessionSeriesRepository,
+                                    TeacherRepository teacherRepository,
+                                    RoomRepository roomRepository,
+                                    SessionScheduleIndex scheduleIndex,
+                                    BalanceLedgerService balanceLedgerService) {
+        this.sessionRepository = sessionRepository;
+        this.sessionSeriesRepository = sessionSeriesRepository;
+        this.teacherRepository = teacherRepository;
+        this.roomRepository = roomRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.balanceLedgerService = balanceLedgerService;
+    }
+
+    /**
+     * Génère les sessions de plusieurs séries en une seule transaction.
+     *
+     * Tout ou rien : si une règle est invalide ou qu'un conflit est détecté, aucune
+     * session n'est créée.
+     *
+     * @param rules les règles, une par série
+     * @return le résultat par série, dans l'ordre des règles
+     * @throws CustomServiceException 400 si une règle est invalide, 409 en cas de conflit
+     * @throws ResourceNotFoundException si une série, un enseignant ou une salle n'existe pas
+     */
+    @Transactional
+    public List<GeneratedSessionsDTO> generate(List<RecurrenceRuleDTO> rules) {
+        if (rules == null || rules.isEmpty()) {
+            throw new CustomServiceException("Aucune règle de récurrence fournie.", HttpStatus.BAD_REQUEST);
+        }
+        rules.forEach(this::validate);
+
+        Map<Long, SessionSeriesEntity> seriesById = loadSeries(rules);
+        checkResourcesExist(rules);
+
+        Map<Long, List<SessionEntity>> sessionsBySeries = new LinkedHashMap<>();
+        for (RecurrenceRuleDTO rule : rules) {
+            SessionSeriesEntity series = seriesById.get(rule.getSessionSeriesId());
+            sessionsBySeries.computeIfAbsent(series.getId(), id -> new ArrayList<>()).addAll(expand(rule, series));
+        }
+        sessionsBySeries.values().forEach(list -> list.sort(Comparator.comparing(SessionEntity::getSessionTimeStart)));
+
+        List<SessionEntity> sessions = sessionsBySeries.values().stream().flatMap(List::stream).toList();
+        if (sessions.isEmpty()) {
+            throw new CustomServiceException("La règle de récurrence ne produit aucune session.", HttpStatus.BAD_REQUEST);
+        }
+        checkConflicts(sessions);
+
+        int inserted = sessionRepository.batchInsert(sessions);
+        scheduleIndex.putAfterCommit(sessions);
+        sessionSeriesRepository.raiseTotalSessionsToCreatedCount(sessionsBySeries.keySet(), LocalDateTime.now());
+        // Garde le registre des soldes aligné sur les séries qui reçoivent des sessions
+        balanceLedgerService.refreshForSeries(sessionsBySeries.keySet());
+
+        Map<Long, Integer> totals = new HashMap<>();
+        sessionSeriesRepository.findAllById(sessionsBySeries.keySet())
+                .forEach(series -> totals.put(series.getId(), series.getTotalSessions()));
+
+        LOGGER.info("Generated {} sessions for {} series", inserted, sessionsBySeries.size());
+
+        List<GeneratedSessionsDTO> result = new ArrayList<>(sessionsBySeries.size());
+        sessionsBySeries.forEach((seriesId, created) -> result.add(GeneratedSessionsDTO.builder()
+                .sessionSeriesId(seriesId)
+                .sessionsCreated(created.size())
+                .totalSessions(totals.getOrDefault(seriesId, 0))
+                .firstSessionStart(created.isEmpty() ? null : created.get(0).getSessionTimeStart())
+                .lastSessionStart(created.isEmpty() ? null : created.get(created.size() - 1).getSessionTimeStart())
+                .build()));
+        return result;
+    }
+
+    private void validate(RecurrenceRuleDTO rule) {
+        if (rule.getSessionSeriesId() == null) {
+            throw badRule("l'ID de la série est requis");
+        }
+        if (rule.getDaysOfWeek() == null || rule.getDaysOfWeek().isEmpty()) {
+            throw badRule("au moins un jour de la semaine est requis");
+        }
+        if (rule.getStartDate() == null || rule.getStartTime() == null) {
+            throw badRule("la date et l'heure de début sont requises");
+        }
+        if (rule.getDurationMinutes() == null || rule.getDurationMinutes() <= 0) {
+            throw badRule("la durée doit être positive");
+        }
+        if (rule.getTeacherId() == null || rule.getRoomId() == null) {
+            throw badRule("l'enseignant et la salle sont requis");
+        }
+        if (rule.getCount() == null && rule.getUntil() == null) {
+            throw badRule("un nombre de sessions ou une date de fin est requis");
+        }
+        if (rule.getCount() != null && (rule.getCount() <= 0 || rule.getCount() > MAX_SESSIONS_PER_RULE)) {
+            throw badRule("le nombre de sessions doit être compris entre 1 et " + MAX_SESSIONS_PER_RULE);
+        }
+        if (rule.getUntil() != null && rule.getUntil().isBefore(rule.getStartDate())) {
+            throw badRule("la date de fin précède la date de début");
+        }
+    }
+
+    private static CustomServiceException badRule(String reason) {
+        return new CustomServiceException("Règle de récurrence invalide : " + reason + ".", HttpStatus.BAD_REQUEST);
+    }
+
+    private Map<Long, SessionSeriesEntity> loadSeries(List<RecurrenceRuleDTO> rules) {
+        Set<Long> ids = new HashSet<>();
+        rules.forEach(rule -> ids.add(rule.getSessionSeriesId()));
+
+        Map<Long, SessionSeriesEntity> seriesById = new HashMap<>();
+        sessionSeriesRepository.findAllById(ids).forEach(series -> seriesById.put(series.getId(), series));
+        for (Long id : ids) {
+            SessionSeriesEntity series = seriesById.get(id);
+            if (series == null) {
+                throw new ResourceNotFoundException("SessionSeries", id);
+            }
+            if (series.getGroup() == null) {
+                throw new CustomServiceException("La série " + id + " n'est rattachée à aucun groupe.",
+                        HttpStatus.BAD_REQUEST);
+            }
+        }
+        return seriesById;
+    }
+
+    private void checkResourcesExist(List<RecurrenceRuleDTO> rules) {
+        Set<Long> teacherIds = new HashSet<>();
+        Set<Long> roomIds = new HashSet<>();
+        for (RecurrenceRuleDTO rule : rules) {
+            teacherIds.add(rule.getTeacherId());
+            roomIds.add(rule.getRoomId());
+        }
+        for (Long id : teacherIds) {
+            if (!teacherRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Teacher", id);
+            }
+        }
+        for (Long id : roomIds) {
+            if (!roomRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Room", id);
+            }
+        }
+    }
+
+    /**
+     * Développe une règle en sessions, en ordre chronologique.
+     *
+     * Les relations sont des références (aucun chargement) : l'insertion JDBC n'en lit
+     * que l'ID.
+     */
+    List<SessionEntity> expand(RecurrenceRuleDTO rule, SessionSeriesEntity series) {
+        Set<LocalDate> excluded = rule.getExcludedDates() != null ? rule.getExcludedDates() : Set.of();
+        int limit = rule.getCount() != null ? rule.getCount() : MAX_SESSIONS_PER_RULE;
+        LocalDate horizon = rule.getStartDate().plusDays(MAX_HORIZON_DAYS);
+        LocalDate last = rule.getUntil() != null && rule.getUntil().isBefore(horizon) ? rule.getUntil() : horizon;
+        String title = rule.getTitle() != null && !rule.getTitle().isBlank() ? rule.getTitle() : series.getName();
+
+        GroupEntity group = series.getGroup();
+        TeacherEntity teacher = entityManager.getReference(TeacherEntity.class, rule.getTeacherId());
+        RoomEntity room = entityManager.getReference(RoomEntity.class, rule.getRoomId());
+
+        List<SessionEntity> sessions = new ArrayList<>();
+        for (LocalDate day = rule.getStartDate(); !day.isAfter(last) && sessions.size() < limit; day = day.plusDays(1)) {
+            if (!rule.getDaysOfWeek().contains(day.getDayOfWeek()) || excluded.contains(day)) {
+                continue;
+            }
+            LocalDateTime start = day.atTime(rule.getStartTime());
+            LocalDateTime end = start.plusMinutes(rule.getDurationMinutes());
+
+            SessionEntity session = new SessionEntity();
+            session.setTitle(title + " - " + TITLE_DATE_FORMAT.format(day));
+            session.setSessionType(rule.getSessionType());
+            session.setFeedbackLink(rule.getFeedbackLink());
+            session.setIsFinished(false);
+            session.setGroup(group);
+            session.setTeacher(teacher);
+            session.setRoom(room);
+            session.setSessionSeries(series);
+            session.setSessionTimeStart(Timestamp.valueOf(start));
+            session.setSessionTimeEnd(Timestamp.valueOf(end));
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    /**
+     * Vérifie qu'aucun groupe, enseignant ou salle n'est mobilisé deux fois sur des
+     * créneaux qui se chevauchent, entre sessions générées et avec les sessions existantes.
+     * Les ressources restent verrouillées jusqu'au commit de la génération.
+     */
+    private void checkConflicts(List<SessionEntity> sessions) {
+        List<SessionScheduleIndex.Candidate> candidates = new ArrayList<>(sessions.size());
+        for (SessionEntity session : sessions) {
+            candidates.add(new SessionScheduleIndex.Candidate(null, session.getGroup().getId(),
+                    session.getTeacher().getId(), session.getRoom().getId(),
+                    SessionScheduleIndex.toRange(session.getSessionTimeStart(), session.getSessionTimeEnd())));
+        }
+
+        List<SessionScheduleIndex.Conflict> conflicts = scheduleIndex.findConflictsForUpdate(candidates);
+        if (!conflicts.isEmpty()) {
+            List<String> details = conflicts.stream()
+                    .limit(MAX_REPORTED_CONFLICTS)
+                    .map(conflict -> conflict.resource() + " " + conflict.resourceId() + " le "
+                            + candidates.get(conflict.candidateIndex()).range().getStartDate())
+                    .toList();
+            throw new CustomServiceException("Conflits de planning (" + conflicts.size() + ") : "
+                    + String.join(", ", details), HttpStatus.CONFLICT);
+        }
+    }
+}
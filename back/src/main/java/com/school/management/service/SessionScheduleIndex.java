@@ -0,0 +1,488 @@
+package com.school.management.service;
+
+import com.school.management.domain.valueobject.DateRange;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.repository.SessionRepository;
+import com.school.management.repository.projection.SessionSlotRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index en mémoire des créneaux occupés, par salle, enseignant et groupe.
+ *
+ * Pour chaque ressource, les créneaux sont triés par début ; la durée maximale d'un
+ * créneau indexé borne la recherche : seuls les créneaux commençant dans
+ * ]début - durée max, fin[ peuvent chevaucher un intervalle donné. Une vérification
+ * coûte donc O(log n + k) sans accès à la base.
+ *
+ * L'index couvre les sessions qui finissent après le début du jour de sa construction
+ * (au démarrage, puis chaque nuit). Il est tenu à jour par les créations, modifications
+ * et suppressions de sessions, appliquées après le commit de la transaction. Les
+ * créneaux antérieurs à cet horizon sont vérifiés en base.
+ *
+ * Une reconstruction lit la base sans verrou : les modifications appliquées pendant
+ * cette lecture sont enregistrées puis rejouées sur l'index reconstruit, pour ne pas
+ * être perdues au remplacement. Les rejouer est sans effet si la lecture les voyait déjà.
+ *
+ * L'index n'est mis à jour qu'après le commit : il ne suffit pas à empêcher deux
+ * enregistrements concurrents du même créneau. Avant d'enregistrer, les services passent
+ * par {@link #findConflictsForUpdate(List)}, qui verrouille les ressources en base et
+ * vérifie les créneaux validés.
+ *
+ * Le chevauchement suit {@link DateRange#overlapsExclusive(DateRange)} : deux sessions
+ * contiguës ne sont pas en conflit.
+ */
+@Component
+public class SessionScheduleIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionScheduleIndex.class);
+
+    /**
+     * Ressources dont la double réservation est interdite.
+     */
+    public enum Resource {
+        ROOM, TEACHER, GROUP
+    }
+
+    /**
+     * Créneau occupé par une session existante.
+     */
+    public record Slot(Long sessionId, Long groupId, Long teacherId, Long roomId, DateRange range) {
+
+        Long resourceId(Resource resource) {
+            return switch (resource) {
+                case ROOM -> roomId;
+                case TEACHER -> teacherId;
+                case GROUP -> groupId;
+            };
+        }
+    }
+
+    /**
+     * Créneau candidat à vérifier. {@code sessionId} est renseigné lors d'une
+     * replanification : la session ne peut pas être en conflit avec elle-même.
+     */
+    public record Candidate(Long sessionId, Long groupId, Long teacherId, Long roomId, DateRange range) {
+
+        Long resourceId(Resource resource) {
+            return switch (resource) {
+                case ROOM -> roomId;
+                case TEACHER -> teacherId;
+                case GROUP -> groupId;
+            };
+        }
+    }
+
+    /**
+     * Conflit détecté pour un candidat : soit avec une session existante
+     * ({@code sessionId}), soit avec un autre candidat du même lot ({@code otherCandidateIndex}).
+     */
+    public record Conflict(int candidateIndex, Resource resource, Long resourceId,
+                           Long sessionId, Integer otherCandidateIndex, DateRange range) {}
+
+    /**
+     * Premier argument de pg_advisory_xact_lock pour les ressources, décalé de l'ordinal
+     * de {@link Resource} ; distinct de l'espace du registre des soldes.
+     */
+    static final int LOCK_NAMESPACE = 0x5300;
+
+    private static final Comparator<Slot> BY_START = Comparator
+            .comparing((Slot slot) -> slot.range().getStartDate())
+            .thenComparing(Slot::sessionId);
+
+    private final SessionRepository sessionRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Slot> slotsBySession = new HashMap<>();
+    private final Map<Resource, Map<Long, NavigableSet<Slot>>> slotsByResource = new EnumMap<>(Resource.class);
+    private Duration maxDuration = Duration.ZERO;
+    private LocalDateTime horizon = LocalDateTime.MAX;
+
+    /**
+     * Modifications appliquées pendant une reconstruction, à rejouer sur l'index
+     * reconstruit ; null hors reconstruction. Protégé par le verrou d'écriture.
+     */
+    private List<Runnable> changesDuringRebuild;
+
+    public SessionScheduleIndex(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+        for (Resource resource : Resource.values()) {
+            slotsByResource.put(resource, new HashMap<>());
+        }
+    }
+
+    /**
+     * Reconstruit l'index à partir de la base : au démarrage, puis chaque nuit pour
+     * écarter les sessions passées et rattraper les écritures faites hors des services.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${session.schedule-index.refresh-cron:0 30 3 * * *}")
+    public synchronized void rebuild() {
+        LocalDateTime newHorizon = LocalDate.now().atStartOfDay();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<SessionSlotRow> rows;
+        try {
+            rows = sessionRepository.findSlotsEndingAfter(Timestamp.valueOf(newHorizon));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            slotsBySession.clear();
+            slotsByResource.values().forEach(Map::clear);
+            maxDuration = Duration.ZERO;
+            horizon = newHorizon;
+            for (SessionSlotRow row : rows) {
+                DateRange range = toRange(row.start(), row.end());
+                if (range != null) {
+                    add(new Slot(row.sessionId(), row.groupId(), row.teacherId(), row.roomId(), range));
+                }
+            }
+            replayed = changesDuringRebuild.size();
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Session schedule index built: {} sessions since {}, {} concurrent change(s) replayed",
+                rows.size(), newHorizon, replayed);
+    }
+
+    /**
+     * Indexe (ou réindexe) des sessions, après le commit de la transaction courante.
+     *
+     * @param sessions les sessions enregistrées, avec leur ID
+     */
+    public void putAfterCommit(Collection<SessionEntity> sessions) {
+        List<Slot> slots = new ArrayList<>(sessions.size());
+        for (SessionEntity session : sessions) {
+            DateRange range = toRange(session.getSessionTimeStart(), session.getSessionTimeEnd());
+            if (session.getId() != null && range != null) {
+                slots.add(new Slot(session.getId(),
+                        session.getGroup() != null ? session.getGroup().getId() : null,
+                        session.getTeacher() != null ? session.getTeacher().getId() : null,
+                        session.getRoom() != null ? session.getRoom().getId() : null,
+                        range));
+            }
+        }
+        runAfterCommit(() -> apply(() -> {
+            for (Slot slot : slots) {
+                remove(slot.sessionId());
+                if (!slot.range().getEndDate().isBefore(horizon)) {
+                    add(slot);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Retire une session de l'index, après le commit de la transaction courante.
+     *
+     * @param sessionId l'ID de la session supprimée
+     */
+    public void removeAfterCommit(Long sessionId) {
+        runAfterCommit(() -> apply(() -> remove(sessionId)));
+    }
+
+    /**
+     * Applique une modification sous le verrou d'écriture et, pendant une reconstruction,
+     * l'enregistre pour la rejouer sur l'index reconstruit.
+     */
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les conflits d'un lot de créneaux candidats, avec les sessions existantes
+     * et entre candidats.
+     *
+     * @param candidates les créneaux à vérifier
+     * @return les conflits, vides si tous les créneaux sont libres
+     */
+    public List<Conflict> findConflicts(List<Candidate> candidates) {
+        List<Conflict> conflicts = new ArrayList<>();
+        List<Integer> beforeHorizon = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < candidates.size(); i++) {
+                Candidate candidate = candidates.get(i);
+                if (candidate.range().getStartDate().isBefore(horizon)) {
+                    beforeHorizon.add(i);
+                } else {
+                    findConflictsInIndex(i, candidate, conflicts);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        findConflictsInDatabase(beforeHorizon, candidates, conflicts);
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            for (int j = 0; j < i; j++) {
+                Candidate other = candidates.get(j);
+                if (!candidate.range().overlapsExclusive(other.range())) {
+                    continue;
+                }
+                for (Resource resource : Resource.values()) {
+                    Long resourceId = candidate.resourceId(resource);
+                    if (resourceId != null && resourceId.equals(other.resourceId(resource))) {
+                        conflicts.add(new Conflict(i, resource, resourceId, null, j, other.range()));
+                    }
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Vérifie des créneaux juste avant leur enregistrement, sans course avec un autre
+     * enregistrement concurrent.
+     *
+     * Après une première vérification sur l'index, verrouille jusqu'à la fin de la
+     * transaction appelante chaque groupe, enseignant et salle des candidats, par ordre
+     * croissant de clé, puis vérifie les candidats contre les sessions validées en base,
+     * en une requête : un enregistrement concurrent déjà validé mais pas encore indexé
+     * est ainsi vu. Doit être appelée dans la transaction qui enregistre les sessions.
+     *
+     * @param candidates les créneaux à enregistrer
+     * @return les conflits, vides si tous les créneaux sont libres
+     */
+    public List<Conflict> findConflictsForUpdate(List<Candidate> candidates) {
+        List<Conflict> conflicts = findConflicts(candidates);
+        if (!conflicts.isEmpty()) {
+            return conflicts;
+        }
+        lockResources(candidates);
+        List<Integer> all = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            all.add(i);
+        }
+        findConflictsInDatabase(all, candidates, conflicts);
+        return conflicts;
+    }
+
+    private void lockResources(List<Candidate> candidates) {
+        NavigableSet<long[]> keys = new TreeSet<>(Comparator
+                .comparingLong((long[] key) -> key[0])
+                .thenComparingLong(key -> key[1]));
+        for (Candidate candidate : candidates) {
+            for (Resource resource : Resource.values()) {
+                Long resourceId = candidate.resourceId(resource);
+                if (resourceId != null) {
+                    keys.add(new long[]{LOCK_NAMESPACE + resource.ordinal(), resourceId.hashCode()});
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        StringBuilder values = new StringBuilder();
+        int i = 0;
+        for (long[] key : keys) {
+            if (i > 0) {
+                values.append(", ");
+            }
+            values.append("(").append(i).append(", ").append(key[0]).append(", ").append(key[1]).append(")");
+            i++;
+        }
+        // Clés calculées ici, sans valeur fournie par l'appelant. PostgreSQL évalue une
+        // fonction volatile de la liste de sélection après le tri : les verrous sont pris
+        // dans l'ordre de l'ORDER BY.
+        entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM (SELECT v.position, pg_advisory_xact_lock(CAST(v.k1 AS integer), CAST(v.k2 AS integer)) " +
+                "FROM (VALUES " + values + ") AS v(position, k1, k2) ORDER BY v.position) AS locked")
+                .getSingleResult();
+    }
+
+    private void findConflictsInIndex(int index, Candidate candidate, List<Conflict> conflicts) {
+        DateRange range = candidate.range();
+        for (Resource resource : Resource.values()) {
+            Long resourceId = candidate.resourceId(resource);
+            NavigableSet<Slot> slots = resourceId != null ? slotsByResource.get(resource).get(resourceId) : null;
+            if (slots == null || slots.isEmpty()) {
+                continue;
+            }
+            Slot from = new Slot(Long.MIN_VALUE, null, null, null,
+                    DateRange.of(range.getStartDate().minus(maxDuration), range.getStartDate().minus(maxDuration)));
+            for (Slot slot : slots.tailSet(from, true)) {
+                if (!slot.range().getStartDate().isBefore(range.getEndDate())) {
+                    break;
+                }
+                if (!slot.sessionId().equals(candidate.sessionId()) && slot.range().overlapsExclusive(range)) {
+                    conflicts.add(new Conflict(index, resource, resourceId, slot.sessionId(), null, slot.range()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Vérifie en base les candidats donnés, en une requête sur l'étendue de leurs créneaux
+     * et l'ensemble de leurs ressources.
+     */
+    private void findConflictsInDatabase(List<Integer> indexes, List<Candidate> candidates, List<Conflict> conflicts) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        Set<Long> groupIds = new HashSet<>();
+        Set<Long> teacherIds = new HashSet<>();
+        Set<Long> roomIds = new HashSet<>();
+        for (int i : indexes) {
+            Candidate candidate = candidates.get(i);
+            DateRange range = candidate.range();
+            from = from == null || range.getStartDate().isBefore(from) ? range.getStartDate() : from;
+            to = to == null || range.getEndDate().isAfter(to) ? range.getEndDate() : to;
+            addId(groupIds, candidate.groupId());
+            addId(teacherIds, candidate.teacherId());
+            addId(roomIds, candidate.roomId());
+        }
+
+        List<SessionSlotRow> rows = sessionRepository.findSlotsOverlapping(
+                Timestamp.valueOf(from), Timestamp.valueOf(to), idsOf(groupIds), idsOf(teacherIds), idsOf(roomIds));
+        for (SessionSlotRow row : rows) {
+            DateRange slotRange = toRange(row.start(), row.end());
+            if (slotRange == null) {
+                continue;
+            }
+            Slot slot = new Slot(row.sessionId(), row.groupId(), row.teacherId(), row.roomId(), slotRange);
+            for (int i : indexes) {
+                Candidate candidate = candidates.get(i);
+                if (row.sessionId().equals(candidate.sessionId()) || !slotRange.overlapsExclusive(candidate.range())) {
+                    continue;
+                }
+                for (Resource resource : Resource.values()) {
+                    Long resourceId = candidate.resourceId(resource);
+                    if (resourceId != null && resourceId.equals(slot.resourceId(resource))) {
+                        conflicts.add(new Conflict(i, resource, resourceId, row.sessionId(), null, slotRange));
+                    }
+                }
+            }
+        }
+    }
+
+    private void add(Slot slot) {
+        slotsBySession.put(slot.sessionId(), slot);
+        for (Resource resource : Resource.values()) {
+            Long resourceId = slot.resourceId(resource);
+            if (resourceId != null) {
+                slotsByResource.get(resource).computeIfAbsent(resourceId, id -> new TreeSet<>(BY_START)).add(slot);
+            }
+        }
+        Duration duration = Duration.between(slot.range().getStartDate(), slot.range().getEndDate());
+        if (duration.compareTo(maxDuration) > 0) {
+            maxDuration = duration;
+        }
+    }
+
+    private void remove(Long sessionId) {
+        Slot slot = slotsBySession.remove(sessionId);
+        if (slot == null) {
+            return;
+        }
+        for (Resource resource : Resource.values()) {
+            Long resourceId = slot.resourceId(resource);
+            NavigableSet<Slot> slots = resourceId != null ? slotsByResource.get(resource).get(resourceId) : null;
+            if (slots != null) {
+                slots.remove(slot);
+                if (slots.isEmpty()) {
+                    slotsByResource.get(resource).remove(resourceId);
+                }
+            }
+        }
+    }
+
+    private static void addId(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static Collection<Long> idsOf(Set<Long> ids) {
+        // IN () est invalide : -1 ne correspond à aucun ID
+        return ids.isEmpty() ? List.of(-1L) : ids;
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Convertit les bornes d'une session en plage, ou null si elles sont absentes ou incohérentes.
+     */
+    static DateRange toRange(Date start, Date end) {
+        if (start == null || end == null || end.before(start)) {
+            return null;
+        }
+        return DateRange.of(toLocalDateTime(start), toLocalDateTime(end));
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date instanceof Timestamp timestamp
+                ? timestamp.toLocalDateTime()
+                : new Timestamp(date.getTime()).toLocalDateTime();
+    }
+}
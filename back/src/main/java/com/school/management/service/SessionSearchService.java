@@ -0,0 +1,159 @@
+package com.school.management.service;
+
+import com.school.management.dto.CursorPageResponse;
+import com.school.management.dto.session.SessionSearchCriteriaDTO;
+import com.school.management.dto.session.SessionSummaryDTO;
+import com.school.management.repository.projection.SessionSummaryRow;
+import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.util.CommonSpecifications;
+import com.school.management.service.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recherche paginée de sessions.
+ *
+ * La pagination est par curseur sur (session_time_Start, id) : la comparaison de ligne
+ * (session_time_Start, id) > (curseur) borne le parcours de l'index idx_session_start, et
+ * chaque page lit ses seules lignes quel que soit son rang, au lieu d'un OFFSET qui relit
+ * toutes les lignes précédentes. Les sessions sans date de début, qu'aucun curseur ne
+ * peut situer, sont exclues de la recherche. Le titre est filtré par préfixe
+ * insensible à la casse et aux accents, servi par les index sur
+ * immutable_unaccent(lower(title)). Le comptage total n'est exécuté que sur demande.
+ */
+@Service
+public class SessionSearchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionSearchService.class);
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final String FROM_CLAUSE =
+            "FROM SessionEntity s " +
+            "LEFT JOIN s.group g " +
+            "LEFT JOIN s.teacher t " +
+            "LEFT JOIN s.room r " +
+            "WHERE s.sessionTimeStart IS NOT NULL";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Recherche une page de sessions, triées par date de début puis ID.
+     *
+     * @param criteria les filtres (tous optionnels)
+     * @param cursor le curseur renvoyé par la page précédente, ou null pour la première page
+     * @param size la taille de page (50 par défaut, 500 au plus)
+     * @param includeTotal true pour calculer le nombre total de résultats
+     * @return la page de résultats
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<SessionSummaryDTO> search(SessionSearchCriteriaDTO criteria, String cursor,
+                                                        Integer size, boolean includeTotal) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new CustomServiceException("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE + ".",
+                    HttpStatus.BAD_REQUEST);
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        Map<String, Object> parameters = new HashMap<>();
+        String filters = buildFilters(criteria, parameters);
+
+        StringBuilder jpql = new StringBuilder(SessionCalendarService.ROWS_SELECT).append(FROM_CLAUSE).append(filters);
+        if (after != null) {
+            jpql.append(" AND (s.sessionTimeStart, s.id) > (:cursorStart, :cursorId)");
+        }
+        jpql.append(" ORDER BY s.sessionTimeStart, s.id");
+
+        TypedQuery<SessionSummaryRow> query = entityManager.createQuery(jpql.toString(), SessionSummaryRow.class)
+                .setMaxResults(pageSize + 1)
+                .setHint("org.hibernate.readOnly", true);
+        parameters.forEach(query::setParameter);
+        if (after != null) {
+            query.setParameter("cursorStart", after.date());
+            query.setParameter("cursorId", after.id());
+        }
+        List<SessionSummaryRow> rows = query.getResultList();
+
+        boolean hasNext = rows.size() > pageSize;
+        List<SessionSummaryRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+        SessionSummaryRow last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        Long total = null;
+        if (includeTotal) {
+            TypedQuery<Long> countQuery = entityManager.createQuery("SELECT COUNT(s) " + FROM_CLAUSE + filters, Long.class);
+            parameters.forEach(countQuery::setParameter);
+            total = countQuery.getSingleResult();
+        }
+
+        LOGGER.debug("Session search returned {} rows (hasNext={})", page.size(), hasNext);
+
+        return CursorPageResponse.<SessionSummaryDTO>builder()
+                .content(page.stream().map(SessionCalendarService::toSummaryDto).toList())
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? KeysetCursor.after(last.sessionTimeStart(), last.id()).encode() : null)
+                .totalElements(total)
+                .build();
+    }
+
+    /**
+     * Construit les conditions JPQL des filtres renseignés et leurs paramètres.
+     */
+    private String buildFilters(SessionSearchCriteriaDTO criteria, Map<String, Object> parameters) {
+        StringBuilder filters = new StringBuilder();
+        if (criteria.getTitle() != null && !criteria.getTitle().isBlank()) {
+            filters.append(" AND " + CommonSpecifications.UNACCENT_FUNCTION + "(lower(s.title)) " +
+                    "LIKE " + CommonSpecifications.UNACCENT_FUNCTION + "(:title) ESCAPE '\\'");
+            parameters.put("title", escapeLike(criteria.getTitle().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (criteria.getSessionType() != null && !criteria.getSessionType().isBlank()) {
+            filters.append(" AND s.sessionType = :sessionType");
+            parameters.put("sessionType", criteria.getSessionType());
+        }
+        if (criteria.getStartDate() != null) {
+            filters.append(" AND s.sessionTimeStart >= :startDate");
+            parameters.put("startDate", Timestamp.valueOf(criteria.getStartDate().atStartOfDay()));
+        }
+        if (criteria.getEndDate() != null) {
+            // Date de fin incluse : les sessions qui finissent avant le lendemain à minuit
+            filters.append(" AND s.sessionTimeEnd < :endDate");
+            parameters.put("endDate", Timestamp.valueOf(criteria.getEndDate().plusDays(1).atStartOfDay()));
+        }
+        if (criteria.getTeacherId() != null) {
+            filters.append(" AND t.id = :teacherId");
+            parameters.put("teacherId", criteria.getTeacherId());
+        }
+        if (criteria.getGroupId() != null) {
+            filters.append(" AND g.id = :groupId");
+            parameters.put("groupId", criteria.getGroupId());
+        }
+        if (criteria.getRoomId() != null) {
+            filters.append(" AND r.id = :roomId");
+            parameters.put("roomId", criteria.getRoomId());
+        }
+        if (criteria.getIsFinished() != null) {
+            filters.append(" AND s.isFinished = :isFinished");
+            parameters.put("isFinished", criteria.getIsFinished());
+        }
+        return filters.toString();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
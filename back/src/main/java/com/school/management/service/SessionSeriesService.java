@@ -3,8 +3,11 @@ package com.school.management.service;
 import com.school.management.dto.SessionSeriesDto;
 import com.school.management.mapper.SessionSeriesMapper;
 import com.school.management.repository.GroupRepository;
+import com.school.management.shared.mapper.EntityReferenceResolver;
 import com.school.management.shared.mapper.MappingContext;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +26,9 @@ public class SessionSeriesService {
     private final SessionSeriesMapper sessionSeriesMapper;
     private final GroupRepository groupRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // MappingContext pour SessionSeriesMapper
     private MappingContext mappingContext;
 
@@ -49,10 +55,13 @@ public class SessionSeriesService {
     }
 
     /**
-     * Retourne le MappingContext pour utilisation par les controllers
+     * Retourne un MappingContext propre à la requête, qui résout les relations
+     * en références paresseuses (vérification d'existence groupée et mémorisée).
+     *
+     * @return le contexte de mapping en mode références
      */
     public MappingContext getMappingContext() {
-        return mappingContext;
+        return mappingContext.withReferences(new EntityReferenceResolver(entityManager));
     }
 
     public List<SessionSeriesEntity> getAllSessionSeries() {
@@ -1,23 +1,31 @@
 package com.school.management.service;
 
+import com.school.management.domain.valueobject.DateRange;
 import com.school.management.dto.session.SessionDTO;
-import com.school.management.dto.session.SessionSearchCriteriaDTO;
+import com.school.management.dto.session.SlotCandidateDTO;
+import com.school.management.dto.session.SlotConflictDTO;
 import com.school.management.mapper.SessionMapper;
 import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentDetailEntity;
 import com.school.management.persistance.RoomEntity;
 import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
 import com.school.management.persistance.TeacherEntity;
 import com.school.management.repository.*;
 import com.school.management.service.exception.CustomServiceException;
-import com.school.management.service.util.CommonSpecifications;
+import com.school.management.service.payment.BalanceLedgerService;
+import com.school.management.service.payment.RevenueAnalyticsService;
+import com.school.management.shared.mapper.EntityReferenceResolver;
 import com.school.management.shared.mapper.MappingContext;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
@@ -35,6 +43,7 @@ public class SessionService {
     private static final String GROUPID = "groupId";
     private static final String ROOMID = "roomId";
     private static final String TEACHERID = "teacherId";
+    private static final int MAX_SLOT_CANDIDATES = 2000;
 
     private final SessionRepository sessionRepository;
     private final RoomRepository roomRepository;
@@ -43,6 +52,12 @@ public class SessionService {
     private final SessionSeriesRepository sessionSeriesRepository;
     private final PatchService patchService;
     private final SessionMapper sessionMapper;
+    private final SessionScheduleIndex scheduleIndex;
+    private final BalanceLedgerService balanceLedgerService;
+    private final RevenueAnalyticsService revenueAnalyticsService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // MappingContext pour SessionMapper
     private MappingContext mappingContext;
@@ -50,7 +65,8 @@ public class SessionService {
     @Autowired
     public SessionService(SessionRepository sessionRepository, PatchService patchService, GroupRepository groupRepository,
                           SessionMapper sessionMapper, RoomRepository roomRepository, TeacherRepository teacherRepository,
-                          SessionSeriesRepository sessionSeriesRepository) {
+                          SessionSeriesRepository sessionSeriesRepository, SessionScheduleIndex scheduleIndex,
+                          BalanceLedgerService balanceLedgerService, RevenueAnalyticsService revenueAnalyticsService) {
         this.sessionRepository = sessionRepository;
         this.patchService = patchService;
         this.groupRepository = groupRepository;
@@ -58,6 +74,9 @@ public class SessionService {
         this.roomRepository = roomRepository;
         this.teacherRepository = teacherRepository;
         this.sessionSeriesRepository = sessionSeriesRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.balanceLedgerService = balanceLedgerService;
+        this.revenueAnalyticsService = revenueAnalyticsService;
     }
 
     /**
@@ -78,31 +97,54 @@ public class SessionService {
     }
 
     /**
-     * Retourne le MappingContext pour utilisation par les controllers
+     * Retourne un MappingContext propre à la requête, qui résout les relations
+     * en références paresseuses (vérification d'existence groupée et mémorisée).
+     *
+     * @return le contexte de mapping en mode références
      */
     public MappingContext getMappingContext() {
-        return mappingContext;
-    }
-
-    public List<SessionEntity> getAllSessions() {
-        return sessionRepository.findAll();
-    }
-
-    public List<SessionEntity> getAllSessionsWithDetail() {
-        return sessionRepository.findAllWithDetails();
+        return mappingContext.withReferences(new EntityReferenceResolver(entityManager));
     }
 
     public Optional<SessionEntity> getSessionById(Long id) {
         return sessionRepository.findById(id);
     }
 
+    /**
+     * Crée une session après avoir vérifié que sa salle, son enseignant et son groupe sont libres.
+     *
+     * La vérification verrouille la salle, l'enseignant et le groupe jusqu'au commit :
+     * deux créations concurrentes sur le même créneau sont sérialisées, la seconde voit
+     * la session de la première.
+     *
+     * @param session la session à créer
+     * @return la session enregistrée
+     * @throws CustomServiceException 409 si le créneau chevauche une autre session
+     */
+    @Transactional
     public SessionEntity createSession(SessionEntity session) {
-        return sessionRepository.save(session);
+        checkScheduleConflicts(session);
+        SessionEntity saved = sessionRepository.save(session);
+        scheduleIndex.putAfterCommit(List.of(saved));
+        return saved;
     }
 
+    /**
+     * Modifie une session, puis vérifie que son nouveau créneau est libre avant de l'enregistrer.
+     *
+     * Le créneau n'est vérifié, sous verrou comme pour {@link #createSession}, que si les
+     * horaires, le groupe, l'enseignant ou la salle changent.
+     *
+     * @param sessionId l'ID de la session
+     * @param updates les champs modifiés
+     * @return la session enregistrée
+     * @throws CustomServiceException 409 si le créneau chevauche une autre session
+     */
+    @Transactional
     public SessionEntity updateSession(Long sessionId, Map<String, Object> updates) {
         SessionEntity session = getSessionById(sessionId)
                 .orElseThrow(() -> new EntityNotFoundException("Session not found with ID: " + sessionId));
+        Placement before = Placement.of(session);
 
         updateEntityRelations(session, updates);
         updateSessionTimes(session, updates);
@@ -110,8 +152,90 @@ public class SessionService {
         // Utilisation de ModelMapper pour les autres mises à jour simples
         patchService.applyPatch(session, updates);
 
+        if (!Placement.of(session).equals(before)) {
+            checkScheduleConflicts(session);
+        }
+
         // Sauvegarder l'entité session mise à jour
-        return sessionRepository.save(session);
+        SessionEntity saved = sessionRepository.save(session);
+        scheduleIndex.putAfterCommit(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Vérifie un lot de créneaux candidats (récurrence, glisser-déposer dans le calendrier)
+     * contre les sessions existantes et entre eux, sans rien enregistrer.
+     *
+     * @param candidates les créneaux à vérifier
+     * @return les conflits, vides si tous les créneaux sont libres
+     */
+    public List<SlotConflictDTO> checkSlots(List<SlotCandidateDTO> candidates) {
+        if (candidates.size() > MAX_SLOT_CANDIDATES) {
+            throw new CustomServiceException("Trop de créneaux à vérifier (" + MAX_SLOT_CANDIDATES + " maximum).",
+                    HttpStatus.BAD_REQUEST);
+        }
+        List<SessionScheduleIndex.Candidate> slots = new ArrayList<>(candidates.size());
+        for (SlotCandidateDTO candidate : candidates) {
+            DateRange range = SessionScheduleIndex.toRange(candidate.getSessionTimeStart(), candidate.getSessionTimeEnd());
+            if (range == null) {
+                throw new CustomServiceException("Créneau invalide : le début et la fin sont requis, dans cet ordre.",
+                        HttpStatus.BAD_REQUEST);
+            }
+            slots.add(new SessionScheduleIndex.Candidate(candidate.getSessionId(), candidate.getGroupId(),
+                    candidate.getTeacherId(), candidate.getRoomId(), range));
+        }
+        return scheduleIndex.findConflicts(slots).stream()
+                .map(conflict -> SlotConflictDTO.builder()
+                        .candidateIndex(conflict.candidateIndex())
+                        .resourceType(conflict.resource().name())
+                        .resourceId(conflict.resourceId())
+                        .conflictingSessionId(conflict.sessionId())
+                        .conflictingCandidateIndex(conflict.otherCandidateIndex())
+                        .conflictStart(conflict.range().getStartDate())
+                        .conflictEnd(conflict.range().getEndDate())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Refuse un créneau qui mobilise une salle, un enseignant ou un groupe déjà occupé,
+     * en verrouillant ces ressources jusqu'à la fin de la transaction.
+     *
+     * @throws CustomServiceException 409 si le créneau chevauche une autre session
+     */
+    private void checkScheduleConflicts(SessionEntity session) {
+        DateRange range = SessionScheduleIndex.toRange(session.getSessionTimeStart(), session.getSessionTimeEnd());
+        if (range == null) {
+            return;
+        }
+        List<SessionScheduleIndex.Conflict> conflicts = scheduleIndex.findConflictsForUpdate(List.of(new SessionScheduleIndex.Candidate(
+                session.getId(),
+                session.getGroup() != null ? session.getGroup().getId() : null,
+                session.getTeacher() != null ? session.getTeacher().getId() : null,
+                session.getRoom() != null ? session.getRoom().getId() : null,
+                range)));
+        if (!conflicts.isEmpty()) {
+            SessionScheduleIndex.Conflict conflict = conflicts.get(0);
+            throw new CustomServiceException("Conflit de planning : " + conflict.resource() + " " + conflict.resourceId()
+                    + " déjà occupé par la session " + conflict.sessionId() + " (" + conflict.range() + ").",
+                    HttpStatus.CONFLICT);
+        }
+    }
+
+    /**
+     * Ce qui détermine les conflits de planning d'une session : horaires (en millisecondes,
+     * un Timestamp chargé n'étant pas égal à la Date d'un patch), groupe, enseignant et salle.
+     */
+    private record Placement(Long start, Long end, Long groupId, Long teacherId, Long roomId) {
+
+        static Placement of(SessionEntity session) {
+            return new Placement(
+                    session.getSessionTimeStart() != null ? session.getSessionTimeStart().getTime() : null,
+                    session.getSessionTimeEnd() != null ? session.getSessionTimeEnd().getTime() : null,
+                    session.getGroup() != null ? session.getGroup().getId() : null,
+                    session.getTeacher() != null ? session.getTeacher().getId() : null,
+                    session.getRoom() != null ? session.getRoom().getId() : null);
+        }
     }
 
     private void updateEntityRelations(SessionEntity session, Map<String, Object> updates) {
@@ -174,23 +298,28 @@ public class SessionService {
         }
     }
 
+    @Transactional
     public void deleteSession(Long id) {
+        Optional<SessionEntity> session = sessionRepository.findById(id);
+        Long sessionSeriesId = session
+                .map(SessionEntity::getSessionSeries)
+                .map(SessionSeriesEntity::getId)
+                .orElse(null);
+        // Les détails sont chargés de toute façon par la suppression en cascade
+        List<Date> deletedPaymentDates = session
+                .map(existing -> existing.getPaymentDetails().stream()
+                        .map(PaymentDetailEntity::getPaymentDate)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList())
+                .orElse(List.of());
         sessionRepository.deleteById(id);
-    }
-
-    public List<SessionEntity> findSessionsByCriteria(SessionSearchCriteriaDTO criteria) {
-        Specification<SessionEntity> spec = Specification.where(null);
-
-        spec = spec.and(CommonSpecifications.likeIfNotNull("title", criteria.getTitle()))
-                .and(CommonSpecifications.equalsIfNotNull("sessionType", criteria.getSessionType()))
-                .and(CommonSpecifications.greaterThanOrEqualToIfNotNull("sessionTimeStart", criteria.getStartDate()))
-                .and(CommonSpecifications.lessThanOrEqualToIfNotNull("sessionTimeEnd", criteria.getEndDate()))
-                .and(CommonSpecifications.equalsIfNotNull("teacher.id", criteria.getTeacherId()))
-                .and(CommonSpecifications.equalsIfNotNull("group.id", criteria.getGroupId()))
-                .and(CommonSpecifications.equalsIfNotNull("isFinished", criteria.getIsFinished()))
-                .and(CommonSpecifications.equalsIfNotNull("room.id", criteria.getRoomId()));
-
-        return sessionRepository.findAll(spec);
+        // Les présences et détails de paiement de la session sont supprimés en cascade
+        if (sessionSeriesId != null) {
+            balanceLedgerService.refreshForSeries(List.of(sessionSeriesId));
+        }
+        revenueAnalyticsService.evictMonthsAfterCommit(deletedPaymentDates);
+        scheduleIndex.removeAfterCommit(id);
     }
 
     @Transactional
@@ -4,7 +4,9 @@ import com.school.management.persistance.SubjectEntity;
 import com.school.management.repository.SubjectRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -33,9 +35,13 @@ public class SubjectService {
         return subjectRepository.save(subjectToUpdate);
     }
 
-    public void disableSubjects(long subjectId) {
-        SubjectEntity subject = subjectRepository.findById(subjectId).orElseThrow();
-        subject.setActive(false);
-        subjectRepository.save(subject);
+    @Transactional
+    public int disableSubjects(Collection<Long> ids) {
+        return subjectRepository.deactivateAllById(ids);
+    }
+
+    @Transactional
+    public int enableSubjects(Collection<Long> ids) {
+        return subjectRepository.reactivateAllById(ids);
     }
 }
@@ -1,19 +1,16 @@
 package com.school.management.service;
 
 import com.school.management.config.ImageUrlService;
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.dto.TeacherDTO;
 import com.school.management.infrastructure.storage.FileManagementService;
 import com.school.management.mapper.TeacherMapper;
 import com.school.management.persistance.TeacherEntity;
 import com.school.management.repository.TeacherRepository;
+import com.school.management.repository.projection.NameIndexRow;
+import com.school.management.service.NameAutocompleteIndex.Entry;
+import com.school.management.service.NameAutocompleteIndex.Kind;
 import com.school.management.service.exception.CustomServiceException;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +21,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -32,27 +32,28 @@ public class TeacherService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TeacherService.class);
 
-    @PersistenceContext
-    private EntityManager entityManager;
     private final TeacherRepository teacherRepository;
     private final TeacherMapper teacherMapper;
     private final ImageUrlService imageUrlService;
     private final FileManagementService fileManagementService;
+    private final NameAutocompleteIndex nameIndex;
 
     @Autowired
     public TeacherService(TeacherRepository teacherRepository,
                          TeacherMapper teacherMapper,
                          ImageUrlService imageUrlService,
-                         FileManagementService fileManagementService) {
+                         FileManagementService fileManagementService,
+                         NameAutocompleteIndex nameIndex) {
         this.teacherRepository = teacherRepository;
         this.teacherMapper = teacherMapper;
         this.imageUrlService = imageUrlService;
         this.fileManagementService = fileManagementService;
+        this.nameIndex = nameIndex;
     }
 
     @Transactional
     public TeacherEntity save(TeacherEntity teacher) {
-        return teacherRepository.save(teacher);
+        return index(teacherRepository.save(teacher));
     }
 
     public List<TeacherEntity> getAllTeachers() {
@@ -73,7 +74,7 @@ public class TeacherService {
     }
 
     public TeacherEntity createTeacher(TeacherEntity teacher) {
-        return teacherRepository.save(teacher);
+        return index(teacherRepository.save(teacher));
     }
 
     public TeacherEntity updateTeacher(Long id, TeacherEntity teacher) {
@@ -90,7 +91,7 @@ public class TeacherService {
         teacherToUpdate.setYearsOfExperience(teacher.getYearsOfExperience());
         teacherToUpdate.setCommunicationPreference(teacher.getCommunicationPreference());
         // Ne pas mettre à jour groups ici - géré séparément
-        return teacherRepository.save(teacherToUpdate);
+        return index(teacherRepository.save(teacherToUpdate));
     }
 
     @Transactional(readOnly = true)
@@ -109,32 +110,47 @@ public class TeacherService {
                 .toList();
     }
 
+    /**
+     * Recherche les enseignants actifs dont le prénom ou le nom commence par la saisie.
+     *
+     * Les IDs sont lus dans l'index d'autocomplétion ; seuls les enseignants trouvés sont
+     * chargés, par clé primaire, dans l'ordre de pertinence.
+     *
+     * @param input la saisie
+     * @return les enseignants correspondants
+     */
     @Transactional(readOnly = true)
     public List<TeacherEntity> searchTeachersByNameStartingWith(String input) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<TeacherEntity> cq = cb.createQuery(TeacherEntity.class);
-        Root<TeacherEntity> teacher = cq.from(TeacherEntity.class);
-
-        String[] nameParts = input.trim().toLowerCase().split("\\s+");
-        Predicate finalPredicate;
-
-        if (nameParts.length == 1) {
-            String pattern = nameParts[0] + "%";
-            Predicate firstNamePredicate = cb.like(cb.lower(teacher.get("firstName")), pattern);
-            Predicate lastNamePredicate = cb.like(cb.lower(teacher.get("lastName")), pattern);
-            finalPredicate = cb.or(firstNamePredicate, lastNamePredicate);
-        } else {
-            String firstNamePattern = nameParts[0] + "%";
-            String lastNamePattern = nameParts[1] + "%";
-            Predicate firstNamePredicate = cb.like(cb.lower(teacher.get("firstName")), firstNamePattern);
-            Predicate lastNamePredicate = cb.like(cb.lower(teacher.get("lastName")), lastNamePattern);
-            finalPredicate = cb.and(firstNamePredicate, lastNamePredicate);
+        List<Long> ids = nameIndex.search(Kind.TEACHER, input, Integer.MAX_VALUE).stream()
+                .map(Entry::id)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
         }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        return teacherRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(teacher -> rank.get(teacher.getId())))
+                .toList();
+    }
 
-        cq.where(finalPredicate);
-
-        TypedQuery<TeacherEntity> query = entityManager.createQuery(cq);
-        return query.getResultList();
+    /**
+     * Suggestions d'enseignants pour l'autocomplétion, sans accès à la base.
+     *
+     * @param input la saisie
+     * @param limit le nombre maximal de suggestions (10 par défaut, 50 au plus)
+     * @return les meilleures suggestions
+     */
+    public List<AutocompleteEntryDTO> autocomplete(String input, Integer limit) {
+        return nameIndex.search(Kind.TEACHER, input, NameAutocompleteIndex.resolveLimit(limit)).stream()
+                .map(entry -> AutocompleteEntryDTO.builder()
+                        .id(entry.id())
+                        .label(entry.label())
+                        .photo(imageUrlService.getTeacherPhotoUrl(imageUrlService.extractFilename(entry.photo())))
+                        .build())
+                .toList();
     }
 
     @Transactional(readOnly = true)
@@ -147,10 +163,23 @@ public class TeacherService {
     }
 
     public void desactivateTeacher(Long id) {
-        teacherRepository.findById(id).ifPresent(teacher -> {
-            teacher.setActive(false);
-            teacherRepository.save(teacher);
-        });
+        teacherRepository.deactivateAllById(List.of(id));
+        nameIndex.removeAfterCommit(Kind.TEACHER, List.of(id));
+    }
+
+    public void reactivateTeacher(Long id) {
+        teacherRepository.reactivateAllById(List.of(id));
+        nameIndex.putAfterCommit(Kind.TEACHER, teacherRepository.findNameIndexRowsByIdIn(List.of(id)));
+    }
+
+    /**
+     * Met à jour l'index d'autocomplétion après l'enregistrement d'un enseignant.
+     */
+    private TeacherEntity index(TeacherEntity teacher) {
+        nameIndex.putAfterCommit(Kind.TEACHER,
+                new NameIndexRow(teacher.getId(), teacher.getFirstName(), teacher.getLastName(), teacher.getPhoto()),
+                teacher.getActive());
+        return teacher;
     }
 
     /**
@@ -187,7 +216,7 @@ public class TeacherService {
 
         // Mettre à jour l'entité avec le nom du fichier
         teacher.setPhoto(result.getFilename());
-        teacherRepository.save(teacher);
+        index(teacherRepository.save(teacher));
 
         LOGGER.info("Photo uploaded successfully for teacher ID {}: {}", teacherId, result.getFilename());
         return result.getFilename();
@@ -1,40 +1,75 @@
 package com.school.management.service.group;
 
+import com.school.management.config.ImageUrlService;
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.persistance.GroupEntity;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
+import com.school.management.repository.GroupRepository;
+import com.school.management.service.NameAutocompleteIndex;
+import com.school.management.service.NameAutocompleteIndex.Entry;
+import com.school.management.service.NameAutocompleteIndex.Kind;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Recherche de groupes par début de nom, servie par l'index d'autocomplétion en mémoire.
+ */
 @Service
 public class GroupSearchService {
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    private final NameAutocompleteIndex nameIndex;
+    private final GroupRepository groupRepository;
+    private final ImageUrlService imageUrlService;
 
+    public GroupSearchService(NameAutocompleteIndex nameIndex,
+                              GroupRepository groupRepository,
+                              ImageUrlService imageUrlService) {
+        this.nameIndex = nameIndex;
+        this.groupRepository = groupRepository;
+        this.imageUrlService = imageUrlService;
+    }
+
+    /**
+     * Recherche les groupes actifs dont un mot du nom commence par la saisie.
+     *
+     * @param input la saisie
+     * @return les groupes correspondants, dans l'ordre de pertinence
+     */
     @Transactional(readOnly = true)
     public List<GroupEntity> searchGroupsByNameStartingWith(String input) {
-        return getGroupEntities(input, entityManager);
+        List<Long> ids = nameIndex.search(Kind.GROUP, input, Integer.MAX_VALUE).stream()
+                .map(Entry::id)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        return groupRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(group -> rank.get(group.getId())))
+                .toList();
     }
 
-    static List<GroupEntity> getGroupEntities(String input, EntityManager entityManager) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<GroupEntity> cq = cb.createQuery(GroupEntity.class);
-        Root<GroupEntity> group = cq.from(GroupEntity.class);
-
-        String pattern = input.trim().toLowerCase() + "%";
-        Predicate namePredicate = cb.like(cb.lower(group.get("name")), pattern);
-
-        cq.where(namePredicate);
-
-        TypedQuery<GroupEntity> query = entityManager.createQuery(cq);
-        return query.getResultList();
+    /**
+     * Suggestions de groupes pour l'autocomplétion, sans accès à la base.
+     *
+     * @param input la saisie
+     * @param limit le nombre maximal de suggestions (10 par défaut, 50 au plus)
+     * @return les meilleures suggestions
+     */
+    public List<AutocompleteEntryDTO> autocomplete(String input, Integer limit) {
+        return nameIndex.search(Kind.GROUP, input, NameAutocompleteIndex.resolveLimit(limit)).stream()
+                .map(entry -> AutocompleteEntryDTO.builder()
+                        .id(entry.id())
+                        .label(entry.label())
+                        .photo(imageUrlService.getPhotoUrl(imageUrlService.extractFilename(entry.photo())))
+                        .build())
+                .toList();
     }
-}
\ No newline at end of file
+}
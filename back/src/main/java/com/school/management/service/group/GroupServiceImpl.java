@@ -1,5 +1,6 @@
 package com.school.management.service.group;
 
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.dto.GroupDTO;
 import com.school.management.dto.SessionSeriesDto;
 import com.school.management.dto.StudentDTO;
@@ -10,9 +11,15 @@ import com.school.management.persistance.GroupEntity;
 import com.school.management.persistance.StudentEntity;
 import com.school.management.persistance.StudentGroupEntity;
 import com.school.management.repository.*;
+import com.school.management.repository.projection.NameIndexRow;
 import com.school.management.infrastructure.storage.FileManagementService;
+import com.school.management.service.NameAutocompleteIndex;
+import com.school.management.service.NameAutocompleteIndex.Kind;
 import com.school.management.service.exception.CustomServiceException;
 import com.school.management.service.interfaces.GroupService;
+import com.school.management.service.payment.BalanceLedgerService;
+import com.school.management.service.payment.RevenueAnalyticsService;
+import com.school.management.shared.mapper.EntityReferenceResolver;
 import com.school.management.shared.mapper.MappingContext;
 import io.swagger.v3.core.util.ReflectionUtils;
 import org.modelmapper.ModelMapper;
@@ -26,6 +33,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
@@ -43,6 +52,9 @@ public class GroupServiceImpl implements GroupService {
     private final AttendanceRepository attendanceRepository;
     private final StudentGroupRepository studentGroupRepository;
     private final FileManagementService fileManagementService;
+    private final NameAutocompleteIndex nameIndex;
+    private final BalanceLedgerService balanceLedgerService;
+    private final RevenueAnalyticsService revenueAnalyticsService;
 
     // PHASE 1 REFACTORING: Repositories pour MappingContext
     private final GroupTypeRepository groupTypeRepository;
@@ -51,6 +63,9 @@ public class GroupServiceImpl implements GroupService {
     private final PricingRepository pricingRepository;
     private final TeacherRepository teacherRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // MappingContext pour GroupMapper
     private MappingContext mappingContext;
 
@@ -67,7 +82,10 @@ public class GroupServiceImpl implements GroupService {
                             LevelRepository levelRepository,
                             SubjectRepository subjectRepository,
                             PricingRepository pricingRepository,
-                            TeacherRepository teacherRepository) {
+                            TeacherRepository teacherRepository,
+                            NameAutocompleteIndex nameIndex,
+                            BalanceLedgerService balanceLedgerService,
+                            RevenueAnalyticsService revenueAnalyticsService) {
         this.groupRepository = groupRepository;
         this.groupMapper = groupMapper;
         this.studentMapper = studentMapper;
@@ -81,6 +99,9 @@ public class GroupServiceImpl implements GroupService {
         this.subjectRepository = subjectRepository;
         this.pricingRepository = pricingRepository;
         this.teacherRepository = teacherRepository;
+        this.nameIndex = nameIndex;
+        this.balanceLedgerService = balanceLedgerService;
+        this.revenueAnalyticsService = revenueAnalyticsService;
     }
 
     /**
@@ -99,10 +120,13 @@ public class GroupServiceImpl implements GroupService {
     }
 
     /**
-     * Retourne le MappingContext pour utilisation par les controllers
+     * Retourne un MappingContext propre à la requête, qui résout les relations
+     * en références paresseuses (vérification d'existence groupée et mémorisée).
+     *
+     * @return le contexte de mapping en mode références
      */
     public MappingContext getMappingContext() {
-        return mappingContext;
+        return mappingContext.withReferences(new EntityReferenceResolver(entityManager));
     }
 
     public List<GroupEntity> findByTeacherId(Long teacherId) {
@@ -135,12 +159,22 @@ public class GroupServiceImpl implements GroupService {
 
     @Transactional
     public GroupEntity save(GroupEntity group) {
-        return groupRepository.save(group);
+        boolean existing = group.getId() != null;
+        GroupEntity saved = index(groupRepository.save(group));
+        if (existing) {
+            // Le prix du groupe a pu changer : les montants dus de ses séries sont recalculés
+            balanceLedgerService.refreshForGroup(saved.getId());
+            // L'enseignant, la matière, le niveau ou le nom ont pu changer : le chiffre
+            // d'affaires en cache est ventilé selon les anciennes valeurs
+            revenueAnalyticsService.evictAllAfterCommit();
+        }
+        return saved;
     }
 
     @Transactional
     public void delete(Long id) {
         groupRepository.deleteById(id);
+        nameIndex.removeAfterCommit(Kind.GROUP, List.of(id));
     }
 
     @Override
@@ -152,12 +186,30 @@ public class GroupServiceImpl implements GroupService {
                 .toList();
     }
 
+    @Override
+    public List<AutocompleteEntryDTO> autocompleteGroups(String input, Integer limit) {
+        return groupSearchService.autocomplete(input, limit);
+    }
+
     @Override
     public void desactivateGroup(Long id) {
-        groupRepository.findById(id).ifPresent(group -> {
-            group.setActive(false);
-            groupRepository.save(group);
-        });
+        groupRepository.deactivateAllById(List.of(id));
+        nameIndex.removeAfterCommit(Kind.GROUP, List.of(id));
+    }
+
+    @Override
+    public void reactivateGroup(Long id) {
+        groupRepository.reactivateAllById(List.of(id));
+        nameIndex.putAfterCommit(Kind.GROUP, groupRepository.findNameIndexRowsByIdIn(List.of(id)));
+    }
+
+    /**
+     * Met à jour l'index d'autocomplétion après l'enregistrement d'un groupe.
+     */
+    private GroupEntity index(GroupEntity group) {
+        nameIndex.putAfterCommit(Kind.GROUP, new NameIndexRow(group.getId(), group.getName(), "", group.getPhoto()),
+                group.getActive());
+        return group;
     }
 
     @Transactional(readOnly = true)
@@ -259,7 +311,7 @@ public class GroupServiceImpl implements GroupService {
 
         // Mettre à jour l'entité avec le nom du fichier
         group.setPhoto(result.getFilename());
-        groupRepository.save(group);
+        index(groupRepository.save(group));
 
         LOGGER.info("Photo uploaded successfully for group ID {}: {}", groupId, result.getFilename());
         return result.getFilename();
@@ -1,5 +1,6 @@
 package com.school.management.service.interfaces;
 
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.dto.GroupDTO;
 import com.school.management.persistance.GroupEntity;
 import org.springframework.core.io.Resource;
@@ -11,7 +12,9 @@ import java.util.Map;
 
 public interface GroupService {
     List<GroupDTO> searchGroupsByNameStartingWithDTO(String name);
+    List<AutocompleteEntryDTO> autocompleteGroups(String input, Integer limit);
     void desactivateGroup(Long id);
+    void reactivateGroup(Long id);
 
     // updateGroupPartially(Long id, Map<String, Object> updates);
 
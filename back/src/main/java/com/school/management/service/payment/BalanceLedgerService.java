@@ -0,0 +1,463 @@
+package com.school.management.service.payment;
+
+import com.school.management.dto.payment.BalanceRebuildReportDTO;
+import com.school.management.dto.payment.StudentSeriesBalanceDTO;
+import com.school.management.persistance.BaseEntity;
+import com.school.management.persistance.StudentSeriesBalanceEntity;
+import com.school.management.repository.StudentSeriesBalanceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Service de maintenance du registre des soldes par (étudiant, série).
+ *
+ * Chaque écriture de présence ou de paiement rafraîchit uniquement les clés touchées,
+ * par un upsert ensembliste recalculé depuis les tables sources. Un changement de prix
+ * (PricingService, mise à jour d'un groupe), la suppression d'une session et la
+ * génération de sessions rafraîchissent les soldes des séries concernées.
+ * Les lectures de statut deviennent une simple recherche sur la clé unique.
+ *
+ * Les rafraîchissements concurrents d'un même étudiant sont sérialisés par un verrou
+ * consultatif transactionnel (voir {@link #lockStudents}). Une écriture des tables
+ * sources qui ne passe pas par ces services n'est rattrapée que par {@link #rebuild}.
+ */
+@Service
+public class BalanceLedgerService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalanceLedgerService.class);
+
+    /**
+     * Espace des verrous consultatifs du registre (premier argument de pg_advisory_xact_lock).
+     */
+    static final int LOCK_NAMESPACE = 0x4C42;
+
+    /**
+     * Nombre maximal d'étudiants par tranche de reconstruction : chaque étudiant de la
+     * tranche garde un verrou consultatif jusqu'à la fin de sa transaction, et la table
+     * des verrous de PostgreSQL est dimensionnée par max_locks_per_transaction.
+     */
+    public static final int MAX_REBUILD_CHUNK = 1000;
+
+    /**
+     * Nombre maximal de clés par upsert (deux paramètres par clé).
+     */
+    private static final int MAX_KEYS_PER_UPSERT = 1000;
+
+    /**
+     * Calcule les valeurs attendues pour les clés produites par le CTE ledger_keys
+     * (colonnes student_id, session_series_id).
+     */
+    private static final String EXPECTED_CTES =
+            "attended AS (" +
+            "  SELECT a.student_id, s.session_series_id, COUNT(*) AS cnt " +
+            "  FROM attendance a JOIN session s ON s.id = a.session_id " +
+            "  JOIN ledger_keys k ON k.student_id = a.student_id AND k.session_series_id = s.session_series_id " +
+            "  WHERE a.status = true AND a.active = true " +
+            "  GROUP BY a.student_id, s.session_series_id), " +
+            "paid AS (" +
+            "  SELECT p.student_id, s.session_series_id, SUM(pd.amount_paid) AS total " +
+            "  FROM payment_detail pd JOIN payments p ON p.id = pd.payment_id JOIN session s ON s.id = pd.session_id " +
+            "  JOIN ledger_keys k ON k.student_id = p.student_id AND k.session_series_id = s.session_series_id " +
+            "  GROUP BY p.student_id, s.session_series_id), " +
+            "expected AS (" +
+            "  SELECT k.student_id, k.session_series_id, " +
+            "         COALESCE(att.cnt, 0) AS sessions_attended, " +
+            "         COALESCE(att.cnt, 0) * COALESCE(pr.price, 0) AS amount_due, " +
+            "         COALESCE(pa.total, 0) AS amount_paid " +
+            "  FROM ledger_keys k " +
+            "  JOIN session_series ser ON ser.id = k.session_series_id " +
+            "  LEFT JOIN groups g ON g.id = ser.group_id " +
+            "  LEFT JOIN price pr ON pr.id = g.price_id " +
+            "  LEFT JOIN attended att ON att.student_id = k.student_id AND att.session_series_id = k.session_series_id " +
+            "  LEFT JOIN paid pa ON pa.student_id = k.student_id AND pa.session_series_id = k.session_series_id) ";
+
+    private static final String UPSERT =
+            "INSERT INTO student_series_balance " +
+            "(student_id, session_series_id, sessions_attended, amount_due, amount_paid, date_creation, created_by, active) " +
+            "SELECT student_id, session_series_id, sessions_attended, amount_due, amount_paid, now(), '" + BaseEntity.DEFAULT_CREATED_BY + "', true " +
+            "FROM expected " +
+            "ON CONFLICT (student_id, session_series_id) DO UPDATE SET " +
+            "sessions_attended = EXCLUDED.sessions_attended, " +
+            "amount_due = EXCLUDED.amount_due, " +
+            "amount_paid = EXCLUDED.amount_paid, " +
+            "date_update = now() " +
+            "WHERE (student_series_balance.sessions_attended, student_series_balance.amount_due, student_series_balance.amount_paid) " +
+            "IS DISTINCT FROM (EXCLUDED.sessions_attended, EXCLUDED.amount_due, EXCLUDED.amount_paid)";
+
+    private static final String SESSION_KEYS =
+            "SELECT a.student_id, s.session_series_id FROM attendance a JOIN session s ON s.id = a.session_id " +
+            "WHERE a.session_id IN (:sessionIds) AND s.session_series_id IS NOT NULL " +
+            "UNION " +
+            "SELECT b.student_id, b.session_series_id FROM student_series_balance b " +
+            "WHERE b.session_series_id IN (SELECT s2.session_series_id FROM session s2 WHERE s2.id IN (:sessionIds))";
+
+    private static final String SERIES_KEYS =
+            "SELECT a.student_id, s.session_series_id FROM attendance a JOIN session s ON s.id = a.session_id " +
+            "WHERE s.session_series_id IN (:seriesIds) " +
+            "UNION " +
+            "SELECT b.student_id, b.session_series_id FROM student_series_balance b " +
+            "WHERE b.session_series_id IN (:seriesIds)";
+
+    private static final String GROUP_KEYS =
+            "SELECT b.student_id, b.session_series_id FROM student_series_balance b " +
+            "JOIN session_series ser ON ser.id = b.session_series_id " +
+            "WHERE ser.group_id = :groupId";
+
+    private static final String PRICE_KEYS =
+            "SELECT b.student_id, b.session_series_id FROM student_series_balance b " +
+            "JOIN session_series ser ON ser.id = b.session_series_id " +
+            "JOIN groups g ON g.id = ser.group_id " +
+            "WHERE g.price_id = :priceId";
+
+    private static final String STUDENT_RANGE_KEYS =
+            "SELECT a.student_id, s.session_series_id FROM attendance a JOIN session s ON s.id = a.session_id " +
+            "WHERE a.student_id BETWEEN :fromId AND :toId AND s.session_series_id IS NOT NULL " +
+            "UNION " +
+            "SELECT p.student_id, s.session_series_id FROM payment_detail pd " +
+            "JOIN payments p ON p.id = pd.payment_id JOIN session s ON s.id = pd.session_id " +
+            "WHERE p.student_id BETWEEN :fromId AND :toId AND s.session_series_id IS NOT NULL " +
+            "UNION " +
+            "SELECT b.student_id, b.session_series_id FROM student_series_balance b " +
+            "WHERE b.student_id BETWEEN :fromId AND :toId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StudentSeriesBalanceRepository balanceRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BalanceLedgerService(
+            StudentSeriesBalanceRepository balanceRepository,
+            TransactionTemplate transactionTemplate) {
+        this.balanceRepository = balanceRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Clé du registre.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @param sessionSeriesId l'ID de la série
+     */
+    public record BalanceKey(Long studentId, Long sessionSeriesId) {}
+
+    /**
+     * Rafraîchit le solde d'un étudiant pour une série.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @param sessionSeriesId l'ID de la série
+     */
+    @Transactional
+    public void refresh(Long studentId, Long sessionSeriesId) {
+        if (studentId == null || sessionSeriesId == null) {
+            return;
+        }
+        refreshKeys(List.of(new BalanceKey(studentId, sessionSeriesId)));
+    }
+
+    /**
+     * Prend dès maintenant le verrou de l'étudiant, jusqu'à la fin de la transaction courante.
+     *
+     * Un encaissement le prend avant de lire le paiement existant : les encaissements
+     * concurrents d'un même étudiant attendent alors leur tour au lieu d'échouer sur
+     * @Version et d'être rejoués. Le rafraîchissement qui suit reprend le même verrou
+     * (un verrou consultatif est réentrant dans une transaction).
+     *
+     * @param studentId l'ID de l'étudiant
+     */
+    @Transactional
+    public void lockStudent(Long studentId) {
+        if (studentId != null) {
+            lockStudents(List.of(studentId));
+        }
+    }
+
+    /**
+     * Rafraîchit plusieurs soldes, par upserts d'au plus {@value #MAX_KEYS_PER_UPSERT} clés.
+     *
+     * @param keys les clés (étudiant, série) à recalculer
+     */
+    @Transactional
+    public void refreshKeys(Collection<BalanceKey> keys) {
+        List<BalanceKey> distinctKeys = keys.stream()
+            .filter(key -> key.studentId() != null && key.sessionSeriesId() != null)
+            .distinct()
+            .sorted(Comparator.comparing(BalanceKey::studentId).thenComparing(BalanceKey::sessionSeriesId))
+            .toList();
+        if (distinctKeys.isEmpty()) {
+            return;
+        }
+
+        entityManager.flush();
+        lockStudents(distinctKeys.stream().map(BalanceKey::studentId).toList());
+        int updated = 0;
+        for (int from = 0; from < distinctKeys.size(); from += MAX_KEYS_PER_UPSERT) {
+            updated += upsert(distinctKeys.subList(from, Math.min(from + MAX_KEYS_PER_UPSERT, distinctKeys.size())));
+        }
+
+        LOGGER.debug("Refreshed {} balance(s) for {} key(s)", updated, distinctKeys.size());
+    }
+
+    /**
+     * Rafraîchit les soldes de tous les étudiants concernés par une session
+     * (présences de la session et soldes déjà enregistrés pour sa série).
+     *
+     * @param sessionId l'ID de la session
+     */
+    @Transactional
+    public void refreshForSession(Long sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        refreshForSessions(List.of(sessionId));
+    }
+
+    /**
+     * Rafraîchit en une fois les soldes concernés par plusieurs sessions : une requête de
+     * clés, puis les verrous et les upserts de toutes les clés dans un seul ordre croissant.
+     *
+     * @param sessionIds les IDs des sessions
+     */
+    @Transactional
+    public void refreshForSessions(Collection<Long> sessionIds) {
+        List<Long> ids = sessionIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        refreshKeys(findKeys(SESSION_KEYS, "sessionIds", ids));
+    }
+
+    /**
+     * Rafraîchit les soldes des séries, par exemple après la suppression d'une de leurs
+     * sessions (présences et détails de paiement supprimés en cascade).
+     *
+     * @param seriesIds les IDs des séries
+     */
+    @Transactional
+    public void refreshForSeries(Collection<Long> seriesIds) {
+        List<Long> ids = seriesIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        refreshKeys(findKeys(SERIES_KEYS, "seriesIds", ids));
+    }
+
+    /**
+     * Rafraîchit les soldes des séries d'un groupe, dont le prix a pu changer.
+     *
+     * @param groupId l'ID du groupe
+     */
+    @Transactional
+    public void refreshForGroup(Long groupId) {
+        if (groupId == null) {
+            return;
+        }
+        entityManager.flush();
+        refreshKeys(findKeys(GROUP_KEYS, "groupId", groupId));
+    }
+
+    /**
+     * Rafraîchit les soldes des séries des groupes qui utilisent un prix modifié.
+     *
+     * @param priceId l'ID du prix
+     */
+    @Transactional
+    public void refreshForPrice(Long priceId) {
+        if (priceId == null) {
+            return;
+        }
+        entityManager.flush();
+        refreshKeys(findKeys(PRICE_KEYS, "priceId", priceId));
+    }
+
+    /**
+     * Récupère le solde d'un étudiant pour une série.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @param sessionSeriesId l'ID de la série
+     * @return le solde, vide s'il n'a encore ni présence ni paiement
+     */
+    @Transactional(readOnly = true)
+    public Optional<StudentSeriesBalanceDTO> getBalance(Long studentId, Long sessionSeriesId) {
+        return balanceRepository.findByStudentIdAndSessionSeriesId(studentId, sessionSeriesId)
+            .map(balance -> toDto(balance, studentId, sessionSeriesId));
+    }
+
+    /**
+     * Récupère tous les soldes d'un étudiant.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @return les soldes par série
+     */
+    @Transactional(readOnly = true)
+    public List<StudentSeriesBalanceDTO> getBalancesForStudent(Long studentId) {
+        return balanceRepository.findByStudentId(studentId).stream()
+            .map(balance -> toDto(balance, studentId, balance.getSessionSeries().getId()))
+            .toList();
+    }
+
+    /**
+     * Reconstruit le registre à partir des tables sources, par tranches d'étudiants.
+     *
+     * Chaque tranche est traitée dans sa propre transaction ; seules les lignes absentes
+     * ou divergentes sont écrites et comptabilisées dans le rapport.
+     *
+     * @param chunkSize le nombre d'étudiants par tranche
+     * @return le rapport de dérive
+     */
+    public BalanceRebuildReportDTO rebuild(int chunkSize) {
+        long start = System.currentTimeMillis();
+        LOGGER.info("Rebuilding balance ledger with chunks of {} students", chunkSize);
+
+        String rebuildSql = withKeys(STUDENT_RANGE_KEYS) + ", upserted AS (" + UPSERT + " RETURNING (xmax = 0) AS inserted) " +
+            "SELECT COUNT(*) FILTER (WHERE inserted), COUNT(*) FILTER (WHERE NOT inserted) FROM upserted";
+
+        BalanceRebuildReportDTO report = BalanceRebuildReportDTO.builder().build();
+        long afterId = 0L;
+        while (true) {
+            long cursor = afterId;
+            Long lastId = transactionTemplate.execute(status -> {
+                @SuppressWarnings("unchecked")
+                List<Number> ids = entityManager
+                    .createNativeQuery("SELECT id FROM student WHERE id > :afterId ORDER BY id LIMIT :limit")
+                    .setParameter("afterId", cursor)
+                    .setParameter("limit", chunkSize)
+                    .getResultList();
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                long fromId = ids.get(0).longValue();
+                long toId = ids.get(ids.size() - 1).longValue();
+                lockStudents(ids.stream().map(Number::longValue).toList());
+
+                Object[] counts = (Object[]) entityManager.createNativeQuery(rebuildSql)
+                    .setParameter("fromId", fromId)
+                    .setParameter("toId", toId)
+                    .getSingleResult();
+
+                report.setChunks(report.getChunks() + 1);
+                report.setStudentsScanned(report.getStudentsScanned() + ids.size());
+                report.setRowsInserted(report.getRowsInserted() + ((Number) counts[0]).longValue());
+                report.setRowsCorrected(report.getRowsCorrected() + ((Number) counts[1]).longValue());
+                return toId;
+            });
+
+            if (lastId == null) {
+                break;
+            }
+            afterId = lastId;
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        LOGGER.info("Balance ledger rebuilt: {} students in {} chunks, {} missing rows, {} drifted rows, {} ms",
+            report.getStudentsScanned(), report.getChunks(), report.getRowsInserted(),
+            report.getRowsCorrected(), report.getDurationMs());
+        return report;
+    }
+
+    /**
+     * Verrouille jusqu'à la fin de la transaction chaque étudiant dont les soldes vont
+     * être recalculés, par ordre croissant de clé de verrou, en une seule requête.
+     *
+     * Sans verrou, deux transactions qui écrivent les sources d'une même clé (une présence
+     * et un paiement) calculent chacune l'upsert sur un instantané qui ignore l'écriture
+     * non validée de l'autre, et la dernière à valider enregistre un solde incomplet. Le
+     * verrou est pris par une requête distincte, après les écritures sources : en READ
+     * COMMITTED, l'upsert qui suit voit donc tout ce que la transaction précédente sur cet
+     * étudiant a validé. Un service qui rafraîchit plusieurs fois dans la même transaction
+     * peut prendre ses verrous dans un ordre différent d'une autre transaction et provoquer
+     * un interblocage : PostgreSQL l'annule alors avec une erreur. Les rafraîchissements
+     * d'un lot passent donc par un seul appel ({@link #refreshKeys}, {@link #refreshForSessions}).
+     *
+     * La clé de verrou est le hash de l'ID sur 32 bits : deux étudiants de même hash sont
+     * sérialisés entre eux, sans autre effet.
+     */
+    private void lockStudents(Collection<Long> studentIds) {
+        List<Integer> lockKeys = studentIds.stream()
+            .map(studentId -> studentId.hashCode())
+            .distinct()
+            .sorted()
+            .toList();
+        if (lockKeys.isEmpty()) {
+            return;
+        }
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < lockKeys.size(); i++) {
+            if (i > 0) {
+                values.append(", ");
+            }
+            values.append("(CAST(:k").append(i).append(" AS integer))");
+        }
+        // PostgreSQL évalue une fonction volatile de la liste de sélection après le tri :
+        // les verrous sont pris dans l'ordre de l'ORDER BY
+        Query query = entityManager.createNativeQuery(
+            "SELECT COUNT(*) FROM (SELECT v.lock_key, pg_advisory_xact_lock(:namespace, v.lock_key) " +
+            "FROM (VALUES " + values + ") AS v(lock_key) ORDER BY v.lock_key) AS locked");
+        query.setParameter("namespace", LOCK_NAMESPACE);
+        for (int i = 0; i < lockKeys.size(); i++) {
+            query.setParameter("k" + i, lockKeys.get(i));
+        }
+        query.getSingleResult();
+    }
+
+    private int upsert(List<BalanceKey> keys) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                values.append(", ");
+            }
+            values.append("(CAST(:s").append(i).append(" AS bigint), CAST(:r").append(i).append(" AS bigint))");
+        }
+        String keysSql = "SELECT v.student_id, v.session_series_id FROM (VALUES " + values +
+            ") AS v(student_id, session_series_id)";
+
+        Query query = entityManager.createNativeQuery(withKeys(keysSql) + UPSERT);
+        for (int i = 0; i < keys.size(); i++) {
+            query.setParameter("s" + i, keys.get(i).studentId());
+            query.setParameter("r" + i, keys.get(i).sessionSeriesId());
+        }
+        return query.executeUpdate();
+    }
+
+    private List<BalanceKey> findKeys(String keysSql, String parameter, Object value) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(keysSql)
+            .setParameter(parameter, value)
+            .getResultList();
+        return rows.stream()
+            .map(row -> new BalanceKey(((Number) row[0]).longValue(), ((Number) row[1]).longValue()))
+            .toList();
+    }
+
+    private String withKeys(String keysSql) {
+        return "WITH ledger_keys AS (" + keysSql + "), " + EXPECTED_CTES;
+    }
+
+    private StudentSeriesBalanceDTO toDto(StudentSeriesBalanceEntity balance, Long studentId, Long sessionSeriesId) {
+        double due = balance.getAmountDue() != null ? balance.getAmountDue() : 0.0;
+        double paid = balance.getAmountPaid() != null ? balance.getAmountPaid() : 0.0;
+        return StudentSeriesBalanceDTO.builder()
+            .studentId(studentId)
+            .sessionSeriesId(sessionSeriesId)
+            .sessionsAttended(balance.getSessionsAttended())
+            .amountDue(due)
+            .amountPaid(paid)
+            .balance(paid - due)
+            .paymentOverdue(paid < due)
+            .build();
+    }
+}
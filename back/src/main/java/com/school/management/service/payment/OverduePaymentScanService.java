@@ -0,0 +1,430 @@
+package com.school.management.service.payment;
+
+import com.school.management.dto.payment.OverduePaymentDTO;
+import com.school.management.dto.payment.PaymentScanRunDTO;
+import com.school.management.persistance.BaseEntity;
+import com.school.management.persistance.PaymentScanRunEntity;
+import com.school.management.repository.OverduePaymentSnapshotRepository;
+import com.school.management.repository.PaymentScanRunRepository;
+import com.school.management.service.exception.CustomServiceException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scan des retards de paiement pour toutes les combinaisons actives étudiant/groupe/série.
+ *
+ * Les étudiants sont découpés en tranches par pagination par clé (keyset) sur leur ID.
+ * Chaque tranche est recalculée par une seule requête ensembliste qui remplace sa portion
+ * de la table overdue_payment_snapshot ; les tranches sont réparties sur un pool de
+ * threads borné. Le point de reprise ne progresse que sur des tranches contiguës
+ * terminées, ce qui rend le scan reprenable après un échec.
+ */
+@Service
+public class OverduePaymentScanService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OverduePaymentScanService.class);
+
+    static final String RUNNING = "RUNNING";
+    static final String COMPLETED = "COMPLETED";
+    static final String FAILED = "FAILED";
+
+    /**
+     * Longueur de payment_scan_run.error_message : le message d'une erreur JDBC reprend
+     * la requête d'insertion et la dépasse.
+     */
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 1000;
+
+    private static final String NEXT_CHUNK_SQL =
+            "SELECT COUNT(*), MAX(c.id) FROM (" +
+            "  SELECT id FROM student WHERE id > :afterId ORDER BY id LIMIT :limit) c";
+
+    private static final String DELETE_CHUNK_SQL =
+            "DELETE FROM overdue_payment_snapshot WHERE student_id > :afterId AND student_id <= :toId";
+
+    private static final String DELETE_BEYOND_SQL =
+            "DELETE FROM overdue_payment_snapshot WHERE student_id > :afterId";
+
+    private static final String INSERT_CHUNK_SQL =
+            "INSERT INTO overdue_payment_snapshot " +
+            "(student_id, group_id, session_series_id, sessions_attended, amount_due, amount_paid, overdue_amount, " +
+            " run_id, computed_at, date_creation, created_by, active) " +
+            "SELECT c.student_id, c.group_id, c.series_id, " +
+            "       COALESCE(att.cnt, 0), COALESCE(att.cnt, 0) * c.price, COALESCE(pa.total, 0), " +
+            "       COALESCE(att.cnt, 0) * c.price - COALESCE(pa.total, 0), " +
+            "       :runId, now(), now(), :createdBy, true " +
+            "FROM (" +
+            "  SELECT DISTINCT sg.student_id, sg.group_id, ser.id AS series_id, COALESCE(pr.price, 0) AS price " +
+            "  FROM student_groups sg " +
+            "  JOIN student s ON s.id = sg.student_id " +
+            "  JOIN session_series ser ON ser.group_id = sg.group_id " +
+            "  JOIN groups g ON g.id = sg.group_id " +
+            "  LEFT JOIN price pr ON pr.id = g.price_id " +
+            "  WHERE sg.student_id > :afterId AND sg.student_id <= :toId " +
+            "    AND s.active = true AND COALESCE(sg.active, true) = true " +
+            "    AND COALESCE(g.active, true) = true AND COALESCE(ser.active, true) = true" +
+            ") c " +
+            "LEFT JOIN (" +
+            "  SELECT a.student_id, se.session_series_id, COUNT(*) AS cnt " +
+            "  FROM attendance a JOIN session se ON se.id = a.session_id " +
+            "  WHERE a.student_id > :afterId AND a.student_id <= :toId AND a.status = true AND a.active = true " +
+            "  GROUP BY a.student_id, se.session_series_id" +
+            ") att ON att.student_id = c.student_id AND att.session_series_id = c.series_id " +
+            "LEFT JOIN (" +
+            "  SELECT p.student_id, se.session_series_id, SUM(pd.amount_paid) AS total " +
+            "  FROM payment_detail pd JOIN payments p ON p.id = pd.payment_id JOIN session se ON se.id = pd.session_id " +
+            "  WHERE p.student_id > :afterId AND p.student_id <= :toId " +
+            "  GROUP BY p.student_id, se.session_series_id" +
+            ") pa ON pa.student_id = c.student_id AND pa.session_series_id = c.series_id " +
+            "WHERE COALESCE(att.cnt, 0) * c.price > COALESCE(pa.total, 0)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PaymentScanRunRepository runRepository;
+    private final OverduePaymentSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${payment.overdue-scan.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${payment.overdue-scan.workers:4}")
+    private int workers;
+
+    public OverduePaymentScanService(
+            PaymentScanRunRepository runRepository,
+            OverduePaymentSnapshotRepository snapshotRepository,
+            TransactionTemplate transactionTemplate) {
+        this.runRepository = runRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Lance le scan, ou reprend la dernière exécution non terminée.
+     *
+     * @return l'exécution avec ses métriques
+     * @throws CustomServiceException si un scan est déjà en cours
+     */
+    public PaymentScanRunDTO runScan() {
+        if (!running.compareAndSet(false, true)) {
+            throw new CustomServiceException("Un scan des retards de paiement est déjà en cours.", HttpStatus.CONFLICT);
+        }
+        try {
+            return toDto(doScan());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Récupère la dernière exécution du scan.
+     *
+     * @return la dernière exécution, null si le scan n'a jamais tourné
+     */
+    public PaymentScanRunDTO getLastRun() {
+        return runRepository.findFirstByOrderByIdDesc().map(OverduePaymentScanService::toDto).orElse(null);
+    }
+
+    /**
+     * Lit l'instantané des retards produit par le dernier scan.
+     *
+     * @param groupId filtre optionnel sur le groupe
+     * @param pageable les paramètres de pagination
+     * @return une page de retards
+     */
+    @Transactional(readOnly = true)
+    public Page<OverduePaymentDTO> getOverduePayments(Long groupId, Pageable pageable) {
+        return snapshotRepository.findOverdue(groupId, pageable);
+    }
+
+    private PaymentScanRunEntity doScan() {
+        PaymentScanRunEntity run = startOrResume();
+        long startNanos = System.nanoTime();
+        long previousDurationMs = run.getDurationMs() != null ? run.getDurationMs() : 0L;
+
+        ChunkTracker tracker = new ChunkTracker(run);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(workers * 2),
+            new ScanThreadFactory(),
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+
+        List<Future<?>> futures = new ArrayList<>();
+        String status = COMPLETED;
+        String error = null;
+        try {
+            long afterId = run.getLastStudentId();
+            while (true) {
+                Object[] bounds = nextChunkBounds(afterId);
+                long count = ((Number) bounds[0]).longValue();
+                if (count == 0) {
+                    break;
+                }
+                long toId = ((Number) bounds[1]).longValue();
+                Chunk chunk = tracker.register(afterId, toId, count);
+                futures.add(executor.submit(() -> processChunk(run.getId(), chunk, tracker)));
+                afterId = toId;
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            futures.forEach(future -> future.cancel(false));
+            status = FAILED;
+            error = cause.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(false));
+            status = FAILED;
+            error = "Interrupted";
+        } finally {
+            // Les tranches déjà démarrées se terminent avant le bilan : le point de reprise est définitif
+            shutdownAndAwait(executor);
+        }
+
+        if (COMPLETED.equals(status)) {
+            deleteBeyond(tracker.watermark);
+        }
+        return finish(run, tracker, status, previousDurationMs, startNanos, error);
+    }
+
+    /**
+     * Supprime les lignes des étudiants au-delà de la dernière tranche (étudiants supprimés
+     * depuis le scan précédent), qu'aucune tranche n'a remplacées.
+     */
+    private void deleteBeyond(long afterId) {
+        Integer deleted = transactionTemplate.execute(status -> entityManager
+            .createNativeQuery(DELETE_BEYOND_SQL)
+            .setParameter("afterId", afterId)
+            .executeUpdate());
+        if (deleted != null && deleted > 0) {
+            LOGGER.info("Removed {} stale overdue rows after student {}", deleted, afterId);
+        }
+    }
+
+    /**
+     * Arrête le pool et attend la fin des tranches en cours, même si le thread est interrompu.
+     */
+    private static void shutdownAndAwait(ExecutorService executor) {
+        executor.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+                LOGGER.warn("Waiting for overdue scan chunks to finish");
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Recalcule une tranche (afterId, toId] dans sa propre transaction.
+     */
+    private void processChunk(Long runId, Chunk chunk, ChunkTracker tracker) {
+        Integer rows = transactionTemplate.execute(status -> {
+            entityManager.createNativeQuery(DELETE_CHUNK_SQL)
+                .setParameter("afterId", chunk.afterId)
+                .setParameter("toId", chunk.toId)
+                .executeUpdate();
+            return entityManager.createNativeQuery(INSERT_CHUNK_SQL)
+                .setParameter("runId", runId)
+                .setParameter("createdBy", BaseEntity.DEFAULT_CREATED_BY)
+                .setParameter("afterId", chunk.afterId)
+                .setParameter("toId", chunk.toId)
+                .executeUpdate();
+        });
+        tracker.complete(chunk, rows != null ? rows : 0);
+    }
+
+    private Object[] nextChunkBounds(long afterId) {
+        return transactionTemplate.execute(status -> (Object[]) entityManager
+            .createNativeQuery(NEXT_CHUNK_SQL)
+            .setParameter("afterId", afterId)
+            .setParameter("limit", chunkSize)
+            .getSingleResult());
+    }
+
+    private PaymentScanRunEntity startOrResume() {
+        return transactionTemplate.execute(status -> {
+            PaymentScanRunEntity last = runRepository.findFirstByOrderByIdDesc().orElse(null);
+            if (last != null && !COMPLETED.equals(last.getStatus())) {
+                LOGGER.info("Resuming overdue payment scan run {} after student {}", last.getId(), last.getLastStudentId());
+                last.setStatus(RUNNING);
+                last.setErrorMessage(null);
+                return runRepository.save(last);
+            }
+
+            PaymentScanRunEntity run = new PaymentScanRunEntity();
+            run.setStatus(RUNNING);
+            run.setStartedAt(LocalDateTime.now());
+            run.setLastStudentId(0L);
+            run.setChunkSize(chunkSize);
+            run.setChunksCompleted(0);
+            run.setStudentsScanned(0L);
+            run.setRowsWritten(0L);
+            LOGGER.info("Starting overdue payment scan with chunks of {} students on {} workers", chunkSize, workers);
+            return runRepository.save(run);
+        });
+    }
+
+    private PaymentScanRunEntity finish(PaymentScanRunEntity run, ChunkTracker tracker, String status,
+                                        long previousDurationMs, long startNanos, String error) {
+        long durationMs = previousDurationMs + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        double seconds = Math.max(durationMs, 1L) / 1000.0;
+
+        return transactionTemplate.execute(txStatus -> {
+            PaymentScanRunEntity current = runRepository.findById(run.getId()).orElse(run);
+            current.setStatus(status);
+            current.setFinishedAt(LocalDateTime.now());
+            current.setDurationMs(durationMs);
+            current.setLastStudentId(tracker.watermark);
+            current.setChunksCompleted(tracker.chunksCompleted);
+            current.setStudentsScanned(tracker.studentsScanned);
+            current.setRowsWritten(tracker.rowsWritten);
+            current.setRowsPerSecond(tracker.rowsWritten / seconds);
+            current.setStudentsPerSecond(tracker.studentsScanned / seconds);
+            current.setErrorMessage(error != null && error.length() > MAX_ERROR_MESSAGE_LENGTH
+                ? error.substring(0, MAX_ERROR_MESSAGE_LENGTH) : error);
+
+            if (FAILED.equals(status)) {
+                LOGGER.error("Overdue payment scan run {} failed after student {}: {}",
+                    current.getId(), tracker.watermark, error);
+            } else {
+                LOGGER.info("Overdue payment scan run {} completed: {} students, {} overdue rows, {} chunks, " +
+                        "{} ms ({} rows/s, {} students/s)",
+                    current.getId(), tracker.studentsScanned, tracker.rowsWritten, tracker.chunksCompleted,
+                    durationMs, String.format("%.1f", current.getRowsPerSecond()),
+                    String.format("%.1f", current.getStudentsPerSecond()));
+            }
+            return runRepository.save(current);
+        });
+    }
+
+    private static PaymentScanRunDTO toDto(PaymentScanRunEntity run) {
+        return PaymentScanRunDTO.builder()
+            .id(run.getId())
+            .status(run.getStatus())
+            .startedAt(run.getStartedAt())
+            .finishedAt(run.getFinishedAt())
+            .lastStudentId(run.getLastStudentId())
+            .chunkSize(run.getChunkSize())
+            .chunksCompleted(run.getChunksCompleted())
+            .studentsScanned(run.getStudentsScanned())
+            .rowsWritten(run.getRowsWritten())
+            .durationMs(run.getDurationMs())
+            .rowsPerSecond(run.getRowsPerSecond())
+            .studentsPerSecond(run.getStudentsPerSecond())
+            .errorMessage(run.getErrorMessage())
+            .build();
+    }
+
+    /**
+     * Tranche d'étudiants (afterId, toId].
+     */
+    private static final class Chunk {
+        private final long afterId;
+        private final long toId;
+        private final long students;
+        private boolean done;
+        private int rows;
+
+        private Chunk(long afterId, long toId, long students) {
+            this.afterId = afterId;
+            this.toId = toId;
+            this.students = students;
+        }
+    }
+
+    /**
+     * Suit les tranches en cours et fait avancer le point de reprise sur les tranches
+     * contiguës terminées.
+     */
+    private final class ChunkTracker {
+        private final Long runId;
+        private final Map<Long, Chunk> pending = new TreeMap<>();
+        private long watermark;
+        private int chunksCompleted;
+        private long studentsScanned;
+        private long rowsWritten;
+
+        private ChunkTracker(PaymentScanRunEntity run) {
+            this.runId = run.getId();
+            this.watermark = run.getLastStudentId();
+            this.chunksCompleted = run.getChunksCompleted() != null ? run.getChunksCompleted() : 0;
+            this.studentsScanned = run.getStudentsScanned() != null ? run.getStudentsScanned() : 0L;
+            this.rowsWritten = run.getRowsWritten() != null ? run.getRowsWritten() : 0L;
+        }
+
+        private synchronized Chunk register(long afterId, long toId, long students) {
+            Chunk chunk = new Chunk(afterId, toId, students);
+            pending.put(afterId, chunk);
+            return chunk;
+        }
+
+        private synchronized void complete(Chunk chunk, int rows) {
+            chunk.done = true;
+            chunk.rows = rows;
+
+            boolean advanced = false;
+            Chunk next = pending.get(watermark);
+            while (next != null && next.done) {
+                pending.remove(watermark);
+                watermark = next.toId;
+                chunksCompleted++;
+                studentsScanned += next.students;
+                rowsWritten += next.rows;
+                advanced = true;
+                next = pending.get(watermark);
+            }
+
+            if (advanced) {
+                long checkpoint = watermark;
+                transactionTemplate.executeWithoutResult(status -> runRepository.updateCheckpoint(
+                    runId, checkpoint, chunksCompleted, studentsScanned, rowsWritten));
+                LOGGER.debug("Overdue payment scan checkpoint: student {} ({} chunks)", checkpoint, chunksCompleted);
+            }
+        }
+    }
+
+    /**
+     * Nomme les threads du pool pour les rendre identifiables dans les logs.
+     */
+    private static final class ScanThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "overdue-scan-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
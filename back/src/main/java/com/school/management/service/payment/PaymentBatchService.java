@@ -0,0 +1,301 @@
+package com.school.management.service.payment;
+
+import com.school.management.domain.valueobject.Money;
+import com.school.management.dto.PaymentDTO;
+import com.school.management.dto.payment.BatchPaymentItemResultDTO;
+import com.school.management.dto.payment.BatchPaymentResultDTO;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentDetailEntity;
+import com.school.management.persistance.PaymentEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.repository.*;
+import com.school.management.repository.PaymentDetailRepositoryCustom.NewPaymentDetail;
+import com.school.management.repository.projection.SeriesSessionIdRow;
+import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.payment.BalanceLedgerService.BalanceKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.school.management.service.payment.PaymentProcessingService.COMPLETED;
+import static com.school.management.service.payment.PaymentProcessingService.IN_PROGRESS;
+
+/**
+ * Service de saisie en masse des paiements de séries.
+ *
+ * Applique les mêmes règles que {@link PaymentProcessingService#processPayment} à une liste
+ * de paiements, mais en une seule transaction :
+ * - les étudiants, groupes (avec tarif), séries, sessions et paiements existants sont
+ *   préchargés en un nombre fixe de requêtes
+ * - la validation se fait en mémoire, en tenant compte des paiements précédents du lot
+ * - tous les nouveaux détails de paiement sont insérés en un seul batch JDBC
+ * - les soldes du registre touchés par le lot sont rafraîchis en une requête
+ *
+ * Chaque élément du lot reçoit son propre résultat (succès ou motif de refus).
+ */
+@Service
+public class PaymentBatchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PaymentBatchService.class);
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentDetailRepository paymentDetailRepository;
+    private final StudentRepository studentRepository;
+    private final GroupRepository groupRepository;
+    private final SessionSeriesRepository sessionSeriesRepository;
+    private final SessionRepository sessionRepository;
+    private final PaymentDistributionService distributionService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final RevenueAnalyticsService revenueAnalyticsService;
+
+    public PaymentBatchService(
+            PaymentRepository paymentRepository,
+            PaymentDetailRepository paymentDetailRepository,
+            StudentRepository studentRepository,
+            GroupRepository groupRepository,
+            SessionSeriesRepository sessionSeriesRepository,
+            SessionRepository sessionRepository,
+            PaymentDistributionService distributionService,
+            BalanceLedgerService balanceLedgerService,
+            RevenueAnalyticsService revenueAnalyticsService) {
+        this.paymentRepository = paymentRepository;
+        this.paymentDetailRepository = paymentDetailRepository;
+        this.studentRepository = studentRepository;
+        this.groupRepository = groupRepository;
+        this.sessionSeriesRepository = sessionSeriesRepository;
+        this.sessionRepository = sessionRepository;
+        this.distributionService = distributionService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.revenueAnalyticsService = revenueAnalyticsService;
+    }
+
+    /**
+     * Traite un lot de paiements de séries.
+     *
+     * @param payments les paiements à traiter (studentId, groupId, sessionSeriesId, amountPaid)
+     * @return le résultat global et le résultat de chaque élément
+     * @throws CustomServiceException si le lot est vide ou trop volumineux
+     */
+    @Transactional
+    public BatchPaymentResultDTO processBatch(List<PaymentDTO> payments) {
+        if (payments == null || payments.isEmpty()) {
+            throw new CustomServiceException("Le lot de paiements est vide.", HttpStatus.BAD_REQUEST);
+        }
+        if (payments.size() > MAX_BATCH_SIZE) {
+            throw new CustomServiceException(
+                "Le lot de paiements ne peut pas dépasser " + MAX_BATCH_SIZE + " éléments.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        LOGGER.info("Processing payment batch of {} items", payments.size());
+        BatchContext context = preload(payments);
+
+        List<BatchPaymentItemResultDTO> results = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            results.add(processItem(i, payments.get(i), context));
+        }
+
+        List<NewPaymentDetail> newDetails = new ArrayList<>();
+        context.newAmountsByPayment.forEach((paymentId, amounts) ->
+            amounts.forEach((sessionId, cents) ->
+                newDetails.add(new NewPaymentDetail(paymentId, sessionId, Money.fromCents(cents), false))));
+        paymentDetailRepository.batchInsert(newDetails);
+        balanceLedgerService.refreshKeys(context.touchedBalances);
+        revenueAnalyticsService.evictMonthsAfterCommit(context.completedDetailDates);
+
+        int succeeded = (int) results.stream().filter(BatchPaymentItemResultDTO::isSuccess).count();
+        LOGGER.info("Payment batch completed: {} succeeded, {} failed, {} payment details inserted",
+            succeeded, results.size() - succeeded, newDetails.size());
+
+        return BatchPaymentResultDTO.builder()
+            .total(results.size())
+            .succeeded(succeeded)
+            .failed(results.size() - succeeded)
+            .items(results)
+            .build();
+    }
+
+    /**
+     * Valide puis applique un élément du lot.
+     *
+     * Aucune écriture n'a lieu tant que toutes les règles ne sont pas vérifiées.
+     */
+    private BatchPaymentItemResultDTO processItem(int index, PaymentDTO dto, BatchContext context) {
+        if (dto == null) {
+            return fail(BatchPaymentItemResultDTO.builder().index(index), "Élément de lot vide.");
+        }
+
+        BatchPaymentItemResultDTO.BatchPaymentItemResultDTOBuilder result = BatchPaymentItemResultDTO.builder()
+            .index(index)
+            .studentId(dto.getStudentId())
+            .groupId(dto.getGroupId())
+            .sessionSeriesId(dto.getSessionSeriesId())
+            .amountPaid(dto.getAmountPaid());
+
+        if (dto.getStudentId() == null || dto.getGroupId() == null || dto.getSessionSeriesId() == null) {
+            return fail(result, "studentId, groupId et sessionSeriesId sont obligatoires.");
+        }
+        if (dto.getAmountPaid() == null || dto.getAmountPaid() < 0) {
+            return fail(result, "Le montant payé doit être positif.");
+        }
+        if (!context.studentIds.contains(dto.getStudentId())) {
+            return fail(result, "Student not found with ID: " + dto.getStudentId());
+        }
+        GroupEntity group = context.groups.get(dto.getGroupId());
+        if (group == null) {
+            return fail(result, "Group not found with ID: " + dto.getGroupId());
+        }
+        if (group.getPrice() == null || group.getPrice().getPrice() == null) {
+            return fail(result, "Aucun tarif n'est défini pour le groupe " + group.getId() + ".");
+        }
+        SessionSeriesEntity series = context.series.get(dto.getSessionSeriesId());
+        if (series == null) {
+            return fail(result, "Series not found with ID: " + dto.getSessionSeriesId());
+        }
+
+        long amountPaidCents = Money.toCents(dto.getAmountPaid());
+        long pricePerSessionCents = Money.toCents(group.getPrice().getPrice());
+        long totalSeriesCostCents = pricePerSessionCents * group.getSessionNumberPerSerie();
+
+        PaymentKey key = new PaymentKey(dto.getStudentId(), dto.getGroupId(), dto.getSessionSeriesId());
+        PaymentEntity payment = context.paymentsByKey.get(key);
+        long currentTotalPaidCents = payment != null ? Money.toCents(payment.getAmountPaid()) : 0L;
+        long newTotalCents = currentTotalPaidCents + amountPaidCents;
+
+        if (newTotalCents > totalSeriesCostCents) {
+            double surplus = Money.fromCents(newTotalCents - totalSeriesCostCents);
+            return fail(result, "Le montant payé dépasse le coût total de la série de " + surplus + " euros.");
+        }
+
+        List<Long> sessionIds = context.sessionIdsBySeries.getOrDefault(series.getId(), List.of());
+        if (newTotalCents > sessionIds.size() * pricePerSessionCents) {
+            return fail(result, "Le paiement ne peut pas être effectué car il dépasse le coût des sessions créées.");
+        }
+
+        double newTotalAmount = Money.fromCents(newTotalCents);
+        String status = newTotalCents >= totalSeriesCostCents ? COMPLETED : IN_PROGRESS;
+        if (payment == null) {
+            payment = new PaymentEntity();
+            payment.setStudent(studentRepository.getReferenceById(dto.getStudentId()));
+            payment.setGroup(group);
+            payment.setSessionSeries(series);
+            payment.setPaymentMethod(dto.getPaymentMethod());
+            payment.setAmountPaid(newTotalAmount);
+            payment.setStatus(status);
+            payment = paymentRepository.save(payment);
+            context.paymentsByKey.put(key, payment);
+        } else {
+            payment.setAmountPaid(newTotalAmount);
+            payment.setStatus(status);
+        }
+
+        distributionService.allocate(
+            sessionIds,
+            pricePerSessionCents,
+            amountPaidCents,
+            context.detailsByPayment.computeIfAbsent(payment.getId(), id -> new HashMap<>()),
+            context.newAmountsByPayment.computeIfAbsent(payment.getId(), id -> new LinkedHashMap<>()),
+            context.completedDetailDates
+        );
+
+        context.touchedBalances.add(new BalanceKey(dto.getStudentId(), dto.getSessionSeriesId()));
+
+        return result
+            .success(true)
+            .paymentId(payment.getId())
+            .status(status)
+            .build();
+    }
+
+    private BatchPaymentItemResultDTO fail(BatchPaymentItemResultDTO.BatchPaymentItemResultDTOBuilder result, String message) {
+        LOGGER.debug("Batch payment item rejected: {}", message);
+        return result.success(false).message(message).build();
+    }
+
+    /**
+     * Précharge toutes les données de référence nécessaires au lot.
+     */
+    private BatchContext preload(List<PaymentDTO> payments) {
+        Set<Long> studentIds = collectIds(payments, PaymentDTO::getStudentId);
+        Set<Long> groupIds = collectIds(payments, PaymentDTO::getGroupId);
+        Set<Long> seriesIds = collectIds(payments, PaymentDTO::getSessionSeriesId);
+
+        BatchContext context = new BatchContext();
+        if (!studentIds.isEmpty()) {
+            context.studentIds.addAll(studentRepository.findExistingIds(studentIds));
+        }
+        if (!groupIds.isEmpty()) {
+            groupRepository.findAllWithPriceByIdIn(groupIds)
+                .forEach(group -> context.groups.put(group.getId(), group));
+        }
+        if (!seriesIds.isEmpty()) {
+            sessionSeriesRepository.findAllById(seriesIds)
+                .forEach(series -> context.series.put(series.getId(), series));
+            for (SeriesSessionIdRow row : sessionRepository.findIdsBySessionSeriesIdIn(seriesIds)) {
+                context.sessionIdsBySeries.computeIfAbsent(row.seriesId(), id -> new ArrayList<>()).add(row.sessionId());
+            }
+        }
+        if (!studentIds.isEmpty() && !seriesIds.isEmpty()) {
+            for (PaymentEntity payment : paymentRepository.findByStudentIdInAndSessionSeriesIdIn(studentIds, seriesIds)) {
+                if (payment.getGroup() == null) {
+                    continue;
+                }
+                context.paymentsByKey.putIfAbsent(new PaymentKey(
+                    payment.getStudent().getId(), payment.getGroup().getId(), payment.getSessionSeries().getId()
+                ), payment);
+            }
+        }
+        if (!context.paymentsByKey.isEmpty()) {
+            Set<Long> paymentIds = context.paymentsByKey.values().stream()
+                .map(PaymentEntity::getId)
+                .collect(Collectors.toSet());
+            for (PaymentDetailEntity detail : paymentDetailRepository.findByPaymentIdIn(paymentIds)) {
+                if (detail.getSession() != null) {
+                    context.detailsByPayment
+                        .computeIfAbsent(detail.getPayment().getId(), id -> new HashMap<>())
+                        .putIfAbsent(detail.getSession().getId(), detail);
+                }
+            }
+        }
+
+        LOGGER.debug("Batch preload: {} students, {} groups, {} series, {} existing payments",
+            context.studentIds.size(), context.groups.size(), context.series.size(), context.paymentsByKey.size());
+        return context;
+    }
+
+    private Set<Long> collectIds(List<PaymentDTO> payments, Function<PaymentDTO, Long> extractor) {
+        return payments.stream()
+            .filter(Objects::nonNull)
+            .map(extractor)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Clé métier d'un paiement de série.
+     */
+    private record PaymentKey(Long studentId, Long groupId, Long seriesId) {}
+
+    /**
+     * Données préchargées et état cumulé du lot en cours.
+     */
+    private static class BatchContext {
+        private final Set<Long> studentIds = new HashSet<>();
+        private final Map<Long, GroupEntity> groups = new HashMap<>();
+        private final Map<Long, SessionSeriesEntity> series = new HashMap<>();
+        private final Map<Long, List<Long>> sessionIdsBySeries = new HashMap<>();
+        private final Map<PaymentKey, PaymentEntity> paymentsByKey = new HashMap<>();
+        private final Map<Long, Map<Long, PaymentDetailEntity>> detailsByPayment = new HashMap<>();
+        private final Map<Long, Map<Long, Long>> newAmountsByPayment = new LinkedHashMap<>();
+        private final Set<BalanceKey> touchedBalances = new HashSet<>();
+        private final Set<Date> completedDetailDates = new HashSet<>();
+    }
+}
@@ -1,11 +1,14 @@
 package com.school.management.service.payment;
 
+import com.school.management.domain.valueobject.Money;
 import com.school.management.dto.PaymentDTO;
 import com.school.management.dto.PaymentDetailDTO;
 import com.school.management.persistance.PaymentDetailEntity;
 import com.school.management.persistance.PaymentEntity;
 import com.school.management.repository.PaymentDetailRepository;
 import com.school.management.repository.PaymentRepository;
+import com.school.management.repository.SessionRepository;
+import com.school.management.repository.projection.PaymentListRow;
 import com.school.management.shared.exception.ResourceNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,12 +37,15 @@ public class PaymentCrudService {
 
     private final PaymentRepository paymentRepository;
     private final PaymentDetailRepository paymentDetailRepository;
+    private final SessionRepository sessionRepository;
 
     public PaymentCrudService(
             PaymentRepository paymentRepository,
-            PaymentDetailRepository paymentDetailRepository) {
+            PaymentDetailRepository paymentDetailRepository,
+            SessionRepository sessionRepository) {
         this.paymentRepository = paymentRepository;
         this.paymentDetailRepository = paymentDetailRepository;
+        this.sessionRepository = sessionRepository;
     }
 
     /**
@@ -65,6 +71,35 @@ public class PaymentCrudService {
         return paymentRepository.findAll(pageable);
     }
 
+    /**
+     * Récupère une page de paiements sous forme de DTOs, coûts de série inclus.
+     *
+     * Une requête de projection pour la page et une requête de comptage, quelle que
+     * soit la taille de la page.
+     *
+     * @param pageable les paramètres de pagination
+     * @return une page de DTOs
+     */
+    @Transactional(readOnly = true)
+    public Page<PaymentDTO> getPaymentDtoPage(Pageable pageable) {
+        LOGGER.debug("Fetching payment list - page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
+        return paymentRepository.findPaymentListRows(pageable).map(this::convertToDto);
+    }
+
+    /**
+     * Récupère une page des paiements d'un étudiant sous forme de DTOs, coûts de série inclus.
+     *
+     * @param studentId l'ID de l'étudiant
+     * @param pageable les paramètres de pagination
+     * @return une page de DTOs
+     */
+    @Transactional(readOnly = true)
+    public Page<PaymentDTO> getPaymentDtoPageForStudent(Long studentId, Pageable pageable) {
+        LOGGER.debug("Fetching payment list for student: {} - page: {}, size: {}",
+            studentId, pageable.getPageNumber(), pageable.getPageSize());
+        return paymentRepository.findPaymentListRowsByStudentId(studentId, pageable).map(this::convertToDto);
+    }
+
     /**
      * Récupère un paiement par son ID.
      *
@@ -159,9 +194,14 @@ public class PaymentCrudService {
         List<PaymentEntity> payments = paymentRepository
             .findAllByStudentIdAndSessionSeriesId(studentId, sessionSeriesId);
         LOGGER.debug("Found {} payments", payments.size());
+        if (payments.isEmpty()) {
+            return List.of();
+        }
 
+        // Tous les paiements portent sur la même série : ses sessions sont comptées une fois
+        long sessionCount = sessionRepository.countBySessionSeriesId(sessionSeriesId);
         return payments.stream()
-            .map(this::convertToDto)
+            .map(payment -> convertToDto(payment, sessionCount))
             .toList();
     }
 
@@ -191,7 +231,24 @@ public class PaymentCrudService {
      * @return le DTO
      */
     public PaymentDTO convertToDto(PaymentEntity payment) {
-        return PaymentDTO.builder()
+        boolean hasSeriesCost = payment.getGroup() != null && payment.getSessionSeries() != null;
+        long sessionCount = hasSeriesCost ? sessionRepository.countBySessionSeriesId(payment.getSessionSeries().getId()) : 0L;
+        return convertToDto(payment, sessionCount);
+    }
+
+    /**
+     * Convertit une entité PaymentEntity en PaymentDTO, avec un nombre de sessions de la
+     * série déjà connu (compté une fois pour tous les paiements d'une même série).
+     *
+     * @param payment l'entité à convertir
+     * @param sessionCount le nombre de sessions de la série du paiement
+     * @return le DTO
+     */
+    private PaymentDTO convertToDto(PaymentEntity payment, long sessionCount) {
+        boolean hasSeriesCost = payment.getGroup() != null && payment.getSessionSeries() != null;
+        Double pricePerSession = hasSeriesCost ? payment.getGroup().getPrice().getPrice() : null;
+
+        PaymentDTO dto = PaymentDTO.builder()
             .studentId(payment.getStudent().getId())
             .groupId(payment.getGroup() != null ? payment.getGroup().getId() : null)
             .sessionSeriesId(payment.getSessionSeries() != null ? payment.getSessionSeries().getId() : null)
@@ -200,10 +257,33 @@ public class PaymentCrudService {
             .status(payment.getStatus())
             .paymentMethod(payment.getPaymentMethod())
             .paymentDescription(payment.getDescription())
-            .totalSeriesCost(calculateTotalSeriesCost(payment))
-            .totalPaidForSeries(calculateTotalPaidForSeries(payment))
-            .amountOwed(calculateAmountOwed(payment))
             .build();
+        applySeriesCost(dto, hasSeriesCost, pricePerSession, sessionCount);
+        return dto;
+    }
+
+    /**
+     * Convertit une ligne de projection en PaymentDTO, sans accès supplémentaire à la base.
+     *
+     * @param row la ligne à convertir
+     * @return le DTO
+     */
+    private PaymentDTO convertToDto(PaymentListRow row) {
+        PaymentDTO dto = PaymentDTO.builder()
+            .studentId(row.studentId())
+            .groupId(row.groupId())
+            .sessionSeriesId(row.sessionSeriesId())
+            .sessionId(row.sessionId())
+            .amountPaid(row.amountPaid())
+            .paymentForMonth(row.paymentForMonth())
+            .status(row.status())
+            .paymentMethod(row.paymentMethod())
+            .paymentDescription(row.description())
+            .build();
+        boolean hasSeriesCost = row.groupId() != null && row.sessionSeriesId() != null;
+        applySeriesCost(dto, hasSeriesCost, row.pricePerSession(),
+            row.seriesSessionCount() != null ? row.seriesSessionCount() : 0L);
+        return dto;
     }
 
     /**
@@ -223,37 +303,21 @@ public class PaymentCrudService {
     }
 
     /**
-     * Calcule le coût total d'une série.
+     * Renseigne le coût de la série, le total payé et le montant restant dû.
      *
-     * @param payment le paiement
-     * @return le coût total
-     */
-    private Double calculateTotalSeriesCost(PaymentEntity payment) {
-        if (payment.getGroup() == null || payment.getSessionSeries() == null) {
-            return 0.0;
-        }
-        double pricePerSession = payment.getGroup().getPrice().getPrice();
-        int sessionCount = payment.getSessionSeries().getSessions().size();
-        return pricePerSession * sessionCount;
-    }
-
-    /**
-     * Calcule le montant total payé pour une série.
-     *
-     * @param payment le paiement
-     * @return le montant total payé
-     */
-    private Double calculateTotalPaidForSeries(PaymentEntity payment) {
-        return payment.getAmountPaid();
-    }
-
-    /**
-     * Calcule le montant restant dû.
+     * Le coût est le prix par session multiplié par le nombre de sessions de la série ;
+     * il vaut zéro pour un paiement sans groupe ou sans série (rattrapage).
      *
-     * @param payment le paiement
-     * @return le montant dû
+     * @param dto le DTO à compléter (amountPaid déjà renseigné)
+     * @param hasSeriesCost true si le paiement porte sur une série d'un groupe
+     * @param pricePerSession le prix par session du groupe
+     * @param sessionCount le nombre de sessions de la série
      */
-    private Double calculateAmountOwed(PaymentEntity payment) {
-        return calculateTotalSeriesCost(payment) - calculateTotalPaidForSeries(payment);
+    private void applySeriesCost(PaymentDTO dto, boolean hasSeriesCost, Double pricePerSession, long sessionCount) {
+        long totalCostCents = hasSeriesCost ? Money.toCents(pricePerSession) * sessionCount : 0L;
+        long paidCents = Money.toCents(dto.getAmountPaid());
+        dto.setTotalSeriesCost(Money.fromCents(totalCostCents));
+        dto.setTotalPaidForSeries(dto.getAmountPaid());
+        dto.setAmountOwed(Money.fromCents(totalCostCents - paidCents));
     }
 }
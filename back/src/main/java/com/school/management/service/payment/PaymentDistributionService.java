@@ -1,10 +1,11 @@
 package com.school.management.service.payment;
 
+import com.school.management.domain.valueobject.Money;
 import com.school.management.persistance.GroupEntity;
 import com.school.management.persistance.PaymentDetailEntity;
 import com.school.management.persistance.PaymentEntity;
-import com.school.management.persistance.SessionEntity;
 import com.school.management.repository.PaymentDetailRepository;
+import com.school.management.repository.PaymentDetailRepositoryCustom.NewPaymentDetail;
 import com.school.management.repository.SessionRepository;
 import com.school.management.service.exception.CustomServiceException;
 import org.slf4j.Logger;
@@ -13,9 +14,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service responsable de la distribution des paiements sur les sessions.
@@ -33,12 +39,18 @@ public class PaymentDistributionService {
 
     private final SessionRepository sessionRepository;
     private final PaymentDetailRepository paymentDetailRepository;
+    private final BalanceLedgerService balanceLedgerService;
+    private final RevenueAnalyticsService revenueAnalyticsService;
 
     public PaymentDistributionService(
             SessionRepository sessionRepository,
-            PaymentDetailRepository paymentDetailRepository) {
+            PaymentDetailRepository paymentDetailRepository,
+            BalanceLedgerService balanceLedgerService,
+            RevenueAnalyticsService revenueAnalyticsService) {
         this.sessionRepository = sessionRepository;
         this.paymentDetailRepository = paymentDetailRepository;
+        this.balanceLedgerService = balanceLedgerService;
+        this.revenueAnalyticsService = revenueAnalyticsService;
     }
 
     /**
@@ -47,6 +59,11 @@ public class PaymentDistributionService {
      * La distribution se fait session par session, en commençant par la première.
      * Si une session a déjà un PaymentDetail, on complète le montant manquant.
      *
+     * Les détails existants sont préchargés en une requête et la répartition est
+     * calculée en mémoire : les détails modifiés sont écrits par le batch de mise à jour
+     * d'Hibernate au flush, les nouveaux détails par un seul batch JDBC. Les montants
+     * sont manipulés en centimes pour éviter les dérives d'arrondi des doubles.
+     *
      * @param payment le paiement à distribuer
      * @param sessionSeriesId l'ID de la série de sessions
      * @param amountPaid le montant à distribuer
@@ -57,111 +74,140 @@ public class PaymentDistributionService {
         LOGGER.info("Distributing payment {} of amount {} for series {}",
             payment.getId(), amountPaid, sessionSeriesId);
 
-        // Récupérer toutes les sessions de la série, triées chronologiquement
-        List<SessionEntity> sessions = sessionRepository
-            .findBySessionSeriesId(sessionSeriesId)
-            .stream()
-            .sorted(Comparator.comparing(SessionEntity::getSessionTimeStart))
-            .toList();
+        // Récupérer les IDs des sessions de la série, triés chronologiquement
+        List<Long> sessionIds = sessionRepository.findIdsBySessionSeriesIdOrderByStart(sessionSeriesId);
 
-        if (sessions.isEmpty()) {
+        if (sessionIds.isEmpty()) {
             LOGGER.warn("No sessions found for series: {}", sessionSeriesId);
             return;
         }
 
-        double remaining = amountPaid;
-        double pricePerSession = payment.getGroup().getPrice().getPrice();
+        long pricePerSessionCents = Money.toCents(payment.getGroup().getPrice().getPrice());
+
+        LOGGER.debug("Price per session (cents): {}, Total sessions: {}", pricePerSessionCents, sessionIds.size());
+
+        Map<Long, PaymentDetailEntity> existingDetails = loadExistingDetails(payment);
+        Map<Long, Long> newAmounts = new LinkedHashMap<>();
+        Set<Date> completedDetailDates = new HashSet<>();
+
+        long remainingCents = allocate(sessionIds, pricePerSessionCents, Money.toCents(amountPaid),
+            existingDetails, newAmounts, completedDetailDates);
+        revenueAnalyticsService.evictMonthsAfterCommit(completedDetailDates);
+
+        List<NewPaymentDetail> newDetails = new ArrayList<>(newAmounts.size());
+        newAmounts.forEach((sessionId, cents) ->
+            newDetails.add(new NewPaymentDetail(payment.getId(), sessionId, Money.fromCents(cents), false)));
+        paymentDetailRepository.batchInsert(newDetails);
+        balanceLedgerService.refresh(payment.getStudent().getId(), sessionSeriesId);
 
-        LOGGER.debug("Price per session: {}, Total sessions: {}", pricePerSession, sessions.size());
+        // Vérifier si le paiement dépasse le coût total
+        long surplusCents = Money.toCents(payment.getAmountPaid()) - calculateTotalCostCents(payment.getGroup());
+        if (surplusCents > 0) {
+            throw new CustomServiceException(
+                "Le paiement a été complété. Le montant excédentaire de " + Money.fromCents(surplusCents)
+                    + " euros sera remboursé.",
+                HttpStatus.OK
+            );
+        }
+
+        LOGGER.info("Payment distribution completed. Remaining: {}, new details: {}",
+            Money.fromCents(remainingCents), newAmounts.size());
+    }
 
-        for (SessionEntity session : sessions) {
+    /**
+     * Répartit un montant sur des sessions ordonnées, sans accès à la base.
+     *
+     * Les détails existants sont complétés en place (entités gérées, écrites au flush) ;
+     * les montants des sessions sans détail sont cumulés dans {@code newAmounts}, ce qui
+     * permet d'enchaîner plusieurs répartitions sur la même série avant l'insertion.
+     * Tous les montants sont exprimés en centimes.
+     *
+     * Un détail complété sera redaté au flush : sa date d'origine est ajoutée à
+     * {@code completedDetailDates}, pour que l'appelant évince le mois correspondant du
+     * cache du chiffre d'affaires une fois la transaction validée.
+     *
+     * @param sessionIds les IDs des sessions en ordre chronologique
+     * @param pricePerSessionCents le prix par session, en centimes
+     * @param amountCents le montant à répartir, en centimes
+     * @param existingDetails les détails déjà persistés, par ID de session
+     * @param newAmounts les montants des détails à créer en centimes, par ID de session
+     * @param completedDetailDates reçoit les dates de paiement d'origine des détails complétés
+     * @return le montant restant après répartition, en centimes
+     */
+    long allocate(
+            List<Long> sessionIds,
+            long pricePerSessionCents,
+            long amountCents,
+            Map<Long, PaymentDetailEntity> existingDetails,
+            Map<Long, Long> newAmounts,
+            Set<Date> completedDetailDates) {
+
+        long remaining = amountCents;
+        for (Long sessionId : sessionIds) {
             if (remaining <= 0) {
                 LOGGER.debug("No remaining amount, stopping distribution");
                 break;
             }
 
-            remaining = distributeToSession(payment, session, pricePerSession, remaining);
-        }
-
-        // Vérifier si le paiement dépasse le coût total
-        double totalCost = calculateTotalCost(payment.getGroup());
-        if (payment.getAmountPaid() >= totalCost) {
-            double surplus = payment.getAmountPaid() - totalCost;
-            if (surplus > 0) {
-                throw new CustomServiceException(
-                    "Le paiement a été complété. Le montant excédentaire de " + surplus + " euros sera remboursé.",
-                    HttpStatus.OK
-                );
+            PaymentDetailEntity detail = existingDetails.get(sessionId);
+            if (detail != null) {
+                // Session déjà partiellement payée - compléter le montant
+                long paidCents = Money.toCents(detail.getAmountPaid());
+                long needed = pricePerSessionCents - paidCents;
+                if (needed > 0) {
+                    long toAdd = Math.min(needed, remaining);
+                    // Le détail sera redaté au flush : le mois d'origine change de total
+                    if (detail.getPaymentDate() != null) {
+                        completedDetailDates.add(detail.getPaymentDate());
+                    }
+                    detail.setAmountPaid(Money.fromCents(paidCents + toAdd));
+                    remaining -= toAdd;
+
+                    LOGGER.debug("Updated payment detail {} - added (cents): {}, new total: {}",
+                        detail.getId(), toAdd, detail.getAmountPaid());
+                }
+            } else {
+                // Nouvelle session - créer (ou compléter) un détail en attente d'insertion
+                long alreadyPlanned = newAmounts.getOrDefault(sessionId, 0L);
+                long toPay = Math.min(pricePerSessionCents - alreadyPlanned, remaining);
+                if (toPay > 0) {
+                    newAmounts.put(sessionId, alreadyPlanned + toPay);
+                    remaining -= toPay;
+
+                    LOGGER.debug("Planned payment detail for session {} - amount (cents): {}", sessionId, toPay);
+                }
             }
         }
-
-        LOGGER.info("Payment distribution completed. Remaining: {}", remaining);
+        return remaining;
     }
 
     /**
-     * Distribue un montant sur une session spécifique.
+     * Précharge les détails existants d'un paiement, indexés par ID de session.
      *
      * @param payment le paiement
-     * @param session la session
-     * @param pricePerSession le prix par session
-     * @param remaining le montant restant à distribuer
-     * @return le montant restant après distribution sur cette session
+     * @return les détails existants par session
      */
-    private double distributeToSession(
-            PaymentEntity payment,
-            SessionEntity session,
-            double pricePerSession,
-            double remaining) {
-
-        LOGGER.debug("Distributing to session {} - remaining: {}", session.getId(), remaining);
-
-        Optional<PaymentDetailEntity> existingDetailOpt = paymentDetailRepository
-            .findByPaymentIdAndSessionId(payment.getId(), session.getId());
-
-        if (existingDetailOpt.isPresent()) {
-            // Session déjà partiellement payée - compléter le montant
-            PaymentDetailEntity detail = existingDetailOpt.get();
-            double needed = pricePerSession - detail.getAmountPaid();
-
-            if (needed > 0) {
-                double toAdd = Math.min(needed, remaining);
-                detail.setAmountPaid(detail.getAmountPaid() + toAdd);
-                paymentDetailRepository.save(detail);
-
-                LOGGER.debug("Updated payment detail {} - added: {}, new total: {}",
-                    detail.getId(), toAdd, detail.getAmountPaid());
-
-                return remaining - toAdd;
+    private Map<Long, PaymentDetailEntity> loadExistingDetails(PaymentEntity payment) {
+        Map<Long, PaymentDetailEntity> bySession = new HashMap<>();
+        if (payment.getId() == null) {
+            return bySession;
+        }
+        for (PaymentDetailEntity detail : paymentDetailRepository.findByPaymentId(payment.getId())) {
+            if (detail.getSession() != null) {
+                bySession.putIfAbsent(detail.getSession().getId(), detail);
             }
-        } else {
-            // Nouvelle session - créer un PaymentDetail
-            double toPay = Math.min(pricePerSession, remaining);
-            PaymentDetailEntity newDetail = new PaymentDetailEntity();
-            newDetail.setPayment(payment);
-            newDetail.setSession(session);
-            newDetail.setAmountPaid(toPay);
-            newDetail.setIsCatchUp(false); // Pas un rattrapage
-            paymentDetailRepository.save(newDetail);
-
-            LOGGER.debug("Created new payment detail for session {} - amount: {}",
-                session.getId(), toPay);
-
-            return remaining - toPay;
         }
-
-        return remaining;
+        return bySession;
     }
 
     /**
      * Calcule le coût total d'un groupe (prix par session × nombre de sessions dans la série)
      *
      * @param group le groupe
-     * @return le coût total
+     * @return le coût total, en centimes
      */
-    private double calculateTotalCost(GroupEntity group) {
-        double pricePerSession = group.getPrice().getPrice();
-        int sessionNumberPerSerie = group.getSessionNumberPerSerie();
-        return pricePerSession * sessionNumberPerSerie;
+    private long calculateTotalCostCents(GroupEntity group) {
+        return Money.toCents(group.getPrice().getPrice()) * group.getSessionNumberPerSerie();
     }
 
     /**
@@ -172,9 +218,19 @@ public class PaymentDistributionService {
      * @return le coût des sessions créées
      */
     public double calculateCreatedSessionsCost(Long seriesId, GroupEntity group) {
+        return Money.fromCents(calculateCreatedSessionsCostCents(seriesId, group));
+    }
+
+    /**
+     * Calcule le coût des sessions créées pour une série, en centimes
+     *
+     * @param seriesId l'ID de la série
+     * @param group le groupe
+     * @return le coût des sessions créées, en centimes
+     */
+    private long calculateCreatedSessionsCostCents(Long seriesId, GroupEntity group) {
         int totalSessions = sessionRepository.countBySessionSeriesId(seriesId);
-        double pricePerSession = group.getPrice().getPrice();
-        return totalSessions * pricePerSession;
+        return totalSessions * Money.toCents(group.getPrice().getPrice());
     }
 
     /**
@@ -186,11 +242,11 @@ public class PaymentDistributionService {
      * @return true si le paiement peut être traité
      */
     public boolean canProcessPayment(Long seriesId, double newTotalAmount, GroupEntity group) {
-        double totalCreatedCost = calculateCreatedSessionsCost(seriesId, group);
-        boolean canProcess = newTotalAmount <= totalCreatedCost;
+        long totalCreatedCostCents = calculateCreatedSessionsCostCents(seriesId, group);
+        boolean canProcess = Money.toCents(newTotalAmount) <= totalCreatedCostCents;
 
         LOGGER.debug("Can process payment: {} (total: {}, created cost: {})",
-            canProcess, newTotalAmount, totalCreatedCost);
+            canProcess, newTotalAmount, Money.fromCents(totalCreatedCostCents));
 
         return canProcess;
     }
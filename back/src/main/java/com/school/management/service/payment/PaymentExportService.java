@@ -0,0 +1,208 @@
+package com.school.management.service.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.school.management.repository.PaymentRepository;
+import com.school.management.repository.projection.PaymentExportRow;
+import com.school.management.service.exception.CustomServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Export en flux des paiements d'une période, au format CSV ou NDJSON.
+ *
+ * Les lignes sont lues depuis un curseur en lecture seule avec une taille de fetch fixe
+ * et écrites au fil de l'eau : la mémoire consommée ne dépend pas du nombre de paiements
+ * exportés.
+ */
+@Service
+public class PaymentExportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PaymentExportService.class);
+
+    private static final String CSV_HEADER = "paymentId;paymentDate;studentId;studentFirstName;studentLastName;"
+            + "groupId;groupName;sessionSeriesId;sessionSeriesName;sessionId;amountPaid;status;paymentMethod";
+    private static final DateTimeFormatter CSV_DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    // Bornes utilisées lorsque la période n'est pas précisée
+    private static final LocalDate MIN_DATE = LocalDate.of(1970, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    /**
+     * Formats d'export supportés.
+     */
+    public enum ExportFormat {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        ExportFormat(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Résout le format à partir du paramètre de requête.
+         *
+         * @param value la valeur du paramètre (csv ou ndjson)
+         * @return le format correspondant
+         * @throws CustomServiceException si le format n'est pas supporté
+         */
+        public static ExportFormat fromParameter(String value) {
+            if (value != null) {
+                for (ExportFormat format : values()) {
+                    if (format.extension.equalsIgnoreCase(value.trim())) {
+                        return format;
+                    }
+                }
+            }
+            throw new CustomServiceException(
+                "Format d'export non supporté : " + value + " (valeurs possibles : csv, ndjson)",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+
+    public PaymentExportService(PaymentRepository paymentRepository, ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Vérifie la cohérence d'une période d'export avant l'ouverture du flux de réponse.
+     *
+     * @param from début de période (inclus), ou null
+     * @param to fin de période (incluse), ou null
+     * @throws CustomServiceException si la période est inversée
+     */
+    public void validatePeriod(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new CustomServiceException(
+                "La date de début (" + from + ") est postérieure à la date de fin (" + to + ").",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
+    /**
+     * Écrit les paiements de la période dans le flux de sortie.
+     *
+     * La transaction reste ouverte pendant toute l'écriture : elle doit donc être appelée
+     * depuis le thread qui produit la réponse.
+     *
+     * @param from début de période (inclus), ou null pour ne pas borner
+     * @param to fin de période (incluse), ou null pour ne pas borner
+     * @param format le format de sortie
+     * @param out le flux de sortie, qui n'est pas fermé
+     * @return le nombre de paiements exportés
+     * @throws IOException si l'écriture échoue
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException {
+        Date start = toDate(from != null ? from : MIN_DATE);
+        Date end = toDate((to != null ? to : MAX_DATE).plusDays(1));
+
+        LOGGER.info("Exporting payments from {} to {} as {}", from, to, format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        try (Stream<PaymentExportRow> rows = paymentRepository.streamForExport(start, end)) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            for (PaymentExportRow row : (Iterable<PaymentExportRow>) rows::iterator) {
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                count++;
+            }
+        }
+        writer.flush();
+
+        LOGGER.info("Payment export completed: {} rows", count);
+        return count;
+    }
+
+    private void writeCsvRow(Writer writer, PaymentExportRow row) throws IOException {
+        writer.write(csv(row.paymentId()));
+        writer.write(';');
+        writer.write(row.paymentDate() != null
+                ? CSV_DATE_FORMAT.format(row.paymentDate().toInstant().atZone(ZONE).toLocalDateTime())
+                : "");
+        writer.write(';');
+        writer.write(csv(row.studentId()));
+        writer.write(';');
+        writer.write(csv(row.studentFirstName()));
+        writer.write(';');
+        writer.write(csv(row.studentLastName()));
+        writer.write(';');
+        writer.write(csv(row.groupId()));
+        writer.write(';');
+        writer.write(csv(row.groupName()));
+        writer.write(';');
+        writer.write(csv(row.sessionSeriesId()));
+        writer.write(';');
+        writer.write(csv(row.sessionSeriesName()));
+        writer.write(';');
+        writer.write(csv(row.sessionId()));
+        writer.write(';');
+        writer.write(row.amountPaid() != null ? String.format(Locale.ROOT, "%.2f", row.amountPaid()) : "");
+        writer.write(';');
+        writer.write(csv(row.status()));
+        writer.write(';');
+        writer.write(csv(row.paymentMethod()));
+        writer.write('\n');
+    }
+
+    /**
+     * Formate une valeur pour une cellule CSV, entre guillemets si elle contient un séparateur.
+     */
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(';') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZONE).toInstant());
+    }
+}
@@ -26,8 +26,8 @@ import java.util.Optional;
 public class PaymentProcessingService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PaymentProcessingService.class);
-    private static final String COMPLETED = "completed";
-    private static final String IN_PROGRESS = "In Progress";
+    static final String COMPLETED = "completed";
+    static final String IN_PROGRESS = "In Progress";
 
     private final PaymentRepository paymentRepository;
     private final StudentRepository studentRepository;
@@ -37,6 +37,7 @@ public class PaymentProcessingService {
     private final PaymentDetailRepository paymentDetailRepository;
 
     private final PaymentDistributionService distributionService;
+    private final BalanceLedgerService balanceLedgerService;
 
     public PaymentProcessingService(
             PaymentRepository paymentRepository,
@@ -45,7 +46,8 @@ public class PaymentProcessingService {
             SessionRepository sessionRepository,
             SessionSeriesRepository sessionSeriesRepository,
             PaymentDetailRepository paymentDetailRepository,
-            PaymentDistributionService distributionService) {
+            PaymentDistributionService distributionService,
+            BalanceLedgerService balanceLedgerService) {
         this.paymentRepository = paymentRepository;
         this.studentRepository = studentRepository;
         this.groupRepository = groupRepository;
@@ -53,6 +55,7 @@ public class PaymentProcessingService {
         this.sessionSeriesRepository = sessionSeriesRepository;
         this.paymentDetailRepository = paymentDetailRepository;
         this.distributionService = distributionService;
+        this.balanceLedgerService = balanceLedgerService;
     }
 
     /**
@@ -72,6 +75,9 @@ public class PaymentProcessingService {
         LOGGER.info("Processing series payment: student={}, group={}, series={}, amount={}",
             studentId, groupId, sessionSeriesId, amountPaid);
 
+        // Les encaissements concurrents du même étudiant attendent ici leur tour
+        balanceLedgerService.lockStudent(studentId);
+
         // 1. Valider les entités
         StudentEntity student = getStudent(studentId);
         GroupEntity group = getGroup(groupId);
@@ -164,6 +170,10 @@ public class PaymentProcessingService {
         detail.setIsCatchUp(true); // Marquer comme rattrapage
         paymentDetailRepository.save(detail);
 
+        if (session.getSessionSeries() != null) {
+            balanceLedgerService.refresh(studentId, session.getSessionSeries().getId());
+        }
+
         LOGGER.info("Catch-up payment processed successfully: paymentId={}", savedPayment.getId());
 
         return savedPayment;
@@ -1,7 +1,12 @@
 package com.school.management.service.payment;
 
+import com.school.management.domain.valueobject.Money;
 import com.school.management.persistance.*;
 import com.school.management.repository.*;
+import com.school.management.repository.projection.SessionAmountRow;
+import com.school.management.repository.projection.StudentGroupIdRow;
+import com.school.management.repository.projection.StudentPaymentStatusRow;
+import com.school.management.repository.projection.StudentSessionRow;
 import com.school.management.service.GroupPaymentStatus;
 import com.school.management.service.SeriesPaymentStatus;
 import com.school.management.service.SessionPaymentStatus;
@@ -12,7 +17,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,34 +38,39 @@ public class PaymentStatusService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PaymentStatusService.class);
 
-    private final PaymentRepository paymentRepository;
     private final PaymentDetailRepository paymentDetailRepository;
     private final StudentRepository studentRepository;
     private final GroupRepository groupRepository;
     private final SessionRepository sessionRepository;
     private final SessionSeriesRepository sessionSeriesRepository;
     private final AttendanceRepository attendanceRepository;
+    private final StudentSeriesBalanceRepository balanceRepository;
 
     public PaymentStatusService(
-            PaymentRepository paymentRepository,
             PaymentDetailRepository paymentDetailRepository,
             StudentRepository studentRepository,
             GroupRepository groupRepository,
             SessionRepository sessionRepository,
             SessionSeriesRepository sessionSeriesRepository,
-            AttendanceRepository attendanceRepository) {
-        this.paymentRepository = paymentRepository;
+            AttendanceRepository attendanceRepository,
+            StudentSeriesBalanceRepository balanceRepository) {
         this.paymentDetailRepository = paymentDetailRepository;
         this.studentRepository = studentRepository;
         this.groupRepository = groupRepository;
         this.sessionRepository = sessionRepository;
         this.sessionSeriesRepository = sessionSeriesRepository;
         this.attendanceRepository = attendanceRepository;
+        this.balanceRepository = balanceRepository;
     }
 
     /**
      * Récupère le statut de paiement pour tous les étudiants d'un groupe.
      *
+     * Les montants viennent du registre des soldes : une requête vérifie l'existence
+     * du groupe, une requête renvoie pour chaque étudiant ses soldes cumulés sur les
+     * séries du groupe, et une requête les IDs de groupes des étudiants. Le nombre de
+     * requêtes ne dépend donc pas de la taille du groupe.
+     *
      * @param groupId l'ID du groupe
      * @return la liste des statuts de paiement des étudiants
      */
@@ -65,38 +78,49 @@ public class PaymentStatusService {
     public List<StudentPaymentStatus> getPaymentStatusForGroup(Long groupId) {
         LOGGER.info("Fetching payment status for group: {}", groupId);
 
-        GroupEntity group = groupRepository.findById(groupId)
-            .orElseThrow(() -> new RuntimeException("Group not found with ID: " + groupId));
+        if (!groupRepository.existsById(groupId)) {
+            throw new RuntimeException("Group not found with ID: " + groupId);
+        }
 
-        List<StudentEntity> students = studentRepository.findByGroups_Id(groupId);
-        List<StudentPaymentStatus> result = new ArrayList<>();
+        List<StudentPaymentStatusRow> rows = balanceRepository.findPaymentStatusRowsByGroupId(groupId);
+        if (rows.isEmpty()) {
+            LOGGER.info("Found 0 students in group {}", groupId);
+            return new ArrayList<>();
+        }
 
-        for (StudentEntity student : students) {
-            boolean isOverdue = isStudentPaymentOverdueForSeries(
-                student.getId(),
-                groupId,
-                group.getPrice().getPrice()
-            );
+        Map<Long, Set<Long>> groupIdsByStudent = new HashMap<>();
+        List<Long> studentIds = rows.stream().map(StudentPaymentStatusRow::studentId).toList();
+        for (StudentGroupIdRow link : studentRepository.findGroupIdsByStudentIds(studentIds)) {
+            groupIdsByStudent.computeIfAbsent(link.studentId(), id -> new HashSet<>()).add(link.groupId());
+        }
 
-            StudentPaymentStatus paymentStatus = new StudentPaymentStatus(
-                student.getId(),
-                student.getFirstName(),
-                student.getLastName(),
-                student.getEmail(),
-                student.getGender(),
-                student.getPhoneNumber(),
-                student.getDateOfBirth(),
-                student.getPlaceOfBirth(),
-                student.getPhoto(),
-                student.getLevel() != null ? student.getLevel().getId() : null,
-                student.getGroups().stream().map(GroupEntity::getId).collect(Collectors.toSet()),
-                student.getTutor() != null ? student.getTutor().getId() : null,
-                student.getEstablishment(),
-                student.getAverageScore(),
+        List<StudentPaymentStatus> result = new ArrayList<>(rows.size());
+        for (StudentPaymentStatusRow row : rows) {
+            long totalDueCents = Money.toCents(row.amountDue());
+            long totalPaidCents = Money.toCents(row.amountPaid());
+            boolean isOverdue = totalPaidCents < totalDueCents;
+
+            LOGGER.debug("Student {} - Attended: {}, Total due (cents): {}, Total paid (cents): {}, Overdue: {}",
+                row.studentId(), row.attendedSessions(), totalDueCents, totalPaidCents, isOverdue);
+
+            result.add(new StudentPaymentStatus(
+                row.studentId(),
+                row.firstName(),
+                row.lastName(),
+                row.email(),
+                row.gender(),
+                row.phoneNumber(),
+                row.dateOfBirth(),
+                row.placeOfBirth(),
+                row.photo(),
+                row.levelId(),
+                groupIdsByStudent.getOrDefault(row.studentId(), new HashSet<>()),
+                row.tutorId(),
+                row.establishment(),
+                row.averageScore(),
                 isOverdue,
-                student.getActive()
-            );
-            result.add(paymentStatus);
+                Boolean.TRUE.equals(row.active())
+            ));
         }
 
         LOGGER.info("Found {} students in group {}, {} with overdue payments",
@@ -105,40 +129,15 @@ public class PaymentStatusService {
         return result;
     }
 
-    /**
-     * Vérifie si un étudiant est en retard de paiement pour une série.
-     *
-     * Calcule le montant dû basé sur les sessions auxquelles l'étudiant a assisté,
-     * et compare avec le montant payé.
-     *
-     * @param studentId l'ID de l'étudiant
-     * @param sessionSeriesId l'ID de la série de sessions
-     * @param pricePerSession le prix par session
-     * @return true si le paiement est en retard
-     */
-    public boolean isStudentPaymentOverdueForSeries(Long studentId, Long sessionSeriesId, double pricePerSession) {
-        LOGGER.debug("Checking payment status for student {} in series {}", studentId, sessionSeriesId);
-
-        long sessionsAttended = attendanceRepository
-            .countByStudentIdAndSessionSeriesIdAndIsPresent(studentId, sessionSeriesId, true);
-
-        double totalDue = sessionsAttended * pricePerSession;
-
-        Double totalPaid = paymentRepository.findAmountPaidForStudentAndSeries(studentId, sessionSeriesId);
-        if (totalPaid == null) totalPaid = 0.0;
-
-        boolean isOverdue = totalPaid < totalDue;
-
-        LOGGER.debug("Student {} - Attended: {}, Total due: {}, Total paid: {}, Overdue: {}",
-            studentId, sessionsAttended, totalDue, totalPaid, isOverdue);
-
-        return isOverdue;
-    }
-
     /**
      * Récupère le statut de paiement détaillé pour un étudiant.
      *
-     * Retourne le statut pour chaque groupe, série et session.
+     * Retourne le statut pour chaque groupe, série et session. L'arbre est construit
+     * en une passe à partir de deux requêtes plates (structure des sessions et montants
+     * payés par session), quel que soit le nombre de groupes, séries ou sessions.
+     * Les totaux de chaque série (dû, payé, retard) viennent du registre des soldes ;
+     * le statut par session reste calculé sur les détails de paiement, que le registre
+     * ne conserve pas session par session.
      *
      * @param studentId l'ID de l'étudiant
      * @return la liste des statuts de paiement par groupe
@@ -147,22 +146,48 @@ public class PaymentStatusService {
     public List<GroupPaymentStatus> getPaymentStatusForStudent(Long studentId) {
         LOGGER.info("Fetching payment status for student: {}", studentId);
 
-        List<GroupPaymentStatus> groupStatuses = new ArrayList<>();
-        List<GroupEntity> groups = groupRepository.findByStudents_Id(studentId);
+        List<StudentSessionRow> rows = studentRepository.findSessionRowsByStudentId(studentId);
 
-        for (GroupEntity group : groups) {
-            List<SeriesPaymentStatus> seriesStatuses = new ArrayList<>();
-            List<SessionSeriesEntity> seriesList = sessionSeriesRepository.findByGroupId(group.getId());
+        Map<Long, Long> paidCentsBySession = new HashMap<>();
+        for (SessionAmountRow amount : paymentDetailRepository.sumAmountPaidBySessionForStudent(studentId)) {
+            paidCentsBySession.put(amount.sessionId(), Money.toCents(amount.amountPaid()));
+        }
+
+        Map<Long, StudentSeriesBalanceEntity> balanceBySeries = new HashMap<>();
+        for (StudentSeriesBalanceEntity balance : balanceRepository.findByStudentId(studentId)) {
+            balanceBySeries.put(balance.getSessionSeries().getId(), balance);
+        }
 
-            for (SessionSeriesEntity series : seriesList) {
-                List<SessionPaymentStatus> sessionStatuses = getSessionPaymentStatuses(studentId, series);
-                seriesStatuses.add(new SeriesPaymentStatus(series.getId(), sessionStatuses));
+        // Les lignes sont triées par groupe puis série : il suffit de suivre le dernier nœud ouvert
+        List<GroupPaymentStatus> groupStatuses = new ArrayList<>();
+        GroupPaymentStatus currentGroup = null;
+        SeriesPaymentStatus currentSeries = null;
+
+        for (StudentSessionRow row : rows) {
+            if (currentGroup == null || !currentGroup.getGroupId().equals(row.groupId())) {
+                currentGroup = new GroupPaymentStatus(row.groupId(), row.groupName(), new ArrayList<>());
+                groupStatuses.add(currentGroup);
+                currentSeries = null;
+            }
+            if (row.seriesId() == null) {
+                continue;
+            }
+            if (currentSeries == null || !currentSeries.getSessionSeriesId().equals(row.seriesId())) {
+                currentSeries = new SeriesPaymentStatus(row.seriesId(), new ArrayList<>());
+                currentSeries.setSeriesName(row.seriesName());
+                applyBalance(currentSeries, balanceBySeries.get(row.seriesId()));
+                currentGroup.getSeries().add(currentSeries);
+            }
+            if (row.sessionId() == null) {
+                continue;
             }
 
-            groupStatuses.add(new GroupPaymentStatus(
-                group.getId(),
-                group.getName(),
-                seriesStatuses
+            long sessionCostCents = Money.toCents(row.pricePerSession());
+            long paidCents = paidCentsBySession.getOrDefault(row.sessionId(), 0L);
+            currentSeries.getSessions().add(new SessionPaymentStatus(
+                row.sessionId(),
+                row.sessionTitle(),
+                paidCents < sessionCostCents
             ));
         }
 
@@ -172,49 +197,14 @@ public class PaymentStatusService {
     }
 
     /**
-     * Récupère le statut de paiement pour toutes les sessions d'une série.
-     *
-     * @param studentId l'ID de l'étudiant
-     * @param series la série de sessions
-     * @return la liste des statuts de paiement par session
+     * Reporte sur la série les totaux du registre ; sans solde enregistré, rien n'est dû.
      */
-    private List<SessionPaymentStatus> getSessionPaymentStatuses(Long studentId, SessionSeriesEntity series) {
-        List<SessionPaymentStatus> result = new ArrayList<>();
-        List<SessionEntity> sessions = sessionRepository.findBySessionSeries(series);
-
-        for (SessionEntity session : sessions) {
-            boolean isOverdue = isPaymentOverdueForSession(studentId, session.getId());
-            result.add(new SessionPaymentStatus(
-                session.getId(),
-                session.getTitle(),
-                isOverdue
-            ));
-        }
-
-        return result;
-    }
-
-    /**
-     * Vérifie si le paiement pour une session spécifique est en retard.
-     *
-     * @param studentId l'ID de l'étudiant
-     * @param sessionId l'ID de la session
-     * @return true si le paiement est en retard
-     */
-    private boolean isPaymentOverdueForSession(Long studentId, Long sessionId) {
-        List<PaymentDetailEntity> details = paymentDetailRepository
-            .findByPayment_StudentIdAndSessionId(studentId, sessionId);
-
-        SessionEntity session = sessionRepository.findById(sessionId)
-            .orElseThrow(() -> new RuntimeException("Session not found with ID: " + sessionId));
-
-        double sessionCost = session.getGroup().getPrice().getPrice();
-
-        double totalPaidForSession = details.stream()
-            .mapToDouble(PaymentDetailEntity::getAmountPaid)
-            .sum();
-
-        return totalPaidForSession < sessionCost;
+    private static void applyBalance(SeriesPaymentStatus series, StudentSeriesBalanceEntity balance) {
+        long dueCents = balance != null ? Money.toCents(balance.getAmountDue()) : 0L;
+        long paidCents = balance != null ? Money.toCents(balance.getAmountPaid()) : 0L;
+        series.setAmountDue(Money.fromCents(dueCents));
+        series.setAmountPaid(Money.fromCents(paidCents));
+        series.setPaymentOverdue(paidCents < dueCents);
     }
 
     /**
@@ -0,0 +1,278 @@
+package com.school.management.service.payment;
+
+import com.school.management.domain.valueobject.Money;
+import com.school.management.dto.payment.RevenueBucketDTO;
+import com.school.management.dto.payment.RevenueReportDTO;
+import com.school.management.service.exception.CustomServiceException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chiffre d'affaires agrégé par mois, éventuellement ventilé par groupe, enseignant,
+ * matière ou niveau.
+ *
+ * L'agrégation est faite par la base (date_trunc + GROUP BY sur payment_detail).
+ * Les mois clos sont mis en cache par dimension : seul le mois en cours, et les mois
+ * clos pas encore en cache, sont recalculés. Un mois clos est évincé, après validation
+ * de la transaction, lorsqu'un détail de paiement daté de ce mois est modifié ou supprimé
+ * avec sa session (voir
+ * {@link #evictMonthsAfterCommit(Collection)}), et tout le cache l'est lorsqu'un groupe
+ * existant est modifié, son enseignant, sa matière ou son niveau ayant pu changer.
+ *
+ * Le renommage d'un enseignant, d'une matière ou d'un niveau n'évince rien : les totaux
+ * restent exacts, mais les libellés des mois clos en cache gardent l'ancien nom jusqu'au
+ * redémarrage ou à la prochaine éviction.
+ */
+@Service
+public class RevenueAnalyticsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevenueAnalyticsService.class);
+
+    /**
+     * Nombre maximal de mois couverts par une requête.
+     */
+    static final int MAX_MONTHS = 120;
+
+    private static final String REVENUE_SQL =
+            "SELECT to_char(date_trunc('month', pd.payment_date), 'YYYY-MM') AS bucket, " +
+            "       %s AS dimension_id, %s AS dimension_label, " +
+            "       SUM(ROUND(CAST(pd.amount_paid AS numeric), 2)) AS total, " +
+            "       COUNT(DISTINCT pd.payment_id) AS payment_count " +
+            "FROM payment_detail pd " +
+            "JOIN payments p ON p.id = pd.payment_id " +
+            "LEFT JOIN groups g ON g.id = p.group_id " +
+            "LEFT JOIN teacher t ON t.id = g.teacher_id " +
+            "LEFT JOIN subject sub ON sub.id = g.subject_id " +
+            "LEFT JOIN level l ON l.id = g.level_id " +
+            "WHERE pd.payment_date >= :from AND pd.payment_date < :to " +
+            "GROUP BY 1, 2, 3 " +
+            "ORDER BY 1, 2";
+
+    /**
+     * Dimensions de ventilation autorisées. Les expressions SQL sont figées ici :
+     * aucun fragment fourni par l'appelant n'est concaténé dans la requête.
+     */
+    public enum RevenueDimension {
+        TOTAL("CAST(NULL AS bigint)", "CAST(NULL AS varchar)"),
+        GROUP("g.id", "g.name"),
+        TEACHER("t.id", "CONCAT(t.first_name, ' ', t.last_name)"),
+        SUBJECT("sub.id", "sub.name"),
+        LEVEL("l.id", "l.name");
+
+        private final String idExpression;
+        private final String labelExpression;
+
+        RevenueDimension(String idExpression, String labelExpression) {
+            this.idExpression = idExpression;
+            this.labelExpression = labelExpression;
+        }
+
+        /**
+         * Résout la dimension à partir du paramètre de requête (insensible à la casse).
+         *
+         * @param value la valeur du paramètre
+         * @return la dimension
+         * @throws CustomServiceException si la dimension n'existe pas
+         */
+        public static RevenueDimension fromParameter(String value) {
+            for (RevenueDimension dimension : values()) {
+                if (dimension.name().equalsIgnoreCase(value)) {
+                    return dimension;
+                }
+            }
+            throw new CustomServiceException(
+                "Dimension inconnue : " + value + " (valeurs possibles : total, group, teacher, subject, level)",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
+    private record CacheKey(RevenueDimension dimension, YearMonth month) {}
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<CacheKey, List<RevenueBucketDTO>> closedMonths = new ConcurrentHashMap<>();
+
+    /**
+     * Calcule le chiffre d'affaires mensuel sur une période.
+     *
+     * @param dimension la ventilation demandée
+     * @param from premier mois inclus
+     * @param to dernier mois inclus
+     * @return le rapport, trié par mois puis par ID de dimension
+     * @throws CustomServiceException si la période est invalide
+     */
+    @Transactional(readOnly = true)
+    public RevenueReportDTO getMonthlyRevenue(RevenueDimension dimension, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new CustomServiceException(
+                "Le mois de début (" + from + ") est postérieur au mois de fin (" + to + ").",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        if (from.plusMonths(MAX_MONTHS).isBefore(to.plusMonths(1))) {
+            throw new CustomServiceException(
+                "La période ne peut pas dépasser " + MAX_MONTHS + " mois.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        YearMonth currentMonth = YearMonth.now();
+        Map<YearMonth, List<RevenueBucketDTO>> byMonth = new TreeMap<>();
+
+        // Mois clos absents du cache : recalculés en une seule requête sur leur étendue
+        YearMonth firstMissing = null;
+        YearMonth lastMissing = null;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (!month.isBefore(currentMonth)) {
+                break;
+            }
+            List<RevenueBucketDTO> cached = closedMonths.get(new CacheKey(dimension, month));
+            if (cached != null) {
+                byMonth.put(month, cached);
+            } else {
+                if (firstMissing == null) {
+                    firstMissing = month;
+                }
+                lastMissing = month;
+            }
+        }
+        if (firstMissing != null) {
+            Map<YearMonth, List<RevenueBucketDTO>> computed = queryRange(dimension, firstMissing, lastMissing);
+            for (YearMonth month = firstMissing; !month.isAfter(lastMissing); month = month.plusMonths(1)) {
+                if (byMonth.containsKey(month)) {
+                    continue;
+                }
+                List<RevenueBucketDTO> buckets = List.copyOf(computed.getOrDefault(month, List.of()));
+                closedMonths.put(new CacheKey(dimension, month), buckets);
+                byMonth.put(month, buckets);
+            }
+        }
+
+        // Le mois en cours (ou futur) n'est jamais mis en cache
+        if (!to.isBefore(currentMonth)) {
+            YearMonth openFrom = from.isAfter(currentMonth) ? from : currentMonth;
+            byMonth.putAll(queryRange(dimension, openFrom, to));
+        }
+
+        List<RevenueBucketDTO> buckets = new ArrayList<>();
+        long totalCents = 0L;
+        for (List<RevenueBucketDTO> monthBuckets : byMonth.values()) {
+            for (RevenueBucketDTO bucket : monthBuckets) {
+                buckets.add(bucket);
+                totalCents += Money.toCents(bucket.getTotalAmount());
+            }
+        }
+
+        LOGGER.debug("Revenue {} from {} to {}: {} buckets, {} closed months cached",
+            dimension, from, to, buckets.size(), closedMonths.size());
+
+        return RevenueReportDTO.builder()
+            .dimension(dimension.name())
+            .from(from.toString())
+            .to(to.toString())
+            .totalAmount(Money.fromCents(totalCents))
+            .buckets(buckets)
+            .build();
+    }
+
+    /**
+     * Évince du cache le mois contenant la date donnée, pour toutes les dimensions.
+     *
+     * À appeler lorsqu'un détail de paiement existant est modifié : sa date de paiement
+     * est alors déplacée et le total du mois d'origine change.
+     *
+     * @param paymentDate la date de paiement du détail avant modification
+     */
+    public void evictMonthOf(Date paymentDate) {
+        if (paymentDate == null || closedMonths.isEmpty()) {
+            return;
+        }
+        YearMonth month = YearMonth.from(paymentDate.toInstant().atZone(ZoneId.systemDefault()));
+        closedMonths.keySet().removeIf(key -> key.month().equals(month));
+    }
+
+    /**
+     * Vide entièrement le cache des mois clos.
+     */
+    public void evictAll() {
+        closedMonths.clear();
+    }
+
+    /**
+     * Évince les mois contenant les dates données une fois la transaction en cours validée
+     * (immédiatement hors transaction). Évincer avant la validation laisserait une lecture
+     * concurrente remettre en cache le total d'avant la modification.
+     *
+     * @param paymentDates les dates de paiement des détails modifiés, avant modification
+     */
+    public void evictMonthsAfterCommit(Collection<Date> paymentDates) {
+        if (paymentDates.isEmpty()) {
+            return;
+        }
+        List<Date> dates = List.copyOf(paymentDates);
+        runAfterCommit(() -> dates.forEach(this::evictMonthOf));
+    }
+
+    /**
+     * Vide entièrement le cache une fois la transaction en cours validée (immédiatement
+     * hors transaction).
+     */
+    public void evictAllAfterCommit() {
+        runAfterCommit(this::evictAll);
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<YearMonth, List<RevenueBucketDTO>> queryRange(RevenueDimension dimension, YearMonth from, YearMonth to) {
+        String sql = String.format(REVENUE_SQL, dimension.idExpression, dimension.labelExpression);
+        List<Object[]> rows = entityManager.createNativeQuery(sql)
+            .setParameter("from", from.atDay(1).atStartOfDay())
+            .setParameter("to", to.plusMonths(1).atDay(1).atStartOfDay())
+            .getResultList();
+
+        Map<YearMonth, List<RevenueBucketDTO>> byMonth = new TreeMap<>();
+        for (Object[] row : rows) {
+            YearMonth month = YearMonth.parse((String) row[0]);
+            byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(RevenueBucketDTO.builder()
+                .month(month.toString())
+                .dimensionId(row[1] != null ? ((Number) row[1]).longValue() : null)
+                .dimensionLabel((String) row[2])
+                .totalAmount(row[3] != null ? ((BigDecimal) row[3]).doubleValue() : 0.0)
+                .paymentCount(((Number) row[4]).longValue())
+                .build());
+        }
+        return byMonth;
+    }
+}
@@ -1,166 +1,197 @@
 package com.school.management.service.student;
 
+import com.school.management.domain.valueobject.Money;
 import com.school.management.dto.group.GroupHistoryDTO;
 import com.school.management.dto.serie.SeriesHistoryDTO;
 import com.school.management.dto.session.SessionHistoryDTO;
 import com.school.management.dto.student.StudentFullHistoryDTO;
-import com.school.management.persistance.*;
 import com.school.management.repository.AttendanceRepository;
-import com.school.management.repository.StudentGroupRepository;
+import com.school.management.repository.PaymentDetailRepository;
+import com.school.management.repository.SessionSeriesRepository;
 import com.school.management.repository.StudentRepository;
+import com.school.management.repository.projection.NameIndexRow;
+import com.school.management.repository.projection.StudentHistoryAttendanceRow;
+import com.school.management.repository.projection.StudentHistoryGroupRow;
+import com.school.management.repository.projection.StudentHistoryPaymentRow;
+import com.school.management.repository.projection.StudentHistorySessionRow;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Historique complet d'un étudiant : groupes, séries, sessions, présences et paiements.
+ *
+ * L'historique est construit à partir de lignes plates (groupes, sessions des séries,
+ * présences et détails de paiement de l'étudiant), indexées par ID de session puis
+ * assemblées en un seul parcours, sans charger d'entité.
+ */
 @Service
 public class StudentHistoryService {
 
     private final StudentRepository studentRepository;
     private final AttendanceRepository attendanceRepository;
-    private final StudentGroupRepository studentGroupRepository;
+    private final PaymentDetailRepository paymentDetailRepository;
+    private final SessionSeriesRepository sessionSeriesRepository;
 
     public StudentHistoryService(StudentRepository studentRepository,
                                 AttendanceRepository attendanceRepository,
-                                StudentGroupRepository studentGroupRepository) {
+                                PaymentDetailRepository paymentDetailRepository,
+                                SessionSeriesRepository sessionSeriesRepository) {
         this.studentRepository = studentRepository;
         this.attendanceRepository = attendanceRepository;
-        this.studentGroupRepository = studentGroupRepository;
+        this.paymentDetailRepository = paymentDetailRepository;
+        this.sessionSeriesRepository = sessionSeriesRepository;
     }
 
+    @Transactional(readOnly = true)
     public StudentFullHistoryDTO getStudentFullHistory(Long studentId) {
         // Récupérer l'étudiant
-        StudentEntity student = studentRepository.findById(studentId)
+        NameIndexRow student = studentRepository.findNameIndexRowsByIdIn(List.of(studentId)).stream()
+                .findFirst()
                 .orElseThrow(() -> new EntityNotFoundException("Étudiant non trouvé"));
 
-        return mapStudentEntityToDTO(student);
-    }
-
-    // ===================== mapStudentEntityToDTO ======================
-    private StudentFullHistoryDTO mapStudentEntityToDTO(StudentEntity student) {
         StudentFullHistoryDTO dto = new StudentFullHistoryDTO();
-        dto.setStudentId(student.getId());
-        dto.setStudentName(student.getFirstName() + " " + student.getLastName());
+        dto.setStudentId(student.id());
+        dto.setStudentName(student.firstName() + " " + student.lastName());
+
+        // 1) Groupes fixes : ceux où l'étudiant est officiellement inscrit, avec sa date d'inscription
+        Map<Long, GroupHistoryDTO> groups = new LinkedHashMap<>();
+        Map<Long, Date> enrollmentDates = new HashMap<>();
+        for (StudentHistoryGroupRow row : studentRepository.findHistoryGroupRows(studentId)) {
+            if (!groups.containsKey(row.groupId())) {
+                groups.put(row.groupId(), newGroup(row.groupId(), row.groupName()));
+                enrollmentDates.put(row.groupId(), row.enrollmentDate());
+            }
+        }
+        Set<Long> officialGroupIds = new HashSet<>(groups.keySet());
 
-        // 1) Groupes fixes : ceux où l'étudiant est officiellement inscrit
-        List<GroupEntity> fixedGroups = new ArrayList<>(student.getGroups());
+        // 2) Présences : la première présence active par session, et les groupes "rattrapage"
+        Map<Long, StudentHistoryAttendanceRow> attendanceBySession = new HashMap<>();
+        for (StudentHistoryAttendanceRow row : attendanceRepository.findHistoryRowsByStudentId(studentId)) {
+            if (Boolean.TRUE.equals(row.isCatchUp()) && row.groupId() != null && !groups.containsKey(row.groupId())) {
+                groups.put(row.groupId(), newGroup(row.groupId(), row.groupName()));
+            }
+            if (row.sessionId() != null && Boolean.TRUE.equals(row.active())) {
+                attendanceBySession.putIfAbsent(row.sessionId(), row);
+            }
+        }
 
-        // 2) Groupes "rattrapage" (où attendance.isCatchUp = true pour l'étudiant)
-        List<GroupEntity> catchUpGroups = attendanceRepository
-                .findByStudentIdAndIsCatchUp(student.getId(), true)
-                .stream()
-                .map(AttendanceEntity::getGroup)
-                .distinct()
-                .toList();
+        // 3) Paiements : le premier détail par session, et le total payé par session
+        Map<Long, StudentHistoryPaymentRow> paymentBySession = new HashMap<>();
+        Map<Long, Long> paidCentsBySession = new HashMap<>();
+        for (StudentHistoryPaymentRow row : paymentDetailRepository.findHistoryRowsByStudentId(studentId)) {
+            paymentBySession.putIfAbsent(row.sessionId(), row);
+            paidCentsBySession.merge(row.sessionId(), toCents(row.amountPaid()), Long::sum);
+        }
 
-        // 3) Union des deux
-        Set<GroupEntity> unionSet = new HashSet<>(fixedGroups);
-        unionSet.addAll(catchUpGroups);
+        if (groups.isEmpty()) {
+            dto.setGroups(List.of());
+            return dto;
+        }
 
-        // 4) Construire la liste de GroupHistoryDTO
-        List<GroupHistoryDTO> groupDTOs = unionSet.stream()
-                .map(group -> mapGroupEntityToDTO(group, student))
-                .toList();
+        // 4) Sessions des séries de ces groupes, triées par série puis date : un seul parcours
+        SeriesAccumulator series = null;
+        for (StudentHistorySessionRow row : sessionSeriesRepository.findHistorySessionRows(groups.keySet())) {
+            if (series == null || !series.seriesId.equals(row.seriesId())) {
+                flush(series, groups);
+                boolean isOfficial = officialGroupIds.contains(row.groupId());
+                series = new SeriesAccumulator(row, isOfficial, isOfficial ? enrollmentDates.get(row.groupId()) : null);
+            }
+            series.add(row, attendanceBySession.get(row.sessionId()), paymentBySession.get(row.sessionId()),
+                    paidCentsBySession.getOrDefault(row.sessionId(), 0L));
+        }
+        flush(series, groups);
 
-        dto.setGroups(groupDTOs);
+        dto.setGroups(new ArrayList<>(groups.values()));
         return dto;
     }
 
-    // ===================== mapGroupEntityToDTO ======================
-    private GroupHistoryDTO mapGroupEntityToDTO(GroupEntity group, StudentEntity student) {
+    private static GroupHistoryDTO newGroup(Long groupId, String groupName) {
         GroupHistoryDTO dto = new GroupHistoryDTO();
-        dto.setGroupId(group.getId());
-        dto.setGroupName(group.getName());
-
-        // Savoir si l'étudiant est inscrit officiellement à ce groupe
-        boolean isOfficial = student.getGroups().contains(group);
-
-        // Convertir les séries en SeriesHistoryDTO, en filtrant si besoin
-        List<SeriesHistoryDTO> seriesDTOs = group.getSeries().stream()
-                .map(series -> mapSeriesEntityToDTO(series, student, group, isOfficial))
-                .filter(Objects::nonNull)  // on enlève les séries qui n'ont aucune session pertinente
-                .toList();
-
-        dto.setSeries(seriesDTOs);
+        dto.setGroupId(groupId);
+        dto.setGroupName(groupName);
+        dto.setSeries(new ArrayList<>());
         return dto;
     }
 
-    // ===================== mapSeriesEntityToDTO ======================
-    private SeriesHistoryDTO mapSeriesEntityToDTO(SessionSeriesEntity series,
-                                                  StudentEntity student,
-                                                  GroupEntity group,
-                                                  boolean isOfficial) {
-        SeriesHistoryDTO dto = new SeriesHistoryDTO();
-        dto.setSeriesId(series.getId());
-        dto.setSeriesName(series.getName());
-
-        // NOUVEAU: Récupérer la date d'inscription de l'étudiant au groupe
-        Date enrollmentDate = isOfficial ? getStudentEnrollmentDate(student, group) : null;
-
-        // Récupérer toutes les sessions de la série
-        List<SessionEntity> allSessions = series.getSessions().stream()
-                .sorted(Comparator.comparing(SessionEntity::getSessionTimeStart))
-                .toList();
-
-        // NOUVEAU: Filtrer d'abord les sessions selon la date d'inscription
-        List<SessionEntity> eligibleSessions = filterSessionsAfterEnrollment(allSessions, enrollmentDate);
-
-        // 1) Filtre sessions où l'étudiant a AU MOINS un attendance OU un paiement
-        List<SessionEntity> relevantSessions = eligibleSessions.stream()
-                .filter(session -> {
-                    boolean hasAttendance = session.getAttendances().stream()
-                            .anyMatch(a -> a.getStudent().getId().equals(student.getId()) && a.isActive());
-                    boolean hasPayment = session.getPaymentDetails().stream()
-                            .anyMatch(pd -> pd.getPayment().getStudent().getId().equals(student.getId()));
-                    return hasAttendance || hasPayment;
-                })
-                .toList();
-
-        // 2) Si le groupe est "officiel", on garde le relevantSessions
-        //    Sinon, on re-filtre pour ne conserver que ceux où l'étudiant a réellement un attendance (rattrapage)
-        List<SessionEntity> filteredSessions;
-        if (isOfficial) {
-            filteredSessions = relevantSessions;
-        } else {
-            filteredSessions = relevantSessions.stream()
-                    .filter(session -> session.getAttendances().stream()
-                            .anyMatch(a -> a.getStudent().getId().equals(student.getId()) && a.isActive()))
-                    .toList();
+    /**
+     * Ajoute la série au groupe, sauf si elle n'a aucune session pertinente pour l'étudiant.
+     */
+    private static void flush(SeriesAccumulator series, Map<Long, GroupHistoryDTO> groups) {
+        if (series == null || series.sessions.isEmpty()) {
+            return;
         }
+        groups.get(series.groupId).getSeries().add(series.toDto());
+    }
 
-        // 3) Si le résultat est VIDE => on ne retourne pas cette série (on renvoie null)
-        if (filteredSessions.isEmpty()) {
-            return null;  // => la série n'apparaîtra pas dans le PDF
+    /**
+     * Cumuls d'une série pendant le parcours de ses sessions.
+     */
+    private static final class SeriesAccumulator {
+        private final Long groupId;
+        private final Long seriesId;
+        private final String seriesName;
+        private final long pricePerSessionCents;
+        private final boolean isOfficial;
+        private final Date enrollmentDate;
+        private final List<SessionHistoryDTO> sessions = new ArrayList<>();
+        private int eligibleSessions;
+        private long totalPaidCents;
+
+        SeriesAccumulator(StudentHistorySessionRow first, boolean isOfficial, Date enrollmentDate) {
+            this.groupId = first.groupId();
+            this.seriesId = first.seriesId();
+            this.seriesName = first.seriesName();
+            this.pricePerSessionCents = toCents(first.pricePerSession());
+            this.isOfficial = isOfficial;
+            this.enrollmentDate = enrollmentDate;
         }
 
-        // NOUVEAU: Calculer le coût total uniquement pour les sessions éligibles (après inscription)
-        double totalCostForStudent = calculateTotalCostForStudent(group, eligibleSessions);
-        double totalPaidForSeries = calculateTotalPaidForSeries(series, student);
+        void add(StudentHistorySessionRow session, StudentHistoryAttendanceRow attendance,
+                 StudentHistoryPaymentRow payment, long paidCents) {
+            // Le total payé porte sur toutes les sessions de la série
+            totalPaidCents += paidCents;
 
-        // NOUVEAU: Statut de paiement basé sur les sessions auxquelles l'étudiant a droit
-        // Si l'étudiant a payé >= au coût des sessions éligibles, le paiement est complet
-        dto.setPaymentStatus(totalPaidForSeries >= totalCostForStudent ? "Complet" : "Partiel");
-        dto.setTotalAmountPaid(totalPaidForSeries);
-        dto.setTotalCost(totalCostForStudent);
+            // Seules les sessions postérieures à l'inscription sont dues
+            Date start = session.sessionTimeStart();
+            if (enrollmentDate != null && (start == null || start.before(enrollmentDate))) {
+                return;
+            }
+            eligibleSessions++;
 
-        // 4) Construire la liste finale de SessionHistoryDTO
-        List<SessionHistoryDTO> sessionDTOs = filteredSessions.stream()
-                .map(session -> mapSessionEntityToDTO(session, student))
-                .toList();
+            // Groupe officiel : sessions avec présence ou paiement ; rattrapage : présence seulement
+            boolean relevant = attendance != null || (isOfficial && payment != null);
+            if (relevant) {
+                sessions.add(toSessionDto(session, attendance, payment));
+            }
+        }
 
-        dto.setSessions(sessionDTOs);
-        return dto;
+        SeriesHistoryDTO toDto() {
+            long totalCostCents = pricePerSessionCents * eligibleSessions;
+
+            SeriesHistoryDTO dto = new SeriesHistoryDTO();
+            dto.setSeriesId(seriesId);
+            dto.setSeriesName(seriesName);
+            // Si l'étudiant a payé >= au coût des sessions éligibles, le paiement est complet
+            dto.setPaymentStatus(totalPaidCents >= totalCostCents ? "Complet" : "Partiel");
+            dto.setTotalAmountPaid(Money.fromCents(totalPaidCents));
+            dto.setTotalCost(Money.fromCents(totalCostCents));
+            dto.setSessions(sessions);
+            return dto;
+        }
     }
 
-    // ===================== mapSessionEntityToDTO ======================
-    private SessionHistoryDTO mapSessionEntityToDTO(SessionEntity session, StudentEntity student) {
+    private static SessionHistoryDTO toSessionDto(StudentHistorySessionRow session,
+                                                  StudentHistoryAttendanceRow attendance,
+                                                  StudentHistoryPaymentRow payment) {
         SessionHistoryDTO dto = new SessionHistoryDTO();
+        dto.setSessionId(session.sessionId());
+        dto.setSessionName(session.sessionTitle());
 
         // Si la session n’est plus active (= dévalidée)
-        if (Boolean.FALSE.equals(session.getActive())) {
-            dto.setSessionId(session.getId());
-            dto.setSessionName(session.getTitle());
+        if (Boolean.FALSE.equals(session.active())) {
             dto.setAttendanceStatus("Non renseigné");
             dto.setIsJustified(false);
             dto.setPaymentStatus("Non payé");
@@ -168,103 +199,31 @@ public class StudentHistoryService {
             return dto;
         }
 
-        // Sinon, la session est valide, on applique la logique habituelle
-        dto.setSessionId(session.getId());
-        dto.setSessionName(session.getTitle());
-        dto.setSessionDate(session.getSessionTimeStart());
-
-        // Récupérer l'attendance
-        AttendanceEntity attendance = session.getAttendances().stream()
-                .filter(a -> a.getStudent().getId().equals(student.getId()))
-                .filter(AttendanceEntity::isActive)
-                .findFirst()
-                .orElse(null);
+        dto.setSessionDate(session.sessionTimeStart());
 
         if (attendance != null) {
-            if (!attendance.isActive()) {
-                // attendance inactive
-                dto.setAttendanceStatus("Non renseigné");
-                dto.setIsJustified(false);
-            } else {
-                // Présent ou Absent
-                dto.setAttendanceStatus(Boolean.TRUE.equals(attendance.getIsPresent()) ? "Présent" : "Absent");
-                dto.setIsJustified(attendance.getIsJustified());
-
-                // catchUpSession => si attendance.isCatchUp = true
-                dto.setCatchUpSession(Boolean.TRUE.equals(attendance.getIsCatchUp()));
-            }
+            // Présent ou Absent
+            dto.setAttendanceStatus(Boolean.TRUE.equals(attendance.isPresent()) ? "Présent" : "Absent");
+            dto.setIsJustified(attendance.isJustified());
+            dto.setCatchUpSession(Boolean.TRUE.equals(attendance.isCatchUp()));
         } else {
             dto.setAttendanceStatus("Non renseigné");
-            // Pas d'attendance => catchUpSession = false
             dto.setCatchUpSession(false);
         }
 
-        // Gérer le paiement
-        PaymentDetailEntity paymentDetail = session.getPaymentDetails().stream()
-                .filter(pd -> pd.getPayment().getStudent().getId().equals(student.getId()))
-                .findFirst()
-                .orElse(null);
-
-        if (paymentDetail != null) {
-            dto.setPaymentStatus(paymentDetail.getPayment().getStatus());
-            dto.setAmountPaid(paymentDetail.getAmountPaid());
-            dto.setPaymentDate(paymentDetail.getPaymentDate());
+        if (payment != null) {
+            dto.setPaymentStatus(payment.paymentStatus());
+            dto.setAmountPaid(payment.amountPaid());
+            dto.setPaymentDate(payment.paymentDate());
         } else {
             dto.setPaymentStatus("Non payé");
             dto.setAmountPaid(0.0);
             dto.setPaymentDate(null);
         }
-
         return dto;
     }
 
-    // ===================== Helper methods ======================
-
-    /**
-     * Récupère la date d'inscription d'un étudiant à un groupe
-     * Retourne null si l'étudiant n'est pas inscrit officiellement
-     */
-    private Date getStudentEnrollmentDate(StudentEntity student, GroupEntity group) {
-        return studentGroupRepository.findByGroupIdAndStudentIdAndActiveTrue(group.getId(), student.getId())
-                .map(StudentGroupEntity::getDateAssigned)
-                .orElse(null);
-    }
-
-    /**
-     * Filtre les sessions qui sont après la date d'inscription de l'étudiant
-     */
-    private List<SessionEntity> filterSessionsAfterEnrollment(List<SessionEntity> sessions, Date enrollmentDate) {
-        if (enrollmentDate == null) {
-            return sessions; // Pas de date d'inscription = toutes les sessions
-        }
-
-        return sessions.stream()
-                .filter(session -> {
-                    Date sessionDate = session.getSessionTimeStart();
-                    return sessionDate != null && !sessionDate.before(enrollmentDate);
-                })
-                .toList();
-    }
-
-    /**
-     * Calcule le coût total pour les sessions auxquelles l'étudiant a droit (après inscription)
-     */
-    private double calculateTotalCostForStudent(GroupEntity group, List<SessionEntity> eligibleSessions) {
-        double pricePerSession = group.getPrice().getPrice();
-        return pricePerSession * eligibleSessions.size();
-    }
-
-    private double calculateTotalPaidForSeries(SessionSeriesEntity series, StudentEntity student) {
-        return series.getSessions().stream()
-                .flatMap(session -> session.getPaymentDetails().stream())
-                .filter(pd -> pd.getPayment().getStudent().getId().equals(student.getId()))
-                .mapToDouble(PaymentDetailEntity::getAmountPaid)
-                .sum();
-    }
-
-    private double calculateTotalCostOfSeries(GroupEntity group) {
-        double pricePerSession = group.getPrice().getPrice();
-        int sessionNumberPerSerie = group.getSessionNumberPerSerie();
-        return pricePerSession * sessionNumberPerSerie;
+    private static long toCents(Double amount) {
+        return amount != null ? Money.toCents(amount) : 0L;
     }
 }
@@ -0,0 +1,230 @@
+package com.school.management.service.student;
+
+import com.school.management.api.response.common.PageResponse;
+import com.school.management.dto.StudentDTO;
+import com.school.management.repository.projection.StudentListRow;
+import com.school.management.service.exception.CustomServiceException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Liste des étudiants actifs : tableau complet ou pages filtrées, avec sélection des champs.
+ *
+ * Les étudiants sont lus en lignes plates par une seule requête ; les IDs des groupes
+ * sont agrégés par une sous-requête au lieu d'être chargés étudiant par étudiant. Le
+ * paramètre {@code fields} réduit chaque élément aux champs demandés, pour les écrans
+ * de liste qui n'affichent que le nom et la photo.
+ */
+@Service
+public class StudentListService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentListService.class);
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final String GROUP_IDS_SUBQUERY =
+            "(SELECT listagg(cast(g.id as String), ',') WITHIN GROUP (ORDER BY g.id) " +
+            "FROM StudentEntity sg JOIN sg.groups g WHERE sg.id = s.id)";
+
+    private static final String FROM_CLAUSE =
+            "FROM StudentEntity s " +
+            "LEFT JOIN s.level l " +
+            "LEFT JOIN s.tutor t " +
+            "WHERE s.active = true";
+
+    private static final String ORDER_BY = " ORDER BY s.lastName, s.firstName, s.id";
+
+    /**
+     * Champs sélectionnables par {@code fields}, dans l'ordre de StudentDTO.
+     */
+    private static final Map<String, Function<StudentDTO, Object>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("id", StudentDTO::getId);
+        FIELDS.put("firstName", StudentDTO::getFirstName);
+        FIELDS.put("lastName", StudentDTO::getLastName);
+        FIELDS.put("gender", StudentDTO::getGender);
+        FIELDS.put("email", StudentDTO::getEmail);
+        FIELDS.put("phoneNumber", StudentDTO::getPhoneNumber);
+        FIELDS.put("dateOfBirth", StudentDTO::getDateOfBirth);
+        FIELDS.put("placeOfBirth", StudentDTO::getPlaceOfBirth);
+        FIELDS.put("photo", StudentDTO::getPhoto);
+        FIELDS.put("levelId", StudentDTO::getLevelId);
+        FIELDS.put("groupIds", StudentDTO::getGroupIds);
+        FIELDS.put("tutorId", StudentDTO::getTutorId);
+        FIELDS.put("establishment", StudentDTO::getEstablishment);
+        FIELDS.put("averageScore", StudentDTO::getAverageScore);
+        FIELDS.put("active", StudentDTO::getActive);
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Récupère tous les étudiants actifs, triés par nom puis prénom.
+     *
+     * @return la liste complète des étudiants actifs
+     */
+    @Transactional(readOnly = true)
+    public List<StudentDTO> getAllActive() {
+        return entityManager.createQuery(rowsSelect(true) + FROM_CLAUSE + ORDER_BY, StudentListRow.class)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultList().stream()
+                .map(StudentListService::toDto)
+                .toList();
+    }
+
+    /**
+     * Récupère une page d'étudiants actifs, triés par nom puis prénom.
+     *
+     * @param page le numéro de page (0 par défaut)
+     * @param size la taille de page (20 par défaut, 100 au plus)
+     * @param fields les champs à renvoyer, séparés par des virgules, ou null pour tous
+     * @param levelId filtre sur le niveau (optionnel)
+     * @param groupId filtre sur un groupe de l'étudiant (optionnel)
+     * @param establishment filtre sur l'établissement (optionnel)
+     * @return la page d'étudiants : des StudentDTO, ou des objets réduits aux champs demandés
+     * @throws CustomServiceException 400 si la pagination ou un champ est invalide
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<?> getPage(Integer page, Integer size, String fields,
+                                   Long levelId, Long groupId, String establishment) {
+        int pageNumber = page != null ? page : 0;
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageNumber < 0) {
+            throw new CustomServiceException("Le numéro de page doit être positif.", HttpStatus.BAD_REQUEST);
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new CustomServiceException("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE + ".",
+                    HttpStatus.BAD_REQUEST);
+        }
+        List<String> selected = parseFields(fields);
+
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder filters = new StringBuilder();
+        if (levelId != null) {
+            filters.append(" AND l.id = :levelId");
+            parameters.put("levelId", levelId);
+        }
+        if (groupId != null) {
+            filters.append(" AND :groupId IN (SELECT fg.id FROM StudentEntity fs JOIN fs.groups fg WHERE fs.id = s.id)");
+            parameters.put("groupId", groupId);
+        }
+        if (establishment != null && !establishment.isBlank()) {
+            filters.append(" AND s.establishment = :establishment");
+            parameters.put("establishment", establishment);
+        }
+
+        // Sans groupIds dans les champs demandés, la sous-requête d'agrégation est inutile
+        boolean withGroupIds = selected == null || selected.contains("groupIds");
+        TypedQuery<StudentListRow> query = entityManager
+                .createQuery(rowsSelect(withGroupIds) + FROM_CLAUSE + filters + ORDER_BY, StudentListRow.class)
+                .setFirstResult(pageNumber * pageSize)
+                .setMaxResults(pageSize)
+                .setHint("org.hibernate.readOnly", true);
+        parameters.forEach(query::setParameter);
+        List<StudentDTO> content = query.getResultList().stream()
+                .map(StudentListService::toDto)
+                .toList();
+
+        TypedQuery<Long> countQuery = entityManager.createQuery("SELECT COUNT(s) " + FROM_CLAUSE + filters, Long.class);
+        parameters.forEach(countQuery::setParameter);
+        long total = countQuery.getSingleResult();
+
+        LOGGER.debug("Student list page {} returned {} of {} students", pageNumber, content.size(), total);
+
+        if (selected == null) {
+            return PageResponse.of(content, pageNumber, pageSize, total);
+        }
+        List<Map<String, Object>> sparse = content.stream()
+                .map(dto -> select(dto, selected))
+                .toList();
+        return PageResponse.of(sparse, pageNumber, pageSize, total);
+    }
+
+    private static String rowsSelect(boolean withGroupIds) {
+        return "SELECT new com.school.management.repository.projection.StudentListRow(" +
+                "s.id, s.firstName, s.lastName, s.gender, s.email, s.phoneNumber, s.dateOfBirth, " +
+                "s.placeOfBirth, s.photo, l.id, t.id, s.establishment, s.averageScore, s.active, " +
+                (withGroupIds ? GROUP_IDS_SUBQUERY : "cast(null as String)") + ") ";
+    }
+
+    /**
+     * Valide la liste des champs demandés.
+     *
+     * @return les champs, ou null si tous sont demandés
+     */
+    private static List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || selected.contains(name)) {
+                continue;
+            }
+            if (!FIELDS.containsKey(name)) {
+                throw new CustomServiceException("Champ inconnu : " + name + ". Champs disponibles : "
+                        + String.join(", ", FIELDS.keySet()) + ".", HttpStatus.BAD_REQUEST);
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+
+    private static Map<String, Object> select(StudentDTO dto, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, FIELDS.get(field).apply(dto));
+        }
+        return values;
+    }
+
+    private static StudentDTO toDto(StudentListRow row) {
+        return StudentDTO.builder()
+                .id(row.id())
+                .firstName(row.firstName())
+                .lastName(row.lastName())
+                .gender(row.gender())
+                .email(row.email())
+                .phoneNumber(row.phoneNumber())
+                .dateOfBirth(row.dateOfBirth())
+                .placeOfBirth(row.placeOfBirth())
+                .photo(row.photo())
+                .levelId(row.levelId())
+                .groupIds(parseIds(row.groupIds()))
+                .tutorId(row.tutorId())
+                .establishment(row.establishment())
+                .averageScore(row.averageScore())
+                .active(row.active())
+                .build();
+    }
+
+    private static Set<Long> parseIds(String ids) {
+        Set<Long> parsed = new HashSet<>();
+        if (ids == null || ids.isEmpty()) {
+            return parsed;
+        }
+        for (String id : ids.split(",")) {
+            parsed.add(Long.valueOf(id));
+        }
+        return parsed;
+    }
+}
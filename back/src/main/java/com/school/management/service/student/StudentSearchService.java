@@ -1,68 +1,78 @@
-// In `StudentSearchService.java`
 package com.school.management.service.student;
 
+import com.school.management.config.ImageUrlService;
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.persistance.StudentEntity;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
+import com.school.management.repository.StudentRepository;
+import com.school.management.service.NameAutocompleteIndex;
+import com.school.management.service.NameAutocompleteIndex.Entry;
+import com.school.management.service.NameAutocompleteIndex.Kind;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Recherche d'étudiants par début de nom, servie par l'index d'autocomplétion en mémoire.
+ */
 @Service
 public class StudentSearchService {
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    private final NameAutocompleteIndex nameIndex;
+    private final StudentRepository studentRepository;
+    private final ImageUrlService imageUrlService;
 
-    @Transactional(readOnly = true)
-    public List<StudentEntity> searchStudentsByNameStartingWith(String input) {
-        return getStudentEntities(input, entityManager);
-    }
-
-    static List<StudentEntity> getStudentEntities(String input, EntityManager entityManager) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<StudentEntity> cq = cb.createQuery(StudentEntity.class);
-        Root<StudentEntity> student = cq.from(StudentEntity.class);
-
-        Predicate finalPredicate = buildNamePredicate(input, cb, student);
-
-        cq.where(finalPredicate);
-
-        // Execute the query
-        TypedQuery<StudentEntity> query = entityManager.createQuery(cq);
-        return query.getResultList();
-    }
-
-    private static Predicate buildNamePredicate(String input, CriteriaBuilder cb, Root<StudentEntity> student) {
-        String[] nameParts = toLowerCaseLocaleIndependent(input).split("\\s+");
-        return buildFinalPredicate(nameParts, cb, student);
+    public StudentSearchService(NameAutocompleteIndex nameIndex,
+                                StudentRepository studentRepository,
+                                ImageUrlService imageUrlService) {
+        this.nameIndex = nameIndex;
+        this.studentRepository = studentRepository;
+        this.imageUrlService = imageUrlService;
     }
 
-    private static Predicate buildFinalPredicate(String[] nameParts, CriteriaBuilder cb, Root<StudentEntity> student) {
-        Predicate finalPredicate;
-        if (nameParts.length == 1) {
-            String pattern = nameParts[0] + "%";
-            Predicate firstNamePredicate = cb.like(cb.lower(student.get("firstName")), pattern);
-            Predicate lastNamePredicate = cb.like(cb.lower(student.get("lastName")), pattern);
-            finalPredicate = cb.or(firstNamePredicate, lastNamePredicate);
-        } else {
-            String firstNamePattern = nameParts[0] + "%";
-            String lastNamePattern = nameParts[1] + "%";
-            Predicate firstNamePredicate = cb.like(cb.lower(student.get("firstName")), firstNamePattern);
-            Predicate lastNamePredicate = cb.like(cb.lower(student.get("lastName")), lastNamePattern);
-            finalPredicate = cb.and(firstNamePredicate, lastNamePredicate);
+    /**
+     * Recherche les étudiants actifs dont le prénom ou le nom commence par la saisie.
+     *
+     * Les IDs sont lus dans l'index ; seuls les étudiants trouvés sont chargés, par clé
+     * primaire, dans l'ordre de pertinence.
+     *
+     * @param input la saisie
+     * @return les étudiants correspondants
+     */
+    @Transactional(readOnly = true)
+    public List<StudentEntity> searchStudentsByNameStartingWith(String input) {
+        List<Long> ids = nameIndex.search(Kind.STUDENT, input, Integer.MAX_VALUE).stream()
+                .map(Entry::id)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
         }
-        return finalPredicate;
+        return studentRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(student -> rank.get(student.getId())))
+                .toList();
     }
 
-    private static String toLowerCaseLocaleIndependent(String input) {
-        return input.toLowerCase(Locale.ROOT);
+    /**
+     * Suggestions d'étudiants pour l'autocomplétion, sans accès à la base.
+     *
+     * @param input la saisie
+     * @param limit le nombre maximal de suggestions (10 par défaut, 50 au plus)
+     * @return les meilleures suggestions
+     */
+    public List<AutocompleteEntryDTO> autocomplete(String input, Integer limit) {
+        return nameIndex.search(Kind.STUDENT, input, NameAutocompleteIndex.resolveLimit(limit)).stream()
+                .map(entry -> AutocompleteEntryDTO.builder()
+                        .id(entry.id())
+                        .label(entry.label())
+                        .photo(imageUrlService.getStudentPhotoUrl(imageUrlService.extractFilename(entry.photo())))
+                        .build())
+                .toList();
     }
-}
\ No newline at end of file
+}
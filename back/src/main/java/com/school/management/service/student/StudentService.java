@@ -1,6 +1,7 @@
 package com.school.management.service.student;
 
 import com.school.management.config.ImageUrlService;
+import com.school.management.dto.AutocompleteEntryDTO;
 import com.school.management.dto.StudentDTO;
 import com.school.management.mapper.StudentMapper;
 import com.school.management.persistance.GroupEntity;
@@ -8,7 +9,12 @@ import com.school.management.persistance.StudentEntity;
 import com.school.management.repository.LevelRepository;
 import com.school.management.repository.StudentRepository;
 import com.school.management.repository.TutorRepository;
+import com.school.management.repository.projection.NameIndexRow;
+import com.school.management.service.NameAutocompleteIndex;
+import com.school.management.service.NameAutocompleteIndex.Kind;
 import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.util.CommonSpecifications;
+import com.school.management.shared.mapper.EntityReferenceResolver;
 import com.school.management.shared.mapper.MappingContext;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
@@ -50,6 +56,7 @@ public class StudentService {
     private final StudentMapper studentMapper;
     private final StudentSearchService studentSearchService;
     private final ImageUrlService imageUrlService;
+    private final NameAutocompleteIndex nameIndex;
 
     // Repositories nécessaires pour le MappingContext
     private final LevelRepository levelRepository;
@@ -64,13 +71,15 @@ public class StudentService {
                          StudentSearchService studentSearchService,
                          ImageUrlService imageUrlService,
                          LevelRepository levelRepository,
-                         TutorRepository tutorRepository) {
+                         TutorRepository tutorRepository,
+                         NameAutocompleteIndex nameIndex) {
         this.studentMapper = studentMapper;
         this.studentRepository = studentRepository;
         this.studentSearchService = studentSearchService;
         this.imageUrlService = imageUrlService;
         this.levelRepository = levelRepository;
         this.tutorRepository = tutorRepository;
+        this.nameIndex = nameIndex;
     }
 
     /**
@@ -84,11 +93,13 @@ public class StudentService {
     }
 
     /**
-     * Retourne le MappingContext pour utilisation dans les controllers si nécessaire.
-     * @return le contexte de mapping configuré
+     * Retourne un MappingContext propre à la requête, qui résout les relations
+     * en références paresseuses (vérification d'existence groupée et mémorisée).
+     *
+     * @return le contexte de mapping en mode références
      */
     public MappingContext getMappingContext() {
-        return mappingContext;
+        return mappingContext.withReferences(new EntityReferenceResolver(entityManager));
     }
 
     @Transactional(readOnly = true)
@@ -100,6 +111,21 @@ public class StudentService {
         }
     }
 
+    /**
+     * Récupère un étudiant avec ses groupes, pour les réponses qui exposent ses groupes.
+     *
+     * @param id l'ID de l'étudiant
+     * @return l'étudiant avec ses groupes
+     */
+    @Transactional(readOnly = true)
+    public Optional<StudentEntity> findByIdWithGroups(Long id) {
+        try {
+            return studentRepository.findWithGroupsById(id);
+        } catch (DataAccessException e) {
+            throw new CustomServiceException("Error fetching student with ID " + id, e);
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<StudentEntity> findAll() {
         LOGGER.info("Fetching all students....");
@@ -108,7 +134,11 @@ public class StudentService {
 
     @Transactional
     public StudentEntity save(StudentEntity student) {
-        return studentRepository.save(student);
+        StudentEntity saved = studentRepository.save(student);
+        nameIndex.putAfterCommit(Kind.STUDENT,
+                new NameIndexRow(saved.getId(), saved.getFirstName(), saved.getLastName(), saved.getPhoto()),
+                saved.getActive());
+        return saved;
     }
 
     @Transactional
@@ -118,8 +148,10 @@ public class StudentService {
         Root<StudentEntity> student = cq.from(StudentEntity.class);
 
         Predicate[] predicates = Stream.of(
-                        buildPredicate(firstName, name -> cb.equal(cb.lower(student.get(FIRSTNAME)), name.toLowerCase())),
-                        buildPredicate(lastName, name -> cb.equal(cb.lower(student.get(LASTNAME)), name.toLowerCase())),
+                        buildPredicate(firstName, name -> cb.equal(CommonSpecifications.folded(cb, student.get(FIRSTNAME)),
+                                CommonSpecifications.folded(cb, CommonSpecifications.bound(cb, name)))),
+                        buildPredicate(lastName, name -> cb.equal(CommonSpecifications.folded(cb, student.get(LASTNAME)),
+                                CommonSpecifications.folded(cb, CommonSpecifications.bound(cb, name)))),
                         buildPredicate(level, lev -> cb.equal(student.get("level"), lev)),
                         buildPredicate(groupId, id -> {
                             Join<StudentEntity, GroupEntity> groupsJoin = student.join("groups");
@@ -150,6 +182,17 @@ public class StudentService {
                 .toList();
     }
 
+    /**
+     * Suggestions d'étudiants pour l'autocomplétion, lues dans l'index en mémoire.
+     *
+     * @param input la saisie
+     * @param limit le nombre maximal de suggestions (10 par défaut, 50 au plus)
+     * @return les meilleures suggestions
+     */
+    public List<AutocompleteEntryDTO> autocompleteStudents(String input, Integer limit) {
+        return studentSearchService.autocomplete(input, limit);
+    }
+
     private <T> Predicate buildPredicate(T value, Function<T, Predicate> predicateFunction) {
         return (value != null) ? predicateFunction.apply(value) : null;
     }
@@ -185,9 +228,19 @@ public class StudentService {
 
     @Transactional
     public void desactivateStudent(Long id) {
-        StudentEntity student = studentRepository.findById(id)
-                .orElseThrow(() -> new CustomServiceException("Student not found with id " + id));
-        student.setActive(false);
-        studentRepository.save(student);
+        if (!studentRepository.existsById(id)) {
+            throw new CustomServiceException("Student not found with id " + id);
+        }
+        studentRepository.deactivateAllById(List.of(id));
+        nameIndex.removeAfterCommit(Kind.STUDENT, List.of(id));
+    }
+
+    @Transactional
+    public void reactivateStudent(Long id) {
+        if (!studentRepository.existsById(id)) {
+            throw new CustomServiceException("Student not found with id " + id);
+        }
+        studentRepository.reactivateAllById(List.of(id));
+        nameIndex.putAfterCommit(Kind.STUDENT, studentRepository.findNameIndexRowsByIdIn(List.of(id)));
     }
 }
\ No newline at end of file
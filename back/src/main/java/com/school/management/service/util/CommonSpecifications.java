@@ -1,15 +1,46 @@
 package com.school.management.service.util;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Path;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 
-import java.time.LocalDate;
-
 public class CommonSpecifications {
 
+    /**
+     * Fonction SQL créée par db/search-functions.sql : unaccent à dictionnaire fixe,
+     * déclarée IMMUTABLE pour pouvoir être indexée.
+     */
+    public static final String UNACCENT_FUNCTION = "immutable_unaccent";
+
     private CommonSpecifications() {
     }
 
+    /**
+     * Forme de comparaison d'un texte, sans casse ni accents : immutable_unaccent(lower(x)).
+     *
+     * Appliquée à une colonne, l'expression est celle des index idx_*_prefix et idx_*_trgm ;
+     * appliquée aussi à la valeur recherchée, les deux côtés sont normalisés par la même
+     * fonction.
+     */
+    public static Expression<String> folded(CriteriaBuilder cb, Expression<String> expression) {
+        return cb.function(UNACCENT_FUNCTION, String.class, cb.lower(expression));
+    }
+
+    /**
+     * Valeur recherchée, liée comme paramètre de la requête préparée.
+     *
+     * {@code cb.literal} l'écrirait dans le SQL : chaque saisie donnerait une requête
+     * différente, analysée et planifiée à nouveau, sans réutilisation du plan générique.
+     */
+    public static <T> Expression<T> bound(CriteriaBuilder cb, T value) {
+        if (cb instanceof HibernateCriteriaBuilder hibernate) {
+            return hibernate.value(value);
+        }
+        return cb.literal(value);
+    }
+
     public static <T> Specification<T> equalsIfNotNull(String attributeName, Object value) {
         return (root, query, cb) -> {
             if (value == null) return null;
@@ -17,50 +48,26 @@ public class CommonSpecifications {
         };
     }
 
-    public static <T> Specification<T> greaterThanOrEqualToIfNotNull(String attributeName, Comparable<?> value) {
+    public static <T, Y extends Comparable<? super Y>> Specification<T> greaterThanOrEqualToIfNotNull(String attributeName, Y value) {
         return (root, query, cb) -> {
             if (value == null) return null;
-            switch (value) {
-                case Integer integer -> {
-                    Path<Integer> integerPath = root.get(attributeName);
-                    return cb.greaterThanOrEqualTo(integerPath, integer);
-                }
-                case LocalDate localDate -> {
-                    Path<LocalDate> datePath = root.get(attributeName);
-                    return cb.greaterThanOrEqualTo(datePath, localDate);
-                }
-                case String string -> {
-                    Path<String> stringPath = root.get(attributeName);
-                    return cb.greaterThanOrEqualTo(stringPath, string);
-                }
-                default -> throw new IllegalStateException("Unexpected value: " + value);
-            }
+            Path<Y> path = root.get(attributeName);
+            return cb.greaterThanOrEqualTo(path, value);
         };
     }
 
-    public static <T> Specification<T> lessThanOrEqualToIfNotNull(String attributeName, Comparable<?> value) {
+    public static <T, Y extends Comparable<? super Y>> Specification<T> lessThanOrEqualToIfNotNull(String attributeName, Y value) {
         return (root, query, cb) -> {
             if (value == null) return null;
-            if (value instanceof Integer integer) {
-                Path<Integer> integerPath = root.get(attributeName);
-                return cb.lessThanOrEqualTo(integerPath, integer);
-            }
-            else if (value instanceof LocalDate localDate) {
-                Path<LocalDate> datePath = root.get(attributeName);
-                return cb.lessThanOrEqualTo(datePath, localDate);
-            }
-            else if (value instanceof String string) {
-                Path<String> stringPath = root.get(attributeName);
-                return cb.lessThanOrEqualTo(stringPath, string);
-            }
-            return null;
+            Path<Y> path = root.get(attributeName);
+            return cb.lessThanOrEqualTo(path, value);
         };
     }
 
     public static <T> Specification<T> likeIfNotNull(String attributeName, String value) {
             return (root, query, cb) -> {
                 if (value == null || value.isEmpty()) return null;
-                return cb.like(cb.lower(root.get(attributeName)), "%" + value.toLowerCase() + "%");
+                return cb.like(folded(cb, root.get(attributeName)), folded(cb, bound(cb, "%" + value + "%")));
             };
     }
 
@@ -0,0 +1,127 @@
+package com.school.management.service.util;
+
+import com.school.management.service.exception.CustomServiceException;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Rejoue une opération transactionnelle en cas de conflit de concurrence.
+ *
+ * Un conflit est un échec de verrouillage optimiste (@Version) ou la violation de
+ * uk_payments_student_group_series lorsque deux transactions créent le même paiement ;
+ * toute autre erreur d'intégrité est propagée telle quelle. L'opération doit
+ * ouvrir sa propre transaction (appel d'un bean @Transactional) pour que chaque tentative
+ * relise un état à jour. Le nombre de tentatives est borné et l'attente entre deux
+ * tentatives est exponentielle avec gigue, pour éviter que les transactions en conflit
+ * ne se retrouvent à nouveau en même temps.
+ */
+@Component
+public class ConcurrencyRetryExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyRetryExecutor.class);
+
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    /**
+     * Contraintes d'unicité protégeant une création concurrente : un paiement par
+     * (étudiant, groupe, série).
+     */
+    private static final Set<String> RETRYABLE_UNIQUE_CONSTRAINTS = Set.of("uk_payments_student_group_series");
+
+    @Value("${app.concurrency-retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.concurrency-retry.initial-backoff-ms:10}")
+    private long initialBackoffMs;
+
+    /**
+     * Exécute l'opération en la rejouant sur conflit.
+     *
+     * @param operation le nom de l'opération, pour les logs
+     * @param action l'opération transactionnelle
+     * @return le résultat de l'opération
+     * @throws CustomServiceException (409) si le conflit persiste après la dernière tentative
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!isConcurrencyConflict(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    LOGGER.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw new CustomServiceException(
+                        "Opération en conflit avec une modification concurrente, veuillez réessayer.",
+                        e,
+                        HttpStatus.CONFLICT
+                    );
+                }
+                long backoff = backoffMillis(attempt);
+                LOGGER.debug("{} conflicted on attempt {} ({}), retrying in {} ms",
+                    operation, attempt, e.getClass().getSimpleName(), backoff);
+                sleep(backoff);
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = initialBackoffMs << Math.min(attempt - 1, 6);
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private boolean isConcurrencyConflict(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof OptimisticLockingFailureException
+                    || current instanceof OptimisticLockException
+                    || current instanceof org.hibernate.StaleStateException
+                    || isRetryableUniqueViolation(current)) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Violation d'unicité due à une création concurrente de la même ligne. Les autres
+     * violations de contrainte (NOT NULL, clé étrangère, autres clés uniques) sont des
+     * erreurs de données que rejouer ne corrigerait pas.
+     */
+    private boolean isRetryableUniqueViolation(Throwable error) {
+        if (error instanceof org.hibernate.exception.ConstraintViolationException violation) {
+            return isRetryableConstraint(violation.getConstraintName());
+        }
+        if (error instanceof SQLException sqlError && UNIQUE_VIOLATION_SQL_STATE.equals(sqlError.getSQLState())) {
+            String message = sqlError.getMessage();
+            return message != null && RETRYABLE_UNIQUE_CONSTRAINTS.stream().anyMatch(message::contains);
+        }
+        return false;
+    }
+
+    private boolean isRetryableConstraint(String constraintName) {
+        return constraintName != null && RETRYABLE_UNIQUE_CONSTRAINTS.stream().anyMatch(constraintName::equalsIgnoreCase);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomServiceException("Opération interrompue.", e, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.school.management.service.util;
+
+import com.school.management.service.exception.CustomServiceException;
+import org.springframework.http.HttpStatus;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Analyse des listes d'IDs passées dans l'URL sous la forme "1,2,3".
+ */
+public final class IdListParser {
+
+    private IdListParser() {
+    }
+
+    /**
+     * Convertit une liste d'IDs séparés par des virgules, sans doublons et dans l'ordre.
+     *
+     * @param idList la liste brute, ex. "1,2,3"
+     * @return les IDs
+     * @throws CustomServiceException si un élément n'est pas un entier
+     */
+    public static List<Long> parse(String idList) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (idList == null) {
+            return List.of();
+        }
+        for (String token : idList.split(",")) {
+            String trimmed = token.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                ids.add(Long.parseLong(trimmed));
+            } catch (NumberFormatException e) {
+                throw new CustomServiceException("ID invalide : " + trimmed, HttpStatus.BAD_REQUEST);
+            }
+        }
+        return List.copyOf(ids);
+    }
+}
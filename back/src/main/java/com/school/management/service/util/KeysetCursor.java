@@ -0,0 +1,54 @@
+package com.school.management.service.util;
+
+import com.school.management.service.exception.CustomServiceException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position dans un parcours trié par (date, id), encodée en chaîne opaque pour les clients.
+ *
+ * @param timestamp la date de la dernière ligne renvoyée, en millisecondes
+ * @param id l'ID de la dernière ligne renvoyée
+ */
+public record KeysetCursor(long timestamp, long id) {
+
+    /**
+     * Construit le curseur qui suit la ligne donnée.
+     */
+    public static KeysetCursor after(Date date, Long id) {
+        return new KeysetCursor(date.getTime(), id);
+    }
+
+    /**
+     * Décode un curseur reçu d'un client.
+     *
+     * @param value le curseur, ou null pour la première page
+     * @return le curseur, ou null
+     * @throws CustomServiceException 400 si le curseur est illisible
+     */
+    public static KeysetCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return new KeysetCursor(Long.parseLong(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new CustomServiceException("Curseur de pagination invalide.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date date() {
+        return new Date(timestamp);
+    }
+}
@@ -0,0 +1,122 @@
+package com.school.management.service.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalisation des noms de personnes et de groupes pour la recherche par préfixe.
+ *
+ * Deux formes sont produites pour chaque mot :
+ * <ul>
+ *   <li>la forme repliée : minuscules, sans accents ni signes diacritiques, ligatures
+ *       décomposées (é → e, œ → oe) ; en écriture arabe, sans voyelles courtes ni tatweel,
+ *       avec les variantes d'alif, de ta marbuta et d'alif maqsura unifiées ;</li>
+ *   <li>la clé de translittération : la forme repliée dont les graphies concurrentes des
+ *       noms arabes transcrits en français sont ramenées à une seule (ou/u, sh/ch, dj/j,
+ *       y/i, lettres doublées...) : Mohammed et Mohamed, Yassine et Yacine, Chérif et
+ *       Sherif ont la même clé.</li>
+ * </ul>
+ */
+public final class NameNormalizer {
+
+    private NameNormalizer() {
+    }
+
+    /**
+     * Découpe un texte en mots repliés (espaces, tirets et apostrophes séparent les mots).
+     *
+     * @param text le texte, éventuellement null
+     * @return les mots repliés, non vides
+     */
+    public static List<String> foldedTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : fold(text).split("[\\s\\-'’.]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Replie un texte : minuscules, sans accents, écriture arabe unifiée.
+     *
+     * @param text le texte
+     * @return le texte replié
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == 'ـ') {
+                continue;
+            }
+            switch (c) {
+                case 'œ', 'Œ' -> folded.append("oe");
+                case 'æ', 'Æ' -> folded.append("ae");
+                case 'ß' -> folded.append("ss");
+                case 'ø', 'Ø' -> folded.append('o');
+                case 'أ', 'إ', 'آ', 'ٱ' -> folded.append('ا');
+                case 'ة' -> folded.append('ه');
+                case 'ى' -> folded.append('ي');
+                default -> folded.append(c);
+            }
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Calcule la clé de translittération d'un mot déjà replié.
+     *
+     * Les règles ne regardent qu'un caractère en avant : la clé d'un préfixe reste, à la
+     * dernière lettre près, un préfixe de la clé du mot complet. Les recherches
+     * interrogent donc les deux formes.
+     *
+     * @param folded le mot replié
+     * @return la clé de translittération
+     */
+    public static String transliterate(String folded) {
+        StringBuilder key = new StringBuilder(folded.length());
+        String previous = null;
+        int i = 0;
+        while (i < folded.length()) {
+            char c = folded.charAt(i);
+            char next = i + 1 < folded.length() ? folded.charAt(i + 1) : 0;
+            String replacement;
+            int consumed = 2;
+            if (c == 'o' && next == 'u') {
+                replacement = "u";
+            } else if ((c == 's' || c == 'c') && next == 'h') {
+                replacement = "ch";
+            } else if (c == 'd' && next == 'j') {
+                replacement = "j";
+            } else if (c == 'p' && next == 'h') {
+                replacement = "f";
+            } else if ((c == 'k' || c == 'q') && next == 'u') {
+                replacement = "k";
+            } else {
+                consumed = 1;
+                replacement = switch (c) {
+                    case 'y' -> "i";
+                    case 'c' -> next == 'e' || next == 'i' || next == 'y' ? "s" : "k";
+                    case 'q' -> "k";
+                    case 'w' -> "u";
+                    default -> String.valueOf(c);
+                };
+            }
+            // Les lettres doublées (mm, ss, dd...) comptent pour une
+            if (!replacement.equals(previous)) {
+                key.append(replacement);
+            }
+            previous = replacement;
+            i += consumed;
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.school.management.shared.mapper;
+
+import com.school.management.shared.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Résout les clés étrangères des DTOs en proxies {@code getReference} sans charger les entités.
+ *
+ * L'existence des IDs est vérifiée par une requête {@code id IN (...)} par type d'entité,
+ * et le résultat est mémorisé : résoudre N DTOs coûte un nombre constant de requêtes,
+ * à condition d'annoncer les IDs avec {@link #prefetch(Class, Collection)} avant le mapping.
+ *
+ * Une instance est propre à une requête (ou à un lot) : elle n'est pas thread-safe et
+ * ne doit pas être partagée entre requêtes.
+ *
+ * Usage:
+ * <pre>
+ * EntityReferenceResolver references = new EntityReferenceResolver(entityManager);
+ * references.prefetch(StudentEntity.class, studentIds);
+ * MappingContext context = baseContext.withReferences(references);
+ * </pre>
+ */
+public class EntityReferenceResolver {
+
+    private final EntityManager entityManager;
+
+    // Par type d'entité : IDs dont l'existence a été vérifiée, et IDs absents
+    private final Map<Class<?>, Set<Long>> existingIds = new HashMap<>();
+    private final Map<Class<?>, Set<Long>> missingIds = new HashMap<>();
+    private final Map<Class<?>, Map<Long, Object>> references = new HashMap<>();
+
+    public EntityReferenceResolver(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Vérifie en une requête l'existence des IDs pas encore connus pour ce type.
+     *
+     * @param type la classe de l'entité
+     * @param ids les IDs à vérifier (les nulls sont ignorés)
+     */
+    public void prefetch(Class<?> type, Collection<Long> ids) {
+        Set<Long> known = existingIds.computeIfAbsent(type, t -> new HashSet<>());
+        Set<Long> missing = missingIds.computeIfAbsent(type, t -> new HashSet<>());
+
+        Set<Long> unknown = new HashSet<>();
+        for (Long id : ids) {
+            if (id != null && !known.contains(id) && !missing.contains(id)) {
+                unknown.add(id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        String entityName = entityManager.getMetamodel().entity(type).getName();
+        List<Long> found = entityManager
+            .createQuery("SELECT e.id FROM " + entityName + " e WHERE e.id IN :ids", Long.class)
+            .setParameter("ids", unknown)
+            .getResultList();
+
+        known.addAll(found);
+        unknown.removeAll(found);
+        missing.addAll(unknown);
+    }
+
+    /**
+     * Retourne une référence paresseuse vers l'entité, après vérification de son existence.
+     *
+     * @param type la classe de l'entité
+     * @param id l'ID, ou null
+     * @param resourceType le nom de la ressource pour le message d'erreur
+     * @return le proxy, ou null si l'ID est null
+     * @throws ResourceNotFoundException si l'entité n'existe pas
+     */
+    public <T> T resolve(Class<T> type, Long id, String resourceType) {
+        if (id == null) {
+            return null;
+        }
+        if (!existingIds.getOrDefault(type, Set.of()).contains(id)) {
+            prefetch(type, List.of(id));
+        }
+        if (missingIds.get(type).contains(id)) {
+            throw new ResourceNotFoundException(resourceType, id);
+        }
+        Object reference = references
+            .computeIfAbsent(type, t -> new HashMap<>())
+            .computeIfAbsent(id, key -> entityManager.getReference(type, key));
+        return type.cast(Objects.requireNonNull(reference));
+    }
+}
@@ -1,8 +1,10 @@
 package com.school.management.shared.mapper;
 
 import com.school.management.repository.*;
+import com.school.management.shared.exception.ResourceNotFoundException;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.springframework.data.jpa.repository.JpaRepository;
 
 /**
  * Contexte pour passer des dépendances aux mappers MapStruct.
@@ -17,6 +19,10 @@ import lombok.Getter;
  * Student student = studentMapper.toEntity(dto, context);
  * </pre>
  *
+ * En mode références ({@link #withReferences(EntityReferenceResolver)}), les relations
+ * sont résolues en proxies paresseux après une vérification d'existence groupée et
+ * mémorisée, au lieu d'un {@code findById} par clé étrangère.
+ *
  * @author Claude Code
  * @since Phase 1 Refactoring
  */
@@ -43,6 +49,73 @@ public class MappingContext {
     private final StudentRepository studentRepository;
     private final SessionRepository sessionRepository;
 
+    // Résolution par références (null = chargement par findById)
+    private final EntityReferenceResolver references;
+
+    public MappingContext(
+            LevelRepository levelRepository,
+            TutorRepository tutorRepository,
+            GroupTypeRepository groupTypeRepository,
+            SubjectRepository subjectRepository,
+            PricingRepository pricingRepository,
+            TeacherRepository teacherRepository,
+            RoomRepository roomRepository,
+            GroupRepository groupRepository,
+            SessionSeriesRepository sessionSeriesRepository,
+            StudentRepository studentRepository,
+            SessionRepository sessionRepository) {
+        this(levelRepository, tutorRepository, groupTypeRepository, subjectRepository, pricingRepository,
+            teacherRepository, roomRepository, groupRepository, sessionSeriesRepository, studentRepository,
+            sessionRepository, null);
+    }
+
+    /**
+     * Retourne une copie de ce contexte qui résout les relations en références paresseuses.
+     *
+     * @param references le résolveur propre à la requête en cours
+     * @return un nouveau contexte en mode références
+     */
+    public MappingContext withReferences(EntityReferenceResolver references) {
+        return new MappingContext(
+            levelRepository,
+            tutorRepository,
+            groupTypeRepository,
+            subjectRepository,
+            pricingRepository,
+            teacherRepository,
+            roomRepository,
+            groupRepository,
+            sessionSeriesRepository,
+            studentRepository,
+            sessionRepository,
+            references
+        );
+    }
+
+    /**
+     * Résout une relation à partir de son ID.
+     *
+     * En mode références, retourne un proxy paresseux dont l'existence a été vérifiée ;
+     * sinon, charge l'entité avec le repository.
+     *
+     * @param type la classe de l'entité
+     * @param id l'ID, ou null
+     * @param resourceType le nom de la ressource pour le message d'erreur
+     * @param repository le repository utilisé hors mode références
+     * @return l'entité (ou son proxy), ou null si l'ID est null
+     * @throws ResourceNotFoundException si l'entité n'existe pas
+     */
+    public <T> T resolve(Class<T> type, Long id, String resourceType, JpaRepository<T, Long> repository) {
+        if (id == null) {
+            return null;
+        }
+        if (references != null) {
+            return references.resolve(type, id, resourceType);
+        }
+        return repository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException(resourceType, id));
+    }
+
     /**
      * Factory method pour créer un contexte avec tous les repositories
      */
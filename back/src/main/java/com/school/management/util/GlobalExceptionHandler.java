@@ -2,9 +2,13 @@ package com.school.management.util;
 
 import com.school.management.service.exception.CustomServiceException;
 import com.school.management.shared.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -40,6 +44,22 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ApiErrorResponse> handleTaskRejectedException(TaskRejectedException e,
+                                                                        HttpServletResponse response) {
+        logger.warn("Async response rejected, executor full: {}", e.getMessage());
+        // Une réponse en flux a déjà posé ses en-têtes (text/csv, pièce jointe) : rien n'est encore envoyé
+        if (!response.isCommitted()) {
+            response.reset();
+        }
+        ApiErrorResponse error = new ApiErrorResponse(HttpStatus.SERVICE_UNAVAILABLE,
+                "Server busy, retry later", "SERVICE_UNAVAILABLE");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleException(Exception e) {
         logger.error("Internal server error: {}", e.getMessage(), e);
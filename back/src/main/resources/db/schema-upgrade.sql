@@ -0,0 +1,175 @@
+-- Évolutions de schéma des bases existantes, que ddl-auto=validate (production) ne crée pas.
+-- Exécuté par SchemaUpgradeInitializer avant le démarrage d'Hibernate, en un seul envoi :
+-- les blocs sont appliqués ensemble ou pas du tout. Chaque bloc est idempotent et ne fait
+-- rien sur une base vide, dont le schéma complet est créé par Hibernate (ddl-auto=update).
+--
+-- Les types reprennent ceux générés par Hibernate pour les entités (bigint identity,
+-- float(53) pour Double, timestamp(6) pour LocalDateTime, varchar(255) par défaut).
+
+-- Registre des soldes par (étudiant, série) : StudentSeriesBalanceEntity
+DO $$
+BEGIN
+    IF to_regclass('student') IS NULL OR to_regclass('session_series') IS NULL THEN
+        RETURN;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS student_series_balance (
+        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+        student_id bigint NOT NULL,
+        session_series_id bigint NOT NULL,
+        sessions_attended bigint NOT NULL,
+        amount_due float(53) NOT NULL,
+        amount_paid float(53) NOT NULL,
+        date_creation timestamp(6),
+        date_update timestamp(6),
+        created_by varchar(255),
+        updated_by varchar(255),
+        active boolean,
+        description varchar(255),
+        CONSTRAINT uk_student_series_balance UNIQUE (student_id, session_series_id),
+        CONSTRAINT fk_student_series_balance_student FOREIGN KEY (student_id) REFERENCES student (id),
+        CONSTRAINT fk_student_series_balance_series FOREIGN KEY (session_series_id) REFERENCES session_series (id)
+    );
+    CREATE INDEX IF NOT EXISTS idx_student_series_balance_series ON student_series_balance (session_series_id);
+END $$;
+
+-- Scan nocturne des retards : OverduePaymentSnapshotEntity, PaymentScanRunEntity
+DO $$
+BEGIN
+    IF to_regclass('student') IS NULL OR to_regclass('groups') IS NULL OR to_regclass('session_series') IS NULL THEN
+        RETURN;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS overdue_payment_snapshot (
+        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+        student_id bigint NOT NULL,
+        group_id bigint NOT NULL,
+        session_series_id bigint NOT NULL,
+        sessions_attended bigint NOT NULL,
+        amount_due float(53) NOT NULL,
+        amount_paid float(53) NOT NULL,
+        overdue_amount float(53) NOT NULL,
+        run_id bigint,
+        computed_at timestamp(6),
+        date_creation timestamp(6),
+        date_update timestamp(6),
+        created_by varchar(255),
+        updated_by varchar(255),
+        active boolean,
+        description varchar(255),
+        CONSTRAINT fk_overdue_snapshot_student FOREIGN KEY (student_id) REFERENCES student (id),
+        CONSTRAINT fk_overdue_snapshot_group FOREIGN KEY (group_id) REFERENCES groups (id),
+        CONSTRAINT fk_overdue_snapshot_series FOREIGN KEY (session_series_id) REFERENCES session_series (id)
+    );
+    CREATE INDEX IF NOT EXISTS idx_overdue_snapshot_student ON overdue_payment_snapshot (student_id);
+    CREATE INDEX IF NOT EXISTS idx_overdue_snapshot_group ON overdue_payment_snapshot (group_id);
+
+    CREATE TABLE IF NOT EXISTS payment_scan_run (
+        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+        status varchar(255) NOT NULL,
+        started_at timestamp(6),
+        finished_at timestamp(6),
+        last_student_id bigint NOT NULL,
+        chunk_size integer,
+        chunks_completed integer,
+        students_scanned bigint,
+        rows_written bigint,
+        duration_ms bigint,
+        rows_per_second float(53),
+        students_per_second float(53),
+        error_message varchar(1000),
+        date_creation timestamp(6),
+        date_update timestamp(6),
+        created_by varchar(255),
+        updated_by varchar(255),
+        active boolean,
+        description varchar(255)
+    );
+END $$;
+
+-- Index des clés étrangères parcourues par le scan et les statuts de paiement.
+-- Créés sans CONCURRENTLY (le script s'exécute dans une transaction) : l'écriture sur
+-- la table est bloquée le temps de la construction, au premier démarrage seulement.
+DO $$
+BEGIN
+    IF to_regclass('attendance') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_attendance_student ON attendance (student_id);
+        CREATE INDEX IF NOT EXISTS idx_attendance_session ON attendance (session_id);
+    END IF;
+    IF to_regclass('payment_detail') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_payment_detail_payment ON payment_detail (payment_id);
+        CREATE INDEX IF NOT EXISTS idx_payment_detail_session ON payment_detail (session_id);
+    END IF;
+    IF to_regclass('payments') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_payments_student ON payments (student_id);
+    END IF;
+    IF to_regclass('session') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_session_series ON session (session_series_id);
+    END IF;
+END $$;
+
+-- Verrouillage optimiste des paiements : colonnes version de PaymentEntity et PaymentDetailEntity.
+-- Les lignes existantes partent de la version 0, comme le columnDefinition des entités.
+DO $$
+BEGIN
+    IF to_regclass('payments') IS NOT NULL THEN
+        ALTER TABLE payments ADD COLUMN IF NOT EXISTS version bigint;
+        UPDATE payments SET version = 0 WHERE version IS NULL;
+        ALTER TABLE payments ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+    END IF;
+    IF to_regclass('payment_detail') IS NOT NULL THEN
+        ALTER TABLE payment_detail ADD COLUMN IF NOT EXISTS version bigint;
+        UPDATE payment_detail SET version = 0 WHERE version IS NULL;
+        ALTER TABLE payment_detail ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+    END IF;
+END $$;
+
+-- Un seul paiement par (étudiant, groupe, série) : uk_payments_student_group_series.
+-- Les doublons existants sont d'abord fusionnés dans le paiement de plus petit ID :
+-- montants additionnés, détails rattachés au paiement conservé, doublons supprimés.
+-- Le statut du paiement conservé n'est pas recalculé ; il l'est au prochain encaissement.
+DO $$
+DECLARE
+    merged integer;
+BEGIN
+    IF to_regclass('payments') IS NULL
+       OR EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_payments_student_group_series') THEN
+        RETURN;
+    END IF;
+
+    CREATE TEMP TABLE payment_duplicates AS
+    SELECT id, keep_id
+    FROM (
+        SELECT id, min(id) OVER (PARTITION BY student_id, group_id, session_series_id) AS keep_id
+        FROM payments
+        WHERE student_id IS NOT NULL AND group_id IS NOT NULL AND session_series_id IS NOT NULL
+    ) ranked
+    WHERE id <> keep_id;
+
+    SELECT count(*) INTO merged FROM payment_duplicates;
+    IF merged > 0 THEN
+        UPDATE payments kept
+        SET amount_paid = kept.amount_paid + totals.amount_paid,
+            date_update = now()
+        FROM (
+            SELECT d.keep_id, sum(p.amount_paid) AS amount_paid
+            FROM payment_duplicates d JOIN payments p ON p.id = d.id
+            GROUP BY d.keep_id
+        ) totals
+        WHERE kept.id = totals.keep_id;
+
+        IF to_regclass('payment_detail') IS NOT NULL THEN
+            UPDATE payment_detail pd
+            SET payment_id = d.keep_id
+            FROM payment_duplicates d
+            WHERE pd.payment_id = d.id;
+        END IF;
+
+        DELETE FROM payments p USING payment_duplicates d WHERE p.id = d.id;
+        RAISE NOTICE 'Merged % duplicate payment(s) before adding uk_payments_student_group_series', merged;
+    END IF;
+    DROP TABLE payment_duplicates;
+
+    ALTER TABLE payments ADD CONSTRAINT uk_payments_student_group_series
+        UNIQUE (student_id, group_id, session_series_id);
+END $$;
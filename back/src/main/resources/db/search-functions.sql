@@ -0,0 +1,11 @@
+-- Extensions et fonctions utilisées par les recherches de noms et leurs index.
+-- Exécuté au démarrage par SearchIndexInitializer, avant search-indexes.sql ; chaque instruction est idempotente.
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- unaccent() n'est que STABLE (son dictionnaire peut changer) et ne peut donc pas servir dans un index.
+-- Ce wrapper fixe le dictionnaire et se déclare IMMUTABLE : immutable_unaccent(lower(col)) est indexable.
+CREATE OR REPLACE FUNCTION immutable_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+    AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
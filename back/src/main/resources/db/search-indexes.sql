@@ -0,0 +1,28 @@
+-- Index de recherche non exprimables en annotations JPA (index sur expression, index GIN trigrammes).
+-- Exécuté au démarrage par SearchIndexInitializer, après search-functions.sql ; chaque instruction est idempotente.
+--
+-- Pour chaque colonne recherchée, sur l'expression immutable_unaccent(lower(col)) utilisée par les requêtes :
+--   *_prefix : B-tree text_pattern_ops, pour l'égalité et les préfixes (LIKE 'x%')
+--   *_trgm   : GIN pg_trgm, pour les recherches « contient » (LIKE '%x%') et les motifs paramétrés
+--
+-- Vérification : EXPLAIN SELECT * FROM student WHERE immutable_unaccent(lower(last_name)) LIKE '%ali%';
+-- doit indiquer « Bitmap Index Scan on idx_student_last_name_trgm » et non « Seq Scan on student ».
+
+-- Remplacé par idx_session_title_prefix (recherche insensible aux accents)
+DROP INDEX IF EXISTS idx_session_title_lower;
+
+CREATE INDEX IF NOT EXISTS idx_session_title_prefix ON session (immutable_unaccent(lower(title)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_session_title_trgm ON session USING gin (immutable_unaccent(lower(title)) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_student_first_name_prefix ON student (immutable_unaccent(lower(first_name)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_student_last_name_prefix ON student (immutable_unaccent(lower(last_name)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_student_first_name_trgm ON student USING gin (immutable_unaccent(lower(first_name)) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_student_last_name_trgm ON student USING gin (immutable_unaccent(lower(last_name)) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_teacher_first_name_prefix ON teacher (immutable_unaccent(lower(first_name)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_teacher_last_name_prefix ON teacher (immutable_unaccent(lower(last_name)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_teacher_first_name_trgm ON teacher USING gin (immutable_unaccent(lower(first_name)) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_teacher_last_name_trgm ON teacher USING gin (immutable_unaccent(lower(last_name)) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_groups_name_prefix ON groups (immutable_unaccent(lower(name)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_groups_name_trgm ON groups USING gin (immutable_unaccent(lower(name)) gin_trgm_ops);
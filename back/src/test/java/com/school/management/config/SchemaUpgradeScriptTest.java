@@ -0,0 +1,170 @@
+package com.school.management.config;
+
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Le script d'évolution recrée sur une base existante les objets que Hibernate génère
+ * pour les entités, avec les mêmes colonnes et types (condition de ddl-auto=validate).
+ *
+ * Le schéma de départ est celui créé par Hibernate ; chaque test retire un objet récent,
+ * rejoue le script et compare le résultat. Les modifications sont annulées avec la
+ * transaction du test.
+ */
+@PostgresJpaTest
+class SchemaUpgradeScriptTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void scriptIsIdempotentOnAnUpToDateSchema() {
+        List<String> before = columns("student_series_balance");
+
+        runScript();
+        runScript();
+
+        assertThat(columns("student_series_balance")).isEqualTo(before);
+    }
+
+    @Test
+    void scriptCreatesTheBalanceLedgerAsHibernateDoes() {
+        List<String> expected = columns("student_series_balance");
+
+        jdbcTemplate.execute("DROP TABLE student_series_balance");
+        runScript();
+
+        assertThat(columns("student_series_balance")).isEqualTo(expected);
+        assertThat(constraintExists("uk_student_series_balance")).isTrue();
+        assertThat(indexExists("idx_student_series_balance_series")).isTrue();
+    }
+
+    @Test
+    void scriptCreatesTheOverdueScanTablesAsHibernateDoes() {
+        List<String> expectedSnapshot = columns("overdue_payment_snapshot");
+        List<String> expectedRun = columns("payment_scan_run");
+
+        jdbcTemplate.execute("DROP TABLE overdue_payment_snapshot");
+        jdbcTemplate.execute("DROP TABLE payment_scan_run");
+        runScript();
+
+        assertThat(columns("overdue_payment_snapshot")).isEqualTo(expectedSnapshot);
+        assertThat(columns("payment_scan_run")).isEqualTo(expectedRun);
+        assertThat(indexExists("idx_overdue_snapshot_student")).isTrue();
+        assertThat(indexExists("idx_overdue_snapshot_group")).isTrue();
+    }
+
+    @Test
+    void scriptCreatesTheForeignKeyIndexes() {
+        List<String> indexes = List.of("idx_attendance_student", "idx_attendance_session",
+                "idx_payment_detail_payment", "idx_payment_detail_session", "idx_payments_student",
+                "idx_session_series");
+        indexes.forEach(index -> jdbcTemplate.execute("DROP INDEX " + index));
+
+        runScript();
+
+        assertThat(indexes).allMatch(this::indexExists);
+    }
+
+    @Test
+    void scriptAddsThePaymentVersionColumnsWithExistingRowsAtZero() {
+        List<String> expectedPayments = columns("payments");
+        List<String> expectedDetails = columns("payment_detail");
+        TestDataFactory data = new TestDataFactory(entityManager);
+        GroupEntity group = data.group("Maths 3e", data.price(100.0));
+        SessionSeriesEntity series = data.series(group, "Série 1");
+        SessionEntity session = data.session(series, LocalDateTime.of(2026, 1, 5, 10, 0));
+        PaymentEntity payment = data.payment(data.student("Alice", "Martin", group), series, 100.0);
+        data.paymentDetail(payment, session, 100.0);
+        data.flushAndClear();
+
+        jdbcTemplate.execute("ALTER TABLE payments DROP COLUMN version");
+        jdbcTemplate.execute("ALTER TABLE payment_detail DROP COLUMN version");
+        runScript();
+
+        assertThat(columns("payments")).isEqualTo(expectedPayments);
+        assertThat(columns("payment_detail")).isEqualTo(expectedDetails);
+        assertThat(jdbcTemplate.queryForList("SELECT version FROM payments", Long.class)).containsExactly(0L);
+        assertThat(jdbcTemplate.queryForList("SELECT version FROM payment_detail", Long.class)).containsExactly(0L);
+    }
+
+    @Test
+    void scriptMergesDuplicatePaymentsBeforeAddingTheUniqueKey() {
+        jdbcTemplate.execute("ALTER TABLE payments DROP CONSTRAINT uk_payments_student_group_series");
+        TestDataFactory data = new TestDataFactory(entityManager);
+        GroupEntity group = data.group("Maths 3e", data.price(100.0));
+        SessionSeriesEntity series = data.series(group, "Série 1");
+        SessionEntity first = data.session(series, LocalDateTime.of(2026, 1, 5, 10, 0));
+        SessionEntity second = data.session(series, LocalDateTime.of(2026, 1, 12, 10, 0));
+        StudentEntity alice = data.student("Alice", "Martin", group);
+        PaymentEntity kept = data.payment(alice, series, 100.0);
+        data.paymentDetail(kept, first, 100.0);
+        PaymentEntity duplicate = data.payment(alice, series, 50.0);
+        data.paymentDetail(duplicate, second, 50.0);
+        PaymentEntity other = data.payment(data.student("Bob", "Durand", group), series, 100.0);
+        data.flushAndClear();
+
+        runScript();
+
+        assertThat(constraintExists("uk_payments_student_group_series")).isTrue();
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM payments ORDER BY id", Long.class))
+                .containsExactly(kept.getId(), other.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT amount_paid FROM payments WHERE id = ?",
+                Double.class, kept.getId())).isEqualTo(150.0);
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT payment_id FROM payment_detail", Long.class))
+                .containsExactly(kept.getId());
+    }
+
+    private void runScript() {
+        ResourceDatabasePopulator populator =
+                new ResourceDatabasePopulator(new ClassPathResource("db/schema-upgrade.sql"));
+        populator.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+        DatabasePopulatorUtils.execute(populator, dataSource);
+    }
+
+    /**
+     * Colonnes de la table sous la forme « nom type nullable », triées par nom.
+     */
+    private List<String> columns(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT column_name || ' ' || data_type || coalesce('(' || character_maximum_length || ')', '') " +
+                "       || ' ' || is_nullable " +
+                "FROM information_schema.columns WHERE table_schema = current_schema() AND table_name = ? " +
+                "ORDER BY column_name", String.class, table);
+    }
+
+    private boolean constraintExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, name));
+    }
+
+    private boolean indexExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+}
@@ -0,0 +1,180 @@
+package com.school.management.config;
+
+import com.school.management.dto.session.SessionSearchCriteriaDTO;
+import com.school.management.mapper.StudentMapperImpl;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.TeacherEntity;
+import com.school.management.service.NameAutocompleteIndex;
+import com.school.management.service.SessionSearchService;
+import com.school.management.service.student.StudentSearchService;
+import com.school.management.service.student.StudentService;
+import com.school.management.service.util.CommonSpecifications;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.QueryPlans;
+import com.school.management.support.StatementCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.assertj.core.api.AbstractStringAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les recherches de noms utilisent les index de db/search-indexes.sql : sur des tables
+ * de 100 000 lignes, le plan ne doit contenir aucun parcours séquentiel de la table.
+ *
+ * Le SQL expliqué est celui qu'émettent réellement les services (capturé par
+ * {@link StatementCounter}), préparé puis expliqué en plan générique : c'est le plan que
+ * le serveur réutilise pour toutes les valeurs des paramètres.
+ */
+@PostgresJpaTest
+@Import({StudentService.class, StudentMapperImpl.class, StudentSearchService.class, ImageUrlService.class,
+        NameAutocompleteIndex.class, SessionSearchService.class})
+class SearchIndexPlanTest {
+
+    private static final int ROWS = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final String STUDENTS = "INSERT INTO student (first_name, last_name, email, active) " +
+            "SELECT 'Élève' || i, 'Nom' || md5(i::text), 'eleve' || i || '@example.com', true " +
+            "FROM generate_series(1, ?) AS i";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private SessionSearchService sessionSearchService;
+
+    private String hash;
+
+    @BeforeEach
+    void setUp() {
+        hash = jdbcTemplate.queryForObject("SELECT md5('4242')", String.class);
+    }
+
+    @Test
+    void studentSearchByFullNameUsesThePrefixIndexes() {
+        seed(STUDENTS, "student");
+        String firstName = "Élève4242";
+        String lastName = "Nom" + hash;
+
+        assertThat(studentService.searchStudents(firstName, lastName, null, null, null)).hasSize(1);
+
+        assertThatEmittedPlan("student", firstName, lastName)
+                .doesNotContain("Seq Scan on student")
+                .containsPattern("idx_student_(first|last)_name_prefix");
+    }
+
+    @Test
+    void studentSearchByLastNameUsesThePrefixIndex() {
+        seed(STUDENTS, "student");
+        String lastName = "Nom" + hash;
+
+        assertThat(studentService.searchStudents(null, lastName, null, null, null)).hasSize(1);
+
+        assertThatEmittedPlan("student", lastName)
+                .doesNotContain("Seq Scan on student")
+                .contains("idx_student_last_name_prefix");
+    }
+
+    @Test
+    void containsSearchOnTeachersUsesTheTrigramIndex() {
+        seed("INSERT INTO teacher (first_name, last_name, email, active) " +
+                "SELECT 'Prénom' || i, 'Enseignant' || md5(i::text), 'enseignant' || i || '@example.com', true " +
+                "FROM generate_series(1, ?) AS i", "teacher");
+        String fragment = hash.substring(4, 14);
+
+        assertThat(findAll(TeacherEntity.class, CommonSpecifications.likeIfNotNull("lastName", fragment))).hasSize(1);
+
+        assertThatEmittedPlan("teacher", "%" + fragment + "%")
+                .doesNotContain("Seq Scan on teacher")
+                .contains("idx_teacher_last_name_trgm");
+    }
+
+    @Test
+    void containsSearchOnGroupsUsesTheTrigramIndex() {
+        seed("INSERT INTO groups (name, session_per_serie, active) " +
+                "SELECT 'Groupe ' || md5(i::text), 4, true FROM generate_series(1, ?) AS i", "groups");
+        String fragment = hash.substring(4, 14);
+
+        assertThat(findAll(GroupEntity.class, CommonSpecifications.likeIfNotNull("name", fragment))).hasSize(1);
+
+        assertThatEmittedPlan("groups", "%" + fragment + "%")
+                .doesNotContain("Seq Scan on groups")
+                .contains("idx_groups_name_trgm");
+    }
+
+    @Test
+    void sessionTitleSearchDoesNotScanTheTable() {
+        seed("INSERT INTO session (title, active, is_finished, session_time_start, session_time_end) " +
+                "SELECT 'Séance ' || md5(i::text), true, false, timestamp '2024-01-01 08:00' + i * interval '1 hour', " +
+                "timestamp '2024-01-01 10:00' + i * interval '1 hour' FROM generate_series(1, ?) AS i", "session");
+        SessionSearchCriteriaDTO criteria = new SessionSearchCriteriaDTO();
+        criteria.setTitle("Séance " + hash.substring(0, 8));
+
+        assertThat(sessionSearchService.search(criteria, null, PAGE_SIZE, false)
+                .getContent()).hasSize(1);
+
+        // Paramètres émis : le motif normalisé par le service, puis la taille de page + 1
+        assertThatEmittedPlan("session", "séance " + hash.substring(0, 8) + "%", PAGE_SIZE + 1)
+                .doesNotContain("Seq Scan on session");
+    }
+
+    /**
+     * Remplit une table puis crée les index de recherche : les construire après l'insertion
+     * est bien plus rapide que de les maintenir ligne à ligne.
+     */
+    private void seed(String insert, String table) {
+        jdbcTemplate.update(insert, ROWS);
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                new ClassPathResource(SearchIndexInitializer.FUNCTIONS_SCRIPT),
+                new ClassPathResource(SearchIndexInitializer.SCRIPT));
+        DatabasePopulatorUtils.execute(populator, dataSource);
+        jdbcTemplate.execute("ANALYZE " + table);
+        statementCounter.reset();
+    }
+
+    /**
+     * Plan générique de la requête principale émise depuis le dernier reset du compteur : les
+     * requêtes suivantes ne chargent que des associations.
+     */
+    private AbstractStringAssert<?> assertThatEmittedPlan(String table, Object... parameters) {
+        List<String> executed = statementCounter.executed();
+        assertThat(executed).isNotEmpty();
+        assertThat(executed.get(0)).contains(" from " + table + " ");
+        String plan = QueryPlans.explainGeneric(jdbcTemplate, executed.get(0), parameters);
+        return assertThat(plan).as(plan);
+    }
+
+    private <T> List<T> findAll(Class<T> type, Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        query.where(specification.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
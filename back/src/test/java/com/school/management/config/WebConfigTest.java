@@ -0,0 +1,142 @@
+package com.school.management.config;
+
+import com.school.management.util.GlobalExceptionHandler;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Les réponses en flux tournent sur le pool borné de WebConfig : une fois le pool plein,
+ * la réponse suivante est refusée en 503 au lieu d'attendre dans une file.
+ */
+class WebConfigTest {
+
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+    private static final CountDownLatch STARTED = new CountDownLatch(1);
+
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "app.upload.dir", "target/uploads",
+                "app.streaming.executor.core-size", "1",
+                "app.streaming.executor.max-size", "1",
+                "app.streaming.executor.queue-capacity", "0")));
+        context.register(BootConversion.class, WebConfig.class, GlobalExceptionHandler.class, ExportController.class);
+        context.refresh();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RELEASE.countDown();
+        context.close();
+    }
+
+    @Test
+    void responseIsRejectedWhenThePoolIsFull() throws Exception {
+        MvcResult running = mockMvc.perform(get("/export")).andExpect(request().asyncStarted()).andReturn();
+        assertThat(STARTED.await(10, TimeUnit.SECONDS)).isTrue();
+
+        MvcResult rejected = mockMvc.perform(get("/export")).andExpect(request().asyncStarted()).andReturn();
+        assertThat(WebAsyncUtils.getAsyncManager(rejected.getRequest()).getConcurrentResult())
+                .isInstanceOf(TaskRejectedException.class);
+        mockMvc.perform(redispatch(rejected))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errorCode").value("SERVICE_UNAVAILABLE"));
+
+        RELEASE.countDown();
+        running.getAsyncResult(10_000);
+        assertThat(running.getResponse().getContentAsString()).isEqualTo("id;montant\n");
+    }
+
+    /**
+     * Redistribue la requête après son échec asynchrone, comme asyncDispatch : le refus
+     * survient à la soumission, avant l'intercepteur qui enregistre le résultat pour MockMvc.
+     */
+    private static RequestBuilder redispatch(MvcResult result) {
+        return servletContext -> {
+            MockHttpServletRequest request = result.getRequest();
+            request.setDispatcherType(DispatcherType.ASYNC);
+            request.setAsyncStarted(false);
+            return request;
+        };
+    }
+
+    /**
+     * Conversions de Spring Boot (Duration de spring.mvc.async.request-timeout), absentes d'un
+     * contexte Spring nu.
+     */
+    @Configuration
+    static class BootConversion {
+
+        @Bean
+        ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+    }
+
+    @RestController
+    static class ExportController {
+
+        @GetMapping("/export")
+        ResponseEntity<StreamingResponseBody> export() {
+            StreamingResponseBody body = out -> {
+                STARTED.countDown();
+                try {
+                    RELEASE.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                out.write("id;montant\n".getBytes(StandardCharsets.UTF_8));
+            };
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename("export.csv").build().toString())
+                    .body(body);
+        }
+    }
+}
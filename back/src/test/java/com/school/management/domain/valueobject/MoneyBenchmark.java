@@ -0,0 +1,105 @@
+package com.school.management.domain.valueobject;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark JMH de {@link Money#toCents(double)} et {@link Money#fromCents(long)}
+ * face à la conversion par BigDecimal (setScale(2, HALF_UP)) qu'ils remplacent dans les
+ * boucles de répartition et de calcul des soldes.
+ *
+ * Lancé uniquement avec le profil Maven « benchmark » : {@code mvn test -Pbenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MoneyBenchmark.class);
+
+    private static final int SIZE = 1024;
+
+    private double[] amounts;
+    private long[] cents;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        amounts = new double[SIZE];
+        cents = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            // Montants à deux décimales, négatifs compris (remboursements, écarts)
+            cents[i] = random.nextLong(-100_000, 1_000_000);
+            amounts[i] = cents[i] / 100.0;
+        }
+    }
+
+    @Benchmark
+    public void toCents(Blackhole blackhole) {
+        for (double amount : amounts) {
+            blackhole.consume(Money.toCents(amount));
+        }
+    }
+
+    @Benchmark
+    public void toCentsWithBigDecimal(Blackhole blackhole) {
+        for (double amount : amounts) {
+            blackhole.consume(BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValue());
+        }
+    }
+
+    @Benchmark
+    public void fromCents(Blackhole blackhole) {
+        for (long value : cents) {
+            blackhole.consume(Money.fromCents(value));
+        }
+    }
+
+    @Benchmark
+    public void fromCentsWithBigDecimal(Blackhole blackhole) {
+        for (long value : cents) {
+            blackhole.consume(BigDecimal.valueOf(value, 2).doubleValue());
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareWithBigDecimal() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MoneyBenchmark.class.getName() + "\\.")
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        for (RunResult result : results) {
+            LOGGER.info("{} : {} ns pour {} montants",
+                    result.getParams().getBenchmark().replace(MoneyBenchmark.class.getName() + ".", ""),
+                    String.format("%.1f", result.getPrimaryResult().getScore()), SIZE);
+        }
+    }
+}
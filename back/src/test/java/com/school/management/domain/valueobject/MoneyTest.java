@@ -0,0 +1,47 @@
+package com.school.management.domain.valueobject;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conversion en centimes : arrondi HALF_UP symétrique, y compris pour les montants négatifs.
+ */
+class MoneyTest {
+
+    @ParameterizedTest(name = "{0} -> {1} centimes")
+    @CsvSource({
+            "0.0, 0",
+            "0.004, 0",
+            "0.005, 1",
+            "12.345, 1235",
+            "99.99, 9999",
+            "-0.004, 0",
+            "-0.005, -1",
+            "-0.015, -2",
+            "-12.345, -1235",
+            "-99.99, -9999"
+    })
+    void toCentsRoundsHalfAwayFromZero(double amount, long expectedCents) {
+        assertThat(Money.toCents(amount)).isEqualTo(expectedCents);
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {-250.125, -0.125, -0.375, 0.125, 0.375, 250.125, 1234.565})
+    void toCentsMatchesBigDecimalHalfUpOnExactHalves(double amount) {
+        long expected = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+
+        assertThat(Money.toCents(amount)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, -1, 1999, -1999, 123456789})
+    void fromCentsIsTheInverseOfToCents(long cents) {
+        assertThat(Money.toCents(Money.fromCents(cents))).isEqualTo(cents);
+    }
+}
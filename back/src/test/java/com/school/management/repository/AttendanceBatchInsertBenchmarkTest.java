@@ -0,0 +1,129 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.AttendanceEntity;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.StatementCounter;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare l'insertion des présences entité par entité (save) et par
+ * {@link AttendanceRepositoryCustom#batchInsert} : nombre de requêtes et latence médiane.
+ */
+@PostgresJpaTest
+class AttendanceBatchInsertBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttendanceBatchInsertBenchmarkTest.class);
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private record Fixture(Long studentId, Long groupId, Long seriesId, List<Long> sessionIds) {}
+
+    private record Measurement(long statements, double medianMillis) {}
+
+    @ParameterizedTest(name = "{0} présences")
+    @ValueSource(ints = {10, 50, 200})
+    void batchInsertUsesOneStatementWhateverTheNumberOfRows(int rowCount) {
+        Fixture fixture = createFixture(rowCount);
+
+        Measurement perRow = measure(() -> {
+            attendanceRepository.saveAll(newAttendances(fixture));
+            entityManager.flush();
+            entityManager.clear();
+        });
+        Measurement batch = measure(() -> {
+            List<AttendanceEntity> attendances = newAttendances(fixture);
+            assertThat(attendanceRepository.batchInsert(attendances)).isEqualTo(rowCount);
+            assertThat(attendances).allMatch(attendance -> attendance.getId() != null);
+        });
+
+        LOGGER.info("{} présences - save par entité : {} requêtes, {} ms ; batchInsert : {} requête(s), {} ms",
+                rowCount, perRow.statements(), String.format("%.2f", perRow.medianMillis()),
+                batch.statements(), String.format("%.2f", batch.medianMillis()));
+
+        assertThat(perRow.statements()).isEqualTo(rowCount);
+        assertThat(batch.statements()).isEqualTo(1);
+    }
+
+    private Fixture createFixture(int rowCount) {
+        TestDataFactory data = new TestDataFactory(entityManager);
+        GroupEntity group = data.group("Groupe " + rowCount, data.price(50.0));
+        SessionSeriesEntity series = data.series(group, "Série " + rowCount);
+        List<Long> sessionIds = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            SessionEntity session = data.session(series, LocalDateTime.of(2024, 1, 1, 10, 0).plusDays(i));
+            sessionIds.add(session.getId());
+        }
+        StudentEntity student = data.student("Eleve", "Presence" + rowCount, group);
+        data.flushAndClear();
+        return new Fixture(student.getId(), group.getId(), series.getId(), sessionIds);
+    }
+
+    /**
+     * Une présence par session, comme la saisie d'appel d'un étudiant sur toute une série.
+     */
+    private List<AttendanceEntity> newAttendances(Fixture fixture) {
+        StudentEntity student = entityManager.getReference(StudentEntity.class, fixture.studentId());
+        GroupEntity group = entityManager.getReference(GroupEntity.class, fixture.groupId());
+        SessionSeriesEntity series = entityManager.getReference(SessionSeriesEntity.class, fixture.seriesId());
+        List<AttendanceEntity> attendances = new ArrayList<>(fixture.sessionIds().size());
+        for (Long sessionId : fixture.sessionIds()) {
+            attendances.add(AttendanceEntity.builder()
+                    .student(student)
+                    .session(entityManager.getReference(SessionEntity.class, sessionId))
+                    .group(group)
+                    .sessionSeries(series)
+                    .isPresent(true)
+                    .isJustified(false)
+                    .isCatchUp(false)
+                    .build());
+        }
+        return attendances;
+    }
+
+    private Measurement measure(Runnable insert) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            insert.run();
+        }
+        long[] durations = new long[MEASURED_RUNS];
+        long statements = -1;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            statementCounter.reset();
+            long start = System.nanoTime();
+            insert.run();
+            durations[i] = System.nanoTime() - start;
+            if (statements >= 0) {
+                assertThat(statementCounter.statements()).isEqualTo(statements);
+            }
+            statements = statementCounter.statements();
+        }
+        Arrays.sort(durations);
+        return new Measurement(statements, durations[MEASURED_RUNS / 2] / 1_000_000.0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentDetailEntity;
+import com.school.management.persistance.PaymentEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.repository.PaymentDetailRepositoryCustom.NewPaymentDetail;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.StatementCounter;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare l'insertion des détails de paiement entité par entité (save) et par
+ * {@link PaymentDetailRepositoryCustom#batchInsert} : nombre de requêtes et latence médiane.
+ */
+@PostgresJpaTest
+class PaymentDetailBatchInsertBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PaymentDetailBatchInsertBenchmarkTest.class);
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PaymentDetailRepository paymentDetailRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private record Measurement(long statements, double medianMillis) {}
+
+    @ParameterizedTest(name = "{0} sessions")
+    @ValueSource(ints = {10, 30, 100})
+    void batchInsertUsesOneStatementWhateverTheNumberOfSessions(int sessionCount) {
+        TestDataFactory data = new TestDataFactory(entityManager);
+        GroupEntity group = data.group("Groupe " + sessionCount, data.price(50.0));
+        SessionSeriesEntity series = data.series(group, "Série " + sessionCount);
+        List<Long> sessionIds = new ArrayList<>(sessionCount);
+        for (int i = 0; i < sessionCount; i++) {
+            SessionEntity session = data.session(series, LocalDateTime.of(2024, 1, 1, 10, 0).plusDays(i));
+            sessionIds.add(session.getId());
+        }
+        StudentEntity student = data.student("Eleve", "Benchmark" + sessionCount, group);
+        Long paymentId = data.payment(student, series, 50.0 * sessionCount).getId();
+        data.flushAndClear();
+
+        List<NewPaymentDetail> details = sessionIds.stream()
+                .map(sessionId -> new NewPaymentDetail(paymentId, sessionId, 50.0, false))
+                .toList();
+
+        Measurement perRow = measure(() -> insertPerRow(paymentId, sessionIds));
+        Measurement batch = measure(() -> paymentDetailRepository.batchInsert(details));
+
+        LOGGER.info("{} sessions - save par entité : {} requêtes, {} ms ; batchInsert : {} requête(s), {} ms",
+                sessionCount, perRow.statements(), String.format("%.2f", perRow.medianMillis()),
+                batch.statements(), String.format("%.2f", batch.medianMillis()));
+
+        assertThat(perRow.statements()).isEqualTo(sessionCount);
+        assertThat(batch.statements()).isEqualTo(1);
+    }
+
+    /**
+     * Chemin d'origine : un save par détail, chacun émettant son INSERT (ID IDENTITY).
+     */
+    private void insertPerRow(Long paymentId, List<Long> sessionIds) {
+        PaymentEntity payment = entityManager.getReference(PaymentEntity.class, paymentId);
+        for (Long sessionId : sessionIds) {
+            paymentDetailRepository.save(PaymentDetailEntity.builder()
+                    .payment(payment)
+                    .session(entityManager.getReference(SessionEntity.class, sessionId))
+                    .amountPaid(50.0)
+                    .isCatchUp(false)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Measurement measure(Runnable insert) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            insert.run();
+        }
+        long[] durations = new long[MEASURED_RUNS];
+        long statements = -1;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            statementCounter.reset();
+            long start = System.nanoTime();
+            insert.run();
+            durations[i] = System.nanoTime() - start;
+            if (statements >= 0) {
+                assertThat(statementCounter.statements()).isEqualTo(statements);
+            }
+            statements = statementCounter.statements();
+        }
+        Arrays.sort(durations);
+        return new Measurement(statements, durations[MEASURED_RUNS / 2] / 1_000_000.0);
+    }
+}
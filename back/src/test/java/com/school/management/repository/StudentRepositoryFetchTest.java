@@ -0,0 +1,85 @@
+package com.school.management.repository;
+
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.StatementCounter;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lignes lues par les recherches d'étudiant des endpoints, sur un étudiant dont l'historique
+ * (séances, présences, paiements) est volumineux :
+ * <ul>
+ *   <li>photo (POST/GET /api/students/{id}/photo) : {@code findById}, l'étudiant seul ;</li>
+ *   <li>modification (PUT /api/students/{id}) : {@code findWithGroupsById}, l'étudiant et ses groupes.</li>
+ * </ul>
+ * Aucune des deux ne doit lire l'historique.
+ */
+@PostgresJpaTest
+class StudentRepositoryFetchTest {
+
+    private static final int GROUPS = 3;
+    private static final int SESSIONS_PER_GROUP = 40;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private Long studentId;
+
+    @BeforeEach
+    void createStudentWithHistory() {
+        TestDataFactory data = new TestDataFactory(entityManager);
+        GroupEntity[] groups = new GroupEntity[GROUPS];
+        for (int g = 0; g < GROUPS; g++) {
+            groups[g] = data.group("Groupe " + g, data.price(50.0));
+        }
+        StudentEntity student = data.student("Lina", "Historique", groups);
+        for (GroupEntity group : groups) {
+            SessionSeriesEntity series = data.series(group, "Série " + group.getName());
+            PaymentEntity payment = data.payment(student, series, 50.0 * SESSIONS_PER_GROUP);
+            for (int s = 0; s < SESSIONS_PER_GROUP; s++) {
+                SessionEntity session = data.session(series, LocalDateTime.of(2024, 1, 8, 10, 0).plusWeeks(s));
+                data.attendance(student, session, true);
+                data.paymentDetail(payment, session, 50.0);
+            }
+        }
+        data.flushAndClear();
+        studentId = student.getId();
+        statementCounter.reset();
+    }
+
+    @Test
+    void photoEndpointsReadOnlyTheStudentRow() {
+        StudentEntity student = studentRepository.findById(studentId).orElseThrow();
+
+        assertThat(student.getLastName()).isEqualTo("Historique");
+        assertThat(statementCounter.statements()).isEqualTo(1);
+        assertThat(statementCounter.rows()).isEqualTo(1);
+    }
+
+    @Test
+    void editEndpointReadsOneRowPerGroup() {
+        StudentEntity student = studentRepository.findWithGroupsById(studentId).orElseThrow();
+
+        assertThat(student.getGroups()).hasSize(GROUPS);
+        assertThat(statementCounter.statements()).isEqualTo(1);
+        assertThat(statementCounter.rows()).isEqualTo(GROUPS);
+    }
+}
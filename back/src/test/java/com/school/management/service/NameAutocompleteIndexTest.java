@@ -0,0 +1,136 @@
+package com.school.management.service;
+
+import com.school.management.repository.GroupRepository;
+import com.school.management.repository.StudentRepository;
+import com.school.management.repository.TeacherRepository;
+import com.school.management.repository.projection.NameIndexRow;
+import com.school.management.service.NameAutocompleteIndex.Entry;
+import com.school.management.service.NameAutocompleteIndex.Kind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Index d'autocomplétion : préfixes de plusieurs mots, variantes de translittération,
+ * classement des résultats et modifications appliquées pendant une reconstruction.
+ */
+class NameAutocompleteIndexTest {
+
+    private StudentRepository studentRepository;
+    private TeacherRepository teacherRepository;
+    private GroupRepository groupRepository;
+    private NameAutocompleteIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        studentRepository = mock(StudentRepository.class);
+        teacherRepository = mock(TeacherRepository.class);
+        groupRepository = mock(GroupRepository.class);
+        index = new NameAutocompleteIndex(studentRepository, teacherRepository, groupRepository);
+    }
+
+    @Test
+    void everyTypedWordMustPrefixAWordOfTheName() {
+        rebuildWith(student(1L, "Yanis", "Haddad"), student(2L, "Yanis", "Benali"), student(3L, "Sami", "Haddad"));
+
+        assertThat(ids(Kind.STUDENT, "ya ha")).containsExactly(1L);
+        assertThat(ids(Kind.STUDENT, "had yan")).containsExactly(1L);
+        assertThat(ids(Kind.STUDENT, "haddad")).containsExactly(3L, 1L);
+        assertThat(ids(Kind.STUDENT, "yanis karim")).isEmpty();
+    }
+
+    @Test
+    void spellingVariantsFindEachOther() {
+        rebuildWith(student(1L, "Mohammed", "Chérif"), student(2L, "Yassine", "Boudjema"),
+                student(3L, "Karim", "Ziani"));
+
+        assertThat(ids(Kind.STUDENT, "Mohamed")).containsExactly(1L);
+        assertThat(ids(Kind.STUDENT, "moham sherif")).containsExactly(1L);
+        assertThat(ids(Kind.STUDENT, "Yacine")).containsExactly(2L);
+        assertThat(ids(Kind.STUDENT, "yaci bouj")).containsExactly(2L);
+        assertThat(ids(Kind.STUDENT, "ÉLODIE")).isEmpty();
+    }
+
+    @Test
+    void arabicNamesAreFoldedOnBothSides() {
+        rebuildWith(student(1L, "فاطمة", "الزهراء"), student(2L, "مُحَمَّد", "أمين"));
+
+        assertThat(ids(Kind.STUDENT, "فاطمه")).containsExactly(1L);
+        assertThat(ids(Kind.STUDENT, "محمد امين")).containsExactly(2L);
+    }
+
+    @Test
+    void exactWordsRankFirstThenAlphabeticalOrder() {
+        rebuildWith(student(1L, "Alia", "Zerrouki"), student(2L, "Karim", "Ali"), student(3L, "Alicia", "Martin"),
+                student(4L, "Ali", "Haddad"));
+
+        assertThat(ids(Kind.STUDENT, "ali")).containsExactly(4L, 2L, 1L, 3L);
+        assertThat(index.search(Kind.STUDENT, "ali", 2)).extracting(Entry::label)
+                .containsExactly("Ali Haddad", "Karim Ali");
+    }
+
+    @Test
+    void kindsAreIndexedSeparately() {
+        when(teacherRepository.findActiveNameIndexRows()).thenReturn(List.of(student(1L, "Nadia", "Kaci")));
+        when(groupRepository.findActiveNameIndexRows())
+                .thenReturn(List.of(new NameIndexRow(1L, "Maths 3e", "", null)));
+        rebuildWith(student(1L, "Nadir", "Kaci"));
+
+        assertThat(index.search(Kind.TEACHER, "nad", 10)).extracting(Entry::label).containsExactly("Nadia Kaci");
+        assertThat(index.search(Kind.STUDENT, "nad", 10)).extracting(Entry::label).containsExactly("Nadir Kaci");
+        assertThat(index.search(Kind.GROUP, "maths 3", 10)).extracting(Entry::label).containsExactly("Maths 3e");
+    }
+
+    @Test
+    void putAndRemoveKeepTheIndexCurrent() {
+        rebuildWith(student(1L, "Sofiane", "Amrani"));
+
+        index.putAfterCommit(Kind.STUDENT, List.of(student(1L, "Sofiane", "Belkacem")));
+        assertThat(ids(Kind.STUDENT, "amrani")).isEmpty();
+        assertThat(ids(Kind.STUDENT, "belk")).containsExactly(1L);
+
+        index.removeAfterCommit(Kind.STUDENT, List.of(1L));
+        assertThat(ids(Kind.STUDENT, "sofiane")).isEmpty();
+    }
+
+    @Test
+    void changesCommittedDuringARebuildAreReplayed() {
+        // La lecture voit encore l'étudiant 1 et pas encore l'étudiant 2 : sa désactivation
+        // et la création du second sont validées pendant la reconstruction.
+        when(studentRepository.findActiveNameIndexRows()).thenAnswer(invocation -> {
+            index.removeAfterCommit(Kind.STUDENT, List.of(1L));
+            index.putAfterCommit(Kind.STUDENT, List.of(student(2L, "Rayane", "Mansouri")));
+            return List.of(student(1L, "Rayane", "Bouzid"));
+        });
+
+        index.rebuild();
+
+        assertThat(ids(Kind.STUDENT, "rayane")).containsExactly(2L);
+    }
+
+    @Test
+    void blankInputOrLimitReturnsNothing() {
+        rebuildWith(student(1L, "Lina", "Saadi"));
+
+        assertThat(index.search(Kind.STUDENT, "  ", 10)).isEmpty();
+        assertThat(index.search(Kind.STUDENT, "lina", 0)).isEmpty();
+    }
+
+    private void rebuildWith(NameIndexRow... students) {
+        when(studentRepository.findActiveNameIndexRows()).thenReturn(List.of(students));
+        index.rebuild();
+    }
+
+    private List<Long> ids(Kind kind, String input) {
+        return index.search(kind, input, NameAutocompleteIndex.MAX_LIMIT).stream().map(Entry::id).toList();
+    }
+
+    private static NameIndexRow student(Long id, String firstName, String lastName) {
+        return new NameIndexRow(id, firstName, lastName, null);
+    }
+}
@@ -0,0 +1,191 @@
+package com.school.management.service;
+
+import com.school.management.domain.valueobject.DateRange;
+import com.school.management.persistance.RoomEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.repository.SessionRepository;
+import com.school.management.repository.projection.SessionSlotRow;
+import com.school.management.service.SessionScheduleIndex.Candidate;
+import com.school.management.service.SessionScheduleIndex.Conflict;
+import com.school.management.service.SessionScheduleIndex.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Index des créneaux occupés : chevauchements, créneaux contigus, exclusion de la session
+ * modifiée, vérification en base avant l'horizon et rejeu des modifications faites pendant
+ * une reconstruction.
+ */
+class SessionScheduleIndexTest {
+
+    private static final long ROOM = 7L;
+    private static final LocalDateTime TOMORROW_10H = LocalDate.now().plusDays(1).atTime(10, 0);
+
+    private SessionRepository sessionRepository;
+    private SessionScheduleIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        sessionRepository = mock(SessionRepository.class);
+        index = new SessionScheduleIndex(sessionRepository);
+    }
+
+    @Test
+    void overlappingSlotInTheSameRoomIsAConflict() {
+        rebuildWith(row(1L, TOMORROW_10H, TOMORROW_10H.plusHours(2)));
+
+        List<Conflict> conflicts = index.findConflicts(List.of(candidate(null, TOMORROW_10H.plusHours(1), 1)));
+
+        assertThat(conflicts).singleElement().satisfies(conflict -> {
+            assertThat(conflict.resource()).isEqualTo(Resource.ROOM);
+            assertThat(conflict.resourceId()).isEqualTo(ROOM);
+            assertThat(conflict.sessionId()).isEqualTo(1L);
+        });
+        verify(sessionRepository, never()).findSlotsOverlapping(any(), any(), anyCollection(), anyCollection(), anyCollection());
+    }
+
+    @Test
+    void longSlotStartingWellBeforeTheCandidateIsFound() {
+        rebuildWith(row(1L, TOMORROW_10H.minusHours(6), TOMORROW_10H.plusHours(3)),
+                row(2L, TOMORROW_10H.minusHours(1), TOMORROW_10H));
+
+        assertThat(index.findConflicts(List.of(candidate(null, TOMORROW_10H.plusHours(2), 1))))
+                .extracting(Conflict::sessionId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void contiguousSlotsAreNotConflicts() {
+        rebuildWith(row(1L, TOMORROW_10H, TOMORROW_10H.plusHours(1)));
+
+        assertThat(index.findConflicts(List.of(
+                candidate(null, TOMORROW_10H.plusHours(1), 1),
+                candidate(null, TOMORROW_10H.minusHours(1), 1)))).isEmpty();
+    }
+
+    @Test
+    void otherRoomIsNotAConflict() {
+        rebuildWith(row(1L, TOMORROW_10H, TOMORROW_10H.plusHours(1)));
+
+        Candidate otherRoom = new Candidate(null, null, null, ROOM + 1,
+                DateRange.of(TOMORROW_10H, TOMORROW_10H.plusHours(1)));
+        assertThat(index.findConflicts(List.of(otherRoom))).isEmpty();
+    }
+
+    @Test
+    void movedSessionDoesNotConflictWithItself() {
+        rebuildWith(row(1L, TOMORROW_10H, TOMORROW_10H.plusHours(2)));
+
+        assertThat(index.findConflicts(List.of(candidate(1L, TOMORROW_10H.plusHours(1), 2)))).isEmpty();
+        assertThat(index.findConflicts(List.of(candidate(2L, TOMORROW_10H.plusHours(1), 2)))).hasSize(1);
+    }
+
+    @Test
+    void overlappingCandidatesConflictWithEachOther() {
+        rebuildWith();
+
+        List<Conflict> conflicts = index.findConflicts(List.of(
+                candidate(null, TOMORROW_10H, 2),
+                candidate(null, TOMORROW_10H.plusHours(1), 2),
+                candidate(null, TOMORROW_10H.plusHours(3), 1)));
+
+        assertThat(conflicts).singleElement().satisfies(conflict -> {
+            assertThat(conflict.sessionId()).isNull();
+            assertThat(conflict.candidateIndex() + conflict.otherCandidateIndex()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void slotsBeforeTheHorizonAreCheckedInTheDatabase() {
+        rebuildWith();
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atTime(10, 0);
+        when(sessionRepository.findSlotsOverlapping(any(), any(), anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(List.of(row(3L, yesterday, yesterday.plusHours(2))));
+
+        assertThat(index.findConflicts(List.of(candidate(null, yesterday.plusHours(1), 1))))
+                .extracting(Conflict::sessionId)
+                .containsExactly(3L);
+        verify(sessionRepository).findSlotsOverlapping(Timestamp.valueOf(yesterday.plusHours(1)),
+                Timestamp.valueOf(yesterday.plusHours(2)), List.of(-1L), List.of(-1L), Set.of(ROOM));
+    }
+
+    @Test
+    void everySlotIsCheckedInTheDatabaseBeforeTheFirstBuild() {
+        when(sessionRepository.findSlotsOverlapping(any(), any(), anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(List.of(row(1L, TOMORROW_10H, TOMORROW_10H.plusHours(2))));
+
+        assertThat(index.findConflicts(List.of(candidate(null, TOMORROW_10H, 1))))
+                .extracting(Conflict::sessionId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void changesCommittedDuringARebuildAreReplayed() {
+        // La lecture voit encore la session 1 et pas encore la session 2 : leur suppression
+        // et leur création sont validées pendant la reconstruction.
+        when(sessionRepository.findSlotsEndingAfter(any())).thenAnswer(invocation -> {
+            index.removeAfterCommit(1L);
+            index.putAfterCommit(List.of(session(2L, TOMORROW_10H.plusHours(4), 1)));
+            return List.of(row(1L, TOMORROW_10H, TOMORROW_10H.plusHours(1)));
+        });
+
+        index.rebuild();
+
+        assertThat(index.findConflicts(List.of(candidate(null, TOMORROW_10H, 1)))).isEmpty();
+        assertThat(index.findConflicts(List.of(candidate(null, TOMORROW_10H.plusHours(4), 1))))
+                .extracting(Conflict::sessionId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void putAndRemoveKeepTheIndexCurrent() {
+        rebuildWith();
+
+        index.putAfterCommit(List.of(session(5L, TOMORROW_10H, 1)));
+        assertThat(index.findConflicts(List.of(candidate(null, TOMORROW_10H, 1)))).hasSize(1);
+
+        index.putAfterCommit(List.of(session(5L, TOMORROW_10H.plusHours(2), 1)));
+        assertThat(index.findConflicts(List.of(candidate(null, TOMORROW_10H, 1)))).isEmpty();
+
+        index.removeAfterCommit(5L);
+        assertThat(index.findConflicts(List.of(candidate(null, TOMORROW_10H.plusHours(2), 1)))).isEmpty();
+    }
+
+    private void rebuildWith(SessionSlotRow... rows) {
+        when(sessionRepository.findSlotsEndingAfter(any())).thenReturn(List.of(rows));
+        index.rebuild();
+    }
+
+    private static Candidate candidate(Long sessionId, LocalDateTime start, int hours) {
+        return new Candidate(sessionId, null, null, ROOM, DateRange.of(start, start.plusHours(hours)));
+    }
+
+    private static SessionSlotRow row(Long sessionId, LocalDateTime start, LocalDateTime end) {
+        return new SessionSlotRow(sessionId, null, null, ROOM, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    private static SessionEntity session(Long id, LocalDateTime start, int hours) {
+        RoomEntity room = new RoomEntity();
+        room.setId(ROOM);
+        SessionEntity session = new SessionEntity();
+        session.setId(id);
+        session.setRoom(room);
+        session.setSessionTimeStart(Timestamp.valueOf(start));
+        session.setSessionTimeEnd(Timestamp.valueOf(start.plusHours(hours)));
+        return session;
+    }
+}
@@ -0,0 +1,103 @@
+package com.school.management.service;
+
+import com.school.management.dto.CursorPageResponse;
+import com.school.management.dto.session.SessionSearchCriteriaDTO;
+import com.school.management.dto.session.SessionSummaryDTO;
+import com.school.management.service.util.KeysetCursor;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.QueryPlans;
+import com.school.management.support.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pagination par curseur de la recherche de sessions, sur 100 000 sessions dont trois
+ * partagent chaque date de début, plus quelques sessions sans date de début.
+ */
+@PostgresJpaTest
+@Import(SessionSearchService.class)
+class SessionSearchServiceTest {
+
+    private static final int ROWS = 100_000;
+    private static final int WITHOUT_START = 5;
+    private static final int PAGE_SIZE = SessionSearchService.MAX_PAGE_SIZE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionSearchService sessionSearchService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO session (title, active, is_finished, session_time_start, session_time_end) " +
+                "SELECT 'Séance ' || i, true, false, timestamp '2024-01-01 08:00' + (i / 3) * interval '1 hour', " +
+                "timestamp '2024-01-01 09:00' + (i / 3) * interval '1 hour' " +
+                "FROM generate_series(1, ?) AS i", ROWS);
+        jdbcTemplate.update("INSERT INTO session (title, active, is_finished) " +
+                "SELECT 'Séance sans date ' || i, true, false FROM generate_series(1, ?) AS i", WITHOUT_START);
+        jdbcTemplate.execute("ANALYZE session");
+    }
+
+    @Test
+    void cursorVisitsEveryDatedSessionOnceInOrder() {
+        Set<Long> seen = new HashSet<>();
+        SessionSummaryDTO previous = null;
+        String cursor = null;
+        do {
+            CursorPageResponse<SessionSummaryDTO> page = sessionSearchService.search(
+                    new SessionSearchCriteriaDTO(), cursor, PAGE_SIZE, false);
+            for (SessionSummaryDTO session : page.getContent()) {
+                assertThat(seen.add(session.getId())).as("session %d vue deux fois", session.getId()).isTrue();
+                assertThat(session.getSessionTimeStart()).isNotNull();
+                if (previous != null) {
+                    assertThat(session.getSessionTimeStart()).isAfterOrEqualTo(previous.getSessionTimeStart());
+                }
+                previous = session;
+            }
+            assertThat(page.isHasNext()).isEqualTo(page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(ROWS);
+    }
+
+    @Test
+    void laterPagesAreBoundedByTheStartIndex() {
+        Map<String, Object> middle = jdbcTemplate.queryForMap(
+                "SELECT id, session_time_start FROM session WHERE session_time_start IS NOT NULL " +
+                "ORDER BY session_time_start, id OFFSET ? LIMIT 1", ROWS / 2);
+        Timestamp start = (Timestamp) middle.get("session_time_start");
+        Long id = ((Number) middle.get("id")).longValue();
+        String cursor = KeysetCursor.after(start, id).encode();
+
+        statementCounter.reset();
+        CursorPageResponse<SessionSummaryDTO> page = sessionSearchService.search(
+                new SessionSearchCriteriaDTO(), cursor, PAGE_SIZE, false);
+        List<String> executed = statementCounter.executed();
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(executed).hasSize(1);
+        String plan = QueryPlans.explainGeneric(jdbcTemplate, executed.get(0), start, id, PAGE_SIZE + 1);
+        assertThat(plan)
+                .as(plan)
+                .contains("Index Scan using idx_session_start")
+                .contains("(ROW(session_time_start, id) > ROW($1, $2))")
+                .doesNotContain("Seq Scan on session")
+                .doesNotContain("Sort");
+    }
+}
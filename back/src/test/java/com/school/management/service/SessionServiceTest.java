@@ -0,0 +1,182 @@
+package com.school.management.service;
+
+import com.school.management.config.ModelMapperConfig;
+import com.school.management.mapper.SessionMapperImpl;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentEntity;
+import com.school.management.persistance.RoomEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.service.payment.BalanceLedgerService;
+import com.school.management.service.payment.RevenueAnalyticsService;
+import com.school.management.service.exception.CustomServiceException;
+import com.school.management.service.payment.RevenueAnalyticsService.RevenueDimension;
+import com.school.management.support.DatabaseCleaner;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Effets de bord des écritures de sessions sur les caches et index.
+ *
+ * Les transactions sont réellement validées : les tables sont vidées après chaque test.
+ */
+@PostgresJpaTest
+@Import({SessionService.class, SessionMapperImpl.class, PatchService.class, ModelMapperConfig.class,
+        SessionScheduleIndex.class, BalanceLedgerService.class, RevenueAnalyticsService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SessionServiceTest {
+
+    private static final YearMonth CLOSED_MONTH = YearMonth.of(2024, 1);
+    private static final int CONCURRENT_BOOKINGS = 8;
+    private static final LocalDateTime TOMORROW_10H = LocalDate.now().plusDays(1).atTime(10, 0);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @AfterEach
+    void cleanUp() {
+        DatabaseCleaner.truncateAll(jdbcTemplate);
+    }
+
+    @Test
+    void deletingASessionEvictsTheClosedMonthsOfItsPaymentDetails() {
+        Long sessionId = transactionTemplate.execute(status -> {
+            TestDataFactory data = new TestDataFactory(entityManager);
+            GroupEntity group = data.group("Groupe revenus", data.price(100.0));
+            SessionSeriesEntity series = data.series(group, "Série revenus");
+            SessionEntity session = data.session(series, LocalDateTime.of(2024, 1, 8, 10, 0));
+            StudentEntity student = data.student("Lina", "Revenus", group);
+            PaymentEntity payment = data.payment(student, series, 100.0);
+            data.paymentDetail(payment, session, 100.0);
+            return session.getId();
+        });
+        // La date de paiement est fixée à la création : elle est reportée dans le mois clos
+        jdbcTemplate.update("UPDATE payment_detail SET payment_date = timestamp '2024-01-08 10:00'");
+
+        assertThat(revenueAnalyticsService.getMonthlyRevenue(RevenueDimension.TOTAL, CLOSED_MONTH, CLOSED_MONTH)
+                .getTotalAmount()).isEqualTo(100.0);
+
+        sessionService.deleteSession(sessionId);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_detail", Long.class)).isZero();
+        assertThat(revenueAnalyticsService.getMonthlyRevenue(RevenueDimension.TOTAL, CLOSED_MONTH, CLOSED_MONTH)
+                .getTotalAmount()).isZero();
+    }
+
+    @Test
+    void concurrentBookingsOfTheSameRoomLetExactlyOneThrough() throws Exception {
+        Long roomId = transactionTemplate.execute(status -> {
+            RoomEntity room = RoomEntity.builder().name("Salle 1").capacity(30).build();
+            entityManager.persist(room);
+            return room.getId();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_BOOKINGS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatus>> outcomes = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_BOOKINGS; i++) {
+                // Créneaux de deux heures décalés d'un quart d'heure : tous se chevauchent
+                LocalDateTime slotStart = TOMORROW_10H.plusMinutes(15L * i);
+                outcomes.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        sessionService.createSession(session(roomId, slotStart));
+                        return HttpStatus.CREATED;
+                    } catch (CustomServiceException e) {
+                        return e.getStatus();
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<HttpStatus> outcome : outcomes) {
+                statuses.add(outcome.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(statuses).containsOnlyOnce(HttpStatus.CREATED)
+                    .containsOnly(HttpStatus.CREATED, HttpStatus.CONFLICT);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM session WHERE room_id = ?", Long.class, roomId))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void patchingOnlyTheTitleSkipsTheScheduleCheck() {
+        // Deux sessions déjà en conflit, enregistrées hors du service
+        List<Long> ids = transactionTemplate.execute(status -> {
+            RoomEntity room = RoomEntity.builder().name("Salle 2").capacity(30).build();
+            entityManager.persist(room);
+            SessionEntity first = session(room.getId(), TOMORROW_10H);
+            SessionEntity second = session(room.getId(), TOMORROW_10H.plusHours(1));
+            first.setRoom(room);
+            second.setRoom(room);
+            entityManager.persist(first);
+            entityManager.persist(second);
+            return List.of(first.getId(), second.getId());
+        });
+
+        Map<String, Object> title = new HashMap<>();
+        title.put("title", "Nouveau titre");
+        assertThat(sessionService.updateSession(ids.get(1), title).getTitle()).isEqualTo("Nouveau titre");
+
+        Map<String, Object> times = new HashMap<>();
+        times.put("sessionTimeStart", Timestamp.valueOf(TOMORROW_10H.plusMinutes(30)));
+        times.put("sessionTimeEnd", Timestamp.valueOf(TOMORROW_10H.plusMinutes(150)));
+        assertThatThrownBy(() -> sessionService.updateSession(ids.get(1), times))
+                .isInstanceOfSatisfying(CustomServiceException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    private static SessionEntity session(Long roomId, LocalDateTime start) {
+        return SessionEntity.builder()
+                .title("Réservation " + start)
+                .room(RoomEntity.builder().id(roomId).build())
+                .sessionTimeStart(Timestamp.valueOf(start))
+                .sessionTimeEnd(Timestamp.valueOf(start.plusHours(2)))
+                .isFinished(false)
+                .build();
+    }
+}
@@ -0,0 +1,203 @@
+package com.school.management.service.payment;
+
+import com.school.management.dto.payment.StudentSeriesBalanceDTO;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentEntity;
+import com.school.management.persistance.PricingEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.support.DatabaseCleaner;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.StatementCounter;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exactitude du registre des soldes face aux écritures concurrentes et aux
+ * modifications qui ne passent ni par une présence ni par un paiement.
+ *
+ * Les transactions sont réellement validées : les tables sont vidées après chaque test.
+ */
+@PostgresJpaTest
+@Import(BalanceLedgerService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BalanceLedgerServiceTest {
+
+    private static final double PRICE_PER_SESSION = 100.0;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private record Fixture(Long priceId, Long studentId, Long seriesId, Long firstSessionId,
+                           Long secondSessionId, Long paymentId) {}
+
+    @AfterEach
+    void cleanUp() {
+        DatabaseCleaner.truncateAll(jdbcTemplate);
+    }
+
+    @Test
+    void concurrentAttendanceAndPaymentOnTheSameKeyLeaveAnExactBalance() throws Exception {
+        Fixture fixture = createFixture();
+        CountDownLatch bothWritten = new CountDownLatch(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> attendance = executor.submit(() -> inTransaction(data -> {
+                data.attendance(entityManager.getReference(StudentEntity.class, fixture.studentId()),
+                        entityManager.find(SessionEntity.class, fixture.firstSessionId()), true);
+                awaitOther(bothWritten);
+                balanceLedgerService.refresh(fixture.studentId(), fixture.seriesId());
+            }));
+            Future<?> payment = executor.submit(() -> inTransaction(data -> {
+                data.paymentDetail(entityManager.getReference(PaymentEntity.class, fixture.paymentId()),
+                        entityManager.getReference(SessionEntity.class, fixture.firstSessionId()), PRICE_PER_SESSION);
+                awaitOther(bothWritten);
+                balanceLedgerService.refresh(fixture.studentId(), fixture.seriesId());
+            }));
+            attendance.get(30, TimeUnit.SECONDS);
+            payment.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        StudentSeriesBalanceDTO balance = balance(fixture);
+        assertThat(balance.getSessionsAttended()).isEqualTo(1L);
+        assertThat(balance.getAmountDue()).isEqualTo(PRICE_PER_SESSION);
+        assertThat(balance.getAmountPaid()).isEqualTo(PRICE_PER_SESSION);
+    }
+
+    @Test
+    void priceChangeRefreshesTheAmountDue() {
+        Fixture fixture = createFixture();
+        inTransaction(data -> {
+            data.attendance(entityManager.getReference(StudentEntity.class, fixture.studentId()),
+                    entityManager.find(SessionEntity.class, fixture.firstSessionId()), true);
+            balanceLedgerService.refresh(fixture.studentId(), fixture.seriesId());
+        });
+
+        inTransaction(data -> {
+            entityManager.find(PricingEntity.class, fixture.priceId()).setPrice(150.0);
+            balanceLedgerService.refreshForPrice(fixture.priceId());
+        });
+
+        assertThat(balance(fixture).getAmountDue()).isEqualTo(150.0);
+    }
+
+    @Test
+    void deletingASessionRefreshesItsSeries() {
+        Fixture fixture = createFixture();
+        inTransaction(data -> {
+            StudentEntity student = entityManager.getReference(StudentEntity.class, fixture.studentId());
+            data.attendance(student, entityManager.find(SessionEntity.class, fixture.firstSessionId()), true);
+            data.attendance(student, entityManager.find(SessionEntity.class, fixture.secondSessionId()), true);
+            balanceLedgerService.refresh(fixture.studentId(), fixture.seriesId());
+        });
+        assertThat(balance(fixture).getSessionsAttended()).isEqualTo(2L);
+
+        inTransaction(data -> {
+            data.flushAndClear();
+            entityManager.remove(entityManager.find(SessionEntity.class, fixture.secondSessionId()));
+            balanceLedgerService.refreshForSeries(List.of(fixture.seriesId()));
+        });
+
+        StudentSeriesBalanceDTO balance = balance(fixture);
+        assertThat(balance.getSessionsAttended()).isEqualTo(1L);
+        assertThat(balance.getAmountDue()).isEqualTo(PRICE_PER_SESSION);
+    }
+
+    @Test
+    void refreshingSeveralSessionsLocksEachStudentOnceInASingleRefresh() {
+        Fixture fixture = createFixture();
+        Long otherStudentId = transactionTemplate.execute(status -> {
+            TestDataFactory data = new TestDataFactory(entityManager);
+            StudentEntity other = data.student("Sami", "Registre");
+            data.attendance(other, entityManager.find(SessionEntity.class, fixture.secondSessionId()), true);
+            return other.getId();
+        });
+
+        inTransaction(data -> {
+            StudentEntity student = entityManager.getReference(StudentEntity.class, fixture.studentId());
+            data.attendance(student, entityManager.find(SessionEntity.class, fixture.firstSessionId()), true);
+            data.attendance(student, entityManager.find(SessionEntity.class, fixture.secondSessionId()), true);
+            statementCounter.reset();
+
+            balanceLedgerService.refreshForSessions(List.of(fixture.firstSessionId(), fixture.secondSessionId()));
+
+            // une requête de clés, une requête de verrous, un upsert
+            assertThat(statementCounter.statements()).isEqualTo(3);
+            assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_locks WHERE locktype = 'advisory' AND pid = pg_backend_pid() AND classid = ?",
+                Long.class, BalanceLedgerService.LOCK_NAMESPACE)).isEqualTo(2L);
+        });
+
+        assertThat(balance(fixture).getSessionsAttended()).isEqualTo(2L);
+        assertThat(balanceLedgerService.getBalance(otherStudentId, fixture.seriesId()).orElseThrow()
+            .getSessionsAttended()).isEqualTo(1L);
+    }
+
+    private Fixture createFixture() {
+        return transactionTemplate.execute(status -> {
+            TestDataFactory data = new TestDataFactory(entityManager);
+            PricingEntity price = data.price(PRICE_PER_SESSION);
+            GroupEntity group = data.group("Groupe registre", price);
+            SessionSeriesEntity series = data.series(group, "Série registre");
+            SessionEntity first = data.session(series, LocalDateTime.of(2024, 3, 4, 10, 0));
+            SessionEntity second = data.session(series, LocalDateTime.of(2024, 3, 11, 10, 0));
+            StudentEntity student = data.student("Lina", "Registre", group);
+            PaymentEntity payment = data.payment(student, series, PRICE_PER_SESSION);
+            return new Fixture(price.getId(), student.getId(), series.getId(), first.getId(), second.getId(),
+                    payment.getId());
+        });
+    }
+
+    private void inTransaction(Consumer<TestDataFactory> work) {
+        transactionTemplate.executeWithoutResult(status -> work.accept(new TestDataFactory(entityManager)));
+    }
+
+    private StudentSeriesBalanceDTO balance(Fixture fixture) {
+        return balanceLedgerService.getBalance(fixture.studentId(), fixture.seriesId()).orElseThrow();
+    }
+
+    private static void awaitOther(CountDownLatch bothWritten) {
+        bothWritten.countDown();
+        try {
+            assertThat(bothWritten.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.school.management.service.payment;
+
+import com.school.management.dto.payment.PaymentScanRunDTO;
+import com.school.management.persistance.BaseEntity;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.support.DatabaseCleaner;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scan des retards sur 20 000 étudiants, en tranches de 1 000 sur 4 threads : un étudiant
+ * sur deux n'a rien payé des 4 séances suivies.
+ *
+ * Les transactions sont réellement validées : les tables sont vidées après chaque test.
+ */
+@PostgresJpaTest
+@Import(OverduePaymentScanService.class)
+@TestPropertySource(properties = {
+        "payment.overdue-scan.chunk-size=" + OverduePaymentScanServiceTest.CHUNK_SIZE,
+        "payment.overdue-scan.workers=4"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OverduePaymentScanServiceTest {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private static final int STUDENTS = 20_000;
+    private static final int SESSIONS = 4;
+    private static final double PRICE_PER_SESSION = 100.0;
+    private static final long OVERDUE_STUDENTS = STUDENTS / 2;
+    private static final int FAILING_CHUNK = 12;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OverduePaymentScanService scanService;
+
+    @BeforeEach
+    void seed() {
+        Long[] ids = transactionTemplate.execute(status -> {
+            TestDataFactory data = new TestDataFactory(entityManager);
+            GroupEntity group = data.group("Groupe scan", data.price(PRICE_PER_SESSION));
+            SessionSeriesEntity series = data.series(group, "Série scan");
+            for (int i = 0; i < SESSIONS; i++) {
+                data.session(series, LocalDateTime.of(2024, 3, 4, 10, 0).plusWeeks(i));
+            }
+            return new Long[]{group.getId(), series.getId()};
+        });
+        Long groupId = ids[0];
+        Long seriesId = ids[1];
+
+        jdbcTemplate.update("INSERT INTO student (first_name, last_name, active, date_creation, created_by) " +
+                "SELECT 'Eleve' || i, 'Scan', true, now(), 'admin' FROM generate_series(1, ?) AS i", STUDENTS);
+        jdbcTemplate.update("INSERT INTO student_groups (id, student_id, group_id, active) " +
+                "SELECT s.id, s.id, ?, true FROM student s", groupId);
+        jdbcTemplate.update("INSERT INTO attendance " +
+                "(student_id, session_id, session_series_id, group_id, status, is_justified, is_catch_up, active) " +
+                "SELECT s.id, se.id, ?, ?, true, false, false, true FROM student s CROSS JOIN session se",
+                seriesId, groupId);
+        // Les étudiants d'ID pair ont tout payé
+        jdbcTemplate.update("INSERT INTO payments (version, student_id, group_id, session_series_id, amount_paid, status, active) " +
+                "SELECT 0, s.id, ?, ?, ?, 'COMPLETED', true FROM student s WHERE s.id % 2 = 0",
+                groupId, seriesId, PRICE_PER_SESSION * SESSIONS);
+        jdbcTemplate.update("INSERT INTO payment_detail (version, payment_id, session_id, amount_paid, is_catch_up, active) " +
+                "SELECT 0, p.id, se.id, ?, false, true FROM payments p CROSS JOIN session se", PRICE_PER_SESSION);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS fail_scan ON overdue_payment_snapshot");
+        jdbcTemplate.execute("DROP FUNCTION IF EXISTS fail_scan()");
+        DatabaseCleaner.truncateAll(jdbcTemplate);
+    }
+
+    @Test
+    void scanOf20kStudentsCompletesInUnderAMinute() {
+        PaymentScanRunDTO run = scanService.runScan();
+
+        assertThat(run.getStatus()).isEqualTo(OverduePaymentScanService.COMPLETED);
+        assertThat(run.getDurationMs()).isLessThan(60_000L);
+        assertThat(run.getStudentsScanned()).isEqualTo(STUDENTS);
+        assertThat(run.getChunksCompleted()).isEqualTo(STUDENTS / CHUNK_SIZE);
+        assertThat(run.getRowsWritten()).isEqualTo(OVERDUE_STUDENTS);
+        assertThat(run.getLastStudentId())
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT MAX(id) FROM student", Long.class));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM overdue_payment_snapshot WHERE student_id % 2 = 1 AND overdue_amount = ?",
+                Long.class, PRICE_PER_SESSION * SESSIONS)).isEqualTo(OVERDUE_STUDENTS);
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT created_by FROM overdue_payment_snapshot", String.class))
+                .containsExactly(BaseEntity.DEFAULT_CREATED_BY);
+    }
+
+    @Test
+    void failedScanResumesFromItsCheckpoint() {
+        // Le premier étudiant en retard de la tranche FAILING_CHUNK + 1 fait échouer sa tranche
+        Long failingStudent = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM (SELECT id FROM student ORDER BY id OFFSET ? LIMIT ?) c WHERE id % 2 = 1",
+                Long.class, FAILING_CHUNK * CHUNK_SIZE, CHUNK_SIZE);
+        Long checkpoint = jdbcTemplate.queryForObject(
+                "SELECT id FROM student ORDER BY id OFFSET ? LIMIT 1", Long.class, FAILING_CHUNK * CHUNK_SIZE - 1);
+        jdbcTemplate.execute("CREATE FUNCTION fail_scan() RETURNS trigger AS $$ BEGIN " +
+                "IF NEW.student_id = " + failingStudent + " THEN RAISE EXCEPTION 'scan interrompu'; END IF; " +
+                "RETURN NEW; END $$ LANGUAGE plpgsql");
+        jdbcTemplate.execute("CREATE TRIGGER fail_scan BEFORE INSERT ON overdue_payment_snapshot " +
+                "FOR EACH ROW EXECUTE FUNCTION fail_scan()");
+
+        PaymentScanRunDTO failed = scanService.runScan();
+
+        assertThat(failed.getStatus()).isEqualTo(OverduePaymentScanService.FAILED);
+        // Le message JDBC, qui reprend la requête, est tronqué à la taille de la colonne
+        assertThat(failed.getErrorMessage()).isNotBlank().hasSizeLessThanOrEqualTo(1000);
+        assertThat(failed.getLastStudentId()).isEqualTo(checkpoint);
+        assertThat(failed.getChunksCompleted()).isEqualTo(FAILING_CHUNK);
+        assertThat(failed.getStudentsScanned()).isEqualTo((long) FAILING_CHUNK * CHUNK_SIZE);
+
+        // Marque les lignes déjà validées : la reprise ne doit pas les recalculer
+        int kept = jdbcTemplate.update("UPDATE overdue_payment_snapshot SET computed_at = timestamp '2000-01-01' " +
+                "WHERE student_id <= ?", checkpoint);
+        assertThat(kept).isEqualTo(FAILING_CHUNK * CHUNK_SIZE / 2);
+        jdbcTemplate.execute("DROP TRIGGER fail_scan ON overdue_payment_snapshot");
+
+        PaymentScanRunDTO resumed = scanService.runScan();
+
+        assertThat(resumed.getId()).isEqualTo(failed.getId());
+        assertThat(resumed.getStatus()).isEqualTo(OverduePaymentScanService.COMPLETED);
+        assertThat(resumed.getStudentsScanned()).isEqualTo(STUDENTS);
+        assertThat(resumed.getChunksCompleted()).isEqualTo(STUDENTS / CHUNK_SIZE);
+        assertThat(resumed.getRowsWritten()).isEqualTo(OVERDUE_STUDENTS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM overdue_payment_snapshot", Long.class))
+                .isEqualTo(OVERDUE_STUDENTS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM overdue_payment_snapshot WHERE computed_at = timestamp '2000-01-01'",
+                Long.class)).isEqualTo(kept);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM overdue_payment_snapshot WHERE student_id > ? AND computed_at > timestamp '2000-01-01'",
+                Long.class, checkpoint)).isEqualTo(OVERDUE_STUDENTS - kept);
+    }
+}
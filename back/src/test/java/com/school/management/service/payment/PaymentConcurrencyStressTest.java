@@ -0,0 +1,190 @@
+package com.school.management.service.payment;
+
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.service.util.ConcurrencyRetryExecutor;
+import com.school.management.support.DatabaseCleaner;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encaissements concurrents, tels que les rejoue le contrôleur : plusieurs étudiants,
+ * chacun recevant plusieurs versements en parallèle pour le même (groupe, série). Les
+ * versements d'un même étudiant attendent le verrou du registre des soldes ; un conflit
+ * résiduel (@Version, uk_payments_student_group_series) serait rejoué, avec le nombre de
+ * tentatives par défaut.
+ *
+ * Chaque scénario journalise son débit et son nombre de tentatives rejouées, et vérifie
+ * qu'aucun versement n'est perdu : un paiement par étudiant, dont le montant, les détails
+ * et le solde du registre égalent la somme de ses versements. Le scénario de plusieurs
+ * milliers de versements ne tourne qu'avec le profil "benchmark".
+ *
+ * Les transactions sont réellement validées : les tables sont vidées après chaque test.
+ */
+@PostgresJpaTest
+@Import({PaymentProcessingService.class, PaymentDistributionService.class, BalanceLedgerService.class,
+        RevenueAnalyticsService.class, ConcurrencyRetryExecutor.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentConcurrencyStressTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PaymentConcurrencyStressTest.class);
+
+    private static final double PRICE_PER_SESSION = 100.0;
+    private static final int SESSIONS = 4;
+    private static final double TOTAL = PRICE_PER_SESSION * SESSIONS;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentProcessingService paymentProcessingService;
+
+    @Autowired
+    private ConcurrencyRetryExecutor retryExecutor;
+
+    private record Fixture(List<Long> studentIds, Long groupId, Long seriesId) {}
+
+    @AfterEach
+    void cleanUp() {
+        DatabaseCleaner.truncateAll(jdbcTemplate);
+    }
+
+    @ParameterizedTest(name = "{0} étudiant(s) x {1} versements, {2} threads")
+    @CsvSource({
+            "1, 8, 8",
+            "1, 20, 16",
+            "25, 16, 16"
+    })
+    void competingPaymentsLoseNoUpdate(int students, int paymentsPerStudent, int threads) throws Exception {
+        run(students, paymentsPerStudent, threads);
+    }
+
+    @Tag("benchmark")
+    @ParameterizedTest(name = "{0} étudiants x {1} versements, {2} threads")
+    @CsvSource({
+            "200, 10, 16",
+            "100, 50, 32"
+    })
+    void thousandsOfCompetingPaymentsLoseNoUpdate(int students, int paymentsPerStudent, int threads) throws Exception {
+        run(students, paymentsPerStudent, threads);
+    }
+
+    private void run(int students, int paymentsPerStudent, int threads) throws Exception {
+        Fixture fixture = createFixture(students);
+        double amount = TOTAL / paymentsPerStudent;
+        int payments = students * paymentsPerStudent;
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>(payments);
+        long elapsedNanos;
+        try {
+            // Versements entrelacés : les threads se disputent en permanence les mêmes étudiants
+            for (int i = 0; i < paymentsPerStudent; i++) {
+                for (Long studentId : fixture.studentIds()) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return retryExecutor.execute("processPayment", () -> {
+                            attempts.incrementAndGet();
+                            return paymentProcessingService.processPayment(
+                                    studentId, fixture.groupId(), fixture.seriesId(), amount);
+                        });
+                    }));
+                }
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            // Aucun encaissement ne doit échouer : get() relancerait l'exception (500 côté contrôleur)
+            for (Future<?> result : results) {
+                assertThat(result.get(5, TimeUnit.MINUTES)).isNotNull();
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int retries = attempts.get() - payments;
+        double seconds = elapsedNanos / 1e9;
+        LOGGER.info("{} étudiant(s) x {} versements sur {} threads : {} ms, {} versements/s, {} tentative(s) rejouée(s) ({} par versement)",
+                students, paymentsPerStudent, threads, Math.round(seconds * 1000),
+                String.format("%.0f", payments / seconds), retries, String.format("%.2f", (double) retries / payments));
+
+        assertNoLostUpdate(fixture);
+    }
+
+    private void assertNoLostUpdate(Fixture fixture) {
+        int students = fixture.studentIds().size();
+        List<Map<String, Object>> paymentRows = jdbcTemplate.queryForList(
+                "SELECT student_id, amount_paid, status FROM payments WHERE group_id = ? AND session_series_id = ?",
+                fixture.groupId(), fixture.seriesId());
+        assertThat(paymentRows).hasSize(students);
+        assertThat(paymentRows).extracting(row -> ((Number) row.get("student_id")).longValue())
+                .containsExactlyInAnyOrderElementsOf(fixture.studentIds());
+        assertThat(paymentRows).allSatisfy(row -> {
+            assertThat(((Number) row.get("amount_paid")).doubleValue()).as("paiement %s", row).isEqualTo(TOTAL);
+            assertThat(row.get("status")).as("paiement %s", row).isEqualTo(PaymentProcessingService.COMPLETED);
+        });
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_detail", Long.class))
+                .isEqualTo((long) students * SESSIONS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payment_detail WHERE amount_paid <> ?", Long.class, PRICE_PER_SESSION))
+                .isZero();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT amount_paid FROM student_series_balance WHERE session_series_id = ?",
+                Double.class, fixture.seriesId()))
+                .hasSize(students)
+                .allMatch(amountPaid -> amountPaid == TOTAL);
+    }
+
+    private Fixture createFixture(int students) {
+        return transactionTemplate.execute(status -> {
+            TestDataFactory data = new TestDataFactory(entityManager);
+            GroupEntity group = data.group("Groupe concurrence", data.price(PRICE_PER_SESSION));
+            SessionSeriesEntity series = data.series(group, "Série concurrence");
+            for (int i = 0; i < SESSIONS; i++) {
+                data.session(series, LocalDateTime.of(2024, 3, 4, 10, 0).plusWeeks(i));
+            }
+            List<Long> studentIds = new ArrayList<>(students);
+            for (int i = 0; i < students; i++) {
+                StudentEntity student = data.student("Eleve" + i, "Concurrence", group);
+                studentIds.add(student.getId());
+            }
+            return new Fixture(studentIds, group.getId(), series.getId());
+        });
+    }
+}
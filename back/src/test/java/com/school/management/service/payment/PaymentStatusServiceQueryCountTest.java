@@ -0,0 +1,113 @@
+package com.school.management.service.payment;
+
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.service.StudentPaymentStatus;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.StatementCounter;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Le statut de paiement d'un groupe est lu dans le registre des soldes en un nombre
+ * fixe de requêtes, quelle que soit la taille du groupe.
+ */
+@PostgresJpaTest
+@Import({PaymentStatusService.class, BalanceLedgerService.class})
+class PaymentStatusServiceQueryCountTest {
+
+    private static final double PRICE_PER_SESSION = 100.0;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PaymentStatusService paymentStatusService;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private TestDataFactory data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestDataFactory(entityManager);
+    }
+
+    @Test
+    void groupStatusStatementCountDoesNotDependOnGroupSize() {
+        long small = statementsForGroupOf("Petit groupe", 3);
+        long large = statementsForGroupOf("Grand groupe", 60);
+
+        assertThat(small).isEqualTo(3);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void groupStatusFlagsStudentsWhoPaidLessThanTheirAttendedSessions() {
+        GroupEntity group = data.group("Groupe statut", data.price(PRICE_PER_SESSION));
+        SessionSeriesEntity series = data.series(group, "Série 1");
+        SessionEntity first = data.session(series, LocalDateTime.of(2024, 1, 8, 10, 0));
+        SessionEntity second = data.session(series, LocalDateTime.of(2024, 1, 15, 10, 0));
+
+        StudentEntity upToDate = data.student("Alice", "Ajour", group);
+        StudentEntity late = data.student("Bruno", "Retard", group);
+        StudentEntity absent = data.student("Chloe", "Absente", group);
+        for (StudentEntity student : List.of(upToDate, late)) {
+            data.attendance(student, first, true);
+            data.attendance(student, second, true);
+        }
+        data.attendance(absent, first, false);
+        data.paymentDetail(data.payment(upToDate, series, 200.0), first, 200.0);
+        data.paymentDetail(data.payment(late, series, 100.0), first, 100.0);
+        data.flushAndClear();
+        balanceLedgerService.rebuild(100);
+
+        Map<Long, Boolean> overdueByStudent = paymentStatusService.getPaymentStatusForGroup(group.getId()).stream()
+                .collect(Collectors.toMap(StudentPaymentStatus::getId, StudentPaymentStatus::isPaymentOverdue));
+
+        assertThat(overdueByStudent)
+                .containsEntry(upToDate.getId(), false)
+                .containsEntry(late.getId(), true)
+                .containsEntry(absent.getId(), false);
+    }
+
+    private long statementsForGroupOf(String name, int size) {
+        GroupEntity group = data.group(name, data.price(PRICE_PER_SESSION));
+        SessionSeriesEntity series = data.series(group, name + " série");
+        SessionEntity session = data.session(series, LocalDateTime.of(2024, 2, 5, 10, 0));
+        for (int i = 0; i < size; i++) {
+            StudentEntity student = data.student("Eleve" + i, name.replace(' ', '-'), group);
+            data.attendance(student, session, true);
+            if (i % 2 == 0) {
+                data.paymentDetail(data.payment(student, series, PRICE_PER_SESSION), session, PRICE_PER_SESSION);
+            }
+        }
+        data.flushAndClear();
+        balanceLedgerService.rebuild(100);
+
+        statementCounter.reset();
+        List<StudentPaymentStatus> statuses = paymentStatusService.getPaymentStatusForGroup(group.getId());
+        long statements = statementCounter.statements();
+
+        assertThat(statuses).hasSize(size);
+        assertThat(statuses).filteredOn(StudentPaymentStatus::isPaymentOverdue).hasSize(size / 2);
+        return statements;
+    }
+}
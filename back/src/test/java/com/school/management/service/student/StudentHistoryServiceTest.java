@@ -0,0 +1,379 @@
+package com.school.management.service.student;
+
+import com.school.management.domain.valueobject.Money;
+import com.school.management.dto.group.GroupHistoryDTO;
+import com.school.management.dto.serie.SeriesHistoryDTO;
+import com.school.management.dto.session.SessionHistoryDTO;
+import com.school.management.dto.student.StudentFullHistoryDTO;
+import com.school.management.persistance.AttendanceEntity;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentDetailEntity;
+import com.school.management.persistance.PaymentEntity;
+import com.school.management.persistance.PricingEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.persistance.StudentGroupEntity;
+import com.school.management.repository.AttendanceRepository;
+import com.school.management.repository.StudentGroupRepository;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.StatementCounter;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * L'historique complet d'un étudiant est construit en cinq requêtes, avec le même
+ * résultat que l'ancien parcours des entités (reproduit ici par {@link LegacyHistory}).
+ */
+@PostgresJpaTest
+@Import(StudentHistoryService.class)
+class StudentHistoryServiceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentHistoryServiceTest.class);
+
+    private static final double PRICE_PER_SESSION = 40.0;
+    private static final int SERIES = 30;
+    private static final int SESSIONS_PER_SERIES = 10;
+    private static final double TARGET_MILLIS = 30.0;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 21;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StudentHistoryService studentHistoryService;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private StudentGroupRepository studentGroupRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private TestDataFactory data;
+    private LegacyHistory legacyHistory;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestDataFactory(entityManager);
+        legacyHistory = new LegacyHistory(entityManager, attendanceRepository, studentGroupRepository);
+    }
+
+    @Test
+    void historyIsBuiltInFiveStatementsWithTheLegacyOutput() {
+        PricingEntity price = data.price(PRICE_PER_SESSION);
+        GroupEntity official = data.group("Maths 3e", price);
+        GroupEntity catchUp = data.group("Maths 3e B", price);
+        GroupEntity other = data.group("Physique 3e", price);
+        StudentEntity student = data.student("Yanis", "Haddad", official, other);
+
+        // Groupe officiel : deux séries, une session avant l'inscription, une session dévalidée
+        SessionSeriesEntity first = data.series(official, "Série 1");
+        List<SessionEntity> firstSessions = sessions(first, LocalDateTime.of(2024, 1, 8, 18, 0), 4);
+        SessionSeriesEntity second = data.series(official, "Série 2");
+        List<SessionEntity> secondSessions = sessions(second, LocalDateTime.of(2024, 2, 5, 18, 0), 4);
+        data.attendance(student, firstSessions.get(0), true);
+        data.attendance(student, firstSessions.get(1), false).setIsJustified(true);
+        data.attendance(student, firstSessions.get(2), true).setActive(false);
+        data.attendance(student, secondSessions.get(0), true);
+        firstSessions.get(3).setActive(false);
+        data.attendance(student, firstSessions.get(3), true);
+        PaymentEntity firstPayment = data.payment(student, first, 100.0);
+        data.paymentDetail(firstPayment, firstSessions.get(1), PRICE_PER_SESSION);
+        data.paymentDetail(firstPayment, firstSessions.get(2), 20.0);
+        PaymentEntity secondPayment = data.payment(student, second, PRICE_PER_SESSION);
+        data.paymentDetail(secondPayment, secondSessions.get(1), PRICE_PER_SESSION);
+
+        // Groupe de rattrapage : l'étudiant n'y est pas inscrit
+        SessionSeriesEntity catchUpSeries = data.series(catchUp, "Série rattrapage");
+        List<SessionEntity> catchUpSessions = sessions(catchUpSeries, LocalDateTime.of(2024, 1, 10, 14, 0), 2);
+        data.attendance(student, catchUpSessions.get(1), true).setIsCatchUp(true);
+
+        // Groupe officiel sans présence ni paiement : aucune série affichée
+        sessions(data.series(other, "Série vide"), LocalDateTime.of(2024, 1, 9, 10, 0), 2);
+        data.flushAndClear();
+        // Inscription au groupe officiel après la première session
+        jdbcTemplate.update("UPDATE student_groups SET date_assigned = ? WHERE student_id = ?",
+                Timestamp.valueOf(LocalDateTime.of(2024, 1, 10, 0, 0)), student.getId());
+
+        statementCounter.reset();
+        StudentFullHistoryDTO history = studentHistoryService.getStudentFullHistory(student.getId());
+        assertThat(statementCounter.statements()).isEqualTo(5);
+
+        entityManager.clear();
+        assertSameHistory(history, legacyHistory.build(student.getId()));
+        assertThat(history.getGroups()).extracting(GroupHistoryDTO::getGroupId)
+                .containsExactlyInAnyOrder(official.getId(), catchUp.getId(), other.getId());
+    }
+
+    @Test
+    void historyOfAStudentWithThreeHundredSessionsStaysAtFiveStatements() {
+        Long studentId = studentWithThreeHundredSessions();
+
+        statementCounter.reset();
+        StudentFullHistoryDTO history = studentHistoryService.getStudentFullHistory(studentId);
+        assertThat(statementCounter.statements()).isEqualTo(5);
+
+        entityManager.clear();
+        assertSameHistory(history, legacyHistory.build(studentId));
+        assertThat(history.getGroups()).singleElement()
+                .satisfies(g -> assertThat(g.getSeries()).hasSize(SERIES)
+                        .allSatisfy(series -> assertThat(series.getSessions()).hasSize(SESSIONS_PER_SERIES)));
+    }
+
+    /**
+     * Objectif de latence : moins de 30 ms (médiane) pour 300 sessions. Dépend de la machine,
+     * donc exécuté seulement avec le profil "benchmark" ; l'ancien parcours est mesuré pour
+     * information.
+     */
+    @Test
+    @Tag("benchmark")
+    void historyOfThreeHundredSessionsIsBuiltInUnderThirtyMilliseconds() {
+        Long studentId = studentWithThreeHundredSessions();
+
+        double current = medianMillis(() -> studentHistoryService.getStudentFullHistory(studentId));
+        double legacy = medianMillis(() -> legacyHistory.build(studentId));
+
+        LOGGER.info("Historique de 300 sessions - projections : {} ms ; entités : {} ms",
+                String.format("%.2f", current), String.format("%.2f", legacy));
+        assertThat(current).isLessThan(TARGET_MILLIS);
+    }
+
+    private Long studentWithThreeHundredSessions() {
+        GroupEntity group = data.group("Anglais intensif", data.price(PRICE_PER_SESSION));
+        StudentEntity student = data.student("Ines", "Benali", group);
+        for (int s = 0; s < SERIES; s++) {
+            SessionSeriesEntity series = data.series(group, "Série " + (s + 1));
+            PaymentEntity payment = data.payment(student, series, PRICE_PER_SESSION * SESSIONS_PER_SERIES);
+            List<SessionEntity> sessions = sessions(series, LocalDateTime.of(2023, 1, 2, 9, 0).plusWeeks(s),
+                    SESSIONS_PER_SERIES);
+            for (SessionEntity session : sessions) {
+                data.attendance(student, session, true);
+                data.paymentDetail(payment, session, PRICE_PER_SESSION);
+            }
+        }
+        data.flushAndClear();
+        jdbcTemplate.update("UPDATE student_groups SET date_assigned = ? WHERE student_id = ?",
+                Timestamp.valueOf(LocalDateTime.of(2022, 9, 1, 0, 0)), student.getId());
+        return student.getId();
+    }
+
+    private List<SessionEntity> sessions(SessionSeriesEntity series, LocalDateTime firstStart, int count) {
+        List<SessionEntity> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sessions.add(data.session(series, firstStart.plusDays(7L * i)));
+        }
+        return sessions;
+    }
+
+    /**
+     * Latence médiane, contexte de persistance vidé avant chaque appel.
+     */
+    private double medianMillis(Supplier<StudentFullHistoryDTO> history) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            entityManager.clear();
+            history.get();
+        }
+        long[] durations = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            history.get();
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        return durations[MEASURED_RUNS / 2] / 1_000_000.0;
+    }
+
+    /**
+     * Compare deux historiques sans tenir compte de l'ordre des groupes et des séries, que
+     * l'ancien parcours tirait de HashSet : les deux sont triés par identifiant avant une
+     * comparaison ordonnée (ignoringCollectionOrder est quadratique sur 300 sessions). Les
+     * dates sont comparées à la milliseconde.
+     */
+    private static void assertSameHistory(StudentFullHistoryDTO actual, StudentFullHistoryDTO expected) {
+        assertThat(sortedById(actual))
+                .usingRecursiveComparison()
+                .withComparatorForType(Comparator.comparingLong(Date::getTime), Date.class)
+                .isEqualTo(sortedById(expected));
+    }
+
+    private static StudentFullHistoryDTO sortedById(StudentFullHistoryDTO history) {
+        List<GroupHistoryDTO> groups = new ArrayList<>(history.getGroups());
+        groups.sort(Comparator.comparing(GroupHistoryDTO::getGroupId));
+        for (GroupHistoryDTO group : groups) {
+            List<SeriesHistoryDTO> series = new ArrayList<>(group.getSeries());
+            series.sort(Comparator.comparing(SeriesHistoryDTO::getSeriesId));
+            group.setSeries(series);
+        }
+        history.setGroups(groups);
+        return history;
+    }
+
+    /**
+     * Ancienne implémentation de StudentHistoryService, qui parcourait les entités
+     * groupe → série → session et leurs présences et paiements chargés à la demande.
+     */
+    static final class LegacyHistory {
+
+        private final EntityManager entityManager;
+        private final AttendanceRepository attendanceRepository;
+        private final StudentGroupRepository studentGroupRepository;
+
+        LegacyHistory(EntityManager entityManager, AttendanceRepository attendanceRepository,
+                      StudentGroupRepository studentGroupRepository) {
+            this.entityManager = entityManager;
+            this.attendanceRepository = attendanceRepository;
+            this.studentGroupRepository = studentGroupRepository;
+        }
+
+        StudentFullHistoryDTO build(Long studentId) {
+            StudentEntity student = entityManager.find(StudentEntity.class, studentId);
+            StudentFullHistoryDTO dto = new StudentFullHistoryDTO();
+            dto.setStudentId(student.getId());
+            dto.setStudentName(student.getFirstName() + " " + student.getLastName());
+
+            List<GroupEntity> catchUpGroups = attendanceRepository
+                    .findByStudentIdAndIsCatchUp(student.getId(), true)
+                    .stream()
+                    .map(AttendanceEntity::getGroup)
+                    .distinct()
+                    .toList();
+            Set<GroupEntity> groups = new HashSet<>(student.getGroups());
+            groups.addAll(catchUpGroups);
+
+            dto.setGroups(groups.stream().map(group -> group(group, student)).toList());
+            return dto;
+        }
+
+        private GroupHistoryDTO group(GroupEntity group, StudentEntity student) {
+            GroupHistoryDTO dto = new GroupHistoryDTO();
+            dto.setGroupId(group.getId());
+            dto.setGroupName(group.getName());
+            boolean isOfficial = student.getGroups().contains(group);
+            dto.setSeries(group.getSeries().stream()
+                    .map(series -> series(series, student, group, isOfficial))
+                    .filter(Objects::nonNull)
+                    .toList());
+            return dto;
+        }
+
+        private SeriesHistoryDTO series(SessionSeriesEntity series, StudentEntity student, GroupEntity group,
+                                        boolean isOfficial) {
+            Date enrollmentDate = isOfficial
+                    ? studentGroupRepository.findByGroupIdAndStudentIdAndActiveTrue(group.getId(), student.getId())
+                        .map(StudentGroupEntity::getDateAssigned)
+                        .orElse(null)
+                    : null;
+            List<SessionEntity> eligible = series.getSessions().stream()
+                    .sorted(Comparator.comparing(SessionEntity::getSessionTimeStart))
+                    .filter(session -> enrollmentDate == null || (session.getSessionTimeStart() != null
+                            && !session.getSessionTimeStart().before(enrollmentDate)))
+                    .toList();
+
+            List<SessionEntity> sessions = eligible.stream()
+                    .filter(session -> hasAttendance(session, student)
+                            || (isOfficial && session.getPaymentDetails().stream()
+                                .anyMatch(pd -> pd.getPayment().getStudent().getId().equals(student.getId()))))
+                    .toList();
+            if (sessions.isEmpty()) {
+                return null;
+            }
+
+            long totalCostCents = Money.toCents(group.getPrice().getPrice()) * eligible.size();
+            long totalPaidCents = 0L;
+            for (SessionEntity session : series.getSessions()) {
+                for (PaymentDetailEntity pd : session.getPaymentDetails()) {
+                    if (pd.getPayment().getStudent().getId().equals(student.getId())) {
+                        totalPaidCents += Money.toCents(pd.getAmountPaid());
+                    }
+                }
+            }
+
+            SeriesHistoryDTO dto = new SeriesHistoryDTO();
+            dto.setSeriesId(series.getId());
+            dto.setSeriesName(series.getName());
+            dto.setPaymentStatus(totalPaidCents >= totalCostCents ? "Complet" : "Partiel");
+            dto.setTotalAmountPaid(Money.fromCents(totalPaidCents));
+            dto.setTotalCost(Money.fromCents(totalCostCents));
+            dto.setSessions(sessions.stream().map(session -> session(session, student)).toList());
+            return dto;
+        }
+
+        private static boolean hasAttendance(SessionEntity session, StudentEntity student) {
+            return session.getAttendances().stream()
+                    .anyMatch(a -> a.getStudent().getId().equals(student.getId()) && a.isActive());
+        }
+
+        private static SessionHistoryDTO session(SessionEntity session, StudentEntity student) {
+            SessionHistoryDTO dto = new SessionHistoryDTO();
+            dto.setSessionId(session.getId());
+            dto.setSessionName(session.getTitle());
+            if (Boolean.FALSE.equals(session.getActive())) {
+                dto.setAttendanceStatus("Non renseigné");
+                dto.setIsJustified(false);
+                dto.setPaymentStatus("Non payé");
+                dto.setAmountPaid(0.0);
+                return dto;
+            }
+            dto.setSessionDate(session.getSessionTimeStart());
+
+            AttendanceEntity attendance = session.getAttendances().stream()
+                    .filter(a -> a.getStudent().getId().equals(student.getId()))
+                    .filter(AttendanceEntity::isActive)
+                    .findFirst()
+                    .orElse(null);
+            if (attendance != null) {
+                dto.setAttendanceStatus(Boolean.TRUE.equals(attendance.getIsPresent()) ? "Présent" : "Absent");
+                dto.setIsJustified(attendance.getIsJustified());
+                dto.setCatchUpSession(Boolean.TRUE.equals(attendance.getIsCatchUp()));
+            } else {
+                dto.setAttendanceStatus("Non renseigné");
+                dto.setCatchUpSession(false);
+            }
+
+            PaymentDetailEntity detail = session.getPaymentDetails().stream()
+                    .filter(pd -> pd.getPayment().getStudent().getId().equals(student.getId()))
+                    .findFirst()
+                    .orElse(null);
+            if (detail != null) {
+                dto.setPaymentStatus(detail.getPayment().getStatus());
+                dto.setAmountPaid(detail.getAmountPaid());
+                dto.setPaymentDate(detail.getPaymentDate());
+            } else {
+                dto.setPaymentStatus("Non payé");
+                dto.setAmountPaid(0.0);
+                dto.setPaymentDate(null);
+            }
+            return dto;
+        }
+    }
+}
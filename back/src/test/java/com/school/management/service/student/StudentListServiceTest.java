@@ -0,0 +1,111 @@
+package com.school.management.service.student;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.school.management.api.response.common.PageResponse;
+import com.school.management.dto.StudentDTO;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.support.PostgresJpaTest;
+import com.school.management.support.StatementCounter;
+import com.school.management.support.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Liste des étudiants : une seule requête pour les lignes quel que soit le nombre
+ * d'étudiants et de groupes, et taille de la réponse réduite par {@code fields}.
+ */
+@PostgresJpaTest
+@Import(StudentListService.class)
+class StudentListServiceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentListServiceTest.class);
+
+    private static final int STUDENTS = 300;
+    private static final String LIST_FIELDS = "id,firstName,lastName,photo";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StudentListService studentListService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @BeforeEach
+    void createStudents() {
+        TestDataFactory data = new TestDataFactory(entityManager);
+        GroupEntity maths = data.group("Maths", data.price(50.0));
+        GroupEntity physique = data.group("Physique", data.price(60.0));
+        for (int i = 0; i < STUDENTS; i++) {
+            StudentEntity student = data.student("Eleve" + i, "Liste" + String.format("%03d", i), maths, physique);
+            student.setGender(i % 2 == 0 ? "F" : "M");
+            student.setPhoneNumber("06000000" + String.format("%02d", i % 100));
+            student.setPlaceOfBirth("Casablanca");
+            student.setPhoto("student_" + i + ".jpg");
+            student.setEstablishment("Lycée Ibn Khaldoun");
+            student.setAverageScore(12.5);
+        }
+        data.flushAndClear();
+        statementCounter.reset();
+    }
+
+    @Test
+    void fullListIsReadInOneQuery() {
+        List<StudentDTO> students = studentListService.getAllActive();
+
+        assertThat(students).hasSize(STUDENTS);
+        assertThat(students).allMatch(student -> student.getGroupIds().size() == 2);
+        assertThat(statementCounter.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void pageIsReadInOneQueryPlusTheCount() {
+        PageResponse<?> page = studentListService.getPage(0, StudentListService.MAX_PAGE_SIZE, null, null, null, null);
+
+        assertThat(page.getContent()).hasSize(StudentListService.MAX_PAGE_SIZE);
+        assertThat(statementCounter.statements()).isEqualTo(2);
+    }
+
+    /**
+     * L'écran de liste demande une page avec les seuls champs affichés : la réponse doit être
+     * au moins dix fois plus petite que l'ancien tableau complet (environ 1,7 Ko contre 98 Ko
+     * pour 300 étudiants). À taille de page égale, la sélection des champs divise à elle seule
+     * la taille par environ quatre (8 Ko contre 32 Ko pour 100 étudiants).
+     */
+    @Test
+    void listScreenPayloadDropsByAnOrderOfMagnitude() throws Exception {
+        byte[] full = objectMapper.writeValueAsBytes(studentListService.getAllActive());
+        PageResponse<?> page = studentListService.getPage(0, StudentListService.DEFAULT_PAGE_SIZE, LIST_FIELDS,
+                null, null, null);
+        byte[] listScreen = objectMapper.writeValueAsBytes(page);
+        byte[] fullPage = objectMapper.writeValueAsBytes(studentListService.getPage(0, StudentListService.MAX_PAGE_SIZE,
+                null, null, null, null));
+        byte[] sparsePage = objectMapper.writeValueAsBytes(studentListService.getPage(0, StudentListService.MAX_PAGE_SIZE,
+                LIST_FIELDS, null, null, null));
+
+        LOGGER.info("{} étudiants - tableau complet : {} octets ; page de {} avec fields={} : {} octets ; "
+                        + "page de {} : {} octets complète, {} octets avec fields",
+                STUDENTS, full.length, StudentListService.DEFAULT_PAGE_SIZE, LIST_FIELDS, listScreen.length,
+                StudentListService.MAX_PAGE_SIZE, fullPage.length, sparsePage.length);
+
+        @SuppressWarnings("unchecked")
+        Map<String, ?> first = (Map<String, ?>) page.getContent().get(0);
+        assertThat(first.keySet()).containsExactlyInAnyOrder("id", "firstName", "lastName", "photo");
+        assertThat(listScreen.length).isLessThan(full.length / 10);
+        assertThat(sparsePage.length).isLessThan(fullPage.length / 3);
+    }
+}
@@ -0,0 +1,92 @@
+package com.school.management.service.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Forme repliée et clé de translittération des noms, en écriture latine et arabe.
+ */
+class NameNormalizerTest {
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource({
+            "Élodie, elodie",
+            "HÉLÈNE, helene",
+            "Chérif, cherif",
+            "Œdipe, oedipe",
+            "Lætitia, laetitia",
+            "Çelik, celik",
+            "Søren, soren"
+    })
+    void foldRemovesCaseAccentsAndLigatures(String name, String folded) {
+        assertThat(NameNormalizer.fold(name)).isEqualTo(folded);
+    }
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource({
+            // Variantes d'alif
+            "أحمد, احمد",
+            "إيمان, ايمان",
+            "آمنة, امنه",
+            // Ta marbuta
+            "فاطمة, فاطمه",
+            // Alif maqsura
+            "مصطفى, مصطفي",
+            // Voyelles courtes, chadda et tatweel
+            "مُحَمَّد, محمد",
+            "محـمد, محمد"
+    })
+    void foldUnifiesArabicVariants(String name, String folded) {
+        assertThat(NameNormalizer.fold(name)).isEqualTo(folded);
+    }
+
+    @ParameterizedTest(name = "{0} ~ {1}")
+    @CsvSource({
+            "Mohammed, Mohamed",
+            "Yassine, Yacine",
+            "Chérif, Sherif",
+            "Djamel, Jamel",
+            "Youssef, Yousef",
+            "Raphaël, Rafael",
+            "Bouchra, Bushra"
+    })
+    void transliterationPairsShareTheirKey(String spelling, String otherSpelling) {
+        assertThat(key(spelling)).isEqualTo(key(otherSpelling));
+    }
+
+    @Test
+    void distinctNamesKeepDistinctKeys() {
+        assertThat(key("Karim")).isNotEqualTo(key("Karima"));
+        assertThat(key("Samir")).isNotEqualTo(key("Samira"));
+        assertThat(key("Ali")).isNotEqualTo(key("Alia"));
+    }
+
+    @Test
+    void keyOfATypedPrefixIsAPrefixOfTheFullKey() {
+        for (String name : new String[]{"Mohammed", "Yassine", "Chérif", "Djamel"}) {
+            String full = key(name);
+            // La dernière lettre d'un préfixe peut encore changer de transcription (c → s, s → ch)
+            for (int length = 1; length < name.length(); length++) {
+                String prefixKey = key(name.substring(0, length));
+                String stable = prefixKey.substring(0, prefixKey.length() - 1);
+                assertThat(full).as("%s / %s", name, name.substring(0, length)).startsWith(stable);
+            }
+        }
+    }
+
+    @Test
+    void foldedTokensSplitOnSpacesHyphensAndApostrophes() {
+        assertThat(NameNormalizer.foldedTokens("  Jean-Édouard  D'Arcy-Benali "))
+                .containsExactly("jean", "edouard", "d", "arcy", "benali");
+        assertThat(NameNormalizer.foldedTokens("Aït’Ouméziane")).containsExactly("ait", "oumeziane");
+        assertThat(NameNormalizer.foldedTokens(null)).isEmpty();
+        assertThat(NameNormalizer.foldedTokens(" - ")).isEmpty();
+    }
+
+    private static String key(String name) {
+        return NameNormalizer.transliterate(NameNormalizer.fold(name));
+    }
+}
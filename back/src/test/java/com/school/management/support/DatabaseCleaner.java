@@ -0,0 +1,22 @@
+package com.school.management.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Vide toutes les tables du schéma, pour les tests qui valident réellement leurs
+ * transactions (tests de concurrence) et ne peuvent pas compter sur un rollback.
+ */
+public final class DatabaseCleaner {
+
+    private DatabaseCleaner() {
+    }
+
+    public static void truncateAll(JdbcTemplate jdbcTemplate) {
+        String tables = jdbcTemplate.queryForObject(
+                "SELECT string_agg(quote_ident(tablename), ', ') FROM pg_tables WHERE schemaname = current_schema()",
+                String.class);
+        if (tables != null) {
+            jdbcTemplate.execute("TRUNCATE TABLE " + tables + " RESTART IDENTITY CASCADE");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.school.management.support;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Test de repositories sur un PostgreSQL embarqué (et non H2) : les requêtes natives,
+ * les fonctions PostgreSQL et les plans d'exécution sont ceux de la production.
+ *
+ * Le type est explicite : H2 est aussi sur le classpath de test et fausserait la détection.
+ * Le schéma est créé par Hibernate ; le {@link StatementCounter} est disponible à l'injection.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+        provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(StatementCounter.class)
+public @interface PostgresJpaTest {
+}
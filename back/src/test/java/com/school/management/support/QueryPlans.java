@@ -0,0 +1,91 @@
+package com.school.management.support;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Plans d'exécution PostgreSQL des requêtes préparées, telles que les émet Hibernate.
+ *
+ * Le SQL capturé (par exemple par {@link StatementCounter#executed()}) est préparé avec
+ * ses paramètres ? numérotés, puis expliqué avec plan_cache_mode = force_generic_plan :
+ * c'est le plan générique, indépendant des valeurs, que le pool de requêtes préparées
+ * finit par réutiliser.
+ */
+public final class QueryPlans {
+
+    private static final String STATEMENT_NAME = "plan_check";
+
+    private QueryPlans() {
+    }
+
+    /**
+     * @param jdbcTemplate le JdbcTemplate de la transaction de test
+     * @param sql le SQL émis, avec ses paramètres ?
+     * @param parameters les valeurs des paramètres, dans l'ordre
+     * @return le plan générique, une ligne par nœud
+     */
+    public static String explainGeneric(JdbcTemplate jdbcTemplate, String sql, Object... parameters) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE " + STATEMENT_NAME + " AS " + numberParameters(sql));
+                try {
+                    List<String> plan = new ArrayList<>();
+                    try (ResultSet rows = statement.executeQuery(
+                            "EXPLAIN EXECUTE " + STATEMENT_NAME + literals(parameters))) {
+                        while (rows.next()) {
+                            plan.add(rows.getString(1));
+                        }
+                    }
+                    return String.join("\n", plan);
+                } finally {
+                    statement.execute("DEALLOCATE " + STATEMENT_NAME);
+                    statement.execute("RESET plan_cache_mode");
+                }
+            }
+        });
+    }
+
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length());
+        int index = 0;
+        boolean inLiteral = false;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                numbered.append('$').append(++index);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static String literals(Object[] parameters) {
+        if (parameters.length == 0) {
+            return "";
+        }
+        List<String> literals = new ArrayList<>(parameters.length);
+        for (Object parameter : parameters) {
+            if (parameter == null) {
+                literals.add("NULL");
+            } else if (parameter instanceof Number || parameter instanceof Boolean) {
+                literals.add(parameter.toString());
+            } else if (parameter instanceof Date date) {
+                literals.add("'" + new Timestamp(date.getTime()) + "'");
+            } else {
+                literals.add("'" + parameter.toString().replace("'", "''") + "'");
+            }
+        }
+        return "(" + String.join(", ", literals) + ")";
+    }
+}
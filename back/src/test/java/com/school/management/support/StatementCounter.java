@@ -0,0 +1,125 @@
+package com.school.management.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compte les requêtes SQL exécutées et les lignes lues à travers la DataSource de test.
+ *
+ * Enregistré comme BeanPostProcessor, il enveloppe la DataSource dans un proxy JDBC :
+ * chaque appel execute* d'un Statement compte pour une requête (un executeBatch compte
+ * pour une seule), et chaque ResultSet.next() positif pour une ligne lue.
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private static final Set<Class<?>> WRAPPED_TYPES =
+            Set.of(Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class);
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final Queue<String> executed = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // La DataSource de zonky est elle-même un proxy JDK : seul le nôtre est à ignorer
+        if (bean instanceof DataSource dataSource && !isCountingProxy(bean)) {
+            return wrap(DataSource.class, dataSource, null);
+        }
+        return bean;
+    }
+
+    /**
+     * Remet les compteurs à zéro.
+     */
+    public void reset() {
+        statements.set(0);
+        rows.set(0);
+        executed.clear();
+    }
+
+    /**
+     * @return le nombre de requêtes exécutées depuis le dernier reset
+     */
+    public long statements() {
+        return statements.get();
+    }
+
+    /**
+     * @return le nombre de lignes lues depuis le dernier reset
+     */
+    public long rows() {
+        return rows.get();
+    }
+
+    /**
+     * @return le SQL des requêtes exécutées depuis le dernier reset, dans l'ordre
+     */
+    public List<String> executed() {
+        return new ArrayList<>(executed);
+    }
+
+    private static boolean isCountingProxy(Object bean) {
+        return Proxy.isProxyClass(bean.getClass()) && Proxy.getInvocationHandler(bean) instanceof CountingHandler;
+    }
+
+    private Object wrap(Class<?> type, Object target, String sql) {
+        return Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                new CountingHandler(target, sql));
+    }
+
+    private final class CountingHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String sql;
+
+        private CountingHandler(Object target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+
+            String name = method.getName();
+            String sqlArgument = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+
+            if (target instanceof Statement && name.startsWith("execute")) {
+                statements.incrementAndGet();
+                executed.add(sqlArgument != null ? sqlArgument : String.valueOf(sql));
+            }
+            if (target instanceof ResultSet && name.equals("next") && Boolean.TRUE.equals(result)) {
+                rows.incrementAndGet();
+            }
+
+            if (result instanceof ResultSet && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+                return wrap(ResultSet.class, result, null);
+            }
+            if (result != null && WRAPPED_TYPES.contains(method.getReturnType())) {
+                return wrap(method.getReturnType(), result, sqlArgument);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.school.management.support;
+
+import com.school.management.persistance.AttendanceEntity;
+import com.school.management.persistance.GroupEntity;
+import com.school.management.persistance.PaymentDetailEntity;
+import com.school.management.persistance.PaymentEntity;
+import com.school.management.persistance.PricingEntity;
+import com.school.management.persistance.SessionEntity;
+import com.school.management.persistance.SessionSeriesEntity;
+import com.school.management.persistance.StudentEntity;
+import com.school.management.persistance.StudentGroupEntity;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Jeu de données de test : crée et persiste les entités d'un groupe, de ses séries,
+ * sessions, étudiants, présences et paiements.
+ */
+public class TestDataFactory {
+
+    private final EntityManager entityManager;
+
+    public TestDataFactory(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public PricingEntity price(double amount) {
+        return persist(PricingEntity.builder()
+                .price(amount)
+                .effectiveDate(LocalDateTime.now())
+                .build());
+    }
+
+    public GroupEntity group(String name, PricingEntity price) {
+        return persist(GroupEntity.builder()
+                .name(name)
+                .price(price)
+                .sessionNumberPerSerie(4)
+                .build());
+    }
+
+    public SessionSeriesEntity series(GroupEntity group, String name) {
+        return persist(SessionSeriesEntity.builder()
+                .name(name)
+                .group(group)
+                .totalSessions(4)
+                .build());
+    }
+
+    public SessionEntity session(SessionSeriesEntity series, LocalDateTime start) {
+        return persist(SessionEntity.builder()
+                .title(series.getName() + " " + start.toLocalDate())
+                .group(series.getGroup())
+                .sessionSeries(series)
+                .sessionTimeStart(toDate(start))
+                .sessionTimeEnd(toDate(start.plusHours(2)))
+                .isFinished(false)
+                .build());
+    }
+
+    public StudentEntity student(String firstName, String lastName, GroupEntity... groups) {
+        StudentEntity student = persist(StudentEntity.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(firstName.toLowerCase() + "." + lastName.toLowerCase() + "@example.com")
+                .build());
+        for (GroupEntity group : groups) {
+            enroll(student, group);
+        }
+        return student;
+    }
+
+    /**
+     * Inscrit l'étudiant au groupe comme StudentGroupService : une ligne student_groups active.
+     */
+    public StudentGroupEntity enroll(StudentEntity student, GroupEntity group) {
+        return persist(StudentGroupEntity.builder()
+                .student(student)
+                .group(group)
+                .build());
+    }
+
+    public AttendanceEntity attendance(StudentEntity student, SessionEntity session, boolean present) {
+        return persist(AttendanceEntity.builder()
+                .student(student)
+                .session(session)
+                .group(session.getGroup())
+                .sessionSeries(session.getSessionSeries())
+                .isPresent(present)
+                .isJustified(false)
+                .isCatchUp(false)
+                .build());
+    }
+
+    public PaymentEntity payment(StudentEntity student, SessionSeriesEntity series, double amount) {
+        return persist(PaymentEntity.builder()
+                .student(student)
+                .group(series.getGroup())
+                .sessionSeries(series)
+                .amountPaid(amount)
+                .status("in progress")
+                .build());
+    }
+
+    public PaymentDetailEntity paymentDetail(PaymentEntity payment, SessionEntity session, double amount) {
+        return persist(PaymentDetailEntity.builder()
+                .payment(payment)
+                .session(session)
+                .amountPaid(amount)
+                .isCatchUp(false)
+                .build());
+    }
+
+    /**
+     * Écrit les entités en base et vide le contexte de persistance, pour que les
+     * lectures suivantes passent par des requêtes.
+     */
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}